@@ -3,14 +3,42 @@ package com.k8s.challenge.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.k8s.challenge.constant.ChallengeConstant;
+import com.k8s.challenge.service.Bulkhead;
+import com.k8s.challenge.service.DeploymentCacheService;
+import com.k8s.challenge.service.DeploymentChangeFeedService;
+import com.k8s.challenge.service.DeploymentCreationQueueService;
+import com.k8s.challenge.service.DeploymentProtobufClient;
+import com.k8s.challenge.service.DeploymentRolloutService;
+import com.k8s.challenge.service.DeploymentScaleDebouncer;
+import com.k8s.challenge.service.DeploymentSnapshotService;
+import com.k8s.challenge.service.KubernetesClientService;
+import com.k8s.challenge.service.KubernetesClusterRegistry;
+import com.k8s.challenge.service.KubernetesReadPolicy;
+import com.k8s.challenge.service.KubernetesRequestGuard;
+import com.k8s.challenge.service.LeaderElectionService;
+import com.k8s.challenge.service.LeaseShardMembership;
+import com.k8s.challenge.service.NamespaceShardService;
+import com.k8s.challenge.service.ResumableDeploymentListerWatcher;
+import com.k8s.challenge.service.ShardMembership;
+import com.k8s.challenge.service.StaticShardMembership;
+import io.kubernetes.client.informer.SharedIndexInformer;
+import io.kubernetes.client.informer.SharedInformerFactory;
 import io.kubernetes.client.openapi.ApiClient;
 import io.kubernetes.client.openapi.apis.AppsV1Api;
+import io.kubernetes.client.openapi.apis.CoordinationV1Api;
+import io.kubernetes.client.openapi.models.V1Deployment;
 import io.kubernetes.client.util.ClientBuilder;
 import io.kubernetes.client.util.credentials.ClientCertificateAuthentication;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import okhttp3.OkHttpClient;
 import org.apache.commons.compress.utils.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -25,12 +53,18 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Configuration
 public class ChallengeConfig {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ChallengeConfig.class);
+    private static final Duration DEFAULT_READ_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration DEFAULT_SCALE_DEBOUNCE = Duration.ofMillis(500);
 
     @Bean
     public ConversionService conversionService(List<Converter> converters) {
@@ -56,9 +90,13 @@ public class ChallengeConfig {
         private String clientCrt;
         private String clientKey;
         private String caCrt;
+        private Duration readTimeout = DEFAULT_READ_TIMEOUT;
 
-        @Bean
-        public ApiClient apiClient() throws IOException {
+        @Bean(name = "apiClient")
+        public ApiClient apiClient(KubernetesReadPolicy.Settings kubernetesReadPolicySettings,
+                                   KubernetesRequestGuard.Settings kubernetesRequestGuardSettings,
+                                   Bulkhead.Settings bulkheadSettings,
+                                   MeterRegistry meterRegistry) throws IOException {
             ClientCertificateAuthentication clientCertificateAuthentication;
             LOGGER.info("BasePath is {}, Client Cert Path is {}, Client Key Path is {}, Ca Cert Path is {}",
                     path, clientCrt, clientKey, caCrt);
@@ -79,9 +117,8 @@ public class ChallengeConfig {
                 clientBuilder.setCertificateAuthority(readFileAsByte(new File(caCrt)));
             }
             ApiClient apiClient = clientBuilder.build();
-            apiClient.setHttpClient(
-                    apiClient.getHttpClient().newBuilder().readTimeout(Duration.ZERO).build());
-            io.kubernetes.client.openapi.Configuration.setDefaultApiClient(apiClient);
+            configureReadHttpClient(apiClient, ChallengeConstant.DEFAULT_CLUSTER, readTimeout,
+                    kubernetesReadPolicySettings, kubernetesRequestGuardSettings, bulkheadSettings, meterRegistry);
             return apiClient;
         }
 
@@ -100,6 +137,10 @@ public class ChallengeConfig {
         public void setCaCrt(String caCrt) {
             this.caCrt = caCrt;
         }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
     }
 
     @Configuration
@@ -110,9 +151,13 @@ public class ChallengeConfig {
         private String path;
         private String clientCrt;
         private String clientKey;
+        private Duration readTimeout = DEFAULT_READ_TIMEOUT;
 
-        @Bean
-        public ApiClient apiClient() throws IOException {
+        @Bean(name = "apiClient")
+        public ApiClient apiClient(KubernetesReadPolicy.Settings kubernetesReadPolicySettings,
+                                   KubernetesRequestGuard.Settings kubernetesRequestGuardSettings,
+                                   Bulkhead.Settings bulkheadSettings,
+                                   MeterRegistry meterRegistry) throws IOException {
             ClientCertificateAuthentication clientCertificateAuthentication;
             LOGGER.info("BasePath is {}, Client Cert Path is {}, Client Key Path is {}", path, clientCrt, clientKey);
             if (StringUtils.isEmpty(clientCrt) || StringUtils.isEmpty(clientKey)) {
@@ -129,9 +174,8 @@ public class ChallengeConfig {
                     .setAuthentication(clientCertificateAuthentication)
                     .setVerifyingSsl(true)
                     .build();
-            apiClient.setHttpClient(
-                    apiClient.getHttpClient().newBuilder().readTimeout(Duration.ZERO).build());
-            io.kubernetes.client.openapi.Configuration.setDefaultApiClient(apiClient);
+            configureReadHttpClient(apiClient, ChallengeConstant.DEFAULT_CLUSTER, readTimeout,
+                    kubernetesReadPolicySettings, kubernetesRequestGuardSettings, bulkheadSettings, meterRegistry);
             return apiClient;
         }
 
@@ -146,15 +190,350 @@ public class ChallengeConfig {
         public void setClientKey(String clientKey) {
             this.clientKey = clientKey;
         }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+    }
+
+    /**
+     * Clusters other than the default one, configured as {@code k8s.clusters.<name>.*}. Each of them gets its own
+     * {@link ApiClient}, so connection pools are never shared between clusters.
+     */
+    @Configuration
+    @ConfigurationProperties(prefix = "k8s")
+    public static class K8sClusterRegistryConfig {
+
+        private Duration requestTimeout = DEFAULT_REQUEST_TIMEOUT;
+        private final Map<String, ClusterProperties> clusters = new LinkedHashMap<>();
+
+        @Bean(destroyMethod = "shutdown")
+        public KubernetesClusterRegistry kubernetesClusterRegistry(KubernetesClientService kubernetesClientService,
+                                                                   Optional<DeploymentProtobufClient> deploymentProtobufClient,
+                                                                   ConversionService conversionService,
+                                                                   KubernetesReadPolicy.Settings kubernetesReadPolicySettings,
+                                                                   KubernetesRequestGuard.Settings kubernetesRequestGuardSettings,
+                                                                   Bulkhead.Settings bulkheadSettings,
+                                                                   MeterRegistry meterRegistry) throws IOException {
+            KubernetesClusterRegistry kubernetesClusterRegistry = new KubernetesClusterRegistry()
+                    .register(ChallengeConstant.DEFAULT_CLUSTER, kubernetesClientService, requestTimeout);
+            for (Map.Entry<String, ClusterProperties> cluster : clusters.entrySet()) {
+                if (ChallengeConstant.DEFAULT_CLUSTER.equals(cluster.getKey())) {
+                    throw new IllegalStateException("The default cluster is configured with the k8s.path properties");
+                }
+                ClusterProperties clusterProperties = cluster.getValue();
+                LOGGER.info("Cluster {}: BasePath is {}, Client Cert Path is {}, Client Key Path is {}, Ca Cert Path is {}",
+                        cluster.getKey(), clusterProperties.getPath(), clusterProperties.getClientCrt(),
+                        clusterProperties.getClientKey(), clusterProperties.getCaCrt());
+                ClientBuilder clientBuilder = ClientBuilder
+                        .standard()
+                        .setBasePath(clusterProperties.getPath())
+                        .setAuthentication(new ClientCertificateAuthentication(
+                                readFileAsByte(new File(clusterProperties.getClientCrt())),
+                                readFileAsByte(new File(clusterProperties.getClientKey()))))
+                        .setVerifyingSsl(true);
+                if (!StringUtils.isEmpty(clusterProperties.getCaCrt())) {
+                    clientBuilder.setCertificateAuthority(readFileAsByte(new File(clusterProperties.getCaCrt())));
+                }
+                ApiClient apiClient = clientBuilder.build();
+                configureReadHttpClient(apiClient, cluster.getKey(), clusterProperties.getReadTimeout(),
+                        kubernetesReadPolicySettings, kubernetesRequestGuardSettings, bulkheadSettings, meterRegistry);
+                AppsV1Api deploymentApi = new AppsV1Api(apiClient);
+                AppsV1Api mutationDeploymentApi = new AppsV1Api(createMutationApiClient(apiClient,
+                        new Bulkhead("kubernetes-mutation-" + cluster.getKey(),
+                                bulkheadSettings.getKubernetesMutation(), meterRegistry)));
+                AppsV1Api watchDeploymentApi = new AppsV1Api(createWatchApiClient(apiClient));
+                kubernetesClusterRegistry.register(cluster.getKey(), new KubernetesClientService(deploymentApi,
+                                mutationDeploymentApi, watchDeploymentApi, deploymentProtobufClient.map(ignored ->
+                                new DeploymentProtobufClient(deploymentApi, conversionService))),
+                        clusterProperties.getRequestTimeout());
+            }
+            return kubernetesClusterRegistry;
+        }
+
+        public Map<String, ClusterProperties> getClusters() {
+            return clusters;
+        }
+
+        public void setRequestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+        }
+    }
+
+    @Configuration
+    @ConfigurationProperties(prefix = "k8s")
+    public static class K8sDeploymentScaleConfig {
+
+        private Duration scaleDebounce = DEFAULT_SCALE_DEBOUNCE;
+
+        @Bean(destroyMethod = "shutdown")
+        public DeploymentScaleDebouncer deploymentScaleDebouncer() {
+            return new DeploymentScaleDebouncer(scaleDebounce);
+        }
+
+        public void setScaleDebounce(Duration scaleDebounce) {
+            this.scaleDebounce = scaleDebounce;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class ClusterProperties {
+
+        private String path;
+        private String clientCrt;
+        private String clientKey;
+        private String caCrt;
+        private Duration readTimeout = DEFAULT_READ_TIMEOUT;
+        private Duration requestTimeout = DEFAULT_REQUEST_TIMEOUT;
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "k8s.guard")
+    public KubernetesRequestGuard.Settings kubernetesRequestGuardSettings() {
+        return new KubernetesRequestGuard.Settings();
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "k8s.read")
+    public KubernetesReadPolicy.Settings kubernetesReadPolicySettings() {
+        return new KubernetesReadPolicy.Settings();
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "bulkhead")
+    public Bulkhead.Settings bulkheadSettings() {
+        return new Bulkhead.Settings();
+    }
+
+    /**
+     * Runs database work of requests, so a slow database holds these threads rather than those of the web server.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public Bulkhead databaseBulkhead(Bulkhead.Settings bulkheadSettings, MeterRegistry meterRegistry) {
+        return new Bulkhead("database", bulkheadSettings.getDatabase(), meterRegistry);
+    }
+
+    /**
+     * Runs password hashing, which is slow by design, so sign ups and token requests can only use this many CPUs.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public Bulkhead authBulkhead(Bulkhead.Settings bulkheadSettings, MeterRegistry meterRegistry) {
+        return new Bulkhead("auth", bulkheadSettings.getAuth(), meterRegistry);
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "k8s.snapshot")
+    public DeploymentSnapshotService.Settings deploymentSnapshotSettings() {
+        return new DeploymentSnapshotService.Settings();
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "k8s.leader-election")
+    public LeaderElectionService.Settings leaderElectionSettings() {
+        return new LeaderElectionService.Settings();
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "k8s.sharding")
+    public NamespaceShardService.Settings namespaceShardSettings() {
+        return new NamespaceShardService.Settings();
+    }
+
+    /**
+     * Shard members are the configured ones if there are any, otherwise the holders of the member leases.
+     */
+    @Bean
+    public ShardMembership shardMembership(CoordinationV1Api coordinationApi,
+                                           NamespaceShardService.Settings namespaceShardSettings) {
+        if (!namespaceShardSettings.getMembers().isEmpty()) {
+            return new StaticShardMembership(namespaceShardSettings.getMembers());
+        }
+        return new LeaseShardMembership(coordinationApi, namespaceShardSettings);
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "k8s.rollout")
+    public DeploymentRolloutService.Settings deploymentRolloutSettings() {
+        return new DeploymentRolloutService.Settings();
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "k8s.change-feed")
+    public DeploymentChangeFeedService.Settings deploymentChangeFeedSettings() {
+        return new DeploymentChangeFeedService.Settings();
+    }
+
+    /**
+     * Hands changes to the subscribers of the change feed, so a slow client holds one of these threads rather than
+     * the informer.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public Bulkhead changeFeedBulkhead(DeploymentChangeFeedService.Settings deploymentChangeFeedSettings,
+                                       MeterRegistry meterRegistry) {
+        return new Bulkhead("change-feed", new Bulkhead.Limits(deploymentChangeFeedSettings.getDispatchThreads(),
+                deploymentChangeFeedSettings.getDispatchQueueCapacity()), meterRegistry);
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "k8s.create-queue")
+    public DeploymentCreationQueueService.Settings deploymentCreationQueueSettings() {
+        return new DeploymentCreationQueueService.Settings();
+    }
+
+    /**
+     * Runs the workers of the creation queue. The queue never claims more operations than it has workers, so none of
+     * them is rejected.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public Bulkhead createQueueBulkhead(DeploymentCreationQueueService.Settings deploymentCreationQueueSettings,
+                                        MeterRegistry meterRegistry) {
+        return new Bulkhead("create-queue", new Bulkhead.Limits(deploymentCreationQueueSettings.getWorkers(),
+                deploymentCreationQueueSettings.getWorkers()), meterRegistry);
+    }
+
+    /**
+     * Client for watches and informers. Watches are long running requests, so they must not be cut by the read
+     * timeout of {@link #appsV1Api(ApiClient)}.
+     */
+    @Bean(name = "watchApiClient")
+    public ApiClient watchApiClient(@Qualifier("apiClient") ApiClient apiClient) {
+        return createWatchApiClient(apiClient);
+    }
+
+    @Bean(name = "watchDeploymentApi")
+    public AppsV1Api watchAppsV1Api(@Qualifier("watchApiClient") ApiClient watchApiClient) {
+        AppsV1Api appsV1Api = new AppsV1Api();
+        appsV1Api.setApiClient(watchApiClient);
+        return appsV1Api;
     }
 
     @Bean(name = "deploymentApi")
-    public AppsV1Api appsV1Api(ApiClient apiClient) {
+    public AppsV1Api appsV1Api(@Qualifier("apiClient") ApiClient apiClient) {
         AppsV1Api appsV1Api = new AppsV1Api();
         appsV1Api.setApiClient(apiClient);
         return appsV1Api;
     }
 
+    @Bean(name = "mutationDeploymentApi")
+    public AppsV1Api mutationAppsV1Api(@Qualifier("apiClient") ApiClient apiClient, Bulkhead.Settings bulkheadSettings,
+                                       MeterRegistry meterRegistry) {
+        AppsV1Api appsV1Api = new AppsV1Api();
+        appsV1Api.setApiClient(createMutationApiClient(apiClient, new Bulkhead(
+                "kubernetes-mutation-" + ChallengeConstant.DEFAULT_CLUSTER, bulkheadSettings.getKubernetesMutation(),
+                meterRegistry)));
+        return appsV1Api;
+    }
+
+    /**
+     * Leases of the leader election and of the shard members are read and written through a client of their own, see
+     * {@link #createCoordinationApiClient(ApiClient, Duration)}.
+     */
+    @Bean
+    public CoordinationV1Api coordinationApi(@Qualifier("apiClient") ApiClient apiClient,
+                                             LeaderElectionService.Settings leaderElectionSettings) {
+        return new CoordinationV1Api(createCoordinationApiClient(apiClient,
+                leaderElectionSettings.getRequestTimeout()));
+    }
+
+    @Bean(destroyMethod = "stopAllRegisteredInformers")
+    public SharedInformerFactory sharedInformerFactory(@Qualifier("watchApiClient") ApiClient watchApiClient) {
+        return new SharedInformerFactory(watchApiClient);
+    }
+
+    /**
+     * Only deployments created through this application carry the userName label. The informer starts from the
+     * snapshot an earlier run wrote of the same cluster where there is one. Relistings go through the guarded read
+     * client, only the watch through the watch client.
+     */
+    @Bean
+    public ResumableDeploymentListerWatcher deploymentListerWatcher(
+            @Qualifier("deploymentApi") AppsV1Api deploymentApi,
+            @Qualifier("watchDeploymentApi") AppsV1Api watchDeploymentApi,
+            DeploymentSnapshotService.Settings deploymentSnapshotSettings) {
+        return new ResumableDeploymentListerWatcher(deploymentApi, watchDeploymentApi,
+                DeploymentSnapshotService.readSnapshot(deploymentSnapshotSettings,
+                        deploymentApi.getApiClient().getBasePath()));
+    }
+
+    @Bean
+    public SharedIndexInformer<V1Deployment> deploymentInformer(SharedInformerFactory sharedInformerFactory,
+                                                                ResumableDeploymentListerWatcher deploymentListerWatcher) {
+        SharedIndexInformer<V1Deployment> deploymentInformer = sharedInformerFactory.sharedIndexInformerFor(
+                deploymentListerWatcher, V1Deployment.class, 0L);
+        deploymentInformer.addIndexers(DeploymentCacheService.indexers());
+        deploymentListerWatcher.setIndexer(deploymentInformer.getIndexer());
+        return deploymentInformer;
+    }
+
+    /**
+     * Sets up the HTTP client of the read client of a cluster: reads are cut after the read timeout, dispatched on a
+     * read bulkhead of the cluster, and sent through its read policy and request guard.
+     */
+    private static void configureReadHttpClient(ApiClient apiClient, String cluster, Duration readTimeout,
+                                                KubernetesReadPolicy.Settings kubernetesReadPolicySettings,
+                                                KubernetesRequestGuard.Settings kubernetesRequestGuardSettings,
+                                                Bulkhead.Settings bulkheadSettings, MeterRegistry meterRegistry) {
+        apiClient.setHttpClient(apiClient.getHttpClient().newBuilder()
+                .readTimeout(readTimeout)
+                .dispatcher(new Bulkhead("kubernetes-read-" + cluster, bulkheadSettings.getKubernetesRead(),
+                        meterRegistry).dispatcher())
+                .addInterceptor(new KubernetesReadPolicy(cluster, kubernetesReadPolicySettings, meterRegistry))
+                .addInterceptor(new KubernetesRequestGuard(cluster, kubernetesRequestGuardSettings, meterRegistry))
+                .build());
+    }
+
+    /**
+     * The watch client shares the connection pool of the given client. The read timeout is lifted and the read policy
+     * and request guard are left out, since watches only complete when they are closed. Watches are executed
+     * synchronously, so they take no thread of the read bulkhead.
+     */
+    private static ApiClient createWatchApiClient(ApiClient apiClient) {
+        OkHttpClient.Builder httpClientBuilder = apiClient.getHttpClient().newBuilder().readTimeout(Duration.ZERO);
+        httpClientBuilder.interceptors().removeIf(interceptor -> interceptor instanceof KubernetesReadPolicy
+                || interceptor instanceof KubernetesRequestGuard);
+        return deriveApiClient(apiClient, httpClientBuilder.build());
+    }
+
+    /**
+     * The coordination client shares the connection pool of the given client, but leaves out the read policy and
+     * request guard: their retries, hedges and waits would let a round of the leader election outlast the renew
+     * deadline. Each request is cut after the given timeout instead. Leases are written synchronously, so they take no
+     * thread of the read bulkhead.
+     */
+    private static ApiClient createCoordinationApiClient(ApiClient apiClient, Duration requestTimeout) {
+        OkHttpClient.Builder httpClientBuilder = apiClient.getHttpClient().newBuilder().callTimeout(requestTimeout);
+        httpClientBuilder.interceptors().removeIf(interceptor -> interceptor instanceof KubernetesReadPolicy
+                || interceptor instanceof KubernetesRequestGuard);
+        return deriveApiClient(apiClient, httpClientBuilder.build());
+    }
+
+    /**
+     * The mutation client shares the connection pool, the timeouts and the interceptors of the given client, but
+     * dispatches on the given bulkhead.
+     */
+    private static ApiClient createMutationApiClient(ApiClient apiClient, Bulkhead mutationBulkhead) {
+        return deriveApiClient(apiClient, apiClient.getHttpClient().newBuilder()
+                .dispatcher(mutationBulkhead.dispatcher())
+                .build());
+    }
+
+    /**
+     * A client of the same cluster as the given one, sending through the given HTTP client. The HTTP client must be
+     * derived from the one of the given client, as that one carries the TLS setup: the client certificate and the
+     * trusted certificate authority.
+     */
+    private static ApiClient deriveApiClient(ApiClient apiClient, OkHttpClient httpClient) {
+        ApiClient derivedApiClient = new ApiClient();
+        derivedApiClient.setBasePath(apiClient.getBasePath());
+        derivedApiClient.setJSON(apiClient.getJSON());
+        derivedApiClient.setVerifyingSsl(apiClient.isVerifyingSsl());
+        derivedApiClient.setKeyManagers(apiClient.getKeyManagers());
+        // Set last, as the TLS setters above rebuild the HTTP client
+        derivedApiClient.setHttpClient(httpClient);
+        return derivedApiClient;
+    }
+
     private static byte[] readFileAsByte(String fileName) throws IOException {
         try (InputStream inputStream = Thread.currentThread().getContextClassLoader().getResourceAsStream(fileName)) {
             return IOUtils.toByteArray(inputStream);
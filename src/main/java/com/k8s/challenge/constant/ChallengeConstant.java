@@ -10,6 +10,8 @@ public final class ChallengeConstant {
     public static final long EXPIRE_TIME = 1000 * 60 * 60 * 2L;
     public static final String AUTHORIZE_ENDPOINT = "/api/v1/authorize";
     public static final String TOKEN_ENDPOINT = "/api/v1/token";
+    public static final String USER_NAME_LABEL = "userName";
+    public static final String DEFAULT_CLUSTER = "default";
 
     private ChallengeConstant() {
     }
@@ -7,7 +7,8 @@ public enum ExceptionResponse {
     UNAUTHORIZED("k8s-1000", HttpStatus.UNAUTHORIZED, "The request is unauthorized."),
     BAD_REQUEST("k8s-1001", HttpStatus.BAD_REQUEST, "%s"),
     NOT_FOUND("k8s-1002", HttpStatus.NOT_FOUND, "%s"),
-    SERVER_ERROR("k8s-1003", HttpStatus.INTERNAL_SERVER_ERROR, "Server error. Please contact your administrator");
+    SERVER_ERROR("k8s-1003", HttpStatus.INTERNAL_SERVER_ERROR, "Server error. Please contact your administrator"),
+    SERVICE_UNAVAILABLE("k8s-1004", HttpStatus.SERVICE_UNAVAILABLE, "%s. Please retry later");
 
     private String code;
     private HttpStatus status;
@@ -0,0 +1,9 @@
+package com.k8s.challenge.constant;
+
+public enum OperationStatus {
+    PENDING, RUNNING, SUCCEEDED, FAILED;
+
+    public boolean isFinal() {
+        return this == SUCCEEDED || this == FAILED;
+    }
+}
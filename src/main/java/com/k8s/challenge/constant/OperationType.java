@@ -0,0 +1,5 @@
+package com.k8s.challenge.constant;
+
+public enum OperationType {
+    CREATE_DEPLOYMENT, DELETE_DEPLOYMENTS
+}
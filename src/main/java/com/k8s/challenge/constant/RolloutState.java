@@ -0,0 +1,9 @@
+package com.k8s.challenge.constant;
+
+public enum RolloutState {
+    PROGRESSING, COMPLETE, FAILED, DELETED, TIMED_OUT, ERROR;
+
+    public boolean isFinal() {
+        return this != PROGRESSING;
+    }
+}
@@ -4,6 +4,7 @@ import com.k8s.challenge.dto.UserDto;
 import com.k8s.challenge.entity.UserEntity;
 import com.k8s.challenge.resource.TokenResource;
 import com.k8s.challenge.resource.UserResource;
+import com.k8s.challenge.service.Bulkhead;
 import com.k8s.challenge.service.UserService;
 import lombok.AllArgsConstructor;
 import org.springframework.core.convert.ConversionService;
@@ -14,6 +15,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.validation.Valid;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping(value = "/api/v1")
@@ -22,16 +24,22 @@ public class AuthenticationController {
 
     private final ConversionService conversionService;
     private final UserService userService;
+    private final Bulkhead authBulkhead;
 
+    /**
+     * Passwords are hashed on the auth bulkhead, so sign ups and token requests can neither take the request threads
+     * nor be held up by other work.
+     */
     @PostMapping("/authorize")
-    public ResponseEntity<UserResource> authorize(@RequestBody @Valid UserDto userDto) {
-        return ResponseEntity.ok(conversionService.convert(userService.createUserEntity(conversionService.convert(userDto,
-                UserEntity.class)), UserResource.class));
+    public CompletableFuture<ResponseEntity<UserResource>> authorize(@RequestBody @Valid UserDto userDto) {
+        UserEntity userEntity = conversionService.convert(userDto, UserEntity.class);
+        return authBulkhead.supplyAsync(() -> ResponseEntity.ok(conversionService.convert(
+                userService.createUserEntity(userEntity), UserResource.class)));
     }
 
     @PostMapping("/token")
-    public ResponseEntity<TokenResource> getAccessToken(@RequestBody @Valid UserDto userDto) {
-        return ResponseEntity.ok(new TokenResource(userService.
-                createToken(conversionService.convert(userDto, UserEntity.class))));
+    public CompletableFuture<ResponseEntity<TokenResource>> getAccessToken(@RequestBody @Valid UserDto userDto) {
+        UserEntity userEntity = conversionService.convert(userDto, UserEntity.class);
+        return authBulkhead.supplyAsync(() -> ResponseEntity.ok(new TokenResource(userService.createToken(userEntity))));
     }
 }
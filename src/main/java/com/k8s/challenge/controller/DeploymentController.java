@@ -1,22 +1,37 @@
 package com.k8s.challenge.controller;
 
+import com.k8s.challenge.dto.CreateDeploymentBatchDto;
 import com.k8s.challenge.dto.CreateDeploymentDto;
+import com.k8s.challenge.dto.ScaleDeploymentDto;
+import com.k8s.challenge.dto.UpdateDeploymentDto;
+import com.k8s.challenge.resource.DeploymentBatchItemResource;
+import com.k8s.challenge.resource.DeploymentChangeFeedResource;
+import com.k8s.challenge.resource.DeploymentPageResource;
 import com.k8s.challenge.resource.DeploymentResource;
+import com.k8s.challenge.resource.OperationResource;
+import com.k8s.challenge.service.DeploymentChangeFeedService;
+import com.k8s.challenge.service.DeploymentCreationQueueService;
+import com.k8s.challenge.service.DeploymentDeletionService;
+import com.k8s.challenge.service.DeploymentListing;
+import com.k8s.challenge.service.DeploymentRolloutService;
 import com.k8s.challenge.service.DeploymentService;
-import io.kubernetes.client.openapi.ApiException;
 import io.kubernetes.client.openapi.models.V1Deployment;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.validation.Valid;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping(value = "/api/v1/user/{userName}/deployment")
@@ -25,25 +40,155 @@ public class DeploymentController {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DeploymentController.class);
     private final DeploymentService deploymentService;
+    private final DeploymentRolloutService deploymentRolloutService;
+    private final DeploymentChangeFeedService deploymentChangeFeedService;
+    private final DeploymentDeletionService deploymentDeletionService;
+    private final DeploymentCreationQueueService deploymentCreationQueueService;
     private final ConversionService conversionService;
 
     @GetMapping
     @PreAuthorize(value = "hasRole('ROLE_USER')")
-    public ResponseEntity<List<DeploymentResource>> listDeployments
+    public CompletableFuture<ResponseEntity<List<DeploymentResource>>> listDeployments
             (@RequestParam(value = "namespace", required = false) String namespace,
-             @PathVariable(value = "userName") String userName) throws ApiException {
+             @PathVariable(value = "userName") String userName) {
         validateSecurityUserNameWithGivenUserName(userName);
-        return ResponseEntity.ok(deploymentService.listDeployments(userName, namespace));
+        return deploymentService.listDeploymentsAsync(userName, namespace).thenApply(DeploymentController::listed);
+    }
+
+    @GetMapping(params = "limit")
+    @PreAuthorize(value = "hasRole('ROLE_USER')")
+    public CompletableFuture<ResponseEntity<DeploymentPageResource>> listDeploymentPage(
+            @RequestParam(value = "namespace", required = false) String namespace,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit") int limit,
+            @PathVariable(value = "userName") String userName) {
+        validateSecurityUserNameWithGivenUserName(userName);
+        return deploymentService.listDeploymentPageAsync(userName, namespace, cursor, limit)
+                .thenApply(ResponseEntity::ok);
     }
 
     @PostMapping
     @PreAuthorize(value = "hasRole('ROLE_USER')")
-    public ResponseEntity<DeploymentResource> createDeployment(@RequestBody @Valid CreateDeploymentDto createDeploymentDto,
-                                                               @PathVariable(value = "userName") String userName) throws ApiException {
+    public CompletableFuture<ResponseEntity<DeploymentResource>> createDeployment(@RequestBody @Valid CreateDeploymentDto createDeploymentDto,
+                                                                                  @PathVariable(value = "userName") String userName) {
+        validateSecurityUserNameWithGivenUserName(userName);
+        return deploymentService.createDeploymentAsync(userName, createDeploymentDto.getCluster(),
+                createDeploymentDto.getNamespace(), conversionService.convert(createDeploymentDto, V1Deployment.class), createDeploymentDto.getPretty(),
+                createDeploymentDto.getDryRun()).thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping(params = "async=true")
+    @PreAuthorize(value = "hasRole('ROLE_USER')")
+    public ResponseEntity<OperationResource> enqueueDeployment(@RequestBody @Valid CreateDeploymentDto createDeploymentDto,
+                                                               @PathVariable(value = "userName") String userName) {
+        validateSecurityUserNameWithGivenUserName(userName);
+        return accepted(userName, deploymentCreationQueueService.enqueue(userName, createDeploymentDto));
+    }
+
+    @PostMapping(value = "/batch")
+    @PreAuthorize(value = "hasRole('ROLE_USER')")
+    public CompletableFuture<ResponseEntity<List<DeploymentBatchItemResource>>> createDeployments(
+            @RequestBody @Valid CreateDeploymentBatchDto createDeploymentBatchDto,
+            @PathVariable(value = "userName") String userName) {
+        validateSecurityUserNameWithGivenUserName(userName);
+        return deploymentService.createDeploymentsAsync(userName, createDeploymentBatchDto.getDeployments())
+                .thenApply(ResponseEntity::ok);
+    }
+
+    @PatchMapping(value = "/{namespace}/{name}")
+    @PreAuthorize(value = "hasRole('ROLE_USER')")
+    public CompletableFuture<ResponseEntity<DeploymentResource>> updateDeployment(
+            @RequestBody @Valid UpdateDeploymentDto updateDeploymentDto,
+            @PathVariable(value = "userName") String userName,
+            @PathVariable(value = "namespace") String namespace,
+            @PathVariable(value = "name") String name) {
+        validateSecurityUserNameWithGivenUserName(userName);
+        return deploymentService.updateDeploymentAsync(userName, updateDeploymentDto.getCluster(), namespace, name,
+                updateDeploymentDto.getReplicas(), updateDeploymentDto.getImage(), updateDeploymentDto.getDryRun())
+                .thenApply(ResponseEntity::ok);
+    }
+
+    @PatchMapping(value = "/{namespace}/{name}/scale")
+    @PreAuthorize(value = "hasRole('ROLE_USER')")
+    public CompletableFuture<ResponseEntity<DeploymentResource>> scaleDeployment(
+            @RequestBody @Valid ScaleDeploymentDto scaleDeploymentDto,
+            @PathVariable(value = "userName") String userName,
+            @PathVariable(value = "namespace") String namespace,
+            @PathVariable(value = "name") String name) {
+        validateSecurityUserNameWithGivenUserName(userName);
+        return deploymentService.scaleDeploymentAsync(userName, scaleDeploymentDto.getCluster(), namespace, name,
+                scaleDeploymentDto.getReplicas()).thenApply(ResponseEntity::ok);
+    }
+
+    @DeleteMapping(value = "/{namespace}/{name}")
+    @PreAuthorize(value = "hasRole('ROLE_USER')")
+    public CompletableFuture<ResponseEntity<OperationResource>> deleteDeployment(
+            @RequestParam(value = "cluster", required = false) String cluster,
+            @PathVariable(value = "userName") String userName,
+            @PathVariable(value = "namespace") String namespace,
+            @PathVariable(value = "name") String name) {
+        validateSecurityUserNameWithGivenUserName(userName);
+        return deploymentDeletionService.deleteDeploymentAsync(userName, cluster, namespace, name)
+                .thenApply(operation -> accepted(userName, operation));
+    }
+
+    @DeleteMapping
+    @PreAuthorize(value = "hasRole('ROLE_USER')")
+    public CompletableFuture<ResponseEntity<OperationResource>> deleteDeployments(
+            @RequestParam(value = "namespace") String namespace,
+            @RequestParam(value = "names", required = false) List<String> names,
+            @RequestParam(value = "labelSelector", required = false) String labelSelector,
+            @RequestParam(value = "cluster", required = false) String cluster,
+            @PathVariable(value = "userName") String userName) {
+        validateSecurityUserNameWithGivenUserName(userName);
+        return deploymentDeletionService.deleteDeploymentsAsync(userName, cluster, namespace, names, labelSelector)
+                .thenApply(operation -> accepted(userName, operation));
+    }
+
+    @GetMapping(value = "/{namespace}/{name}/rollout", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize(value = "hasRole('ROLE_USER')")
+    public SseEmitter streamRollout(@RequestParam(value = "cluster", required = false) String cluster,
+                                    @PathVariable(value = "userName") String userName,
+                                    @PathVariable(value = "namespace") String namespace,
+                                    @PathVariable(value = "name") String name) {
+        validateSecurityUserNameWithGivenUserName(userName);
+        return deploymentRolloutService.streamRollout(userName, cluster, namespace, name);
+    }
+
+    @GetMapping(value = "/changes")
+    @PreAuthorize(value = "hasRole('ROLE_USER')")
+    public CompletableFuture<ResponseEntity<DeploymentChangeFeedResource>> pollChanges(
+            @RequestParam(value = "cursor", required = false) Long cursor,
+            @PathVariable(value = "userName") String userName) {
         validateSecurityUserNameWithGivenUserName(userName);
-        return ResponseEntity.ok(deploymentService.createDeployment(userName, createDeploymentDto.getNamespace(),
-                conversionService.convert(createDeploymentDto, V1Deployment.class), createDeploymentDto.getPretty(),
-                createDeploymentDto.getDryRun()));
+        return deploymentChangeFeedService.pollChanges(userName, cursor).thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize(value = "hasRole('ROLE_USER')")
+    public SseEmitter streamChanges(@RequestParam(value = "cursor", required = false) Long cursor,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                                    @PathVariable(value = "userName") String userName) {
+        validateSecurityUserNameWithGivenUserName(userName);
+        return deploymentChangeFeedService.streamChanges(userName, cursor != null ? cursor : lastEventId);
+    }
+
+    /**
+     * Every cluster that could not be listed is reported in a warning header, next to the deployments of the clusters
+     * that answered.
+     */
+    private static ResponseEntity<List<DeploymentResource>> listed(DeploymentListing listing) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        listing.getClusterErrors().forEach((cluster, error) -> response.header(HttpHeaders.WARNING, String.format(
+                "199 - \"Cluster %s could not be listed: %s %s\"", cluster, error.getCode(),
+                error.getReasonMessage().replace('"', '\''))));
+        return response.body(listing.getDeployments());
+    }
+
+    private static ResponseEntity<OperationResource> accepted(String userName, OperationResource operation) {
+        return ResponseEntity.accepted()
+                .location(OperationController.location(userName, operation.getId()))
+                .body(operation);
     }
 
     private void validateSecurityUserNameWithGivenUserName(String userName) {
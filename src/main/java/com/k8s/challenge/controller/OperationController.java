@@ -0,0 +1,59 @@
+package com.k8s.challenge.controller;
+
+import com.k8s.challenge.resource.OperationResource;
+import com.k8s.challenge.service.OperationService;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.UUID;
+
+@RestController
+@RequestMapping(value = OperationController.OPERATION_ENDPOINT)
+@AllArgsConstructor
+public class OperationController {
+
+    static final String OPERATION_ENDPOINT = "/api/v1/user/{userName}/operation";
+    private static final Logger LOGGER = LoggerFactory.getLogger(OperationController.class);
+    private final OperationService operationService;
+
+    @GetMapping(value = "/{id}")
+    @PreAuthorize(value = "hasRole('ROLE_USER')")
+    public ResponseEntity<OperationResource> getOperation(@PathVariable(value = "userName") String userName,
+                                                          @PathVariable(value = "id") String id) {
+        validateSecurityUserNameWithGivenUserName(userName);
+        return ResponseEntity.ok(operationService.findOperation(userName, id));
+    }
+
+    @GetMapping(value = "/{id}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize(value = "hasRole('ROLE_USER')")
+    public SseEmitter streamOperation(@PathVariable(value = "userName") String userName,
+                                      @PathVariable(value = "id") String id) {
+        validateSecurityUserNameWithGivenUserName(userName);
+        return operationService.streamOperation(userName, id);
+    }
+
+    static URI location(String userName, UUID id) {
+        return UriComponentsBuilder.fromPath(OPERATION_ENDPOINT + "/{id}").buildAndExpand(userName, id).toUri();
+    }
+
+    private void validateSecurityUserNameWithGivenUserName(String userName) {
+        if (!SecurityContextHolder.getContext().getAuthentication().getPrincipal().equals(userName)) {
+            LOGGER.warn("Token is not used for correct user operation. Token mismatched!. Token username : {}, Request username: {}",
+                    SecurityContextHolder.getContext().getAuthentication().getPrincipal(), userName);
+            throw new AccessDeniedException("You are not allowed to perform this operation. Wrong token!");
+        }
+    }
+}
@@ -17,6 +17,7 @@ public class DeploymentEntityToDeploymentResourceConverter implements Converter<
         deploymentResource.setKind(deploymentEntity.getKind());
         deploymentResource.setApiVersion(deploymentEntity.getApiVersion());
         deploymentResource.setCreationTimestamp(deploymentEntity.getCreationTimestamp());
+        deploymentResource.setCluster(deploymentEntity.getCluster());
         return deploymentResource;
     }
 }
@@ -19,6 +19,7 @@ public class DeploymentResourceToDeploymentEntityConverter implements Converter<
         deploymentEntity.setApiVersion(deploymentResource.getApiVersion());
         deploymentEntity.setAppName(deploymentResource.getName());
         deploymentEntity.setCreationTimestamp(deploymentResource.getCreationTimestamp());
+        deploymentEntity.setCluster(deploymentResource.getCluster());
         return deploymentEntity;
     }
 }
@@ -0,0 +1,23 @@
+package com.k8s.challenge.converter;
+
+import com.k8s.challenge.repository.DeploymentSummary;
+import com.k8s.challenge.resource.DeploymentResource;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+@Component
+public class DeploymentSummaryToDeploymentResourceConverter implements Converter<DeploymentSummary, DeploymentResource> {
+    @Override
+    public DeploymentResource convert(DeploymentSummary deploymentSummary) {
+        DeploymentResource deploymentResource = new DeploymentResource();
+        deploymentResource.setReplicas(deploymentSummary.getReplicas());
+        deploymentResource.setImage(deploymentSummary.getImage());
+        deploymentResource.setName(deploymentSummary.getDeploymentName());
+        deploymentResource.setNamespace(deploymentSummary.getNamespace());
+        deploymentResource.setKind(deploymentSummary.getKind());
+        deploymentResource.setApiVersion(deploymentSummary.getApiVersion());
+        deploymentResource.setCreationTimestamp(deploymentSummary.getCreationTimestamp());
+        deploymentResource.setCluster(deploymentSummary.getCluster());
+        return deploymentResource;
+    }
+}
@@ -0,0 +1,28 @@
+package com.k8s.challenge.converter;
+
+import com.k8s.challenge.entity.OperationEntity;
+import com.k8s.challenge.resource.OperationResource;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+@Component
+public class OperationEntityToOperationResourceConverter implements Converter<OperationEntity, OperationResource> {
+    @Override
+    public OperationResource convert(OperationEntity operationEntity) {
+        return OperationResource.builder()
+                .id(operationEntity.getId())
+                .type(operationEntity.getType())
+                .status(operationEntity.getStatus())
+                .cluster(operationEntity.getCluster())
+                .namespace(operationEntity.getNamespace())
+                .name(operationEntity.getName())
+                .total(operationEntity.getTotal())
+                .succeeded(operationEntity.getSucceeded())
+                .failed(operationEntity.getFailed())
+                .message(operationEntity.getMessage())
+                .attempts(operationEntity.getAttempts())
+                .createdDate(operationEntity.getCreatedDate())
+                .updatedDate(operationEntity.getUpdatedDate())
+                .build();
+    }
+}
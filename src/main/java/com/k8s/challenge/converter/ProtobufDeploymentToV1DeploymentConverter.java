@@ -0,0 +1,141 @@
+package com.k8s.challenge.converter;
+
+import io.kubernetes.client.openapi.models.V1Container;
+import io.kubernetes.client.openapi.models.V1ContainerPort;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.openapi.models.V1DeploymentSpec;
+import io.kubernetes.client.openapi.models.V1DeploymentStatus;
+import io.kubernetes.client.openapi.models.V1LabelSelector;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.openapi.models.V1PodSpec;
+import io.kubernetes.client.openapi.models.V1PodTemplateSpec;
+import io.kubernetes.client.proto.Meta;
+import io.kubernetes.client.proto.V1;
+import io.kubernetes.client.proto.V1Apps;
+import org.joda.time.DateTime;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Maps a protobuf encoded deployment to the OpenAPI model. Only the fields this application reads are mapped:
+ * metadata, replicas, selector, pod template labels and containers, and the replica counts of the status.
+ */
+@Component
+public class ProtobufDeploymentToV1DeploymentConverter implements Converter<V1Apps.Deployment, V1Deployment> {
+
+    @Override
+    public V1Deployment convert(V1Apps.Deployment deployment) {
+        V1Deployment v1Deployment = new V1Deployment();
+        if (deployment.hasMetadata()) {
+            v1Deployment.setMetadata(convertMetadata(deployment.getMetadata()));
+        }
+        if (deployment.hasSpec()) {
+            v1Deployment.setSpec(convertSpec(deployment.getSpec()));
+        }
+        if (deployment.hasStatus()) {
+            v1Deployment.setStatus(convertStatus(deployment.getStatus()));
+        }
+        return v1Deployment;
+    }
+
+    private V1ObjectMeta convertMetadata(Meta.ObjectMeta objectMeta) {
+        V1ObjectMeta v1ObjectMeta = new V1ObjectMeta();
+        if (objectMeta.hasName()) {
+            v1ObjectMeta.setName(objectMeta.getName());
+        }
+        if (objectMeta.hasNamespace()) {
+            v1ObjectMeta.setNamespace(objectMeta.getNamespace());
+        }
+        if (objectMeta.hasUid()) {
+            v1ObjectMeta.setUid(objectMeta.getUid());
+        }
+        if (objectMeta.hasResourceVersion()) {
+            v1ObjectMeta.setResourceVersion(objectMeta.getResourceVersion());
+        }
+        if (objectMeta.hasGeneration()) {
+            v1ObjectMeta.setGeneration(objectMeta.getGeneration());
+        }
+        if (objectMeta.hasCreationTimestamp()) {
+            // In the default zone, as the JSON decoding of the generated model does
+            v1ObjectMeta.setCreationTimestamp(new DateTime(objectMeta.getCreationTimestamp().getSeconds() * 1000L));
+        }
+        if (objectMeta.getLabelsCount() > 0) {
+            v1ObjectMeta.setLabels(new HashMap<>(objectMeta.getLabelsMap()));
+        }
+        if (objectMeta.getAnnotationsCount() > 0) {
+            v1ObjectMeta.setAnnotations(new HashMap<>(objectMeta.getAnnotationsMap()));
+        }
+        return v1ObjectMeta;
+    }
+
+    private V1DeploymentSpec convertSpec(V1Apps.DeploymentSpec deploymentSpec) {
+        V1DeploymentSpec v1DeploymentSpec = new V1DeploymentSpec();
+        if (deploymentSpec.hasReplicas()) {
+            v1DeploymentSpec.setReplicas(deploymentSpec.getReplicas());
+        }
+        if (deploymentSpec.hasSelector()) {
+            v1DeploymentSpec.setSelector(new V1LabelSelector()
+                    .matchLabels(new HashMap<>(deploymentSpec.getSelector().getMatchLabelsMap())));
+        }
+        if (deploymentSpec.hasTemplate()) {
+            V1.PodTemplateSpec podTemplateSpec = deploymentSpec.getTemplate();
+            V1PodTemplateSpec v1PodTemplateSpec = new V1PodTemplateSpec();
+            if (podTemplateSpec.hasMetadata()) {
+                v1PodTemplateSpec.setMetadata(convertMetadata(podTemplateSpec.getMetadata()));
+            }
+            if (podTemplateSpec.hasSpec()) {
+                v1PodTemplateSpec.setSpec(new V1PodSpec().containers(podTemplateSpec.getSpec().getContainersList()
+                        .stream()
+                        .map(this::convertContainer)
+                        .collect(Collectors.toList())));
+            }
+            v1DeploymentSpec.setTemplate(v1PodTemplateSpec);
+        }
+        return v1DeploymentSpec;
+    }
+
+    private V1Container convertContainer(V1.Container container) {
+        V1Container v1Container = new V1Container();
+        if (container.hasName()) {
+            v1Container.setName(container.getName());
+        }
+        if (container.hasImage()) {
+            v1Container.setImage(container.getImage());
+        }
+        if (container.hasImagePullPolicy()) {
+            v1Container.setImagePullPolicy(container.getImagePullPolicy());
+        }
+        if (container.getPortsCount() > 0) {
+            v1Container.setPorts(container.getPortsList().stream()
+                    .map(containerPort -> new V1ContainerPort().containerPort(containerPort.getContainerPort()))
+                    .collect(Collectors.toList()));
+        }
+        return v1Container;
+    }
+
+    private V1DeploymentStatus convertStatus(V1Apps.DeploymentStatus deploymentStatus) {
+        V1DeploymentStatus v1DeploymentStatus = new V1DeploymentStatus();
+        if (deploymentStatus.hasObservedGeneration()) {
+            v1DeploymentStatus.setObservedGeneration(deploymentStatus.getObservedGeneration());
+        }
+        if (deploymentStatus.hasReplicas()) {
+            v1DeploymentStatus.setReplicas(deploymentStatus.getReplicas());
+        }
+        if (deploymentStatus.hasUpdatedReplicas()) {
+            v1DeploymentStatus.setUpdatedReplicas(deploymentStatus.getUpdatedReplicas());
+        }
+        if (deploymentStatus.hasReadyReplicas()) {
+            v1DeploymentStatus.setReadyReplicas(deploymentStatus.getReadyReplicas());
+        }
+        if (deploymentStatus.hasAvailableReplicas()) {
+            v1DeploymentStatus.setAvailableReplicas(deploymentStatus.getAvailableReplicas());
+        }
+        if (deploymentStatus.hasUnavailableReplicas()) {
+            v1DeploymentStatus.setUnavailableReplicas(deploymentStatus.getUnavailableReplicas());
+        }
+        return v1DeploymentStatus;
+    }
+}
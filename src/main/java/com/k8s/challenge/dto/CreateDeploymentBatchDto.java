@@ -0,0 +1,24 @@
+package com.k8s.challenge.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.*;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CreateDeploymentBatchDto {
+
+    @NotEmpty
+    @Size(max = 100)
+    @Valid
+    private List<CreateDeploymentDto> deployments;
+
+}
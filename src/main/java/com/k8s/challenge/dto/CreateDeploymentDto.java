@@ -42,5 +42,6 @@ public class CreateDeploymentDto {
     @NotBlank
     private String namespace;
     private String dryRun;
+    private String cluster;
 
 }
@@ -0,0 +1,22 @@
+package com.k8s.challenge.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.*;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ScaleDeploymentDto {
+
+    @NotNull
+    @Min(value = 0)
+    private Integer replicas;
+    private String cluster;
+
+}
@@ -2,10 +2,10 @@ package com.k8s.challenge.entity;
 
 import lombok.*;
 
-import javax.persistence.*;
-import java.util.Set;
-
-import static javax.persistence.CascadeType.ALL;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.util.UUID;
 
 @Getter
 @Setter
@@ -13,14 +13,8 @@ import static javax.persistence.CascadeType.ALL;
 @AllArgsConstructor
 @Builder
 @Entity
-public class AuthorizationEntity extends BaseEntity<String> {
+@Table(indexes = @Index(name = "idx_authorization_auth", columnList = "auth", unique = true))
+public class AuthorizationEntity extends BaseEntity<UUID> {
 
     private String auth;
-    @ManyToMany(fetch = FetchType.EAGER, cascade = ALL)
-    @JoinTable(
-            name = "user_authorization",
-            joinColumns = {@JoinColumn(name = "authorization_id")},
-            inverseJoinColumns = {@JoinColumn(name = "user_id")}
-    )
-    private Set<UserEntity> users;
 }
@@ -18,8 +18,9 @@ import java.time.LocalDateTime;
 public class BaseEntity<ID> {
 
     @Id
-    @GeneratedValue(generator = "uuid")
-    @GenericGenerator(name = "uuid", strategy = "uuid2")
+    @GeneratedValue(generator = "uuid7")
+    @GenericGenerator(name = "uuid7", strategy = "com.k8s.challenge.entity.TimeOrderedUuidGenerator")
+    @Column(columnDefinition = "binary(16)")
     ID id;
 
     @CreatedBy
@@ -1,13 +1,19 @@
 package com.k8s.challenge.entity;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.k8s.challenge.constant.ChallengeConstant;
 import lombok.*;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.PrePersist;
+import javax.persistence.Table;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Getter
 @Setter
@@ -15,7 +21,13 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder
 @Entity
-public class DeploymentEntity extends BaseEntity<String> {
+@Table(indexes = {
+        @Index(name = "idx_deployment_user_namespace_created", columnList = "user_id,namespace,creationTimestamp desc,id desc"),
+        @Index(name = "idx_deployment_user_created", columnList = "user_id,creationTimestamp desc,id desc"),
+        @Index(name = "uk_deployment_user_cluster_namespace_name", columnList = "user_id,cluster,namespace,deploymentName",
+                unique = true)
+})
+public class DeploymentEntity extends BaseEntity<UUID> {
 
     private String image;
     private String deploymentName;
@@ -24,10 +36,24 @@ public class DeploymentEntity extends BaseEntity<String> {
     private Integer replicas;
     private String apiVersion;
     private String kind;
+    // Part of the page order and cursor, so never null; see defaultCreationTimestamp
+    @Column(nullable = false, columnDefinition = "timestamp default current_timestamp")
     private LocalDateTime creationTimestamp;
+    @Column(nullable = false, columnDefinition = "varchar(255) default '" + ChallengeConstant.DEFAULT_CLUSTER + "'")
+    private String cluster;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private UserEntity user;
 
+    /**
+     * A deployment whose creation timestamp is not known is ordered by the time it is first stored.
+     */
+    @PrePersist
+    void defaultCreationTimestamp() {
+        if (creationTimestamp == null) {
+            creationTimestamp = LocalDateTime.now();
+        }
+    }
+
 }
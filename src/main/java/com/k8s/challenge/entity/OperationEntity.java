@@ -0,0 +1,52 @@
+package com.k8s.challenge.entity;
+
+import com.k8s.challenge.constant.OperationStatus;
+import com.k8s.challenge.constant.OperationType;
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Tracks a request that keeps running after its response has been sent. Counts refer to deployments.
+ * <p>
+ * Queued operations carry their request as payload. A worker owns an operation while its lease is valid; an operation
+ * whose lease has expired, e.g. because its instance died, is taken up again.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(indexes = @Index(name = "idx_operation_queue", columnList = "type,status,nextAttemptAt"))
+public class OperationEntity extends BaseEntity<UUID> {
+
+    public static final int MESSAGE_LENGTH = 4000;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OperationType type;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OperationStatus status;
+    private String cluster;
+    private String namespace;
+    private String name;
+    private Integer total;
+    private Integer succeeded;
+    private Integer failed;
+    @Column(length = MESSAGE_LENGTH)
+    private String message;
+    @Lob
+    private String payload;
+    private Integer attempts;
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime leaseExpiresAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private UserEntity user;
+
+}
@@ -0,0 +1,21 @@
+package com.k8s.challenge.entity;
+
+import lombok.*;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+public class SyncCheckpointEntity extends BaseEntity<UUID> {
+
+    @Column(unique = true, nullable = false)
+    private String name;
+    private String resourceVersion;
+
+}
@@ -0,0 +1,31 @@
+package com.k8s.challenge.entity;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.io.Serializable;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates version 7 UUIDs: the Unix epoch milliseconds in the most significant 48 bits, followed by the version,
+ * the variant and 74 random bits. Ids generated later sort after earlier ones as 16 unsigned bytes, so new rows are
+ * appended to the end of the primary key index instead of at a random spot.
+ */
+public class TimeOrderedUuidGenerator implements IdentifierGenerator {
+
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000_0000_0000_0000L;
+
+    public static UUID next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSignificantBits = System.currentTimeMillis() << 16 | VERSION | random.nextLong() & 0x0fffL;
+        long leastSignificantBits = VARIANT | random.nextLong() & 0x3fff_ffff_ffff_ffffL;
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        return next();
+    }
+}
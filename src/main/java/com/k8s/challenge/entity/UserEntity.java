@@ -5,6 +5,7 @@ import lombok.*;
 import javax.persistence.*;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.UUID;
 
 @Getter
 @Setter
@@ -12,7 +13,8 @@ import java.util.Set;
 @AllArgsConstructor
 @Builder
 @Entity
-public class UserEntity extends BaseEntity<String> {
+@Table(indexes = @Index(name = "idx_user_user_name", columnList = "userName", unique = true))
+public class UserEntity extends BaseEntity<UUID> {
 
     private String name;
     private String userName;
@@ -20,7 +22,14 @@ public class UserEntity extends BaseEntity<String> {
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL)
     private Set<DeploymentEntity> deployments;
 
-    @ManyToMany(mappedBy = "users", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    // Shared by every user holding the role, so it is neither cascaded nor mapped back to its users
+    @ManyToMany
+    @JoinTable(
+            name = "user_authorization",
+            joinColumns = {@JoinColumn(name = "user_id")},
+            inverseJoinColumns = {@JoinColumn(name = "authorization_id")},
+            indexes = @Index(name = "idx_user_authorization_user", columnList = "user_id")
+    )
     private Set<AuthorizationEntity> authorizations;
 
 }
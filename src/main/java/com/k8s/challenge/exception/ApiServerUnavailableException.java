@@ -0,0 +1,23 @@
+package com.k8s.challenge.exception;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * A request to the API server was not sent, because the circuit is open or the client side rate limit is exhausted.
+ * It is an {@link IOException} so that OkHttp hands it on to the callers, wrapped in an
+ * {@link io.kubernetes.client.openapi.ApiException}.
+ */
+public class ApiServerUnavailableException extends IOException {
+
+    private final Duration retryAfter;
+
+    public ApiServerUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
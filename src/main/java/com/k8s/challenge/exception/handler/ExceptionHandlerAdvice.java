@@ -1,13 +1,16 @@
 package com.k8s.challenge.exception.handler;
 
 import com.k8s.challenge.constant.ExceptionResponse;
+import com.k8s.challenge.exception.ApiServerUnavailableException;
 import com.k8s.challenge.exception.BadRequestException;
 import com.k8s.challenge.exception.NotFoundException;
 import com.k8s.challenge.resource.ErrorResource;
+import com.k8s.challenge.service.Bulkhead;
 import io.kubernetes.client.openapi.ApiException;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.validation.FieldError;
@@ -16,6 +19,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestControllerAdvice
 public class ExceptionHandlerAdvice {
@@ -24,6 +28,13 @@ public class ExceptionHandlerAdvice {
 
     @ExceptionHandler(value = ApiException.class)
     public ResponseEntity<?> handleApiException(ApiException ex) {
+        if (ex.getCause() instanceof ApiServerUnavailableException) {
+            return handleApiServerUnavailable((ApiServerUnavailableException) ex.getCause());
+        }
+        RejectedExecutionException rejection = Bulkhead.rejectionOf(ex);
+        if (rejection != null) {
+            return handleRejectedExecution(rejection);
+        }
         if (!StringUtils.isEmpty(ex.getResponseBody())) {
             LOGGER.error(String.format("Api Exception occured. Response Body: %s", ex.getResponseBody()), ex);
             return ResponseEntity.badRequest().body(new ErrorResource(ExceptionResponse.BAD_REQUEST.getCode(),
@@ -35,6 +46,25 @@ public class ExceptionHandlerAdvice {
         }
     }
 
+    @ExceptionHandler(value = ApiServerUnavailableException.class)
+    public ResponseEntity<ErrorResource> handleApiServerUnavailable(ApiServerUnavailableException ex) {
+        LOGGER.warn(ex.getMessage());
+        long retryAfterSeconds = Math.max(1L, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(ExceptionResponse.SERVICE_UNAVAILABLE.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(new ErrorResource(ExceptionResponse.SERVICE_UNAVAILABLE.getCode(),
+                        String.format(ExceptionResponse.SERVICE_UNAVAILABLE.getMessage(), ex.getMessage())));
+    }
+
+    @ExceptionHandler(value = RejectedExecutionException.class)
+    public ResponseEntity<ErrorResource> handleRejectedExecution(RejectedExecutionException ex) {
+        LOGGER.warn("Request is rejected, no worker is free", ex);
+        return ResponseEntity.status(ExceptionResponse.SERVICE_UNAVAILABLE.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ErrorResource(ExceptionResponse.SERVICE_UNAVAILABLE.getCode(),
+                        String.format(ExceptionResponse.SERVICE_UNAVAILABLE.getMessage(), "Server is busy")));
+    }
+
     @ExceptionHandler(value = AccessDeniedException.class)
     public ResponseEntity<ErrorResource> handleAccessDenied(AccessDeniedException ex) {
         LOGGER.error("User does not have any permission to this request.", ex);
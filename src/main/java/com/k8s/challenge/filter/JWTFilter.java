@@ -53,7 +53,7 @@ public class JWTFilter extends OncePerRequestFilter {
             }
             LOGGER.info("Token is valid for username: {}", userName);
             try {
-                UserEntity userEntity = userService.findUserByName(userName);
+                UserEntity userEntity = userService.findUserWithAuthorizationsByName(userName);
                 List<GrantedAuthority> authList = userEntity.getAuthorizations()
                         .stream()
                         .map(authorizationEntity -> new SimpleGrantedAuthority(authorizationEntity.getAuth()))
@@ -3,5 +3,10 @@ package com.k8s.challenge.repository;
 import com.k8s.challenge.entity.AuthorizationEntity;
 import org.springframework.data.repository.CrudRepository;
 
-public interface AuthorizationRepository extends CrudRepository<AuthorizationEntity, String> {
+import java.util.Optional;
+import java.util.UUID;
+
+public interface AuthorizationRepository extends CrudRepository<AuthorizationEntity, UUID> {
+
+    Optional<AuthorizationEntity> findFirstByAuth(String auth);
 }
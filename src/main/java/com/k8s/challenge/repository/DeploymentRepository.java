@@ -1,11 +1,101 @@
 package com.k8s.challenge.repository;
 
 import com.k8s.challenge.entity.DeploymentEntity;
+import com.k8s.challenge.entity.UserEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
-public interface DeploymentRepository extends CrudRepository<DeploymentEntity, String> {
-    List<DeploymentEntity> findAllByNamespaceAndUserUserNameOrderByCreationTimestampDesc(String namespace ,String userName);
-    List<DeploymentEntity> findAllByUserUserNameOrderByCreationTimestampDesc(String userName);
+/**
+ * Listings select {@link DeploymentSummary} rather than entities, so reading them costs neither a persistence context
+ * entry nor the user of every deployment.
+ */
+public interface DeploymentRepository extends CrudRepository<DeploymentEntity, UUID>, DeploymentUpsertRepository {
+
+    String SUMMARY = "select new com.k8s.challenge.repository.DeploymentSummary(d.id, d.apiVersion, d.kind,"
+            + " d.creationTimestamp, d.deploymentName, d.namespace, d.image, d.replicas, d.cluster)"
+            + " from DeploymentEntity d";
+
+    List<DeploymentEntity> findAllByClusterAndNamespaceAndDeploymentName(String cluster, String namespace, String deploymentName);
+    Optional<DeploymentEntity> findFirstByClusterAndNamespaceAndDeploymentNameAndUserUserName(String cluster, String namespace,
+                                                                                            String deploymentName, String userName);
+    List<DeploymentEntity> findAllByCluster(String cluster);
+
+    /**
+     * All deployments of the user, newest first.
+     */
+    @Query(SUMMARY + " where d.user.id = :userId"
+            + " order by d.user.id, d.creationTimestamp desc, d.id desc")
+    List<DeploymentSummary> findSummariesByUserId(@Param("userId") UUID userId);
+
+    /**
+     * @see #findSummariesByUserId(UUID)
+     */
+    @Query(SUMMARY + " where d.user.id = :userId and d.namespace = :namespace"
+            + " order by d.user.id, d.namespace, d.creationTimestamp desc, d.id desc")
+    List<DeploymentSummary> findSummariesByUserIdAndNamespace(@Param("userId") UUID userId,
+                                                              @Param("namespace") String namespace);
+
+    /**
+     * First page of the deployments of the user, newest first. Ordered by id as well, so that deployments created at
+     * the same instant have a stable order the next pages can continue from. The user is part of the order too, so
+     * that every database can read the page in index order rather than sort the whole history of the user.
+     */
+    @Query(SUMMARY + " where d.user.id = :userId"
+            + " order by d.user.id, d.creationTimestamp desc, d.id desc")
+    List<DeploymentSummary> findPageByUserId(@Param("userId") UUID userId, Pageable pageable);
+
+    /**
+     * Page of the deployments of the user that come after the given deployment in
+     * {@link #findPageByUserId(UUID, Pageable)} order. The redundant upper bound on the creation timestamp lets the
+     * index range start at the given deployment, so a page deep in the history is read as fast as the first one.
+     */
+    @Query(SUMMARY + " where d.user.id = :userId and d.creationTimestamp <= :creationTimestamp"
+            + " and (d.creationTimestamp < :creationTimestamp or (d.creationTimestamp = :creationTimestamp and d.id < :id))"
+            + " order by d.user.id, d.creationTimestamp desc, d.id desc")
+    List<DeploymentSummary> findPageByUserIdAfter(@Param("userId") UUID userId,
+                                                  @Param("creationTimestamp") LocalDateTime creationTimestamp,
+                                                  @Param("id") UUID id,
+                                                  Pageable pageable);
+
+    /**
+     * @see #findPageByUserId(UUID, Pageable)
+     */
+    @Query(SUMMARY + " where d.user.id = :userId and d.namespace = :namespace"
+            + " order by d.user.id, d.namespace, d.creationTimestamp desc, d.id desc")
+    List<DeploymentSummary> findPageByUserIdAndNamespace(@Param("userId") UUID userId,
+                                                         @Param("namespace") String namespace,
+                                                         Pageable pageable);
+
+    /**
+     * @see #findPageByUserIdAfter(UUID, LocalDateTime, UUID, Pageable)
+     */
+    @Query(SUMMARY + " where d.user.id = :userId and d.namespace = :namespace"
+            + " and d.creationTimestamp <= :creationTimestamp"
+            + " and (d.creationTimestamp < :creationTimestamp or (d.creationTimestamp = :creationTimestamp and d.id < :id))"
+            + " order by d.user.id, d.namespace, d.creationTimestamp desc, d.id desc")
+    List<DeploymentSummary> findPageByUserIdAndNamespaceAfter(@Param("userId") UUID userId,
+                                                              @Param("namespace") String namespace,
+                                                              @Param("creationTimestamp") LocalDateTime creationTimestamp,
+                                                              @Param("id") UUID id,
+                                                              Pageable pageable);
+
+    /**
+     * Deletes in a single statement, without loading the entities first.
+     */
+    @Modifying
+    @Query("delete from DeploymentEntity d where d.user = :user and d.cluster = :cluster"
+            + " and d.namespace = :namespace and d.deploymentName in :deploymentNames")
+    int deleteAllByUserAndClusterAndNamespaceAndDeploymentNameIn(@Param("user") UserEntity user,
+                                                                 @Param("cluster") String cluster,
+                                                                 @Param("namespace") String namespace,
+                                                                 @Param("deploymentNames") Collection<String> deploymentNames);
 }
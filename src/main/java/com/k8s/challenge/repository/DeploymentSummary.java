@@ -0,0 +1,28 @@
+package com.k8s.challenge.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The columns of a deployment that listings return, selected by constructor expression. Unlike a
+ * {@link com.k8s.challenge.entity.DeploymentEntity} it is not managed, so neither its user is loaded nor it is dirty
+ * checked.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class DeploymentSummary {
+    private final UUID id;
+    private final String apiVersion;
+    private final String kind;
+    private final LocalDateTime creationTimestamp;
+    private final String deploymentName;
+    private final String namespace;
+    private final String image;
+    private final Integer replicas;
+    private final String cluster;
+}
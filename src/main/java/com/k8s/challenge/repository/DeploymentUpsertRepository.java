@@ -0,0 +1,16 @@
+package com.k8s.challenge.repository;
+
+import com.k8s.challenge.entity.DeploymentEntity;
+
+import java.util.Collection;
+import java.util.UUID;
+
+public interface DeploymentUpsertRepository {
+
+    /**
+     * Inserts the given deployments for the user, or updates those the user already has under the same cluster,
+     * namespace and name. Runs as batched statements of {@code hibernate.jdbc.batch_size} rows, bypassing the
+     * persistence context, so the entities are neither attached nor given an id.
+     */
+    void upsertAll(UUID userId, Collection<DeploymentEntity> deploymentEntities);
+}
@@ -0,0 +1,92 @@
+package com.k8s.challenge.repository;
+
+import com.k8s.challenge.audit.AuditorAwareImpl;
+import com.k8s.challenge.entity.DeploymentEntity;
+import com.k8s.challenge.entity.TimeOrderedUuidGenerator;
+import org.hibernate.Session;
+import org.springframework.data.domain.AuditorAware;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+
+public class DeploymentUpsertRepositoryImpl implements DeploymentUpsertRepository {
+
+    // Matches on the natural key, so an existing row keeps its id and creation audit. Without a creation timestamp, a
+    // row keeps the one it has or is inserted with the current time, as the page order needs one
+    private static final String MERGE = "merge into deployment_entity d using (select"
+            + " cast(? as binary(16)) id, cast(? as binary(16)) user_id, cast(? as varchar(255)) cluster,"
+            + " cast(? as varchar(255)) namespace, cast(? as varchar(255)) deployment_name,"
+            + " cast(? as varchar(255)) app_name, cast(? as varchar(255)) image, cast(? as integer) replicas,"
+            + " cast(? as varchar(255)) api_version, cast(? as varchar(255)) kind,"
+            + " cast(? as timestamp) creation_timestamp, cast(? as varchar(255)) auditor, cast(? as timestamp) now"
+            + " from dual) s"
+            + " on (d.user_id = s.user_id and d.cluster = s.cluster and d.namespace = s.namespace"
+            + " and d.deployment_name = s.deployment_name)"
+            + " when matched then update set d.app_name = s.app_name, d.image = s.image, d.replicas = s.replicas,"
+            + " d.api_version = s.api_version, d.kind = s.kind,"
+            + " d.creation_timestamp = coalesce(s.creation_timestamp, d.creation_timestamp),"
+            + " d.updated_by = s.auditor, d.updated_date = s.now"
+            + " when not matched then insert (id, user_id, cluster, namespace, deployment_name, app_name, image,"
+            + " replicas, api_version, kind, creation_timestamp, created_by, created_date, updated_by, updated_date)"
+            + " values (s.id, s.user_id, s.cluster, s.namespace, s.deployment_name, s.app_name, s.image, s.replicas,"
+            + " s.api_version, s.kind, coalesce(s.creation_timestamp, s.now), s.auditor, s.now, s.auditor, s.now)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Writes the same auditor the auditing listener would, which is not called for these rows
+    private final AuditorAware<String> auditorProvider = new AuditorAwareImpl();
+
+    @Override
+    public void upsertAll(UUID userId, Collection<DeploymentEntity> deploymentEntities) {
+        Session session = entityManager.unwrap(Session.class);
+        int batchSize = Math.max(1, session.getSessionFactory().getSessionFactoryOptions().getJdbcBatchSize());
+        String auditor = auditorProvider.getCurrentAuditor().orElse(null);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        session.doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(MERGE)) {
+                int batchedCount = 0;
+                for (DeploymentEntity deploymentEntity : deploymentEntities) {
+                    statement.setBytes(1, toBytes(TimeOrderedUuidGenerator.next()));
+                    statement.setBytes(2, toBytes(userId));
+                    statement.setString(3, deploymentEntity.getCluster());
+                    statement.setString(4, deploymentEntity.getNamespace());
+                    statement.setString(5, deploymentEntity.getDeploymentName());
+                    statement.setString(6, deploymentEntity.getAppName());
+                    statement.setString(7, deploymentEntity.getImage());
+                    statement.setObject(8, deploymentEntity.getReplicas(), Types.INTEGER);
+                    statement.setString(9, deploymentEntity.getApiVersion());
+                    statement.setString(10, deploymentEntity.getKind());
+                    statement.setTimestamp(11, deploymentEntity.getCreationTimestamp() != null
+                            ? Timestamp.valueOf(deploymentEntity.getCreationTimestamp()) : null);
+                    statement.setString(12, auditor);
+                    statement.setTimestamp(13, now);
+                    statement.addBatch();
+                    if (++batchedCount % batchSize == 0) {
+                        statement.executeBatch();
+                    }
+                }
+                if (batchedCount % batchSize != 0) {
+                    statement.executeBatch();
+                }
+            }
+        });
+    }
+
+    /**
+     * The bytes Hibernate binds for a {@link UUID} id, most significant first.
+     */
+    private static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+}
@@ -0,0 +1,73 @@
+package com.k8s.challenge.repository;
+
+import com.k8s.challenge.constant.OperationStatus;
+import com.k8s.challenge.constant.OperationType;
+import com.k8s.challenge.entity.OperationEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface OperationRepository extends CrudRepository<OperationEntity, UUID> {
+
+    Optional<OperationEntity> findByIdAndUserUserName(UUID id, String userName);
+
+    /**
+     * The user is fetched in the same query, for processing outside of a transaction.
+     */
+    @EntityGraph(attributePaths = "user")
+    Optional<OperationEntity> findWithUserById(UUID id);
+
+    /**
+     * Pending operations that are due, and running ones whose lease has expired, oldest first. Operations that have
+     * used up their attempts are left to {@link #failExhaustedOperations}.
+     */
+    @Query("select o.id from OperationEntity o where o.type = :type and o.attempts < :maxAttempts"
+            + " and ((o.status = :pending and o.nextAttemptAt <= :now) or (o.status = :running and o.leaseExpiresAt < :now))"
+            + " order by o.createdDate")
+    List<UUID> findDueOperationIds(@Param("type") OperationType type,
+                                   @Param("pending") OperationStatus pending,
+                                   @Param("running") OperationStatus running,
+                                   @Param("now") LocalDateTime now,
+                                   @Param("maxAttempts") int maxAttempts,
+                                   Pageable pageable);
+
+    /**
+     * Takes an operation found by {@link #findDueOperationIds} if it is still due and has attempts left. Only one of
+     * several competing workers gets 1 as result.
+     */
+    @Modifying
+    @Query("update OperationEntity o set o.status = :running, o.attempts = o.attempts + 1,"
+            + " o.leaseExpiresAt = :leaseExpiresAt where o.id = :id and o.attempts < :maxAttempts"
+            + " and ((o.status = :pending and o.nextAttemptAt <= :now) or (o.status = :running and o.leaseExpiresAt < :now))")
+    int claimOperation(@Param("id") UUID id,
+                       @Param("pending") OperationStatus pending,
+                       @Param("running") OperationStatus running,
+                       @Param("now") LocalDateTime now,
+                       @Param("leaseExpiresAt") LocalDateTime leaseExpiresAt,
+                       @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * Fails running operations whose lease has expired on their last attempt, so an operation whose workers keep
+     * dying is not taken up forever.
+     *
+     * @return the number of operations failed
+     */
+    @Modifying
+    @Query("update OperationEntity o set o.status = :failed, o.succeeded = 0, o.failed = o.total,"
+            + " o.message = :message, o.leaseExpiresAt = null where o.type = :type and o.status = :running"
+            + " and o.leaseExpiresAt < :now and o.attempts >= :maxAttempts")
+    int failExhaustedOperations(@Param("type") OperationType type,
+                                @Param("running") OperationStatus running,
+                                @Param("failed") OperationStatus failed,
+                                @Param("now") LocalDateTime now,
+                                @Param("maxAttempts") int maxAttempts,
+                                @Param("message") String message);
+}
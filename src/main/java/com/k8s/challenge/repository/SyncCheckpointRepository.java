@@ -0,0 +1,12 @@
+package com.k8s.challenge.repository;
+
+import com.k8s.challenge.entity.SyncCheckpointEntity;
+import org.springframework.data.repository.CrudRepository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface SyncCheckpointRepository extends CrudRepository<SyncCheckpointEntity, UUID> {
+
+    Optional<SyncCheckpointEntity> findByName(String name);
+}
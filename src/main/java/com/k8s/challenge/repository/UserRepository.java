@@ -1,11 +1,27 @@
 package com.k8s.challenge.repository;
 
 import com.k8s.challenge.entity.UserEntity;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
+import java.util.UUID;
 
-public interface UserRepository extends CrudRepository<UserEntity, String> {
+public interface UserRepository extends CrudRepository<UserEntity, UUID> {
 
     Optional<UserEntity> findByUserName(String userName);
+
+    /**
+     * The user with its authorizations in a single statement, as the principal of an authenticated request.
+     */
+    @EntityGraph(attributePaths = "authorizations")
+    Optional<UserEntity> findWithAuthorizationsByUserName(String userName);
+
+    /**
+     * Only the id, without loading the user and its authorizations.
+     */
+    @Query("select u.id from UserEntity u where u.userName = :userName")
+    Optional<UUID> findIdByUserName(@Param("userName") String userName);
 }
@@ -0,0 +1,19 @@
+package com.k8s.challenge.resource;
+
+import lombok.*;
+
+/**
+ * Result of one item of a batch request: the deployment if it succeeded, the error otherwise. A deployment that was
+ * created but could not be stored carries both.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class DeploymentBatchItemResource {
+    private int index;
+    private DeploymentResource deployment;
+    private ErrorResource error;
+}
@@ -0,0 +1,21 @@
+package com.k8s.challenge.resource;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * A page of the change feed. The cursor is to be sent with the next poll. If reset is set, changes were lost since
+ * the given cursor and the deployments have to be listed again.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class DeploymentChangeFeedResource {
+    private long cursor;
+    private boolean reset;
+    private List<DeploymentChangeResource> changes;
+}
@@ -0,0 +1,19 @@
+package com.k8s.challenge.resource;
+
+import lombok.*;
+
+/**
+ * One change of a deployment in the change feed. The type is that of the underlying watch event: ADDED, MODIFIED or
+ * DELETED.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class DeploymentChangeResource {
+    private long cursor;
+    private String type;
+    private DeploymentResource deployment;
+}
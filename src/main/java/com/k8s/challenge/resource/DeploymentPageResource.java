@@ -0,0 +1,20 @@
+package com.k8s.challenge.resource;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * A page of the deployments of a user, newest first. The next cursor is to be sent to get the following page; it is
+ * not set on the last page.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class DeploymentPageResource {
+    private List<DeploymentResource> items;
+    private String nextCursor;
+}
@@ -20,4 +20,5 @@ public class DeploymentResource {
     private String namespace;
     private String image;
     private Integer replicas;
+    private String cluster;
 }
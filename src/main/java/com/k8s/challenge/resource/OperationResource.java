@@ -0,0 +1,33 @@
+package com.k8s.challenge.resource;
+
+import com.k8s.challenge.constant.OperationStatus;
+import com.k8s.challenge.constant.OperationType;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Handle of a long running request, to be polled until its status is final.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class OperationResource {
+    private UUID id;
+    private OperationType type;
+    private OperationStatus status;
+    private String cluster;
+    private String namespace;
+    private String name;
+    private Integer total;
+    private Integer succeeded;
+    private Integer failed;
+    private String message;
+    private Integer attempts;
+    private LocalDateTime createdDate;
+    private LocalDateTime updatedDate;
+}
@@ -0,0 +1,23 @@
+package com.k8s.challenge.resource;
+
+import com.k8s.challenge.constant.RolloutState;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+@EqualsAndHashCode
+public class RolloutStatusResource {
+    private String name;
+    private String namespace;
+    private String cluster;
+    private RolloutState state;
+    private Integer replicas;
+    private Integer updatedReplicas;
+    private Integer readyReplicas;
+    private Integer availableReplicas;
+    private String message;
+}
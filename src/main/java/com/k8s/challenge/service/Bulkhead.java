@@ -0,0 +1,120 @@
+package com.k8s.challenge.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import okhttp3.Dispatcher;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A bounded pool of threads for one class of work, so that work of one class piling up can not take the threads of
+ * another. Work that finds all threads busy and the queue full is rejected with a
+ * {@link RejectedExecutionException}, which is answered with 503, instead of waiting unnoticed. Rejections are
+ * counted as {@code bulkhead.rejected}; active threads and queued work are published as gauges.
+ */
+public class Bulkhead implements Executor {
+
+    private final String name;
+    private final ThreadPoolExecutor executor;
+
+    public Bulkhead(String name, Limits limits, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.executor = new ThreadPoolExecutor(limits.getThreads(), limits.getThreads(), 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, limits.getQueueCapacity())),
+                new DaemonThreadFactory("bulkhead-" + name),
+                (runnable, rejectingExecutor) -> {
+                    meterRegistry.counter("bulkhead.rejected", "bulkhead", name).increment();
+                    throw new RejectedExecutionException(String.format("Bulkhead %s is full", name));
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+        Gauge.builder("bulkhead.active", executor, ThreadPoolExecutor::getActiveCount)
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        Gauge.builder("bulkhead.queued", executor, pool -> pool.getQueue().size())
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @throws RejectedExecutionException if all threads are busy and the queue is full
+     */
+    @Override
+    public void execute(Runnable runnable) {
+        executor.execute(runnable);
+    }
+
+    /**
+     * @throws RejectedExecutionException if all threads are busy and the queue is full
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, this);
+    }
+
+    /**
+     * An OkHttp dispatcher running its calls on this bulkhead. The request limits of the dispatcher are lifted, so
+     * asynchronous calls are bounded by the threads and the queue of the bulkhead alone, and a call that does not fit
+     * fails at once rather than waiting in the unbounded ready queue of the dispatcher.
+     */
+    public Dispatcher dispatcher() {
+        Dispatcher dispatcher = new Dispatcher(executor);
+        dispatcher.setMaxRequests(Integer.MAX_VALUE);
+        dispatcher.setMaxRequestsPerHost(Integer.MAX_VALUE);
+        return dispatcher;
+    }
+
+    /**
+     * OkHttp fails a call its dispatcher could not hand to the executor with an {@link java.io.InterruptedIOException}
+     * caused by the rejection, which the API client wraps once more.
+     *
+     * @return the rejection behind the given failure, or null if it was not rejected by a bulkhead
+     */
+    public static RejectedExecutionException rejectionOf(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RejectedExecutionException) {
+                return (RejectedExecutionException) cause;
+            }
+        }
+        return null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limits {
+
+        private int threads;
+        private int queueCapacity;
+    }
+
+    /**
+     * Bound to {@code bulkhead.*}. The Kubernetes limits apply to each cluster on its own.
+     */
+    @Getter
+    @Setter
+    public static class Settings {
+
+        private Limits kubernetesRead = new Limits(16, 200);
+        private Limits kubernetesMutation = new Limits(8, 100);
+        private Limits database = new Limits(10, 200);
+        private Limits auth = new Limits(Runtime.getRuntime().availableProcessors(), 50);
+    }
+}
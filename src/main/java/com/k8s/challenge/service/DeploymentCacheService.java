@@ -0,0 +1,102 @@
+package com.k8s.challenge.service;
+
+import com.google.common.collect.ImmutableMap;
+import com.k8s.challenge.constant.ChallengeConstant;
+import io.kubernetes.client.informer.SharedIndexInformer;
+import io.kubernetes.client.informer.SharedInformerFactory;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import lombok.AllArgsConstructor;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Serves deployment listings from the shared informer cache, so that a synced cache answers without calling
+ * the API server. The informer itself is registered in {@link com.k8s.challenge.config.ChallengeConfig}.
+ */
+@Service
+@AllArgsConstructor
+public class DeploymentCacheService {
+
+    public static final String USER_NAME_INDEX = "userName";
+    public static final String NAMESPACE_USER_NAME_INDEX = "namespaceUserName";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeploymentCacheService.class);
+    private final SharedInformerFactory sharedInformerFactory;
+    private final SharedIndexInformer<V1Deployment> deploymentInformer;
+
+    /**
+     * Index functions registered on the deployment informer. The namespace index is provided by the informer cache.
+     */
+    public static Map<String, Function<V1Deployment, List<String>>> indexers() {
+        return ImmutableMap.of(
+                USER_NAME_INDEX, DeploymentCacheService::userNameIndexFunc,
+                NAMESPACE_USER_NAME_INDEX, DeploymentCacheService::namespaceUserNameIndexFunc);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startInformers() {
+        LOGGER.info("Starting shared informers");
+        sharedInformerFactory.startAllRegisteredInformers();
+    }
+
+    public boolean hasSynced() {
+        return deploymentInformer.hasSynced();
+    }
+
+    /**
+     * @param namespace namespace parameter is optional
+     * @return deployments of the user that are currently held in the informer cache
+     */
+    public List<V1Deployment> listDeployments(String namespace, String userName) {
+        LOGGER.trace("List deployments from cache request is received for namespace: {}", namespace);
+        List<V1Deployment> deployments;
+        if (StringUtils.isEmpty(namespace)) {
+            deployments = deploymentInformer.getIndexer().byIndex(USER_NAME_INDEX, userName);
+        } else {
+            deployments = deploymentInformer.getIndexer().byIndex(NAMESPACE_USER_NAME_INDEX,
+                    namespaceUserNameKey(namespace, userName));
+        }
+        LOGGER.trace("List deployments from cache request is finished for namespace: {}. Result size: {}",
+                namespace, deployments != null ? deployments.size() : 0);
+        return deployments != null ? deployments : Collections.emptyList();
+    }
+
+    /**
+     * @return the deployment currently held in the informer cache, or null if there is none
+     */
+    public V1Deployment getDeployment(String namespace, String name) {
+        return deploymentInformer.getIndexer().getByKey(namespace + "/" + name);
+    }
+
+    private static List<String> userNameIndexFunc(V1Deployment deployment) {
+        String userName = userNameOf(deployment);
+        return userName != null ? Collections.singletonList(userName) : Collections.emptyList();
+    }
+
+    private static List<String> namespaceUserNameIndexFunc(V1Deployment deployment) {
+        String userName = userNameOf(deployment);
+        return userName != null
+                ? Collections.singletonList(namespaceUserNameKey(deployment.getMetadata().getNamespace(), userName))
+                : Collections.emptyList();
+    }
+
+    private static String userNameOf(V1Deployment deployment) {
+        if (deployment.getMetadata() == null || deployment.getMetadata().getLabels() == null) {
+            return null;
+        }
+        return deployment.getMetadata().getLabels().get(ChallengeConstant.USER_NAME_LABEL);
+    }
+
+    private static String namespaceUserNameKey(String namespace, String userName) {
+        return namespace + "/" + userName;
+    }
+}
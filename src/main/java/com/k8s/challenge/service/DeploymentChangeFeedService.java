@@ -0,0 +1,421 @@
+package com.k8s.challenge.service;
+
+import com.k8s.challenge.constant.ChallengeConstant;
+import com.k8s.challenge.resource.DeploymentChangeFeedResource;
+import com.k8s.challenge.resource.DeploymentChangeResource;
+import com.k8s.challenge.resource.DeploymentResource;
+import io.kubernetes.client.informer.ResourceEventHandler;
+import io.kubernetes.client.informer.SharedIndexInformer;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import lombok.Getter;
+import lombok.Setter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Per-user feed of deployment changes, served as server-sent events and as long-poll. All feeds are filled from the
+ * event handler of the shared deployment informer, so there is one upstream watch no matter how many clients
+ * listen.
+ * <p>
+ * Every change gets a cursor from one sequence. Cursors start at the boot time in microseconds, so they keep growing
+ * across restarts. The last {@link Settings#getRetainedChanges() retainedChanges} changes of every user are kept in
+ * memory; a client that resumes from a cursor whose successors are no longer kept, e.g. from before a restart, is told
+ * to reset, i.e. to list its deployments again and continue from the current cursor. The feed of a user is dropped
+ * once it had neither subscribers nor waiting polls for {@link Settings#getIdleFeedTtl() idleFeedTtl}; a client that
+ * resumes after that is told to reset as well.
+ * <p>
+ * Only the default cluster is covered, as that is the one the informer watches.
+ */
+@Service
+public class DeploymentChangeFeedService implements ResourceEventHandler<V1Deployment> {
+
+    static final String ADDED = "ADDED";
+    static final String MODIFIED = "MODIFIED";
+    static final String DELETED = "DELETED";
+    static final String RESET = "RESET";
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeploymentChangeFeedService.class);
+    private final ConversionService conversionService;
+    private final Settings settings;
+    private final AtomicLong sequence;
+    private final ConcurrentMap<String, UserFeed> userFeeds = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService pollTimeoutScheduler;
+    private final Executor dispatchExecutor;
+    private final LongSupplier nanoTime;
+
+    @Autowired
+    public DeploymentChangeFeedService(SharedIndexInformer<V1Deployment> deploymentInformer,
+                                       ConversionService conversionService,
+                                       Settings deploymentChangeFeedSettings,
+                                       Bulkhead changeFeedBulkhead) {
+        this(conversionService, deploymentChangeFeedSettings, TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis()),
+                Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("deployment-change-poll")),
+                changeFeedBulkhead, System::nanoTime);
+        deploymentInformer.addEventHandler(this);
+    }
+
+    /**
+     * Idle feeds are evicted on the poll timeout scheduler.
+     */
+    DeploymentChangeFeedService(ConversionService conversionService, Settings settings, long initialCursor,
+                                ScheduledExecutorService pollTimeoutScheduler, Executor dispatchExecutor,
+                                LongSupplier nanoTime) {
+        this.conversionService = conversionService;
+        this.settings = settings;
+        this.sequence = new AtomicLong(initialCursor);
+        this.pollTimeoutScheduler = pollTimeoutScheduler;
+        this.dispatchExecutor = dispatchExecutor;
+        this.nanoTime = nanoTime;
+        long evictionPeriodMillis = settings.getIdleFeedTtl().toMillis();
+        pollTimeoutScheduler.scheduleWithFixedDelay(this::evictIdleFeeds, evictionPeriodMillis, evictionPeriodMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onAdd(V1Deployment deployment) {
+        publish(ADDED, deployment);
+    }
+
+    /**
+     * Resyncs and relists hand over unchanged objects; they are not changes.
+     */
+    @Override
+    public void onUpdate(V1Deployment oldDeployment, V1Deployment newDeployment) {
+        if (oldDeployment != null && oldDeployment.getMetadata() != null && newDeployment.getMetadata() != null
+                && Objects.equals(oldDeployment.getMetadata().getResourceVersion(),
+                newDeployment.getMetadata().getResourceVersion())) {
+            return;
+        }
+        String oldUserName = oldDeployment != null ? userNameOf(oldDeployment) : null;
+        if (oldUserName != null && !oldUserName.equals(userNameOf(newDeployment))) {
+            publish(DELETED, oldDeployment);
+        }
+        publish(MODIFIED, newDeployment);
+    }
+
+    @Override
+    public void onDelete(V1Deployment deployment, boolean deletedFinalStateUnknown) {
+        publish(DELETED, deployment);
+    }
+
+    /**
+     * Completes as soon as there are changes after the cursor, or with no changes once the poll timeout has passed.
+     *
+     * @param cursor cursor parameter is optional, without it the feed starts with a reset
+     */
+    public CompletableFuture<DeploymentChangeFeedResource> pollChanges(String userName, Long cursor) {
+        LOGGER.trace("Poll changes request received from user : {} with cursor: {}", userName, cursor);
+        UserFeed userFeed = accessUserFeed(userName);
+        synchronized (userFeed) {
+            long latestCursor = sequence.get();
+            if (cursor == null || isExpired(userFeed, cursor, latestCursor)) {
+                return CompletableFuture.completedFuture(new DeploymentChangeFeedResource(latestCursor, true,
+                        Collections.emptyList()));
+            }
+            List<DeploymentChangeResource> changes = changesAfter(userFeed, cursor);
+            if (!changes.isEmpty()) {
+                return CompletableFuture.completedFuture(new DeploymentChangeFeedResource(latestCursor, false, changes));
+            }
+            CompletableFuture<DeploymentChangeFeedResource> waiter = new CompletableFuture<>();
+            userFeed.waiters.add(waiter);
+            pollTimeoutScheduler.schedule(() -> expireWaiter(userFeed, waiter),
+                    settings.getPollTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            return waiter;
+        }
+    }
+
+    /**
+     * Sends every change as an event named after its type, with the cursor as event id, so that browsers resume
+     * through the Last-Event-ID header on their own.
+     *
+     * @param cursor cursor parameter is optional, without it the stream starts with a reset
+     */
+    public SseEmitter streamChanges(String userName, Long cursor) {
+        LOGGER.trace("Stream changes request received from user : {} with cursor: {}", userName, cursor);
+        SseEmitter emitter = new SseEmitter(settings.getStreamTimeout().toMillis());
+        Subscription subscription = subscribe(userName, cursor, new ChangeSink() {
+            @Override
+            public void send(DeploymentChangeResource change) throws IOException {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(change.getCursor()))
+                        .name(change.getType())
+                        .data(change));
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(throwable -> subscription.close());
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pollTimeoutScheduler.shutdownNow();
+    }
+
+    /**
+     * Changes after the cursor are replayed before any new change is handed to the sink.
+     */
+    Subscription subscribe(String userName, Long cursor, ChangeSink changeSink) {
+        UserFeed userFeed = accessUserFeed(userName);
+        Subscription subscription = new Subscription(userFeed, changeSink);
+        synchronized (userFeed) {
+            long latestCursor = sequence.get();
+            if (cursor == null || isExpired(userFeed, cursor, latestCursor)) {
+                subscription.enqueue(new DeploymentChangeResource(latestCursor, RESET, null));
+            } else {
+                changesAfter(userFeed, cursor).forEach(subscription::enqueue);
+            }
+            userFeed.subscriptions.add(subscription);
+        }
+        return subscription;
+    }
+
+    /**
+     * Drops the feeds that had neither subscribers nor waiting polls for the idle feed TTL.
+     */
+    void evictIdleFeeds() {
+        long idleSinceNanos = nanoTime.getAsLong() - settings.getIdleFeedTtl().toNanos();
+        userFeeds.keySet().forEach(userName -> userFeeds.computeIfPresent(userName, (ignored, userFeed) -> {
+            synchronized (userFeed) {
+                if (userFeed.subscriptions.isEmpty() && userFeed.waiters.isEmpty()
+                        && userFeed.lastAccessNanos - idleSinceNanos <= 0) {
+                    LOGGER.trace("Idle deployment change feed of user : {} is evicted", userName);
+                    userFeed.evicted = true;
+                    return null;
+                }
+                return userFeed;
+            }
+        }));
+    }
+
+    private void publish(String type, V1Deployment deployment) {
+        String userName = userNameOf(deployment);
+        if (userName == null) {
+            return;
+        }
+        DeploymentResource deploymentResource = conversionService.convert(deployment, DeploymentResource.class);
+        deploymentResource.setCluster(ChallengeConstant.DEFAULT_CLUSTER);
+        DeploymentChangeResource change;
+        List<CompletableFuture<DeploymentChangeFeedResource>> waiters;
+        while (true) {
+            UserFeed userFeed = userFeeds.computeIfAbsent(userName,
+                    ignored -> new UserFeed(sequence.get(), nanoTime.getAsLong()));
+            synchronized (userFeed) {
+                // The change belongs to the feed that replaced the evicted one
+                if (userFeed.evicted) {
+                    continue;
+                }
+                DeploymentChangeResource publishedChange =
+                        new DeploymentChangeResource(sequence.incrementAndGet(), type, deploymentResource);
+                userFeed.changes.addLast(publishedChange);
+                while (userFeed.changes.size() > settings.getRetainedChanges()) {
+                    userFeed.evictedCursor = userFeed.changes.removeFirst().getCursor();
+                }
+                userFeed.subscriptions.forEach(subscription -> subscription.enqueue(publishedChange));
+                change = publishedChange;
+                waiters = new ArrayList<>(userFeed.waiters);
+                userFeed.waiters.clear();
+                break;
+            }
+        }
+        LOGGER.trace("Deployment change {} of user : {} is published with cursor {}", type, userName, change.getCursor());
+        DeploymentChangeFeedResource page = new DeploymentChangeFeedResource(change.getCursor(), false,
+                Collections.singletonList(change));
+        waiters.forEach(waiter -> waiter.complete(page));
+    }
+
+    private void expireWaiter(UserFeed userFeed, CompletableFuture<DeploymentChangeFeedResource> waiter) {
+        long latestCursor;
+        synchronized (userFeed) {
+            if (!userFeed.waiters.remove(waiter)) {
+                return;
+            }
+            userFeed.lastAccessNanos = nanoTime.getAsLong();
+            latestCursor = sequence.get();
+        }
+        waiter.complete(new DeploymentChangeFeedResource(latestCursor, false, Collections.emptyList()));
+    }
+
+    /**
+     * The feed is marked as accessed in the same step as it is looked up, so it is not evicted before the caller has
+     * subscribed or started waiting.
+     */
+    private UserFeed accessUserFeed(String userName) {
+        long nowNanos = nanoTime.getAsLong();
+        return userFeeds.compute(userName, (ignored, userFeed) -> {
+            UserFeed accessedUserFeed = userFeed != null ? userFeed : new UserFeed(sequence.get(), nowNanos);
+            accessedUserFeed.lastAccessNanos = nowNanos;
+            return accessedUserFeed;
+        });
+    }
+
+    /**
+     * A cursor from the future can only come from another instance, so it is treated like a lost one.
+     */
+    private static boolean isExpired(UserFeed userFeed, long cursor, long latestCursor) {
+        return cursor < userFeed.evictedCursor || cursor > latestCursor;
+    }
+
+    private static List<DeploymentChangeResource> changesAfter(UserFeed userFeed, long cursor) {
+        return userFeed.changes.stream()
+                .filter(change -> change.getCursor() > cursor)
+                .collect(Collectors.toList());
+    }
+
+    private static String userNameOf(V1Deployment deployment) {
+        if (deployment.getMetadata() == null || deployment.getMetadata().getLabels() == null) {
+            return null;
+        }
+        return deployment.getMetadata().getLabels().get(ChallengeConstant.USER_NAME_LABEL);
+    }
+
+    /**
+     * Guarded by its own monitor.
+     */
+    private static final class UserFeed {
+
+        private final Deque<DeploymentChangeResource> changes = new ArrayDeque<>();
+        private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+        private final List<CompletableFuture<DeploymentChangeFeedResource>> waiters = new ArrayList<>();
+        // Changes up to this cursor may be missing from the feed
+        private long evictedCursor;
+        // Last time a client polled, subscribed or left; written outside of the monitor as well
+        private volatile long lastAccessNanos;
+        private boolean evicted;
+
+        private UserFeed(long evictedCursor, long lastAccessNanos) {
+            this.evictedCursor = evictedCursor;
+            this.lastAccessNanos = lastAccessNanos;
+        }
+    }
+
+    interface ChangeSink {
+
+        void send(DeploymentChangeResource change) throws IOException;
+
+        void close();
+    }
+
+    /**
+     * Hands changes to its sink in order on the dispatch executor, so a slow client never holds up the informer. A
+     * client that falls too far behind, or finds the dispatch executor full, is dropped; it resumes from its last
+     * cursor when it reconnects.
+     */
+    final class Subscription {
+
+        private final UserFeed userFeed;
+        private final ChangeSink changeSink;
+        private final Queue<DeploymentChangeResource> pendingChanges = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscription(UserFeed userFeed, ChangeSink changeSink) {
+            this.userFeed = userFeed;
+            this.changeSink = changeSink;
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                userFeed.subscriptions.remove(this);
+                userFeed.lastAccessNanos = nanoTime.getAsLong();
+                changeSink.close();
+            }
+        }
+
+        private void enqueue(DeploymentChangeResource change) {
+            if (closed.get()) {
+                return;
+            }
+            if (pendingCount.incrementAndGet() > settings.getMaxPendingChanges()) {
+                LOGGER.warn("Change feed subscriber fell behind by more than {} changes and is dropped",
+                        settings.getMaxPendingChanges());
+                close();
+                return;
+            }
+            pendingChanges.add(change);
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    dispatchExecutor.execute(this::drain);
+                } catch (RejectedExecutionException ex) {
+                    LOGGER.warn("Change feed dispatch is full. Subscriber is dropped");
+                    draining.set(false);
+                    close();
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                DeploymentChangeResource change;
+                while (!closed.get() && (change = pendingChanges.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    changeSink.send(change);
+                }
+            } catch (IOException | RuntimeException ex) {
+                LOGGER.debug("Change could not be sent to subscriber", ex);
+                close();
+            } finally {
+                draining.set(false);
+            }
+            if (!closed.get() && !pendingChanges.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+
+    /**
+     * Bound to {@code k8s.change-feed.*}.
+     */
+    @Getter
+    @Setter
+    public static class Settings {
+
+        private int retainedChanges = 1000;
+        private int maxPendingChanges = 2000;
+        private int dispatchThreads = 2;
+        private int dispatchQueueCapacity = 1000;
+        private Duration pollTimeout = Duration.ofSeconds(25);
+        private Duration streamTimeout = Duration.ofMinutes(30);
+        private Duration idleFeedTtl = Duration.ofMinutes(10);
+    }
+}
@@ -0,0 +1,313 @@
+package com.k8s.challenge.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.k8s.challenge.constant.OperationStatus;
+import com.k8s.challenge.constant.OperationType;
+import com.k8s.challenge.dto.CreateDeploymentDto;
+import com.k8s.challenge.entity.OperationEntity;
+import com.k8s.challenge.exception.ApiServerUnavailableException;
+import com.k8s.challenge.repository.OperationRepository;
+import com.k8s.challenge.resource.ErrorResource;
+import com.k8s.challenge.resource.OperationResource;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import lombok.Getter;
+import lombok.Setter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates deployments from a queue kept in the operation table. Requests are stored as pending operations and
+ * answered right away; a fixed pool of {@link Settings#getWorkers() workers} takes them up, so the load on the API
+ * server is bounded by the pool size rather than by the number of clients.
+ * <p>
+ * Operations are claimed with a conditional update, so several instances can drain the same queue. A failed attempt
+ * is retried with exponential backoff as long as the failure is transient; an operation whose worker died is taken
+ * up again once its lease has expired, or failed if that was its last attempt.
+ * <p>
+ * The deployment is stored as a step of its own once the API server has created it. If that fails, the operation is
+ * retried: the next attempt finds the deployment of the user through the conflict and only stores it. An operation
+ * whose deployment exists is never reported as failed, even if its row could not be stored by the last attempt.
+ */
+@Service
+public class DeploymentCreationQueueService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeploymentCreationQueueService.class);
+    private static final String EXHAUSTED_MESSAGE = "Lease of the last attempt expired before it completed";
+    private final OperationRepository operationRepository;
+    private final OperationService operationService;
+    private final DeploymentService deploymentService;
+    private final KubernetesClusterRegistry kubernetesClusterRegistry;
+    private final ConversionService conversionService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Settings settings;
+    private final Clock clock;
+    private final ScheduledExecutorService dispatchScheduler;
+    private final Executor workerExecutor;
+    private final AtomicInteger busyWorkers = new AtomicInteger();
+
+    @Autowired
+    public DeploymentCreationQueueService(OperationRepository operationRepository,
+                                          OperationService operationService,
+                                          DeploymentService deploymentService,
+                                          KubernetesClusterRegistry kubernetesClusterRegistry,
+                                          ConversionService conversionService,
+                                          ObjectMapper objectMapper,
+                                          TransactionTemplate transactionTemplate,
+                                          Settings deploymentCreationQueueSettings,
+                                          Bulkhead createQueueBulkhead) {
+        this(operationRepository, operationService, deploymentService, kubernetesClusterRegistry, conversionService,
+                objectMapper, transactionTemplate, deploymentCreationQueueSettings, Clock.systemDefaultZone(),
+                Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("deployment-create-dispatch")),
+                createQueueBulkhead);
+    }
+
+    DeploymentCreationQueueService(OperationRepository operationRepository, OperationService operationService,
+                                   DeploymentService deploymentService,
+                                   KubernetesClusterRegistry kubernetesClusterRegistry,
+                                   ConversionService conversionService, ObjectMapper objectMapper,
+                                   TransactionTemplate transactionTemplate, Settings settings, Clock clock,
+                                   ScheduledExecutorService dispatchScheduler, Executor workerExecutor) {
+        this.operationRepository = operationRepository;
+        this.operationService = operationService;
+        this.deploymentService = deploymentService;
+        this.kubernetesClusterRegistry = kubernetesClusterRegistry;
+        this.conversionService = conversionService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.settings = settings;
+        this.clock = clock;
+        this.dispatchScheduler = dispatchScheduler;
+        this.workerExecutor = workerExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        LOGGER.info("Starting deployment creation queue with {} workers", settings.getWorkers());
+        long pollInterval = settings.getPollInterval().toMillis();
+        dispatchScheduler.scheduleWithFixedDelay(this::dispatch, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Operations in progress are left to their lease and taken up again by the next instance.
+     */
+    @PreDestroy
+    public void shutdown() {
+        LOGGER.info("Stopping deployment creation queue");
+        dispatchScheduler.shutdownNow();
+    }
+
+    /**
+     * Queues the creation of a deployment. Only the cluster is checked here; everything else is reported through the
+     * operation.
+     *
+     * @throws com.k8s.challenge.exception.BadRequestException if the cluster is unknown
+     */
+    public OperationResource enqueue(String userName, CreateDeploymentDto createDeploymentDto) {
+        LOGGER.trace("Queued create deployment request received from user : {}", userName);
+        kubernetesClusterRegistry.getKubernetesClientService(createDeploymentDto.getCluster());
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(createDeploymentDto);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Create deployment request can not be written", ex);
+        }
+        OperationResource operation = operationService.enqueueOperation(userName, OperationType.CREATE_DEPLOYMENT,
+                DeploymentService.clusterName(createDeploymentDto.getCluster()), createDeploymentDto.getNamespace(),
+                createDeploymentDto.getMetaDataName(), payload);
+        dispatchScheduler.execute(this::dispatch);
+        return operation;
+    }
+
+    /**
+     * Fails operations that lost their last attempt, then claims as many due operations as there are idle workers.
+     * Runs on the single dispatch thread only, so the idle count can not be overbooked.
+     */
+    void dispatch() {
+        try {
+            int idleWorkers = settings.getWorkers() - busyWorkers.get();
+            if (idleWorkers <= 0) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now(clock);
+            Integer exhausted = transactionTemplate.execute(status -> operationRepository.failExhaustedOperations(
+                    OperationType.CREATE_DEPLOYMENT, OperationStatus.RUNNING, OperationStatus.FAILED, now,
+                    settings.getMaxAttempts(), EXHAUSTED_MESSAGE));
+            if (exhausted != null && exhausted > 0) {
+                LOGGER.warn("{} queued deployment creations failed after their last attempt was lost", exhausted);
+            }
+            List<UUID> dueOperationIds = operationRepository.findDueOperationIds(OperationType.CREATE_DEPLOYMENT,
+                    OperationStatus.PENDING, OperationStatus.RUNNING, now, settings.getMaxAttempts(),
+                    PageRequest.of(0, idleWorkers));
+            for (UUID id : dueOperationIds) {
+                Integer claimed = transactionTemplate.execute(status -> operationRepository.claimOperation(id,
+                        OperationStatus.PENDING, OperationStatus.RUNNING, now, now.plus(settings.getLease()),
+                        settings.getMaxAttempts()));
+                if (claimed == null || claimed == 0) {
+                    // Claimed by another instance in the meantime
+                    continue;
+                }
+                busyWorkers.incrementAndGet();
+                try {
+                    workerExecutor.execute(() -> {
+                        try {
+                            process(id);
+                        } finally {
+                            busyWorkers.decrementAndGet();
+                            dispatchScheduler.execute(this::dispatch);
+                        }
+                    });
+                } catch (RejectedExecutionException ex) {
+                    // Taken up again once its lease has expired
+                    busyWorkers.decrementAndGet();
+                    LOGGER.warn("Queued deployment creation {} could not be handed to a worker", id);
+                    return;
+                }
+            }
+        } catch (RuntimeException ex) {
+            LOGGER.error("Queued deployment creations could not be dispatched", ex);
+        }
+    }
+
+    private void process(UUID id) {
+        Optional<OperationEntity> operation = operationRepository.findWithUserById(id);
+        if (!operation.isPresent()) {
+            return;
+        }
+        int attempts = operation.get().getAttempts();
+        String userName = operation.get().getUser().getUserName();
+        CreateDeploymentDto createDeploymentDto;
+        try {
+            createDeploymentDto = objectMapper.readValue(operation.get().getPayload(), CreateDeploymentDto.class);
+        } catch (IOException ex) {
+            operationService.failOperation(id, "Create deployment request can not be read: " + ex.getMessage());
+            return;
+        }
+        LOGGER.trace("Attempt {} of queued operation {} for user : {}", attempts, id, userName);
+        V1Deployment createdDeployment;
+        try {
+            createdDeployment = kubernetesClusterRegistry.getKubernetesClientService(createDeploymentDto.getCluster())
+                    .createDeployment(createDeploymentDto.getNamespace(), conversionService.convert(
+                            createDeploymentDto, V1Deployment.class), createDeploymentDto.getPretty(),
+                            createDeploymentDto.getDryRun(), userName);
+        } catch (ApiException ex) {
+            createdDeployment = ex.getCode() == HttpStatus.CONFLICT.value() && attempts > 1
+                    ? findOwnedDeployment(userName, createDeploymentDto) : null;
+            if (createdDeployment == null) {
+                handleFailure(id, attempts, ex);
+                return;
+            }
+            // An earlier attempt got through without learning about it, or could not store the deployment
+            LOGGER.debug("Queued operation {} found its deployment created by an earlier attempt", id);
+        } catch (RuntimeException ex) {
+            handleFailure(id, attempts, ex);
+            return;
+        }
+        persist(id, attempts, userName, createDeploymentDto.getCluster(), createdDeployment);
+    }
+
+    private V1Deployment findOwnedDeployment(String userName, CreateDeploymentDto createDeploymentDto) {
+        try {
+            return DeploymentService.join(deploymentService.findDeploymentAsync(userName,
+                    createDeploymentDto.getCluster(), createDeploymentDto.getNamespace(),
+                    createDeploymentDto.getMetaDataName()));
+        } catch (ApiException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * The deployment exists in the cluster, so a failure to store it is retried while attempts are left, and the
+     * operation succeeds with the failure as its message once they are used up.
+     */
+    private void persist(UUID id, int attempts, String userName, String cluster, V1Deployment createdDeployment) {
+        try {
+            deploymentService.persistDeployment(userName, cluster, createdDeployment);
+            operationService.completeOperation(id, 1, 0, null);
+        } catch (RuntimeException ex) {
+            ErrorResource errorResource = DeploymentService.toErrorResource(ex);
+            String message = "Deployment is created, but could not be stored: " + errorResource.getCode() + " "
+                    + errorResource.getReasonMessage();
+            if (attempts < settings.getMaxAttempts()) {
+                operationService.retryOperation(id, LocalDateTime.now(clock).plus(backoff(attempts)), message);
+            } else {
+                operationService.completeOperation(id, 1, 0, message);
+            }
+        }
+    }
+
+    private void handleFailure(UUID id, int attempts, Throwable throwable) {
+        ErrorResource errorResource = DeploymentService.toErrorResource(throwable);
+        String message = errorResource.getCode() + " " + errorResource.getReasonMessage();
+        if (attempts < settings.getMaxAttempts() && isRetryable(throwable)) {
+            operationService.retryOperation(id, LocalDateTime.now(clock).plus(backoff(attempts)), message);
+        } else {
+            operationService.completeOperation(id, 0, 1, message);
+        }
+    }
+
+    /**
+     * Doubles with every attempt, starting at {@link Settings#getInitialBackoff() initialBackoff}.
+     */
+    Duration backoff(int attempts) {
+        Duration backoff = settings.getInitialBackoff();
+        for (int attempt = 1; attempt < attempts && backoff.compareTo(settings.getMaxBackoff()) < 0; attempt++) {
+            backoff = backoff.multipliedBy(2);
+        }
+        return backoff.compareTo(settings.getMaxBackoff()) < 0 ? backoff : settings.getMaxBackoff();
+    }
+
+    /**
+     * Connection failures, throttling, server errors and an open circuit are transient; rejected requests are not.
+     */
+    private static boolean isRetryable(Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+        if (!(cause instanceof ApiException)) {
+            return false;
+        }
+        int code = ((ApiException) cause).getCode();
+        return cause.getCause() instanceof ApiServerUnavailableException || code == 0
+                || code == HttpStatus.TOO_MANY_REQUESTS.value() || code >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+    }
+
+    /**
+     * Bound to {@code k8s.create-queue.*}.
+     */
+    @Getter
+    @Setter
+    public static class Settings {
+
+        private int workers = 4;
+        private Duration pollInterval = Duration.ofMillis(500);
+        private int maxAttempts = 5;
+        private Duration initialBackoff = Duration.ofSeconds(1);
+        private Duration maxBackoff = Duration.ofMinutes(1);
+        private Duration lease = Duration.ofMinutes(2);
+    }
+}
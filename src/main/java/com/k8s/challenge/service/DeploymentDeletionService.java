@@ -0,0 +1,241 @@
+package com.k8s.challenge.service;
+
+import com.google.common.collect.Lists;
+import com.k8s.challenge.constant.ExceptionResponse;
+import com.k8s.challenge.constant.OperationType;
+import com.k8s.challenge.entity.UserEntity;
+import com.k8s.challenge.exception.BadRequestException;
+import com.k8s.challenge.exception.NotFoundException;
+import com.k8s.challenge.repository.DeploymentRepository;
+import com.k8s.challenge.resource.DeploymentResource;
+import com.k8s.challenge.resource.ErrorResource;
+import com.k8s.challenge.resource.OperationResource;
+import io.kubernetes.client.openapi.ApiException;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Deletes deployments of a user in the background. Callers get an operation handle right away and poll it; the
+ * operation completes once the API server has accepted every deletion, not once the pods are gone.
+ */
+@Service
+@RequiredArgsConstructor
+public class DeploymentDeletionService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeploymentDeletionService.class);
+    static final int DELETE_PARALLELISM = 8;
+    static final int DELETE_BATCH_SIZE = 100;
+    private final UserService userService;
+    private final DeploymentService deploymentService;
+    private final KubernetesClusterRegistry kubernetesClusterRegistry;
+    private final DeploymentRepository deploymentRepository;
+    private final OperationService operationService;
+    private final TransactionTemplate transactionTemplate;
+    private final Bulkhead databaseBulkhead;
+
+    /**
+     * Deletes a single deployment. Unlike the bulk variant, an unknown deployment is reported right away.
+     *
+     * @param cluster cluster parameter is optional, the default cluster is used if it is empty
+     * @throws NotFoundException if the user has no such deployment
+     */
+    public CompletableFuture<OperationResource> deleteDeploymentAsync(String userName, String cluster, String namespace,
+                                                                      String name) {
+        LOGGER.trace("Delete deployment request received from user : {} for deployment {} in namespace {}",
+                userName, name, namespace);
+        return deploymentService.findDeploymentAsync(userName, cluster, namespace, name)
+                .thenCompose(ignored -> deleteDeploymentsAsync(userName, cluster, namespace,
+                        Collections.singletonList(name), null));
+    }
+
+    /**
+     * Deletes the given deployments, or those matching the label selector, with at most {@link #DELETE_PARALLELISM}
+     * requests in flight. Deployments the user does not own are reported as not found and left alone. Rows of
+     * deleted deployments are removed {@link #DELETE_BATCH_SIZE} at a time once all deletions have been sent. The
+     * user, the operation and the rows are read and written on the database bulkhead, never on a request or an API
+     * client thread.
+     *
+     * @param cluster cluster parameter is optional, the default cluster is used if it is empty
+     * @param names   names parameter is exclusive with labelSelector
+     * @return the started operation, once it is stored
+     * @throws BadRequestException if not exactly one of names and labelSelector is given
+     */
+    public CompletableFuture<OperationResource> deleteDeploymentsAsync(String userName, String cluster,
+                                                                       String namespace, List<String> names,
+                                                                       String labelSelector) {
+        LOGGER.trace("Bulk delete deployment request received from user : {} in namespace {}", userName, namespace);
+        if (CollectionUtils.isEmpty(names) == StringUtils.isEmpty(labelSelector)) {
+            throw new BadRequestException("Either deployment names or a label selector must be given");
+        }
+        String clusterName = DeploymentService.clusterName(cluster);
+        KubernetesClientService kubernetesClientService = kubernetesClusterRegistry.getKubernetesClientService(cluster);
+        List<String> distinctNames = names != null ? new ArrayList<>(new LinkedHashSet<>(names)) : null;
+        return databaseBulkhead.supplyAsync(() -> {
+            UserEntity userEntity = userService.findUserByName(userName);
+            OperationResource operation = operationService.startOperation(userName, OperationType.DELETE_DEPLOYMENTS,
+                    clusterName, namespace, distinctNames != null ? distinctNames.size() : null);
+            startDeletion(kubernetesClientService, userEntity, cluster, namespace, distinctNames, labelSelector,
+                    operation);
+            return operation;
+        });
+    }
+
+    private void startDeletion(KubernetesClientService kubernetesClientService, UserEntity userEntity, String cluster,
+                               String namespace, List<String> names, String labelSelector,
+                               OperationResource operation) {
+        String userName = userEntity.getUserName();
+        CompletableFuture<DeletionResults> deletion;
+        if (names != null) {
+            // Named deployments may belong to someone else, so ownership is checked before each deletion
+            deletion = deleteAll(names, name -> deploymentService.findDeploymentAsync(userName, cluster,
+                    namespace, name).thenCompose(ignored -> deleteIfPresent(kubernetesClientService, namespace, name)));
+        } else {
+            List<String> selectedNames = Collections.synchronizedList(new ArrayList<>());
+            deletion = kubernetesClientService.listDeploymentResourcesAsync(namespace, userName, labelSelector,
+                    page -> page.stream().map(DeploymentResource::getName).forEach(selectedNames::add))
+                    .thenCompose(ignored -> deleteAll(new ArrayList<>(new LinkedHashSet<>(selectedNames)),
+                            name -> deleteIfPresent(kubernetesClientService, namespace, name)));
+        }
+        deletion.whenCompleteAsync((deletionResults, throwable) -> {
+            try {
+                if (throwable != null) {
+                    operationService.failOperation(operation.getId(), describe(throwable));
+                    return;
+                }
+                removePersistedDeployments(userEntity, DeploymentService.clusterName(cluster), namespace,
+                        deletionResults.removableNames());
+                operationService.completeOperation(operation.getId(), deletionResults.deletedCount(),
+                        deletionResults.failedCount(), deletionResults.describeFailures());
+            } catch (RuntimeException ex) {
+                LOGGER.error("Bulk delete operation {} could not be completed", operation.getId(), ex);
+                operationService.failOperation(operation.getId(), describe(ex));
+            }
+        }, databaseBulkhead);
+    }
+
+    private CompletableFuture<DeletionResults> deleteAll(List<String> names,
+                                                        Function<String, CompletableFuture<Void>> delete) {
+        DeletionResults deletionResults = new DeletionResults(names);
+        AtomicInteger nextIndex = new AtomicInteger();
+        CompletableFuture<?>[] submitters = IntStream.range(0, Math.min(DELETE_PARALLELISM, names.size()))
+                .mapToObj(submitter -> submitNextDeletion(deletionResults, nextIndex, delete))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(submitters).thenApply(ignored -> deletionResults);
+    }
+
+    /**
+     * Same chaining as the batch create: each chain keeps one request in flight.
+     */
+    private CompletableFuture<Void> submitNextDeletion(DeletionResults deletionResults, AtomicInteger nextIndex,
+                                                       Function<String, CompletableFuture<Void>> delete) {
+        int index = nextIndex.getAndIncrement();
+        if (index >= deletionResults.names.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> deleted;
+        try {
+            deleted = delete.apply(deletionResults.names.get(index));
+        } catch (RuntimeException ex) {
+            deleted = new CompletableFuture<>();
+            deleted.completeExceptionally(ex);
+        }
+        return deleted.handle((ignored, throwable) -> {
+            if (throwable != null) {
+                deletionResults.errors[index] = DeploymentService.toErrorResource(throwable);
+            }
+            return null;
+        }).thenCompose(ignored -> submitNextDeletion(deletionResults, nextIndex, delete));
+    }
+
+    /**
+     * A deployment that is already gone counts as deleted.
+     */
+    private static CompletableFuture<Void> deleteIfPresent(KubernetesClientService kubernetesClientService,
+                                                           String namespace, String name) {
+        return kubernetesClientService.deleteDeploymentAsync(name, namespace).exceptionally(throwable -> {
+            Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+            if (cause instanceof ApiException && ((ApiException) cause).getCode() == HttpStatus.NOT_FOUND.value()) {
+                return null;
+            }
+            throw new CompletionException(cause);
+        });
+    }
+
+    private void removePersistedDeployments(UserEntity userEntity, String cluster, String namespace,
+                                            List<String> names) {
+        if (names.isEmpty()) {
+            return;
+        }
+        transactionTemplate.execute(status -> {
+            int removedCount = 0;
+            for (List<String> batch : Lists.partition(names, DELETE_BATCH_SIZE)) {
+                removedCount += deploymentRepository.deleteAllByUserAndClusterAndNamespaceAndDeploymentNameIn(
+                        userEntity, cluster, namespace, batch);
+            }
+            LOGGER.trace("{} persisted deployments of user : {} are removed", removedCount, userEntity.getUserName());
+            return removedCount;
+        });
+    }
+
+    private static String describe(Throwable throwable) {
+        ErrorResource errorResource = DeploymentService.toErrorResource(throwable);
+        return errorResource.getCode() + " " + errorResource.getReasonMessage();
+    }
+
+    private static class DeletionResults {
+
+        private final List<String> names;
+        private final ErrorResource[] errors;
+
+        DeletionResults(List<String> names) {
+            this.names = names;
+            this.errors = new ErrorResource[names.size()];
+        }
+
+        int deletedCount() {
+            return (int) IntStream.range(0, errors.length).filter(index -> errors[index] == null).count();
+        }
+
+        int failedCount() {
+            return errors.length - deletedCount();
+        }
+
+        /**
+         * Rows of deployments that are not in the cluster, or not the user's, are stale and removed as well; the
+         * query only ever touches rows of the user.
+         */
+        List<String> removableNames() {
+            return IntStream.range(0, errors.length)
+                    .filter(index -> errors[index] == null
+                            || ExceptionResponse.NOT_FOUND.getCode().equals(errors[index].getCode()))
+                    .mapToObj(names::get)
+                    .collect(Collectors.toList());
+        }
+
+        String describeFailures() {
+            String failures = IntStream.range(0, errors.length)
+                    .filter(index -> errors[index] != null)
+                    .mapToObj(index -> names.get(index) + ": " + errors[index].getCode() + " "
+                            + errors[index].getReasonMessage())
+                    .collect(Collectors.joining("; "));
+            return failures.isEmpty() ? null : failures;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.k8s.challenge.service;
+
+import com.k8s.challenge.resource.DeploymentResource;
+import com.k8s.challenge.resource.ErrorResource;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The deployments of a user, and the clusters they could not be listed from. Only a listing from the clusters can miss
+ * clusters; the persisted deployments are complete. A listing is shared by coalesced requests, so it can not be
+ * modified.
+ */
+public class DeploymentListing {
+
+    private final List<DeploymentResource> deployments;
+    private final Map<String, ErrorResource> clusterErrors;
+
+    public DeploymentListing(List<DeploymentResource> deployments) {
+        this(deployments, Collections.emptyMap());
+    }
+
+    /**
+     * @param clusterErrors errors of the clusters that could not be listed, by cluster
+     */
+    public DeploymentListing(List<DeploymentResource> deployments, Map<String, ErrorResource> clusterErrors) {
+        this.deployments = Collections.unmodifiableList(deployments);
+        this.clusterErrors = Collections.unmodifiableMap(new LinkedHashMap<>(clusterErrors));
+    }
+
+    public List<DeploymentResource> getDeployments() {
+        return deployments;
+    }
+
+    public Map<String, ErrorResource> getClusterErrors() {
+        return clusterErrors;
+    }
+
+    public boolean isComplete() {
+        return clusterErrors.isEmpty();
+    }
+}
@@ -0,0 +1,226 @@
+package com.k8s.challenge.service;
+
+import com.google.protobuf.CodedInputStream;
+import com.k8s.challenge.resource.DeploymentResource;
+import com.k8s.challenge.service.DeploymentResourceListDecoder.DeploymentResourcePage;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.AppsV1Api;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.openapi.models.V1DeploymentList;
+import io.kubernetes.client.openapi.models.V1ListMeta;
+import io.kubernetes.client.openapi.models.V1Status;
+import io.kubernetes.client.proto.Meta;
+import io.kubernetes.client.proto.Runtime;
+import io.kubernetes.client.proto.V1Apps;
+import lombok.RequiredArgsConstructor;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Lists deployments with the Kubernetes protobuf encoding. Enabled with {@code k8s.wireFormat=protobuf}.
+ * <p>
+ * Requests are built by {@link AppsV1Api} and only the Accept header is replaced, so protobuf is negotiated with JSON
+ * as the fallback: an API server that does not serve protobuf answers with JSON, which is decoded as before. Gzip
+ * needs no setup, OkHttp requests and inflates it transparently for both encodings.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "k8s", name = "wireFormat", havingValue = "protobuf")
+public class DeploymentProtobufClient {
+
+    static final String PROTOBUF_ACCEPT = "application/vnd.kubernetes.protobuf, application/json;q=0.9";
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeploymentProtobufClient.class);
+    private static final String PROTOBUF_SUBTYPE = "vnd.kubernetes.protobuf";
+    private static final byte[] PROTOBUF_MAGIC = {'k', '8', 's', 0};
+
+    @Qualifier("deploymentApi")
+    private final AppsV1Api deploymentApi;
+    private final ConversionService conversionService;
+
+    /**
+     * @param namespace namespace parameter is optional
+     */
+    public V1DeploymentList listDeploymentPage(String namespace, String labelSelector, String continueToken, int limit)
+            throws ApiException {
+        return execute(listDeploymentPageCall(namespace, labelSelector, continueToken, limit),
+                this::decodeDeploymentList);
+    }
+
+    /**
+     * Asynchronous variant of {@link #listDeploymentPage(String, String, String, int)}.
+     */
+    public CompletableFuture<V1DeploymentList> listDeploymentPageAsync(String namespace, String labelSelector,
+                                                                       String continueToken, int limit) {
+        try {
+            return enqueue(listDeploymentPageCall(namespace, labelSelector, continueToken, limit),
+                    this::decodeDeploymentList);
+        } catch (ApiException ex) {
+            CompletableFuture<V1DeploymentList> failedFuture = new CompletableFuture<>();
+            failedFuture.completeExceptionally(ex);
+            return failedFuture;
+        }
+    }
+
+    /**
+     * Same as {@link #listDeploymentPageAsync(String, String, String, int)}, converted to deployment resources.
+     */
+    CompletableFuture<DeploymentResourcePage> listDeploymentResourcePageAsync(String namespace, String labelSelector,
+                                                                              String continueToken, int limit) {
+        CompletableFuture<V1DeploymentList> page = listDeploymentPageAsync(namespace, labelSelector, continueToken,
+                limit);
+        return KubernetesClientService.onCancel(page.thenApply(this::toDeploymentResourcePage),
+                () -> page.cancel(false));
+    }
+
+    private DeploymentResourcePage toDeploymentResourcePage(V1DeploymentList v1DeploymentList) {
+        List<V1Deployment> items = v1DeploymentList.getItems() != null
+                ? v1DeploymentList.getItems() : Collections.emptyList();
+        return new DeploymentResourcePage(items.stream()
+                .map(v1Deployment -> conversionService.convert(v1Deployment, DeploymentResource.class))
+                .collect(Collectors.toList()),
+                v1DeploymentList.getMetadata() != null ? v1DeploymentList.getMetadata().getContinue() : null,
+                v1DeploymentList.getMetadata() != null ? v1DeploymentList.getMetadata().getResourceVersion() : null);
+    }
+
+    private Call listDeploymentPageCall(String namespace, String labelSelector, String continueToken, int limit)
+            throws ApiException {
+        if (StringUtils.isEmpty(namespace)) {
+            return deploymentApi.listDeploymentForAllNamespacesCall(null, continueToken, null, labelSelector,
+                    limit, null, null, null, Boolean.FALSE, null);
+        }
+        return deploymentApi.listNamespacedDeploymentCall(namespace, null, null, continueToken, null,
+                labelSelector, limit, null, null, Boolean.FALSE, null);
+    }
+
+    private <T> T execute(Call call, ResponseDecoder<T> decoder) throws ApiException {
+        try (Response response = negotiate(call).execute()) {
+            return decodeResponse(response, decoder);
+        } catch (IOException ex) {
+            throw new ApiException(ex);
+        }
+    }
+
+    private <T> CompletableFuture<T> enqueue(Call call, ResponseDecoder<T> decoder) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Callback callback = new Callback() {
+            @Override
+            public void onFailure(Call failedCall, IOException ex) {
+                future.completeExceptionally(new ApiException(ex));
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (Response closeableResponse = response) {
+                    future.complete(decodeResponse(closeableResponse, decoder));
+                } catch (ApiException | RuntimeException ex) {
+                    future.completeExceptionally(ex);
+                }
+            }
+        };
+        return KubernetesClientService.onCancel(future, KubernetesReadPolicy.enqueue(
+                deploymentApi.getApiClient().getHttpClient(), negotiate(call), callback));
+    }
+
+    private Call negotiate(Call call) {
+        Request request = call.request().newBuilder().header("Accept", PROTOBUF_ACCEPT).build();
+        return deploymentApi.getApiClient().getHttpClient().newCall(request);
+    }
+
+    private <T> T decodeResponse(Response response, ResponseDecoder<T> decoder) throws ApiException {
+        ResponseBody responseBody = response.body();
+        try {
+            byte[] body = responseBody != null ? responseBody.bytes() : new byte[0];
+            MediaType contentType = responseBody != null ? responseBody.contentType() : null;
+            if (!response.isSuccessful()) {
+                throw new ApiException(response.message(), response.code(), response.headers().toMultimap(),
+                        errorBody(contentType, body));
+            }
+            return decoder.decode(contentType, body);
+        } catch (IOException ex) {
+            throw new ApiException(ex);
+        }
+    }
+
+    V1DeploymentList decodeDeploymentList(MediaType contentType, byte[] body) throws IOException {
+        if (!isProtobuf(contentType)) {
+            return decodeJson(body, V1DeploymentList.class);
+        }
+        V1Apps.DeploymentList deploymentList = V1Apps.DeploymentList.parseFrom(unwrap(body).getRaw());
+        V1DeploymentList v1DeploymentList = new V1DeploymentList();
+        v1DeploymentList.setItems(deploymentList.getItemsList().stream()
+                .map(deployment -> conversionService.convert(deployment, V1Deployment.class))
+                .collect(Collectors.toList()));
+        if (deploymentList.hasMetadata()) {
+            Meta.ListMeta listMeta = deploymentList.getMetadata();
+            v1DeploymentList.setMetadata(new V1ListMeta()
+                    ._continue(listMeta.hasContinue() ? listMeta.getContinue() : null)
+                    .resourceVersion(listMeta.hasResourceVersion() ? listMeta.getResourceVersion() : null));
+        }
+        return v1DeploymentList;
+    }
+
+    /**
+     * Error bodies are handed on as JSON, so callers can read the status the same way for both encodings.
+     */
+    String errorBody(MediaType contentType, byte[] body) throws IOException {
+        if (!isProtobuf(contentType)) {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+        Meta.Status status = Meta.Status.parseFrom(unwrap(body).getRaw());
+        V1Status v1Status = new V1Status()
+                .code(status.hasCode() ? status.getCode() : null)
+                .status(status.hasStatus() ? status.getStatus() : null)
+                .reason(status.hasReason() ? status.getReason() : null)
+                .message(status.hasMessage() ? status.getMessage() : null);
+        if (status.hasMetadata() && status.getMetadata().hasContinue()) {
+            v1Status.setMetadata(new V1ListMeta()._continue(status.getMetadata().getContinue()));
+        }
+        return deploymentApi.getApiClient().getJSON().serialize(v1Status);
+    }
+
+    private <T> T decodeJson(byte[] body, Type type) {
+        LOGGER.trace("Response is not protobuf encoded. Decoding JSON");
+        return deploymentApi.getApiClient().getJSON().deserialize(new String(body, StandardCharsets.UTF_8), type);
+    }
+
+    /**
+     * Protobuf responses are a {@link Runtime.Unknown} envelope prefixed with the "k8s\0" magic number.
+     */
+    private static Runtime.Unknown unwrap(byte[] body) throws IOException {
+        for (int i = 0; i < PROTOBUF_MAGIC.length; i++) {
+            if (body.length <= i || body[i] != PROTOBUF_MAGIC[i]) {
+                throw new IOException("Response is not a Kubernetes protobuf message");
+            }
+        }
+        return Runtime.Unknown.parseFrom(CodedInputStream.newInstance(body, PROTOBUF_MAGIC.length,
+                body.length - PROTOBUF_MAGIC.length));
+    }
+
+    private static boolean isProtobuf(MediaType contentType) {
+        return contentType != null && PROTOBUF_SUBTYPE.equals(contentType.subtype());
+    }
+
+    @FunctionalInterface
+    private interface ResponseDecoder<T> {
+        T decode(MediaType contentType, byte[] body) throws IOException;
+    }
+}
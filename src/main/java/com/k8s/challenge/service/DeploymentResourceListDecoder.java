@@ -0,0 +1,228 @@
+package com.k8s.challenge.service;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.k8s.challenge.resource.DeploymentResource;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes a deployment list response straight into {@link DeploymentResource}s while it is streamed. Only the fields
+ * read by {@link com.k8s.challenge.converter.V1DeploymentToDeploymentResourceConverter} are materialized; status,
+ * managedFields and every other value are skipped by the reader without building objects for them.
+ */
+final class DeploymentResourceListDecoder {
+
+    private DeploymentResourceListDecoder() {
+    }
+
+    static DeploymentResourcePage decode(JsonReader reader) throws IOException {
+        List<DeploymentResource> deploymentResources = new ArrayList<>();
+        String continueToken = null;
+        String resourceVersion = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "metadata":
+                    if (isNull(reader)) {
+                        break;
+                    }
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        switch (reader.nextName()) {
+                            case "continue":
+                                continueToken = nextString(reader);
+                                break;
+                            case "resourceVersion":
+                                resourceVersion = nextString(reader);
+                                break;
+                            default:
+                                reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                    break;
+                case "items":
+                    if (isNull(reader)) {
+                        break;
+                    }
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        deploymentResources.add(decodeDeployment(reader));
+                    }
+                    reader.endArray();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new DeploymentResourcePage(deploymentResources, continueToken, resourceVersion);
+    }
+
+    private static DeploymentResource decodeDeployment(JsonReader reader) throws IOException {
+        DeploymentResource deploymentResource = new DeploymentResource();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "apiVersion":
+                    deploymentResource.setApiVersion(nextString(reader));
+                    break;
+                case "kind":
+                    deploymentResource.setKind(nextString(reader));
+                    break;
+                case "metadata":
+                    decodeMetadata(reader, deploymentResource);
+                    break;
+                case "spec":
+                    decodeSpec(reader, deploymentResource);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return deploymentResource;
+    }
+
+    private static void decodeMetadata(JsonReader reader, DeploymentResource deploymentResource) throws IOException {
+        if (isNull(reader)) {
+            return;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "name":
+                    deploymentResource.setName(nextString(reader));
+                    break;
+                case "namespace":
+                    deploymentResource.setNamespace(nextString(reader));
+                    break;
+                case "creationTimestamp":
+                    String creationTimestamp = nextString(reader);
+                    if (creationTimestamp != null) {
+                        deploymentResource.setCreationTimestamp(toLocalDateTime(creationTimestamp));
+                    }
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static void decodeSpec(JsonReader reader, DeploymentResource deploymentResource) throws IOException {
+        if (isNull(reader)) {
+            return;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "replicas":
+                    if (!isNull(reader)) {
+                        deploymentResource.setReplicas(reader.nextInt());
+                    }
+                    break;
+                case "template":
+                    decodeTemplate(reader, deploymentResource);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static void decodeTemplate(JsonReader reader, DeploymentResource deploymentResource) throws IOException {
+        if (isNull(reader)) {
+            return;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("spec".equals(reader.nextName())) {
+                decodePodSpec(reader, deploymentResource);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static void decodePodSpec(JsonReader reader, DeploymentResource deploymentResource) throws IOException {
+        if (isNull(reader)) {
+            return;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("containers".equals(reader.nextName())) {
+                decodeContainers(reader, deploymentResource);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * Reads the image of the first container and skips the others.
+     */
+    private static void decodeContainers(JsonReader reader, DeploymentResource deploymentResource) throws IOException {
+        if (isNull(reader)) {
+            return;
+        }
+        reader.beginArray();
+        if (reader.hasNext() && !isNull(reader)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("image".equals(reader.nextName())) {
+                    deploymentResource.setImage(nextString(reader));
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        while (reader.hasNext()) {
+            reader.skipValue();
+        }
+        reader.endArray();
+    }
+
+    private static String nextString(JsonReader reader) throws IOException {
+        return isNull(reader) ? null : reader.nextString();
+    }
+
+    private static boolean isNull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Same result as the joda based conversion of the generated model: the local time of the default zone, without
+     * fractions of a second.
+     */
+    private static LocalDateTime toLocalDateTime(String timestamp) {
+        return OffsetDateTime.parse(timestamp)
+                .atZoneSameInstant(ZoneId.systemDefault())
+                .toLocalDateTime()
+                .withNano(0);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class DeploymentResourcePage {
+        private final List<DeploymentResource> items;
+        private final String continueToken;
+        private final String resourceVersion;
+    }
+}
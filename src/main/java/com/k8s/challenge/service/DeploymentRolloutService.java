@@ -0,0 +1,264 @@
+package com.k8s.challenge.service;
+
+import com.k8s.challenge.constant.RolloutState;
+import com.k8s.challenge.resource.RolloutStatusResource;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.openapi.models.V1DeploymentStatus;
+import io.kubernetes.client.openapi.models.V1Status;
+import io.kubernetes.client.util.Watch;
+import io.kubernetes.client.util.Watchable;
+import lombok.Getter;
+import lombok.Setter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Streams the rollout progress of a single deployment as server-sent events, so clients do not have to poll the list
+ * endpoint. Every stream holds one watch on the deployment, which is closed as soon as the rollout has completed,
+ * failed or timed out, or the client has gone away.
+ */
+@Service
+public class DeploymentRolloutService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeploymentRolloutService.class);
+    private static final String DELETED = "DELETED";
+    private static final String ERROR = "ERROR";
+    private static final String PROGRESSING_CONDITION = "Progressing";
+    private static final String PROGRESS_DEADLINE_EXCEEDED = "ProgressDeadlineExceeded";
+    // Lets the watch end on its own and the final event be sent before the emitter times out
+    private static final Duration EMITTER_GRACE_PERIOD = Duration.ofSeconds(10);
+    private final DeploymentService deploymentService;
+    private final KubernetesClusterRegistry kubernetesClusterRegistry;
+    private final Settings settings;
+    private final ExecutorService streamExecutor;
+
+    public DeploymentRolloutService(DeploymentService deploymentService,
+                                    KubernetesClusterRegistry kubernetesClusterRegistry,
+                                    Settings deploymentRolloutSettings) {
+        this.deploymentService = deploymentService;
+        this.kubernetesClusterRegistry = kubernetesClusterRegistry;
+        this.settings = deploymentRolloutSettings;
+        // No queue: a stream that can not get a thread is rejected instead of waiting unnoticed
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(settings.getMaxStreams(),
+                settings.getMaxStreams(), 60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                new DaemonThreadFactory("deployment-rollout"));
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        this.streamExecutor = threadPoolExecutor;
+    }
+
+    /**
+     * Sends a {@link RolloutStatusResource} event whenever the replica counts change. The last event has a final
+     * {@link RolloutState} and the stream is closed after it.
+     * <p>
+     * The emitter is returned right away; the watch is started once the deployment has been found. If the user has no
+     * such deployment ({@link com.k8s.challenge.exception.NotFoundException}), or too many streams are open
+     * ({@link RejectedExecutionException}), the stream is completed with that error instead.
+     *
+     * @throws com.k8s.challenge.exception.BadRequestException if the cluster is unknown
+     */
+    public SseEmitter streamRollout(String userName, String cluster, String namespace, String name) {
+        LOGGER.trace("Rollout stream request received from user : {} for deployment {} in namespace {}",
+                userName, name, namespace);
+        KubernetesClientService kubernetesClientService = kubernetesClusterRegistry.getKubernetesClientService(cluster);
+        String clusterName = DeploymentService.clusterName(cluster);
+
+        SseEmitter emitter = new SseEmitter(settings.getTimeout().plus(EMITTER_GRACE_PERIOD).toMillis());
+        AtomicReference<Watchable<V1Deployment>> watch = new AtomicReference<>();
+        AtomicBoolean closed = new AtomicBoolean();
+        Runnable closeWatch = () -> {
+            closed.set(true);
+            closeQuietly(watch.get());
+        };
+        emitter.onCompletion(closeWatch);
+        emitter.onTimeout(closeWatch);
+        emitter.onError(throwable -> closeWatch.run());
+        deploymentService.findDeploymentAsync(userName, cluster, namespace, name)
+                .whenComplete((deployment, throwable) -> {
+                    if (throwable != null) {
+                        emitter.completeWithError(
+                                throwable instanceof CompletionException ? throwable.getCause() : throwable);
+                        return;
+                    }
+                    if (closed.get()) {
+                        return;
+                    }
+                    try {
+                        streamExecutor.execute(() -> watchRollout(kubernetesClientService, clusterName, userName,
+                                namespace, name, emitter, watch, closed));
+                    } catch (RejectedExecutionException ex) {
+                        LOGGER.warn("Rollout stream of deployment {} in namespace {} is rejected", name, namespace);
+                        emitter.completeWithError(ex);
+                    }
+                });
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streamExecutor.shutdownNow();
+    }
+
+    private void watchRollout(KubernetesClientService kubernetesClientService, String clusterName, String userName,
+                              String namespace, String name, SseEmitter emitter,
+                              AtomicReference<Watchable<V1Deployment>> watch, AtomicBoolean closed) {
+        try (Watchable<V1Deployment> watchable = kubernetesClientService.watchDeployment(namespace, name, userName,
+                (int) settings.getTimeout().getSeconds())) {
+            watch.set(watchable);
+            if (closed.get()) {
+                return;
+            }
+            RolloutState rolloutState = followRollout(watchable, clusterName,
+                    status -> emitter.send(SseEmitter.event().name(status.getState().name()).data(status)));
+            LOGGER.trace("Rollout stream of deployment {} in namespace {} ended with {}", name, namespace,
+                    rolloutState);
+            emitter.complete();
+        } catch (ApiException | IOException | RuntimeException ex) {
+            if (!closed.get()) {
+                LOGGER.warn("Rollout stream of deployment {} in namespace {} failed", name, namespace, ex);
+                emitter.completeWithError(ex);
+            }
+        }
+    }
+
+    /**
+     * Hands a status to the sender whenever it differs from the previous one, until the rollout reaches a final
+     * state. If the watch reports an error, a {@link RolloutState#ERROR} status carrying the reported status is sent;
+     * if the events end first, a {@link RolloutState#TIMED_OUT} status is sent.
+     *
+     * @return the final state
+     */
+    RolloutState followRollout(Iterable<Watch.Response<V1Deployment>> events, String cluster,
+                               StatusSender statusSender) throws IOException {
+        RolloutStatusResource lastStatus = null;
+        for (Watch.Response<V1Deployment> event : events) {
+            if (ERROR.equals(event.type) || event.object == null) {
+                LOGGER.warn("Rollout watch returned an error: {}", event.status);
+                statusSender.send(finalStatus(lastStatus, cluster, RolloutState.ERROR, errorMessage(event.status)));
+                return RolloutState.ERROR;
+            }
+            RolloutStatusResource status = toRolloutStatus(event.object, cluster);
+            if (DELETED.equals(event.type)) {
+                status.setState(RolloutState.DELETED);
+            }
+            if (!status.equals(lastStatus)) {
+                statusSender.send(status);
+                lastStatus = status;
+            }
+            if (status.getState().isFinal()) {
+                return status.getState();
+            }
+        }
+        statusSender.send(finalStatus(lastStatus, cluster, RolloutState.TIMED_OUT, null));
+        return RolloutState.TIMED_OUT;
+    }
+
+    /**
+     * The replica counts are the last ones seen, if any.
+     */
+    private static RolloutStatusResource finalStatus(RolloutStatusResource lastStatus, String cluster,
+                                                     RolloutState state, String message) {
+        RolloutStatusResource.RolloutStatusResourceBuilder finalStatus = RolloutStatusResource.builder()
+                .cluster(cluster)
+                .state(state)
+                .message(message);
+        if (lastStatus != null) {
+            finalStatus.name(lastStatus.getName())
+                    .namespace(lastStatus.getNamespace())
+                    .replicas(lastStatus.getReplicas())
+                    .updatedReplicas(lastStatus.getUpdatedReplicas())
+                    .readyReplicas(lastStatus.getReadyReplicas())
+                    .availableReplicas(lastStatus.getAvailableReplicas());
+        }
+        return finalStatus.build();
+    }
+
+    private static String errorMessage(V1Status status) {
+        if (status == null) {
+            return "Watch ended with an error";
+        }
+        return String.format("Watch ended with an error: %s %s", status.getCode(), status.getMessage());
+    }
+
+    /**
+     * A rollout is complete once the controller has observed the latest spec and all desired replicas are updated and
+     * available, the same check {@code kubectl rollout status} makes.
+     */
+    static RolloutStatusResource toRolloutStatus(V1Deployment deployment, String cluster) {
+        V1DeploymentStatus status = deployment.getStatus() != null ? deployment.getStatus() : new V1DeploymentStatus();
+        Integer replicas = deployment.getSpec() != null ? deployment.getSpec().getReplicas() : null;
+        int desiredReplicas = replicas != null ? replicas : 1;
+        RolloutState state = RolloutState.PROGRESSING;
+        if (status.getConditions() != null && status.getConditions().stream().anyMatch(condition ->
+                PROGRESSING_CONDITION.equals(condition.getType())
+                        && PROGRESS_DEADLINE_EXCEEDED.equals(condition.getReason()))) {
+            state = RolloutState.FAILED;
+        } else if (isObserved(deployment, status)
+                && orZero(status.getUpdatedReplicas()) >= desiredReplicas
+                && orZero(status.getReplicas()) <= orZero(status.getUpdatedReplicas())
+                && orZero(status.getAvailableReplicas()) >= orZero(status.getUpdatedReplicas())) {
+            state = RolloutState.COMPLETE;
+        }
+        return RolloutStatusResource.builder()
+                .name(deployment.getMetadata() != null ? deployment.getMetadata().getName() : null)
+                .namespace(deployment.getMetadata() != null ? deployment.getMetadata().getNamespace() : null)
+                .cluster(cluster)
+                .state(state)
+                .replicas(replicas)
+                .updatedReplicas(orZero(status.getUpdatedReplicas()))
+                .readyReplicas(orZero(status.getReadyReplicas()))
+                .availableReplicas(orZero(status.getAvailableReplicas()))
+                .build();
+    }
+
+    private static boolean isObserved(V1Deployment deployment, V1DeploymentStatus status) {
+        Long generation = deployment.getMetadata() != null ? deployment.getMetadata().getGeneration() : null;
+        return generation == null
+                || (status.getObservedGeneration() != null && status.getObservedGeneration() >= generation);
+    }
+
+    private static int orZero(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private static void closeQuietly(Watchable<V1Deployment> watch) {
+        if (watch == null) {
+            return;
+        }
+        try {
+            watch.close();
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.debug("Rollout watch could not be closed", ex);
+        }
+    }
+
+    @FunctionalInterface
+    interface StatusSender {
+        void send(RolloutStatusResource status) throws IOException;
+    }
+
+    /**
+     * Bound to {@code k8s.rollout.*}.
+     */
+    @Getter
+    @Setter
+    public static class Settings {
+
+        private Duration timeout = Duration.ofMinutes(5);
+        private int maxStreams = 50;
+    }
+}
@@ -0,0 +1,89 @@
+package com.k8s.challenge.service;
+
+import com.k8s.challenge.resource.DeploymentResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Collapses scale requests for the same deployment. The first request opens a window; requests arriving within it
+ * only replace the replica count. When the window closes a single request with the last replica count is sent, and
+ * all callers complete with its result.
+ */
+public class DeploymentScaleDebouncer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeploymentScaleDebouncer.class);
+    private final Duration window;
+    private final ScheduledExecutorService scheduler;
+    private final ConcurrentMap<Object, PendingScale> pendingScales = new ConcurrentHashMap<>();
+
+    public DeploymentScaleDebouncer(Duration window) {
+        this(window, Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("deployment-scale-debounce")));
+    }
+
+    DeploymentScaleDebouncer(Duration window, ScheduledExecutorService scheduler) {
+        this.window = window;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * @param key   identifies the deployment, requests with equal keys are collapsed
+     * @param scale sends the request for the given replica count; the one of the first request in a window is used
+     */
+    public CompletableFuture<DeploymentResource> debounce(Object key, int replicas,
+                                                          IntFunction<CompletableFuture<DeploymentResource>> scale) {
+        PendingScale created = new PendingScale(replicas, scale);
+        PendingScale pendingScale = pendingScales.merge(key, created, (existing, ignored) -> {
+            existing.replicas = replicas;
+            return existing;
+        });
+        if (pendingScale == created) {
+            scheduler.schedule(() -> flush(key, created), window.toMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            LOGGER.trace("Scale request for {} is collapsed into a pending one. Replicas: {}", key, replicas);
+        }
+        return pendingScale.result;
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void flush(Object key, PendingScale pendingScale) {
+        pendingScales.remove(key, pendingScale);
+        CompletableFuture<DeploymentResource> scaled;
+        try {
+            scaled = pendingScale.scale.apply(pendingScale.replicas);
+        } catch (RuntimeException ex) {
+            pendingScale.result.completeExceptionally(ex);
+            return;
+        }
+        scaled.whenComplete((deploymentResource, throwable) -> {
+            if (throwable != null) {
+                pendingScale.result.completeExceptionally(throwable);
+            } else {
+                pendingScale.result.complete(deploymentResource);
+            }
+        });
+    }
+
+    private static class PendingScale {
+
+        private final IntFunction<CompletableFuture<DeploymentResource>> scale;
+        private final CompletableFuture<DeploymentResource> result = new CompletableFuture<>();
+        private volatile int replicas;
+
+        PendingScale(int replicas, IntFunction<CompletableFuture<DeploymentResource>> scale) {
+            this.replicas = replicas;
+            this.scale = scale;
+        }
+    }
+}
@@ -1,98 +1,687 @@
 package com.k8s.challenge.service;
 
+import com.k8s.challenge.constant.ChallengeConstant;
+import com.k8s.challenge.constant.ExceptionResponse;
+import com.k8s.challenge.dto.CreateDeploymentDto;
 import com.k8s.challenge.entity.DeploymentEntity;
 import com.k8s.challenge.entity.UserEntity;
+import com.k8s.challenge.exception.ApiServerUnavailableException;
+import com.k8s.challenge.exception.BadRequestException;
+import com.k8s.challenge.exception.NotFoundException;
 import com.k8s.challenge.repository.DeploymentRepository;
+import com.k8s.challenge.repository.DeploymentSummary;
+import com.k8s.challenge.resource.DeploymentBatchItemResource;
+import com.k8s.challenge.resource.DeploymentPageResource;
 import com.k8s.challenge.resource.DeploymentResource;
+import com.k8s.challenge.resource.ErrorResource;
 import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.models.V1Container;
 import io.kubernetes.client.openapi.models.V1Deployment;
-import lombok.AllArgsConstructor;
+import io.kubernetes.client.openapi.models.V1DeploymentSpec;
+import io.kubernetes.client.openapi.models.V1PodSpec;
+import io.kubernetes.client.openapi.models.V1PodTemplateSpec;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.CollectionUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class DeploymentService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DeploymentService.class);
+    static final int CREATE_BATCH_PARALLELISM = 8;
+    static final int MAX_PAGE_SIZE = 500;
     private final UserService userService;
-    private final KubernetesClientService kubernetesClientService;
+    private final KubernetesClusterRegistry kubernetesClusterRegistry;
+    private final DeploymentCacheService deploymentCacheService;
     private final DeploymentRepository deploymentRepository;
     private final ConversionService conversionService;
+    private final TransactionTemplate transactionTemplate;
+    private final DeploymentScaleDebouncer deploymentScaleDebouncer;
+    private final Bulkhead databaseBulkhead;
+    private final ConcurrentMap<ListingKey, CompletableFuture<DeploymentListing>> inFlightListings =
+            new ConcurrentHashMap<>();
 
-    @Transactional
-    public DeploymentResource createDeployment(String userName, String namespace, V1Deployment deployment, Boolean pretty, String dryRun) throws ApiException {
+    /**
+     * The deployment is persisted in a transaction of its own once the API server has answered, so no transaction is
+     * held open while waiting for it.
+     *
+     * @param cluster cluster parameter is optional, the default cluster is used if it is empty
+     */
+    public DeploymentResource createDeployment(String userName, String cluster, String namespace, V1Deployment deployment,
+                                               Boolean pretty, String dryRun) throws ApiException {
         LOGGER.trace("Create deployment request received from user : {}", userName);
         UserEntity userEntity = userService.findUserByName(userName);
-        V1Deployment createdDeployment = kubernetesClientService.createDeployment(namespace, deployment, pretty, dryRun, userName);
+        V1Deployment createdDeployment = kubernetesClusterRegistry.getKubernetesClientService(cluster)
+                .createDeployment(namespace, deployment, pretty, dryRun, userName);
         DeploymentResource deploymentResource = conversionService.convert(createdDeployment, DeploymentResource.class);
+        deploymentResource.setCluster(clusterName(cluster));
         DeploymentEntity deploymentEntity = conversionService.convert(deploymentResource, DeploymentEntity.class);
         deploymentEntity.setUser(userEntity);
-
-        if (CollectionUtils.isEmpty(userEntity.getDeployments())) {
-            userEntity.setDeployments(new HashSet<>());
-        }
-        userEntity.getDeployments().add(deploymentEntity);
+        transactionTemplate.execute(status -> deploymentRepository.save(deploymentEntity));
         LOGGER.trace("Create deployment request finished for user : {}. Result is : {}", userName, deploymentResource.toString());
         return deploymentResource;
     }
 
-    @Transactional
-    public List<DeploymentResource> listDeployments(String userName, String namespace) throws ApiException {
-        LOGGER.trace("List deployment request received from user : {} with namespace: {}", userName, namespace);
-        UserEntity userEntity = userService.findUserByName(userName);
-        List<DeploymentEntity> persistedDeployments;
-        if (StringUtils.isEmpty(namespace)) {
-            persistedDeployments = deploymentRepository
-                    .findAllByUserUserNameOrderByCreationTimestampDesc(userEntity.getUserName());
-        } else {
-            persistedDeployments = deploymentRepository
-                    .findAllByNamespaceAndUserUserNameOrderByCreationTimestampDesc(namespace, userName);
+    /**
+     * Stores a deployment that exists in the cluster. A row that is stored already is updated, so storing the same
+     * deployment again is harmless.
+     */
+    public DeploymentResource persistDeployment(String userName, String cluster, V1Deployment deployment) {
+        DeploymentResource deploymentResource = conversionService.convert(deployment, DeploymentResource.class);
+        deploymentResource.setCluster(clusterName(cluster));
+        DeploymentEntity deploymentEntity = conversionService.convert(deploymentResource, DeploymentEntity.class);
+        transactionTemplate.execute(status -> {
+            deploymentRepository.upsertAll(userService.findUserIdByName(userName),
+                    Collections.singletonList(deploymentEntity));
+            return null;
+        });
+        LOGGER.trace("Deployment {} of user : {} is stored", deploymentResource.getName(), userName);
+        return deploymentResource;
+    }
+
+    /**
+     * Creates all given deployments with at most {@link #CREATE_BATCH_PARALLELISM} requests in flight, without
+     * blocking a thread while waiting. Every item gets its own result, so a failing item does not fail the others.
+     * The created deployments are persisted together in one transaction once all items have completed. If that
+     * fails, they are persisted one by one, and an item that can not be stored keeps its deployment, which exists in
+     * the cluster, and gets an error as well. The user is resolved and the deployments are persisted on the database
+     * bulkhead.
+     *
+     * @return one result per item, in the order of the given items
+     * @throws java.util.concurrent.RejectedExecutionException if the database bulkhead is full
+     */
+    public CompletableFuture<List<DeploymentBatchItemResource>> createDeploymentsAsync(
+            String userName, List<CreateDeploymentDto> createDeploymentDtos) {
+        LOGGER.trace("Batch create deployment request received from user : {}. Item count: {}",
+                userName, createDeploymentDtos.size());
+        return databaseBulkhead.supplyAsync(() -> userService.findUserByName(userName)).thenCompose(userEntity -> {
+            DeploymentBatchItemResource[] results = new DeploymentBatchItemResource[createDeploymentDtos.size()];
+            AtomicInteger nextIndex = new AtomicInteger();
+            CompletableFuture<?>[] submitters = IntStream.range(0, Math.min(CREATE_BATCH_PARALLELISM, results.length))
+                    .mapToObj(submitter -> submitNextDeployment(userName, createDeploymentDtos, nextIndex, results))
+                    .toArray(CompletableFuture[]::new);
+            return CompletableFuture.allOf(submitters).thenApplyAsync(ignored -> {
+                Map<DeploymentBatchItemResource, DeploymentEntity> deploymentEntities = new LinkedHashMap<>();
+                Arrays.stream(results)
+                        .filter(result -> result.getDeployment() != null)
+                        .forEach(result -> {
+                            DeploymentEntity deploymentEntity = conversionService.convert(result.getDeployment(),
+                                    DeploymentEntity.class);
+                            deploymentEntity.setUser(userEntity);
+                            deploymentEntities.put(result, deploymentEntity);
+                        });
+                if (!deploymentEntities.isEmpty()) {
+                    persistCreatedDeployments(userName, deploymentEntities);
+                }
+                LOGGER.trace("Batch create deployment request finished for user : {}. Created: {}, failed: {}",
+                        userName, deploymentEntities.size(), results.length - deploymentEntities.size());
+                return Arrays.asList(results);
+            }, databaseBulkhead);
+        });
+    }
+
+    /**
+     * Asynchronous variant of {@link #createDeployment(String, String, String, V1Deployment, Boolean, String)}. The
+     * user is resolved on the database bulkhead, and the deployment is persisted there once the API server has
+     * answered.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if the database bulkhead is full
+     */
+    public CompletableFuture<DeploymentResource> createDeploymentAsync(String userName, String cluster, String namespace,
+                                                                       V1Deployment deployment, Boolean pretty, String dryRun) {
+        LOGGER.trace("Async create deployment request received from user : {}", userName);
+        KubernetesClientService kubernetesClientService = kubernetesClusterRegistry.getKubernetesClientService(cluster);
+        return databaseBulkhead.supplyAsync(() -> userService.findUserByName(userName))
+                .thenCompose(userEntity -> kubernetesClientService
+                        .createDeploymentAsync(namespace, deployment, pretty, dryRun, userName)
+                        .thenApplyAsync(createdDeployment -> {
+                            DeploymentResource deploymentResource = conversionService.convert(createdDeployment,
+                                    DeploymentResource.class);
+                            deploymentResource.setCluster(clusterName(cluster));
+                            DeploymentEntity deploymentEntity = conversionService.convert(deploymentResource,
+                                    DeploymentEntity.class);
+                            deploymentEntity.setUser(userEntity);
+                            transactionTemplate.execute(status -> deploymentRepository.save(deploymentEntity));
+                            LOGGER.trace("Async create deployment request finished for user : {}. Result is : {}",
+                                    userName, deploymentResource.toString());
+                            return deploymentResource;
+                        }, databaseBulkhead));
+    }
+
+    /**
+     * Changes the replica count and/or the image of a deployment of the user with a strategic merge patch. The request
+     * is compared with the current deployment, taken from the informer cache where possible; if nothing would change,
+     * no patch is sent. The persisted deployment can be stale, so it is never compared with. The database is written
+     * on the database bulkhead.
+     *
+     * @param replicas replicas parameter is optional, it is left unchanged if null
+     * @param image    image parameter is optional, it is left unchanged if empty
+     * @throws NotFoundException if the user has no such deployment
+     */
+    public CompletableFuture<DeploymentResource> updateDeploymentAsync(String userName, String cluster, String namespace,
+                                                                       String name, Integer replicas, String image,
+                                                                       String dryRun) {
+        LOGGER.trace("Async update deployment request received from user : {}", userName);
+        String clusterName = clusterName(cluster);
+        KubernetesClientService kubernetesClientService = kubernetesClusterRegistry.getKubernetesClientService(cluster);
+        return findCurrentDeployment(kubernetesClientService, clusterName, namespace, name, userName)
+                .thenCompose(currentDeployment -> patchUnlessUnchanged(kubernetesClientService, userName, clusterName,
+                        namespace, name, currentDeployment, replicas, image, dryRun));
+    }
+
+    /**
+     * Patches the current deployment unless nothing would change. Either way, the result is persisted on the database
+     * bulkhead.
+     */
+    private CompletableFuture<DeploymentResource> patchUnlessUnchanged(KubernetesClientService kubernetesClientService,
+                                                                       String userName, String clusterName,
+                                                                       String namespace, String name,
+                                                                       V1Deployment currentDeployment,
+                                                                       Integer replicas, String image, String dryRun) {
+        DeploymentResource currentResource = conversionService.convert(currentDeployment, DeploymentResource.class);
+        currentResource.setCluster(clusterName);
+        if (isUnchanged(currentResource.getReplicas(), currentResource.getImage(), replicas, image)) {
+            LOGGER.trace("Async update deployment request of user : {} changes nothing. Patch is skipped", userName);
+            return databaseBulkhead.supplyAsync(() -> {
+                persistUpdatedDeployment(userName, currentResource);
+                return currentResource;
+            });
         }
+        return kubernetesClientService.patchDeploymentAsync(name, namespace,
+                createPatch(currentDeployment, replicas, image), dryRun)
+                .thenApplyAsync(patchedDeployment -> {
+                    DeploymentResource deploymentResource = conversionService.convert(patchedDeployment,
+                            DeploymentResource.class);
+                    deploymentResource.setCluster(clusterName);
+                    if (StringUtils.isEmpty(dryRun)) {
+                        persistUpdatedDeployment(userName, deploymentResource);
+                    }
+                    LOGGER.trace("Async update deployment request finished for user : {}. Result is : {}",
+                            userName, deploymentResource.toString());
+                    return deploymentResource;
+                }, databaseBulkhead);
+    }
 
-        if (CollectionUtils.isEmpty(persistedDeployments)) {
-            List<V1Deployment> v1Deployments = kubernetesClientService.listDeployments(namespace, userName).getItems();
-            if (CollectionUtils.isEmpty(v1Deployments)) {
-                LOGGER.trace("List deployment request finished for user : {} with namespace: {}. Result is empty", userName, namespace);
-                return Collections.emptyList();
-            } else {
+    /**
+     * @return the current state of the deployment, from the informer cache where possible
+     * @throws NotFoundException if the user has no such deployment
+     */
+    public CompletableFuture<V1Deployment> findDeploymentAsync(String userName, String cluster, String namespace,
+                                                               String name) {
+        return findCurrentDeployment(kubernetesClusterRegistry.getKubernetesClientService(cluster),
+                clusterName(cluster), namespace, name, userName);
+    }
 
-                List<DeploymentResource> deploymentResources = v1Deployments.stream()
-                        .map(v1Deployment -> conversionService.convert(v1Deployment, DeploymentResource.class))
-                        .collect(Collectors.toList());
+    /**
+     * Scales a deployment of the user. Scale requests for the same deployment that arrive in quick succession are
+     * collapsed into one patch carrying the last requested replica count.
+     *
+     * @see #updateDeploymentAsync(String, String, String, String, Integer, String, String)
+     */
+    public CompletableFuture<DeploymentResource> scaleDeploymentAsync(String userName, String cluster, String namespace,
+                                                                      String name, int replicas) {
+        LOGGER.trace("Async scale deployment request received from user : {}. Replicas: {}", userName, replicas);
+        // Unknown clusters are rejected right away rather than after the debounce window
+        kubernetesClusterRegistry.getKubernetesClientService(cluster);
+        return deploymentScaleDebouncer.debounce(new ScaleKey(userName, clusterName(cluster), namespace, name), replicas,
+                debouncedReplicas -> updateDeploymentAsync(userName, cluster, namespace, name, debouncedReplicas,
+                        null, null));
+    }
 
-                migrateFromKubernetesToDb(userEntity, deploymentResources);
-                LOGGER.trace("List deployment request finished for user : {} with namespace: {}. Result is {}",
+    /**
+     * Lists the deployments of the user. The database is queried on the database bulkhead, so the request thread is
+     * not held by it; a remote listing is awaited asynchronously.
+     * <p>
+     * Concurrent requests for the same user and namespace are coalesced: only the first one queries the database and
+     * the clusters, the others wait for and share its result. The listing is forgotten as soon as it completes, so a
+     * later request never sees a stale result. Every caller gets a future of its own, and the shared listing can not
+     * be modified.
+     * <p>
+     * A listing from the clusters returns the clusters that answered and the errors of the ones that did not. It is
+     * only persisted when every cluster answered, so the missing clusters are listed again by the next request.
+     */
+    public CompletableFuture<DeploymentListing> listDeploymentsAsync(String userName, String namespace) {
+        LOGGER.trace("Async list deployment request received from user : {} with namespace: {}", userName, namespace);
+        ListingKey listingKey = new ListingKey(userName, StringUtils.isEmpty(namespace) ? null : namespace);
+        CompletableFuture<DeploymentListing> listing = new CompletableFuture<>();
+        CompletableFuture<DeploymentListing> inFlightListing = inFlightListings.putIfAbsent(listingKey, listing);
+        if (inFlightListing != null) {
+            LOGGER.trace("Joining in-flight list deployment request of user : {} with namespace: {}", userName, namespace);
+            return inFlightListing.thenApply(Function.identity());
+        }
+
+        try {
+            loadDeployments(userName, namespace).whenComplete((deploymentListing, throwable) -> {
+                inFlightListings.remove(listingKey, listing);
+                if (throwable != null) {
+                    listing.completeExceptionally(throwable instanceof CompletionException ? throwable.getCause() : throwable);
+                } else {
+                    listing.complete(deploymentListing);
+                }
+            });
+        } catch (RuntimeException ex) {
+            inFlightListings.remove(listingKey, listing);
+            listing.completeExceptionally(ex);
+            throw ex;
+        }
+        return listing.thenApply(Function.identity());
+    }
+
+    /**
+     * Lists a page of the persisted deployments of the user, newest first. The cursor carries the creation timestamp
+     * and id of the last deployment of the previous page, so every page is read as one index range of at most
+     * {@code limit} rows, however deep it is. A user without persisted deployments is first migrated from the
+     * clusters, as in {@link #listDeploymentsAsync(String, String)}; the page fails if a cluster could not be listed,
+     * since nothing is persisted then.
+     *
+     * @param namespace namespace parameter is optional, all namespaces are listed if it is empty
+     * @param cursor    cursor parameter is optional, the first page is listed if it is empty
+     * @throws BadRequestException if the cursor is malformed or the limit is not between 1 and {@link #MAX_PAGE_SIZE}
+     */
+    public CompletableFuture<DeploymentPageResource> listDeploymentPageAsync(String userName, String namespace,
+                                                                             String cursor, int limit) {
+        LOGGER.trace("Async list deployment page request received from user : {} with namespace: {}", userName, namespace);
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException(String.format("Limit must be between 1 and %d", MAX_PAGE_SIZE));
+        }
+        PageCursor pageCursor = StringUtils.isEmpty(cursor) ? null : PageCursor.decode(cursor);
+        return databaseBulkhead.supplyAsync(() -> findPersistedDeploymentPage(userName, namespace, pageCursor, limit))
+                .thenCompose(page -> {
+                    if (pageCursor != null || !page.getItems().isEmpty()) {
+                        return CompletableFuture.completedFuture(page);
+                    }
+                    return listDeploymentsAsync(userName, namespace).thenApplyAsync(listing -> {
+                        if (!listing.isComplete()) {
+                            String cluster = listing.getClusterErrors().keySet().iterator().next();
+                            throw new CompletionException(new ApiException(String.format(
+                                    "Cluster %s could not be listed", cluster)));
+                        }
+                        return findPersistedDeploymentPage(userName, namespace, null, limit);
+                    }, databaseBulkhead);
+                });
+    }
+
+    /**
+     * @throws java.util.concurrent.RejectedExecutionException if the database bulkhead is full
+     */
+    private CompletableFuture<DeploymentListing> loadDeployments(String userName, String namespace) {
+        return databaseBulkhead.supplyAsync(() -> convertPersistedDeployments(
+                findPersistedDeployments(userService.findUserIdByName(userName), namespace))
+        ).thenCompose(persistedDeployments -> {
+            if (!CollectionUtils.isEmpty(persistedDeployments)) {
+                return CompletableFuture.completedFuture(new DeploymentListing(persistedDeployments));
+            }
+            return listDeploymentsFromClusters(namespace, userName).thenApplyAsync(listing -> {
+                List<DeploymentResource> deploymentResources = listing.getDeployments();
+                if (listing.isComplete() && !CollectionUtils.isEmpty(deploymentResources)) {
+                    transactionTemplate.execute(status -> {
+                        migrateFromKubernetesToDb(userService.findUserIdByName(userName), deploymentResources);
+                        return null;
+                    });
+                }
+                LOGGER.trace("Async list deployment request finished for user : {} with namespace: {}. Result is {}",
                         userName, namespace, deploymentResources.toString());
-                return deploymentResources;
+                return listing;
+            }, databaseBulkhead);
+        });
+    }
+
+    /**
+     * Submits the next item that has not been taken yet and, once it has completed, the one after. Each chain keeps
+     * one request in flight.
+     */
+    private CompletableFuture<Void> submitNextDeployment(String userName, List<CreateDeploymentDto> createDeploymentDtos,
+                                                         AtomicInteger nextIndex, DeploymentBatchItemResource[] results) {
+        int index = nextIndex.getAndIncrement();
+        if (index >= createDeploymentDtos.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CreateDeploymentDto createDeploymentDto = createDeploymentDtos.get(index);
+        CompletableFuture<V1Deployment> createdDeployment;
+        try {
+            createdDeployment = kubernetesClusterRegistry.getKubernetesClientService(createDeploymentDto.getCluster())
+                    .createDeploymentAsync(createDeploymentDto.getNamespace(),
+                            conversionService.convert(createDeploymentDto, V1Deployment.class),
+                            createDeploymentDto.getPretty(), createDeploymentDto.getDryRun(), userName);
+        } catch (RuntimeException ex) {
+            createdDeployment = new CompletableFuture<>();
+            createdDeployment.completeExceptionally(ex);
+        }
+        return createdDeployment.handle((v1Deployment, throwable) -> {
+            if (throwable != null) {
+                results[index] = DeploymentBatchItemResource.builder().index(index).error(toErrorResource(throwable)).build();
+            } else {
+                DeploymentResource deploymentResource = conversionService.convert(v1Deployment, DeploymentResource.class);
+                deploymentResource.setCluster(clusterName(createDeploymentDto.getCluster()));
+                results[index] = DeploymentBatchItemResource.builder().index(index).deployment(deploymentResource).build();
             }
+            return null;
+        }).thenCompose(ignored -> submitNextDeployment(userName, createDeploymentDtos, nextIndex, results));
+    }
+
+    private void persistCreatedDeployments(String userName,
+                                           Map<DeploymentBatchItemResource, DeploymentEntity> deploymentEntities) {
+        try {
+            transactionTemplate.execute(status -> deploymentRepository.saveAll(new ArrayList<>(deploymentEntities.values())));
+            return;
+        } catch (RuntimeException ex) {
+            LOGGER.warn("Created deployments of user : {} could not be persisted together. Persisting one by one",
+                    userName, ex);
+        }
+        deploymentEntities.forEach((result, deploymentEntity) -> {
+            try {
+                transactionTemplate.execute(status -> deploymentRepository.save(deploymentEntity));
+            } catch (RuntimeException ex) {
+                LOGGER.warn("Created deployment {} of user : {} could not be persisted",
+                        deploymentEntity.getDeploymentName(), userName, ex);
+                result.setError(new ErrorResource(ExceptionResponse.SERVER_ERROR.getCode(), String.format(
+                        "Deployment %s is created in namespace %s of cluster %s, but could not be stored",
+                        deploymentEntity.getDeploymentName(), deploymentEntity.getNamespace(),
+                        deploymentEntity.getCluster())));
+            }
+        });
+    }
+
+    /**
+     * Same codes and messages as {@link com.k8s.challenge.exception.handler.ExceptionHandlerAdvice} gives for a single
+     * request.
+     */
+    static ErrorResource toErrorResource(Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+        LOGGER.warn("Request failed", cause);
+        if (cause instanceof ApiException && cause.getCause() instanceof ApiServerUnavailableException) {
+            return new ErrorResource(ExceptionResponse.SERVICE_UNAVAILABLE.getCode(),
+                    String.format(ExceptionResponse.SERVICE_UNAVAILABLE.getMessage(), cause.getCause().getMessage()));
         }
+        if (Bulkhead.rejectionOf(cause) != null) {
+            return new ErrorResource(ExceptionResponse.SERVICE_UNAVAILABLE.getCode(),
+                    String.format(ExceptionResponse.SERVICE_UNAVAILABLE.getMessage(), "Server is busy"));
+        }
+        if (cause instanceof ApiException && !StringUtils.isEmpty(((ApiException) cause).getResponseBody())) {
+            return new ErrorResource(ExceptionResponse.BAD_REQUEST.getCode(),
+                    String.format(ExceptionResponse.BAD_REQUEST.getMessage(), ((ApiException) cause).getResponseBody()));
+        }
+        if (cause instanceof BadRequestException) {
+            return new ErrorResource(ExceptionResponse.BAD_REQUEST.getCode(),
+                    String.format(ExceptionResponse.BAD_REQUEST.getMessage(), cause.getMessage()));
+        }
+        if (cause instanceof NotFoundException) {
+            return new ErrorResource(ExceptionResponse.NOT_FOUND.getCode(),
+                    String.format(ExceptionResponse.NOT_FOUND.getMessage(), cause.getMessage()));
+        }
+        return new ErrorResource(ExceptionResponse.SERVER_ERROR.getCode(), ExceptionResponse.SERVER_ERROR.getMessage());
+    }
+
+    private DeploymentEntity findPersistedDeployment(String cluster, String namespace, String name, String userName) {
+        return deploymentRepository.findFirstByClusterAndNamespaceAndDeploymentNameAndUserUserName(cluster, namespace,
+                name, userName).orElse(null);
+    }
+
+    /**
+     * The default cluster is answered from the informer cache once it has synced, other clusters are asked.
+     */
+    private CompletableFuture<V1Deployment> findCurrentDeployment(KubernetesClientService kubernetesClientService,
+                                                                  String cluster, String namespace, String name,
+                                                                  String userName) {
+        CompletableFuture<V1Deployment> currentDeployment;
+        if (ChallengeConstant.DEFAULT_CLUSTER.equals(cluster) && deploymentCacheService.hasSynced()) {
+            currentDeployment = CompletableFuture.completedFuture(deploymentCacheService.getDeployment(namespace, name));
+        } else {
+            currentDeployment = kubernetesClientService.readDeploymentAsync(name, namespace)
+                    .exceptionally(throwable -> {
+                        Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                        if (cause instanceof ApiException && ((ApiException) cause).getCode() == HttpStatus.NOT_FOUND.value()) {
+                            return null;
+                        }
+                        throw new CompletionException(cause);
+                    });
+        }
+        return currentDeployment.thenApply(v1Deployment -> {
+            if (v1Deployment == null || v1Deployment.getMetadata() == null || v1Deployment.getMetadata().getLabels() == null
+                    || !userName.equals(v1Deployment.getMetadata().getLabels().get(ChallengeConstant.USER_NAME_LABEL))) {
+                throw new NotFoundException(String.format("Deployment %s is not found in namespace %s of cluster %s",
+                        name, namespace, cluster));
+            }
+            return v1Deployment;
+        });
+    }
 
-        List<DeploymentResource> deploymentResources = persistedDeployments
+    private static boolean isUnchanged(Integer currentReplicas, String currentImage, Integer replicas, String image) {
+        return (replicas == null || replicas.equals(currentReplicas))
+                && (StringUtils.isEmpty(image) || image.equals(currentImage));
+    }
+
+    /**
+     * Only the changed fields are set. The image is that of the first container, as in {@link DeploymentResource}, and
+     * the container is named so that the patch merges into it.
+     */
+    private static V1Deployment createPatch(V1Deployment currentDeployment, Integer replicas, String image) {
+        V1DeploymentSpec spec = new V1DeploymentSpec();
+        spec.setReplicas(replicas);
+        if (!StringUtils.isEmpty(image)) {
+            V1Container container = new V1Container();
+            container.setName(currentDeployment.getSpec().getTemplate().getSpec().getContainers().get(0).getName());
+            container.setImage(image);
+            V1PodSpec podSpec = new V1PodSpec();
+            podSpec.setContainers(Collections.singletonList(container));
+            V1PodTemplateSpec template = new V1PodTemplateSpec();
+            template.setSpec(podSpec);
+            spec.setTemplate(template);
+        }
+        V1Deployment patch = new V1Deployment();
+        patch.setSpec(spec);
+        return patch;
+    }
+
+    private void persistUpdatedDeployment(String userName, DeploymentResource deploymentResource) {
+        transactionTemplate.execute(status -> {
+            DeploymentEntity deploymentEntity = findPersistedDeployment(deploymentResource.getCluster(),
+                    deploymentResource.getNamespace(), deploymentResource.getName(), userName);
+            if (deploymentEntity == null) {
+                deploymentEntity = conversionService.convert(deploymentResource, DeploymentEntity.class);
+                deploymentEntity.setUser(userService.findUserByName(userName));
+            } else {
+                deploymentEntity.setReplicas(deploymentResource.getReplicas());
+                deploymentEntity.setImage(deploymentResource.getImage());
+            }
+            return deploymentRepository.save(deploymentEntity);
+        });
+    }
+
+    private List<DeploymentSummary> findPersistedDeployments(UUID userId, String namespace) {
+        if (StringUtils.isEmpty(namespace)) {
+            return deploymentRepository.findSummariesByUserId(userId);
+        }
+        return deploymentRepository.findSummariesByUserIdAndNamespace(userId, namespace);
+    }
+
+    private DeploymentPageResource findPersistedDeploymentPage(String userName, String namespace, PageCursor pageCursor,
+                                                              int limit) {
+        UUID userId = userService.findUserIdByName(userName);
+        // One more than the limit tells whether there is a next page
+        Pageable pageable = PageRequest.of(0, limit + 1);
+        List<DeploymentSummary> deploymentSummaries;
+        if (StringUtils.isEmpty(namespace)) {
+            deploymentSummaries = pageCursor == null
+                    ? deploymentRepository.findPageByUserId(userId, pageable)
+                    : deploymentRepository.findPageByUserIdAfter(userId, pageCursor.getCreationTimestamp(),
+                    pageCursor.getId(), pageable);
+        } else {
+            deploymentSummaries = pageCursor == null
+                    ? deploymentRepository.findPageByUserIdAndNamespace(userId, namespace, pageable)
+                    : deploymentRepository.findPageByUserIdAndNamespaceAfter(userId, namespace,
+                    pageCursor.getCreationTimestamp(), pageCursor.getId(), pageable);
+        }
+        boolean hasNextPage = deploymentSummaries.size() > limit;
+        List<DeploymentSummary> items = hasNextPage ? deploymentSummaries.subList(0, limit) : deploymentSummaries;
+        return DeploymentPageResource.builder()
+                .items(convertPersistedDeployments(items))
+                .nextCursor(hasNextPage ? PageCursor.of(items.get(limit - 1)).encode() : null)
+                .build();
+    }
+
+    private List<DeploymentResource> convertPersistedDeployments(List<DeploymentSummary> persistedDeployments) {
+        return persistedDeployments
                 .stream()
-                .map(deploymentEntity -> conversionService.convert(deploymentEntity, DeploymentResource.class))
+                .map(deploymentSummary -> conversionService.convert(deploymentSummary, DeploymentResource.class))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Lists the deployments of all registered clusters in parallel. The default cluster is served from the informer
+     * cache once it has synced. The listing fails only if no cluster answered.
+     */
+    private CompletableFuture<DeploymentListing> listDeploymentsFromClusters(String namespace, String userName) {
+        return kubernetesClusterRegistry.<List<DeploymentResource>>fanOut((cluster, kubernetesClientService) -> {
+            if (ChallengeConstant.DEFAULT_CLUSTER.equals(cluster) && deploymentCacheService.hasSynced()) {
+                return CompletableFuture.completedFuture(listDeploymentsFromCache(namespace, userName));
+            }
+            return listDeploymentsFromKubernetes(kubernetesClientService, namespace, userName);
+        }).thenApply(fanOutResult -> {
+            if (fanOutResult.getResults().isEmpty() && !fanOutResult.getFailures().isEmpty()) {
+                throw new CompletionException(fanOutResult.getFailures().values().iterator().next());
+            }
+            List<DeploymentResource> deploymentResources = new ArrayList<>();
+            fanOutResult.getResults().forEach((cluster, clusterDeploymentResources) -> {
+                clusterDeploymentResources.forEach(deploymentResource -> deploymentResource.setCluster(cluster));
+                deploymentResources.addAll(clusterDeploymentResources);
+            });
+            Map<String, ErrorResource> clusterErrors = new LinkedHashMap<>();
+            fanOutResult.getFailures().forEach((cluster, failure) ->
+                    clusterErrors.put(cluster, toErrorResource(failure)));
+            return new DeploymentListing(deploymentResources, clusterErrors);
+        });
+    }
+
+    private List<DeploymentResource> listDeploymentsFromCache(String namespace, String userName) {
+        return deploymentCacheService.listDeployments(namespace, userName).stream()
+                .map(v1Deployment -> conversionService.convert(v1Deployment, DeploymentResource.class))
                 .collect(Collectors.toList());
-        LOGGER.trace("List deployment request finished for user : {} with namespace: {}. Result is {}",
-                userName, namespace, deploymentResources.toString());
-        return deploymentResources;
     }
 
-    private void migrateFromKubernetesToDb(UserEntity userEntity, List<DeploymentResource> deploymentResources) {
-        Set<DeploymentEntity> deploymentEntities = deploymentResources.stream()
+    /**
+     * Pages are decoded straight into resources, so the full Kubernetes object graphs are never built.
+     */
+    private CompletableFuture<List<DeploymentResource>> listDeploymentsFromKubernetes(
+            KubernetesClientService kubernetesClientService, String namespace, String userName) {
+        Map<String, DeploymentResource> deploymentResources = new LinkedHashMap<>();
+        CompletableFuture<Void> listing = kubernetesClientService
+                .listDeploymentResourcesAsync(namespace, userName, page -> collectPage(page, deploymentResources));
+        return KubernetesClientService.onCancel(listing.thenApply(ignored -> new ArrayList<>(deploymentResources.values())),
+                () -> listing.cancel(false));
+    }
+
+    private void collectPage(List<DeploymentResource> page, Map<String, DeploymentResource> deploymentResources) {
+        page.forEach(deploymentResource -> deploymentResources.put(
+                deploymentResource.getNamespace() + "/" + deploymentResource.getName(), deploymentResource));
+    }
+
+    static String clusterName(String cluster) {
+        return StringUtils.isEmpty(cluster) ? ChallengeConstant.DEFAULT_CLUSTER : cluster;
+    }
+
+    static <T> T join(CompletableFuture<T> future) throws ApiException {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof ApiException) {
+                throw (ApiException) ex.getCause();
+            }
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Upserts rather than inserts, so a migration repeated by concurrent listings does not duplicate deployments.
+     */
+    private void migrateFromKubernetesToDb(UUID userId, List<DeploymentResource> deploymentResources) {
+        deploymentRepository.upsertAll(userId, deploymentResources.stream()
                 .map(deploymentResource -> conversionService.convert(deploymentResource, DeploymentEntity.class))
-                .peek(deploymentEntity -> deploymentEntity.setUser(userEntity))
-                .collect(Collectors.toSet());
-        userEntity.setDeployments(deploymentEntities);
+                .collect(Collectors.toList()));
+    }
+
+    @Value
+    private static class ListingKey {
+        String userName;
+        String namespace;
+    }
+
+    /**
+     * Position after a deployment in the newest first order. Encoded as URL safe Base64, so that clients pass it back
+     * as it is.
+     */
+    @Value
+    static class PageCursor {
+        private static final String SEPARATOR = "|";
+
+        LocalDateTime creationTimestamp;
+        UUID id;
+
+        static PageCursor of(DeploymentSummary deploymentSummary) {
+            return new PageCursor(deploymentSummary.getCreationTimestamp(), deploymentSummary.getId());
+        }
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((creationTimestamp + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * @throws BadRequestException if the cursor was not made by {@link #encode()}
+         */
+        static PageCursor decode(String cursor) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separatorIndex = decoded.indexOf(SEPARATOR);
+                if (separatorIndex < 0 || separatorIndex == decoded.length() - 1) {
+                    throw new BadRequestException("Cursor is invalid");
+                }
+                return new PageCursor(LocalDateTime.parse(decoded.substring(0, separatorIndex)),
+                        UUID.fromString(decoded.substring(separatorIndex + 1)));
+            } catch (IllegalArgumentException | DateTimeException ex) {
+                throw new BadRequestException("Cursor is invalid");
+            }
+        }
+    }
+
+    @Value
+    private static class ScaleKey {
+        String userName;
+        String cluster;
+        String namespace;
+        String name;
     }
 }
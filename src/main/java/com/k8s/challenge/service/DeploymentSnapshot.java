@@ -0,0 +1,167 @@
+package com.k8s.challenge.service;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import io.kubernetes.client.openapi.JSON;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * The deployments of an informer cache together with the cluster they are read from and the resource version they are
+ * current at, so a watch on that cluster can be resumed from them.
+ * <p>
+ * On disk a snapshot is a flat sequence of length prefixed records, read straight from a memory mapped file:
+ * <pre>
+ * int    magic "K8SS"
+ * int    format version
+ * int    length, bytes   cluster base path, UTF-8
+ * int    length, bytes   resource version, UTF-8
+ * int    deployment count
+ * int    length, bytes   per deployment, its JSON as UTF-8 without managed fields
+ * long   CRC32 of everything before
+ * </pre>
+ * Managed fields are the largest part of a deployment and are not read by this application, so they are left out.
+ */
+public class DeploymentSnapshot {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeploymentSnapshot.class);
+    private static final int MAGIC = 0x4B385353;
+    private static final int FORMAT_VERSION = 2;
+    private static final JSON JSON = new JSON();
+
+    private final String cluster;
+    private final String resourceVersion;
+    private final List<V1Deployment> deployments;
+
+    public DeploymentSnapshot(String cluster, String resourceVersion, Collection<V1Deployment> deployments) {
+        this.cluster = cluster;
+        this.resourceVersion = resourceVersion;
+        this.deployments = Collections.unmodifiableList(new ArrayList<>(deployments));
+    }
+
+    public String getCluster() {
+        return cluster;
+    }
+
+    public String getResourceVersion() {
+        return resourceVersion;
+    }
+
+    public List<V1Deployment> getDeployments() {
+        return deployments;
+    }
+
+    /**
+     * Writes to a temporary file next to the given one and moves it over, so a reader never sees a partly written
+     * snapshot.
+     */
+    public void writeTo(Path path) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(MAGIC);
+        output.writeInt(FORMAT_VERSION);
+        writeRecord(output, cluster.getBytes(StandardCharsets.UTF_8));
+        writeRecord(output, resourceVersion.getBytes(StandardCharsets.UTF_8));
+        output.writeInt(deployments.size());
+        for (V1Deployment deployment : deployments) {
+            writeRecord(output, encode(deployment));
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes.toByteArray(), 0, bytes.size());
+        output.writeLong(checksum.getValue());
+        output.flush();
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporaryFile = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporaryFile, bytes.toByteArray());
+            Files.move(temporaryFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /**
+     * @return the snapshot in the given file, or null if there is none or it can not be read
+     */
+    public static DeploymentSnapshot readFrom(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            DeploymentSnapshot snapshot = decode(buffer);
+            LOGGER.info("Deployment snapshot of {} with {} deployments at resource version {} is read from {}",
+                    snapshot.cluster, snapshot.deployments.size(), snapshot.resourceVersion, path);
+            return snapshot;
+        } catch (NoSuchFileException ex) {
+            LOGGER.info("There is no deployment snapshot at {}", path);
+            return null;
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.warn("Deployment snapshot at {} can not be read and is ignored", path, ex);
+            return null;
+        }
+    }
+
+    private static DeploymentSnapshot decode(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < Long.BYTES) {
+            throw new IOException("Snapshot is truncated");
+        }
+        ByteBuffer content = buffer.duplicate();
+        content.limit(buffer.limit() - Long.BYTES);
+        CRC32 checksum = new CRC32();
+        checksum.update(content.duplicate());
+        if (checksum.getValue() != buffer.getLong(buffer.limit() - Long.BYTES)) {
+            throw new IOException("Snapshot checksum does not match");
+        }
+        if (content.getInt() != MAGIC || content.getInt() != FORMAT_VERSION) {
+            throw new IOException("Snapshot format is not supported");
+        }
+        String cluster = new String(readRecord(content), StandardCharsets.UTF_8);
+        String resourceVersion = new String(readRecord(content), StandardCharsets.UTF_8);
+        int count = content.getInt();
+        List<V1Deployment> deployments = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            deployments.add(JSON.deserialize(new String(readRecord(content), StandardCharsets.UTF_8),
+                    V1Deployment.class));
+        }
+        return new DeploymentSnapshot(cluster, resourceVersion, deployments);
+    }
+
+    private static byte[] encode(V1Deployment deployment) {
+        JsonElement json = JSON.getGson().toJsonTree(deployment);
+        JsonObject metadata = json.getAsJsonObject().getAsJsonObject("metadata");
+        if (metadata != null) {
+            metadata.remove("managedFields");
+        }
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void writeRecord(DataOutputStream output, byte[] record) throws IOException {
+        output.writeInt(record.length);
+        output.write(record);
+    }
+
+    private static byte[] readRecord(ByteBuffer buffer) {
+        byte[] record = new byte[buffer.getInt()];
+        buffer.get(record);
+        return record;
+    }
+}
@@ -0,0 +1,101 @@
+package com.k8s.challenge.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the state of the deployment informer to a local file every {@link Settings#getInterval() interval} and on
+ * shutdown, so the next start resumes the informer from it instead of listing all deployments again. The snapshot is
+ * taken from the informer's indexer and only written when the resource version has moved since the last one. A
+ * snapshot of another cluster than the one the informer watches is not resumed from.
+ */
+@Service
+public class DeploymentSnapshotService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeploymentSnapshotService.class);
+    private final ResumableDeploymentListerWatcher deploymentListerWatcher;
+    private final Settings settings;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            new DaemonThreadFactory("deployment-snapshot"));
+    private String writtenResourceVersion;
+
+    public DeploymentSnapshotService(ResumableDeploymentListerWatcher deploymentListerWatcher,
+                                     Settings deploymentSnapshotSettings) {
+        this.deploymentListerWatcher = deploymentListerWatcher;
+        this.settings = deploymentSnapshotSettings;
+    }
+
+    /**
+     * @param cluster base path of the cluster the informer watches
+     * @return the snapshot of the cluster written by an earlier run, or null if snapshots are disabled or there is none
+     */
+    public static DeploymentSnapshot readSnapshot(Settings settings, String cluster) {
+        DeploymentSnapshot snapshot = settings.isEnabled() ? DeploymentSnapshot.readFrom(Paths.get(settings.getPath()))
+                : null;
+        if (snapshot != null && !snapshot.getCluster().equals(cluster)) {
+            LOGGER.info("Deployment snapshot at {} is of cluster {} instead of {} and is ignored", settings.getPath(),
+                    snapshot.getCluster(), cluster);
+            return null;
+        }
+        return snapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (settings.isEnabled()) {
+            long intervalMillis = settings.getInterval().toMillis();
+            scheduler.scheduleWithFixedDelay(this::writeSnapshot, intervalMillis, intervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        if (settings.isEnabled()) {
+            writeSnapshot();
+        }
+    }
+
+    synchronized void writeSnapshot() {
+        DeploymentSnapshot snapshot = deploymentListerWatcher.snapshot();
+        if (snapshot == null || snapshot.getResourceVersion().equals(writtenResourceVersion)) {
+            return;
+        }
+        Path path = Paths.get(settings.getPath());
+        try {
+            snapshot.writeTo(path);
+            writtenResourceVersion = snapshot.getResourceVersion();
+            LOGGER.debug("Deployment snapshot with {} deployments at resource version {} is written to {}",
+                    snapshot.getDeployments().size(), snapshot.getResourceVersion(), path);
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.warn("Deployment snapshot can not be written to {}", path, ex);
+        }
+    }
+
+    /**
+     * Bound to {@code k8s.snapshot.*}.
+     */
+    @Getter
+    @Setter
+    public static class Settings {
+
+        private boolean enabled = true;
+        private String path = "deployments.snapshot";
+        private Duration interval = Duration.ofSeconds(30);
+    }
+}
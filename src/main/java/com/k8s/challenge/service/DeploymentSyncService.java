@@ -0,0 +1,321 @@
+package com.k8s.challenge.service;
+
+import com.k8s.challenge.constant.ChallengeConstant;
+import com.k8s.challenge.entity.DeploymentEntity;
+import com.k8s.challenge.entity.SyncCheckpointEntity;
+import com.k8s.challenge.entity.UserEntity;
+import com.k8s.challenge.repository.DeploymentRepository;
+import com.k8s.challenge.repository.SyncCheckpointRepository;
+import com.k8s.challenge.repository.UserRepository;
+import com.k8s.challenge.resource.DeploymentResource;
+import io.kubernetes.client.informer.EventType;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.util.Watch;
+import io.kubernetes.client.util.Watchable;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps the deployment table in line with the cluster by applying watch events incrementally. The last seen
+ * resource version is persisted with every applied event, so a restart resumes the watch instead of relisting.
+ * A relist only happens when there is no checkpoint yet or the checkpoint has expired (410 Gone).
+ * <p>
+ * Only the default cluster is synchronized; rows of the other registered clusters are never touched. Only the
+ * namespaces of the {@link NamespaceShard} assigned by {@link NamespaceShardService} are synchronized, so replicas do
+ * not apply the same events twice. When the shard covers only part of the namespaces, the checkpoint is kept in
+ * memory for as long as the shard does not change, since no other replica resumes from it.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "k8s.sync", name = "enabled", havingValue = "true")
+public class DeploymentSyncService {
+
+    static final String CHECKPOINT_NAME = "deployments";
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeploymentSyncService.class);
+    private static final long RETRY_DELAY_MILLIS = 5000L;
+
+    private final KubernetesClientService kubernetesClientService;
+    private final DeploymentRepository deploymentRepository;
+    private final SyncCheckpointRepository syncCheckpointRepository;
+    private final UserRepository userRepository;
+    private final ConversionService conversionService;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executorService = Executors.newSingleThreadExecutor(
+            new DaemonThreadFactory("deployment-sync"));
+    private final AtomicInteger session = new AtomicInteger();
+    private volatile Watchable<V1Deployment> currentWatch;
+    private String shardResourceVersion;
+
+    @EventListener
+    public void onShardChanged(NamespaceShardChangedEvent event) {
+        suspend();
+        if (!event.getShard().isEmpty()) {
+            start(event.getShard());
+        }
+    }
+
+    /**
+     * Starts a session for the given shard. A session of an earlier shard ends with its current watch.
+     */
+    public void start(NamespaceShard shard) {
+        LOGGER.info("Starting deployment synchronization for {}", shard);
+        int current = session.incrementAndGet();
+        executorService.submit(() -> run(current, shard));
+    }
+
+    public void suspend() {
+        LOGGER.info("Suspending deployment synchronization");
+        session.incrementAndGet();
+        closeCurrentWatch();
+    }
+
+    @PreDestroy
+    public void stop() {
+        LOGGER.info("Stopping deployment synchronization");
+        session.incrementAndGet();
+        closeCurrentWatch();
+        executorService.shutdownNow();
+    }
+
+    private void run(int session, NamespaceShard shard) {
+        shardResourceVersion = null;
+        while (isActive(session)) {
+            try {
+                synchronize(session, shard);
+            } catch (Exception ex) {
+                if (!isActive(session)) {
+                    return;
+                }
+                LOGGER.warn("Deployment synchronization failed. Retrying in {} ms", RETRY_DELAY_MILLIS, ex);
+                try {
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs one watch session, relisting first when there is no usable checkpoint. Returns when the server closes
+     * the watch, after which the caller resumes from the stored checkpoint.
+     */
+    void synchronize(int session, NamespaceShard shard) throws ApiException, IOException {
+        String resourceVersion = findCheckpoint(shard).orElse(null);
+        if (resourceVersion == null) {
+            resourceVersion = relist(shard);
+        }
+        if (!isActive(session)) {
+            return;
+        }
+        LOGGER.debug("Watching deployments from resource version: {}", resourceVersion);
+        try (Watchable<V1Deployment> watch = kubernetesClientService.watchUserDeployments(resourceVersion)) {
+            currentWatch = watch;
+            if (!isActive(session)) {
+                return;
+            }
+            for (Watch.Response<V1Deployment> event : watch) {
+                if (!isActive(session) || !applyEvent(shard, event)) {
+                    return;
+                }
+            }
+        } catch (ApiException ex) {
+            if (ex.getCode() != HttpStatus.GONE.value()) {
+                throw ex;
+            }
+            LOGGER.info("Resource version {} is expired. Deployments will be relisted", resourceVersion);
+            saveCheckpoint(shard, null);
+        } finally {
+            currentWatch = null;
+        }
+    }
+
+    /**
+     * Events of namespaces outside the given shard only move the checkpoint.
+     *
+     * @return false if the watch can not continue because the resource version has expired
+     * @throws IllegalStateException if any other watch error is received
+     */
+    boolean applyEvent(NamespaceShard shard, Watch.Response<V1Deployment> event) {
+        EventType eventType = EventType.getByType(event.type);
+        if (eventType == null) {
+            LOGGER.warn("Unknown watch event type: {}", event.type);
+            return true;
+        }
+        if ((eventType == EventType.ADDED || eventType == EventType.MODIFIED || eventType == EventType.DELETED)
+                && !shard.owns(event.object.getMetadata().getNamespace())) {
+            saveCheckpoint(shard, resourceVersionOf(event.object));
+            return true;
+        }
+        switch (eventType) {
+            case ADDED:
+            case MODIFIED:
+                transactionTemplate.execute(status -> {
+                    upsert(event.object);
+                    saveCheckpoint(shard, resourceVersionOf(event.object));
+                    return null;
+                });
+                return true;
+            case DELETED:
+                transactionTemplate.execute(status -> {
+                    deploymentRepository.deleteAll(deploymentRepository.findAllByClusterAndNamespaceAndDeploymentName(
+                            ChallengeConstant.DEFAULT_CLUSTER, event.object.getMetadata().getNamespace(),
+                            event.object.getMetadata().getName()));
+                    saveCheckpoint(shard, resourceVersionOf(event.object));
+                    return null;
+                });
+                return true;
+            case BOOKMARK:
+                transactionTemplate.execute(status -> {
+                    saveCheckpoint(shard, resourceVersionOf(event.object));
+                    return null;
+                });
+                return true;
+            case ERROR:
+            default:
+                if (event.status != null && event.status.getCode() != null
+                        && event.status.getCode() == HttpStatus.GONE.value()) {
+                    LOGGER.info("Watch resource version is expired. Deployments will be relisted");
+                    transactionTemplate.execute(status -> {
+                        saveCheckpoint(shard, null);
+                        return null;
+                    });
+                    return false;
+                }
+                throw new IllegalStateException(String.format("Watch error event is received: %s", event.status));
+        }
+    }
+
+    /**
+     * Brings the rows of the given shard in line with a fresh listing and returns the resource version of that
+     * listing.
+     */
+    private String relist(NamespaceShard shard) throws ApiException {
+        LOGGER.info("Relisting deployments to synchronize database for {}", shard);
+        Set<String> listedKeys = new HashSet<>();
+        AtomicReference<String> resourceVersion = new AtomicReference<>();
+        kubernetesClientService.listUserDeployments(page -> transactionTemplate.execute(status -> {
+            page.getItems().stream()
+                    .filter(v1Deployment -> shard.owns(v1Deployment.getMetadata().getNamespace()))
+                    .forEach(v1Deployment -> {
+                        upsert(v1Deployment);
+                        listedKeys.add(key(v1Deployment.getMetadata().getNamespace(),
+                                v1Deployment.getMetadata().getName()));
+                    });
+            if (page.getMetadata() != null) {
+                resourceVersion.set(page.getMetadata().getResourceVersion());
+            }
+            return null;
+        }));
+        transactionTemplate.execute(status -> {
+            deploymentRepository.findAllByCluster(ChallengeConstant.DEFAULT_CLUSTER).forEach(deploymentEntity -> {
+                if (shard.owns(deploymentEntity.getNamespace()) && !listedKeys.contains(
+                        key(deploymentEntity.getNamespace(), deploymentEntity.getDeploymentName()))) {
+                    deploymentRepository.delete(deploymentEntity);
+                }
+            });
+            saveCheckpoint(shard, resourceVersion.get());
+            return null;
+        });
+        LOGGER.info("Relisting deployments finished. Deployment count: {}, resource version: {}",
+                listedKeys.size(), resourceVersion.get());
+        return resourceVersion.get();
+    }
+
+    private void upsert(V1Deployment v1Deployment) {
+        String userName = v1Deployment.getMetadata().getLabels() != null
+                ? v1Deployment.getMetadata().getLabels().get(ChallengeConstant.USER_NAME_LABEL) : null;
+        Optional<UserEntity> userEntity = userName != null ? userRepository.findByUserName(userName) : Optional.empty();
+        if (!userEntity.isPresent()) {
+            LOGGER.debug("Deployment {} is skipped. User {} is not known", v1Deployment.getMetadata().getName(), userName);
+            return;
+        }
+
+        DeploymentResource deploymentResource = conversionService.convert(v1Deployment, DeploymentResource.class);
+        deploymentResource.setCluster(ChallengeConstant.DEFAULT_CLUSTER);
+        List<DeploymentEntity> persistedDeployments = deploymentRepository.findAllByClusterAndNamespaceAndDeploymentName(
+                ChallengeConstant.DEFAULT_CLUSTER, deploymentResource.getNamespace(), deploymentResource.getName());
+        DeploymentEntity deploymentEntity;
+        if (persistedDeployments.isEmpty()) {
+            deploymentEntity = conversionService.convert(deploymentResource, DeploymentEntity.class);
+        } else {
+            deploymentEntity = persistedDeployments.get(0);
+            deploymentEntity.setReplicas(deploymentResource.getReplicas());
+            deploymentEntity.setImage(deploymentResource.getImage());
+            if (deploymentResource.getCreationTimestamp() != null) {
+                deploymentEntity.setCreationTimestamp(deploymentResource.getCreationTimestamp());
+            }
+            // List items do not carry apiVersion and kind, only watch events do
+            if (deploymentResource.getApiVersion() != null) {
+                deploymentEntity.setApiVersion(deploymentResource.getApiVersion());
+            }
+            if (deploymentResource.getKind() != null) {
+                deploymentEntity.setKind(deploymentResource.getKind());
+            }
+        }
+        deploymentEntity.setUser(userEntity.get());
+        deploymentRepository.save(deploymentEntity);
+    }
+
+    private boolean isActive(int session) {
+        return this.session.get() == session;
+    }
+
+    private Optional<String> findCheckpoint(NamespaceShard shard) {
+        if (!shard.isAll()) {
+            return Optional.ofNullable(shardResourceVersion);
+        }
+        return syncCheckpointRepository.findByName(CHECKPOINT_NAME)
+                .map(SyncCheckpointEntity::getResourceVersion);
+    }
+
+    private void saveCheckpoint(NamespaceShard shard, String resourceVersion) {
+        if (!shard.isAll()) {
+            shardResourceVersion = resourceVersion;
+            return;
+        }
+        SyncCheckpointEntity syncCheckpointEntity = syncCheckpointRepository.findByName(CHECKPOINT_NAME)
+                .orElseGet(() -> SyncCheckpointEntity.builder().name(CHECKPOINT_NAME).build());
+        syncCheckpointEntity.setResourceVersion(resourceVersion);
+        syncCheckpointRepository.save(syncCheckpointEntity);
+    }
+
+    private void closeCurrentWatch() {
+        Watchable<V1Deployment> watch = currentWatch;
+        if (watch != null) {
+            try {
+                watch.close();
+            } catch (IOException ex) {
+                LOGGER.debug("Deployment watch could not be closed", ex);
+            }
+        }
+    }
+
+    private static String resourceVersionOf(V1Deployment v1Deployment) {
+        return v1Deployment.getMetadata().getResourceVersion();
+    }
+
+    private static String key(String namespace, String name) {
+        return namespace + "/" + name;
+    }
+}
@@ -1,63 +1,534 @@
 package com.k8s.challenge.service;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.k8s.challenge.constant.ChallengeConstant;
+import com.k8s.challenge.resource.DeploymentResource;
+import com.k8s.challenge.service.DeploymentResourceListDecoder.DeploymentResourcePage;
+import io.kubernetes.client.custom.V1Patch;
+import io.kubernetes.client.informer.cache.Caches;
+import io.kubernetes.client.openapi.ApiClient;
 import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.JSON;
 import io.kubernetes.client.openapi.apis.AppsV1Api;
+import io.kubernetes.client.openapi.models.V1DeleteOptions;
 import io.kubernetes.client.openapi.models.V1Deployment;
 import io.kubernetes.client.openapi.models.V1DeploymentList;
-import io.kubernetes.client.util.generic.options.DeleteOptions;
+import io.kubernetes.client.openapi.models.V1Status;
+import io.kubernetes.client.util.Watch;
+import io.kubernetes.client.util.Watchable;
 import lombok.AllArgsConstructor;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
 @Service
 @AllArgsConstructor
 public class KubernetesClientService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(KubernetesClientService.class);
+    static final int LIST_PAGE_SIZE = 500;
+    private static final int MAX_LIST_RESTARTS = 3;
+    private static final int WATCH_TIMEOUT_SECONDS = 300;
+    private static final String FIELD_MANAGER = "k8s-challenge";
+    private static final String PROPAGATION_POLICY_BACKGROUND = "Background";
+    private static final JSON JSON = new JSON();
+    @Qualifier("deploymentApi")
     private final AppsV1Api deploymentApi;
+    /**
+     * Sends creates, patches and deletes. Its client dispatches on a bulkhead of its own, so slow or piled up reads
+     * can not hold back mutations and the other way round.
+     */
+    @Qualifier("mutationDeploymentApi")
+    private final AppsV1Api mutationDeploymentApi;
+    @Qualifier("watchDeploymentApi")
+    private final AppsV1Api watchDeploymentApi;
+    private final Optional<DeploymentProtobufClient> deploymentProtobufClient;
 
     /**
+     * Lists all deployments of the user by following the continue token page by page.
+     *
      * @param namespace namespace parameter is optional
      * @return
      * @throws ApiException
      */
     public V1DeploymentList listDeployments(String namespace, String userName) throws ApiException {
+        Map<String, V1Deployment> deployments = new LinkedHashMap<>();
+        listDeployments(namespace, userName, page -> page.getItems().forEach(v1Deployment ->
+                deployments.put(Caches.metaNamespaceKeyFunc(v1Deployment), v1Deployment)));
+        V1DeploymentList v1DeploymentList = new V1DeploymentList();
+        v1DeploymentList.setItems(new ArrayList<>(deployments.values()));
+        return v1DeploymentList;
+    }
+
+    /**
+     * Lists deployments with at most {@link #LIST_PAGE_SIZE} items per request and hands every page to the consumer
+     * as soon as it is received, so that callers never hold the whole cluster-wide list at once.
+     * <p>
+     * When the continue token expires (410 Gone) the inconsistent continue token offered by the API server is used.
+     * If there is none, listing restarts from the first page; consumers may therefore see an item more than once.
+     *
+     * @param namespace namespace parameter is optional
+     * @throws ApiException
+     */
+    public void listDeployments(String namespace, String userName, Consumer<V1DeploymentList> pageConsumer)
+            throws ApiException {
+        listPages(namespace, ChallengeConstant.USER_NAME_LABEL + "=" + userName, this::listDeploymentPage,
+                KubernetesClientService::continueTokenOf, pageConsumer);
+    }
+
+    /**
+     * Lists the deployments of all users, i.e. every deployment carrying the userName label, page by page.
+     *
+     * @see #listDeployments(String, String, Consumer)
+     */
+    public void listUserDeployments(Consumer<V1DeploymentList> pageConsumer) throws ApiException {
+        listPages(null, ChallengeConstant.USER_NAME_LABEL, this::listDeploymentPage,
+                KubernetesClientService::continueTokenOf, pageConsumer);
+    }
+
+    /**
+     * Lists deployments like {@link #listDeployments(String, String, Consumer)}, but every page is decoded while it
+     * is streamed and only the fields of {@link DeploymentResource} are kept. The next page is requested only after
+     * the consumer has processed the previous one, and no request thread is blocked in between.
+     *
+     * @param namespace namespace parameter is optional
+     */
+    public CompletableFuture<Void> listDeploymentResourcesAsync(String namespace, String userName,
+                                                                Consumer<List<DeploymentResource>> pageConsumer) {
+        return listDeploymentResourcesAsync(namespace, userName, null, pageConsumer);
+    }
+
+    /**
+     * Lists like {@link #listDeploymentResourcesAsync(String, String, Consumer)}, narrowed down by the given label
+     * selector. The selector is combined with the userName label, so deployments of other users never match.
+     *
+     * @param namespace     namespace parameter is optional
+     * @param labelSelector labelSelector parameter is optional
+     */
+    public CompletableFuture<Void> listDeploymentResourcesAsync(String namespace, String userName, String labelSelector,
+                                                                Consumer<List<DeploymentResource>> pageConsumer) {
+        LOGGER.trace("Async list deployments request is received for namespace: {}", namespace);
+        String userNameSelector = ChallengeConstant.USER_NAME_LABEL + "=" + userName;
+        return listPagesAsync(namespace,
+                StringUtils.isEmpty(labelSelector) ? userNameSelector : userNameSelector + "," + labelSelector,
+                this::listDeploymentResourcePageAsync, DeploymentResourcePage::getContinueToken,
+                page -> pageConsumer.accept(page.getItems()));
+    }
+
+    /**
+     * Watches the deployments of all users starting from the given resource version. Bookmark events are requested
+     * so that the resource version keeps advancing while no deployment changes.
+     *
+     * @param resourceVersion resource version to resume from
+     */
+    public Watchable<V1Deployment> watchUserDeployments(String resourceVersion) throws ApiException {
+        LOGGER.trace("Watch deployments request is received for resource version: {}", resourceVersion);
+        return Watch.createWatch(watchDeploymentApi.getApiClient(),
+                watchDeploymentApi.listDeploymentForAllNamespacesCall(Boolean.TRUE, null, null,
+                        ChallengeConstant.USER_NAME_LABEL, null, null, resourceVersion, WATCH_TIMEOUT_SECONDS,
+                        Boolean.TRUE, null),
+                new TypeToken<Watch.Response<V1Deployment>>() {
+                }.getType());
+    }
+
+    /**
+     * Watches a single deployment of the user. Its current state is delivered as the first event.
+     *
+     * @param timeoutSeconds the API server ends the watch after this time
+     */
+    public Watchable<V1Deployment> watchDeployment(String namespace, String name, String userName, int timeoutSeconds)
+            throws ApiException {
+        LOGGER.trace("Watch deployment request is received for namespace: {}", namespace);
+        return Watch.createWatch(watchDeploymentApi.getApiClient(),
+                watchDeploymentApi.listNamespacedDeploymentCall(namespace, null, null, null,
+                        "metadata.name=" + name, ChallengeConstant.USER_NAME_LABEL + "=" + userName, null, null,
+                        timeoutSeconds, Boolean.TRUE, null),
+                new TypeToken<Watch.Response<V1Deployment>>() {
+                }.getType());
+    }
+
+    private <P> void listPages(String namespace, String labelSelector, PageRequest<P> pageRequest,
+                               Function<P, String> continueTokenOf, Consumer<P> pageConsumer) throws ApiException {
         LOGGER.trace("List deployments request is received for namespace: {}", namespace);
+        String continueToken = null;
+        int restarts = 0;
+        int pages = 0;
+        while (true) {
+            P page;
+            try {
+                page = pageRequest.list(namespace, labelSelector, continueToken);
+            } catch (ApiException ex) {
+                continueToken = resumeContinueToken(ex, namespace, continueToken, restarts);
+                if (continueToken == null) {
+                    restarts++;
+                }
+                continue;
+            }
+            pageConsumer.accept(page);
+            pages++;
+            continueToken = continueTokenOf.apply(page);
+            if (StringUtils.isEmpty(continueToken)) {
+                break;
+            }
+        }
+        LOGGER.trace("List deployments request is finished for namespace: {}. Page count: {}", namespace, pages);
+    }
+
+    /**
+     * Cancelling the returned listing cancels the page request in flight, and no further page is requested.
+     */
+    private <P> CompletableFuture<Void> listPagesAsync(String namespace, String labelSelector,
+                                                       AsyncPageRequest<P> pageRequest,
+                                                       Function<P, String> continueTokenOf, Consumer<P> pageConsumer) {
+        CompletableFuture<Void> listing = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<P>> pageInFlight = new AtomicReference<>();
+        onCancel(listing, () -> {
+            CompletableFuture<P> page = pageInFlight.get();
+            if (page != null) {
+                page.cancel(false);
+            }
+        });
+        listNextPageAsync(listing, pageInFlight, namespace, labelSelector, null, 0, pageRequest, continueTokenOf,
+                pageConsumer);
+        return listing;
+    }
+
+    private <P> void listNextPageAsync(CompletableFuture<Void> listing,
+                                       AtomicReference<CompletableFuture<P>> pageInFlight, String namespace,
+                                       String labelSelector, String continueToken, int restarts,
+                                       AsyncPageRequest<P> pageRequest, Function<P, String> continueTokenOf,
+                                       Consumer<P> pageConsumer) {
+        if (listing.isDone()) {
+            return;
+        }
+        CompletableFuture<P> nextPage = pageRequest.list(namespace, labelSelector, continueToken);
+        pageInFlight.set(nextPage);
+        // The listing may have been cancelled before the page was in flight
+        if (listing.isCancelled()) {
+            nextPage.cancel(false);
+        }
+        nextPage.whenComplete((page, throwable) -> {
+            try {
+                if (throwable != null) {
+                    Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                    if (!(cause instanceof ApiException)) {
+                        listing.completeExceptionally(cause);
+                        return;
+                    }
+                    String resumedContinueToken = resumeContinueToken((ApiException) cause, namespace, continueToken,
+                            restarts);
+                    listNextPageAsync(listing, pageInFlight, namespace, labelSelector, resumedContinueToken,
+                            resumedContinueToken == null ? restarts + 1 : restarts, pageRequest, continueTokenOf,
+                            pageConsumer);
+                    return;
+                }
+                pageConsumer.accept(page);
+                String nextContinueToken = continueTokenOf.apply(page);
+                if (StringUtils.isEmpty(nextContinueToken)) {
+                    LOGGER.trace("Async list deployments request is finished for namespace: {}", namespace);
+                    listing.complete(null);
+                    return;
+                }
+                listNextPageAsync(listing, pageInFlight, namespace, labelSelector, nextContinueToken, restarts,
+                        pageRequest, continueTokenOf, pageConsumer);
+            } catch (ApiException | RuntimeException ex) {
+                listing.completeExceptionally(ex);
+            }
+        });
+    }
+
+    private V1DeploymentList listDeploymentPage(String namespace, String labelSelector, String continueToken)
+            throws ApiException {
+        V1DeploymentList page;
+        if (deploymentProtobufClient.isPresent()) {
+            page = deploymentProtobufClient.get().listDeploymentPage(namespace, labelSelector, continueToken,
+                    LIST_PAGE_SIZE);
+        } else if (StringUtils.isEmpty(namespace)) {
+            page = deploymentApi.listDeploymentForAllNamespaces(null, continueToken, null,
+                    labelSelector, LIST_PAGE_SIZE, null, null, null, Boolean.FALSE);
+        } else {
+            page = deploymentApi.listNamespacedDeployment(namespace, null, null, continueToken,
+                    null, labelSelector, LIST_PAGE_SIZE, null, null, Boolean.FALSE);
+        }
+        if (page.getItems() == null) {
+            page.setItems(Collections.emptyList());
+        }
+        return page;
+    }
+
+    private CompletableFuture<DeploymentResourcePage> listDeploymentResourcePageAsync(String namespace,
+                                                                                      String labelSelector,
+                                                                                      String continueToken) {
+        if (deploymentProtobufClient.isPresent()) {
+            return deploymentProtobufClient.get().listDeploymentResourcePageAsync(namespace, labelSelector,
+                    continueToken, LIST_PAGE_SIZE);
+        }
+        CompletableFuture<DeploymentResourcePage> future = new CompletableFuture<>();
+        try {
+            onCancel(future, KubernetesReadPolicy.enqueue(deploymentApi.getApiClient().getHttpClient(),
+                    listDeploymentPageCall(namespace, labelSelector, continueToken), new Callback() {
+                        @Override
+                        public void onFailure(Call call, IOException ex) {
+                            future.completeExceptionally(new ApiException(ex));
+                        }
+
+                        @Override
+                        public void onResponse(Call call, Response response) {
+                            try (Response closeableResponse = response) {
+                                future.complete(readDeploymentResourcePage(closeableResponse));
+                            } catch (ApiException | RuntimeException ex) {
+                                future.completeExceptionally(ex);
+                            } catch (IOException ex) {
+                                future.completeExceptionally(new ApiException(ex));
+                            }
+                        }
+                    }));
+        } catch (ApiException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    private Call listDeploymentPageCall(String namespace, String labelSelector, String continueToken)
+            throws ApiException {
         if (StringUtils.isEmpty(namespace)) {
-            V1DeploymentList v1DeploymentList = deploymentApi.listDeploymentForAllNamespaces(null, null,
-                    null, "userName=" + userName, Integer.MAX_VALUE, null, null, null, Boolean.FALSE);
-            LOGGER.trace("List deployments request is finished for namespace: {}. Result size: {}",
-                    namespace, v1DeploymentList.getItems() != null ? v1DeploymentList.getItems().size() : 0);
-            return v1DeploymentList;
+            return deploymentApi.listDeploymentForAllNamespacesCall(null, continueToken, null,
+                    labelSelector, LIST_PAGE_SIZE, null, null, null, Boolean.FALSE, null);
         }
+        return deploymentApi.listNamespacedDeploymentCall(namespace, null, null, continueToken,
+                null, labelSelector, LIST_PAGE_SIZE, null, null, Boolean.FALSE, null);
+    }
 
-        V1DeploymentList v1DeploymentList = deploymentApi.listNamespacedDeployment(namespace, null, null, null,
-                null, "userName=" + userName, null, null, null, Boolean.FALSE);
-        LOGGER.trace("List deployments request is finished for namespace: {}. Result size: {}",
-                namespace, v1DeploymentList.getItems() != null ? v1DeploymentList.getItems().size() : 0);
-        return v1DeploymentList;
+    /**
+     * Decodes the body while it is read from the connection, so the raw response is never held as a whole.
+     */
+    private DeploymentResourcePage readDeploymentResourcePage(Response response) throws ApiException, IOException {
+        ResponseBody responseBody = response.body();
+        if (!response.isSuccessful()) {
+            throw new ApiException(response.message(), response.code(), response.headers().toMultimap(),
+                    responseBody != null ? responseBody.string() : null);
+        }
+        if (responseBody == null) {
+            throw new ApiException("Deployment list response has no body");
+        }
+        try (JsonReader reader = new JsonReader(responseBody.charStream())) {
+            return DeploymentResourceListDecoder.decode(reader);
+        } catch (JsonParseException | IllegalStateException ex) {
+            throw new ApiException(ex);
+        }
     }
 
+    /**
+     * Runs the given cancellation once the future is cancelled, so that a caller giving up on a result also stops the
+     * request it waits for.
+     *
+     * @return the given future
+     */
+    static <T> CompletableFuture<T> onCancel(CompletableFuture<T> future, Runnable cancellation) {
+        future.whenComplete((result, throwable) -> {
+            if (future.isCancelled()) {
+                cancellation.run();
+            }
+        });
+        return future;
+    }
+
+    private static String continueTokenOf(V1DeploymentList page) {
+        return page.getMetadata() != null ? page.getMetadata().getContinue() : null;
+    }
+
+    /**
+     * Decides how to go on after a page request failed.
+     *
+     * @return the inconsistent continue token offered by the API server, or null to restart from the first page
+     * @throws ApiException the given exception if listing can not be resumed
+     */
+    private String resumeContinueToken(ApiException ex, String namespace, String continueToken, int restarts)
+            throws ApiException {
+        if (ex.getCode() != HttpStatus.GONE.value() || continueToken == null) {
+            throw ex;
+        }
+        String inconsistentContinueToken = findContinueToken(ex);
+        if (!StringUtils.isEmpty(inconsistentContinueToken)) {
+            LOGGER.warn("Continue token expired while listing deployments for namespace: {}. " +
+                    "Continuing with inconsistent continue token", namespace);
+            return inconsistentContinueToken;
+        }
+        if (restarts < MAX_LIST_RESTARTS) {
+            LOGGER.warn("Continue token expired while listing deployments for namespace: {}. " +
+                    "Restarting from the first page", namespace);
+            return null;
+        }
+        throw ex;
+    }
+
+    private String findContinueToken(ApiException ex) {
+        if (StringUtils.isEmpty(ex.getResponseBody())) {
+            return null;
+        }
+        try {
+            V1Status status = JSON.deserialize(ex.getResponseBody(), V1Status.class);
+            return status != null && status.getMetadata() != null ? status.getMetadata().getContinue() : null;
+        } catch (RuntimeException parseException) {
+            LOGGER.debug("Response body of expired list request could not be parsed", parseException);
+            return null;
+        }
+    }
+
+    /**
+     * Waits for {@link #createDeploymentAsync(String, V1Deployment, Boolean, String, String)}, so the request is sent
+     * on the mutation bulkhead like every other mutation.
+     */
     public V1Deployment createDeployment(String namespace, V1Deployment deployment, Boolean pretty, String dryRun, String userName)
             throws ApiException {
         LOGGER.trace("Create deployment request is received for namespace: {}", namespace);
+        V1Deployment v1Deployment = DeploymentService.join(createDeploymentAsync(namespace, deployment, pretty, dryRun,
+                userName));
+        LOGGER.trace("Create deployment request is finished for namespace: {}", namespace);
+        return v1Deployment;
+    }
+
+    public CompletableFuture<V1Deployment> createDeploymentAsync(String namespace, V1Deployment deployment, Boolean pretty,
+                                                                 String dryRun, String userName) {
+        LOGGER.trace("Async create deployment request is received for namespace: {}", namespace);
+        addUserNameLabel(deployment, userName);
+        CompletableApiCallback<V1Deployment> callback = new CompletableApiCallback<>();
+        try {
+            mutationDeploymentApi.createNamespacedDeploymentAsync(namespace, deployment,
+                    pretty != null ? pretty.toString() : null, dryRun, null, callback);
+        } catch (ApiException ex) {
+            callback.completeExceptionally(ex);
+        }
+        return callback;
+    }
+
+    public CompletableFuture<V1Deployment> readDeploymentAsync(String name, String namespace) {
+        LOGGER.trace("Async read deployment request is received for namespace: {}", namespace);
+        CompletableFuture<V1Deployment> future = new CompletableFuture<>();
+        try {
+            ApiClient apiClient = deploymentApi.getApiClient();
+            KubernetesReadPolicy.enqueue(apiClient.getHttpClient(),
+                    deploymentApi.readNamespacedDeploymentCall(name, namespace, null, null, null, null),
+                    new Callback() {
+                        @Override
+                        public void onFailure(Call call, IOException ex) {
+                            future.completeExceptionally(new ApiException(ex));
+                        }
+
+                        @Override
+                        public void onResponse(Call call, Response response) {
+                            try {
+                                future.complete(apiClient.handleResponse(response, V1Deployment.class));
+                            } catch (ApiException | RuntimeException ex) {
+                                future.completeExceptionally(ex);
+                            }
+                        }
+                    });
+        } catch (ApiException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    /**
+     * Sends the given partial deployment as a strategic merge patch, so only the fields set on it are changed and
+     * containers are merged by name.
+     */
+    public CompletableFuture<V1Deployment> patchDeploymentAsync(String name, String namespace, V1Deployment patch,
+                                                                String dryRun) {
+        LOGGER.trace("Async patch deployment request is received for namespace: {}", namespace);
+        CompletableApiCallback<V1Deployment> callback = new CompletableApiCallback<>();
+        try {
+            V1Patch v1Patch = new V1Patch(JSON.serialize(patch));
+            Request request = mutationDeploymentApi.patchNamespacedDeploymentCall(name, namespace, v1Patch, null, dryRun,
+                    FIELD_MANAGER, null, null).request();
+            // The generated call picks the JSON patch content type, so the body is sent again with the right one
+            request = request.newBuilder()
+                    .patch(RequestBody.create(MediaType.parse(V1Patch.PATCH_FORMAT_STRATEGIC_MERGE_PATCH),
+                            v1Patch.getValue()))
+                    .build();
+            ApiClient apiClient = mutationDeploymentApi.getApiClient();
+            apiClient.executeAsync(apiClient.getHttpClient().newCall(request), V1Deployment.class, callback);
+        } catch (ApiException ex) {
+            callback.completeExceptionally(ex);
+        }
+        return callback;
+    }
+
+    private void addUserNameLabel(V1Deployment deployment, String userName) {
         if (CollectionUtils.isEmpty(deployment.getMetadata().getLabels())) {
-            deployment.getMetadata().setLabels(ImmutableMap.of("userName", userName));
+            deployment.getMetadata().setLabels(ImmutableMap.of(ChallengeConstant.USER_NAME_LABEL, userName));
         } else {
-            deployment.getMetadata().getLabels().put("userName", userName);
+            deployment.getMetadata().getLabels().put(ChallengeConstant.USER_NAME_LABEL, userName);
         }
-        V1Deployment v1Deployment = deploymentApi.createNamespacedDeployment(namespace, deployment,
-                pretty != null ? pretty.toString() : null, dryRun, null);
-        LOGGER.trace("Create deployment request is finished for namespace: {}", namespace);
-        return v1Deployment;
     }
 
+    /**
+     * Deletes with background propagation and the deployment's own grace period: the API server removes the
+     * deployment right away and the garbage collector removes its replica sets and pods afterwards, so the call does
+     * not wait for pods to terminate. Waits for {@link #deleteDeploymentAsync(String, String)}, so the request is sent
+     * on the mutation bulkhead.
+     */
     public void deleteDeployment(String name, String namespace) throws ApiException {
-        deploymentApi.deleteNamespacedDeployment(name, namespace, null, null, 0, true,
-                null, new DeleteOptions());
+        LOGGER.trace("Delete deployment request is received for namespace: {}", namespace);
+        DeploymentService.join(deleteDeploymentAsync(name, namespace));
+    }
+
+    /**
+     * Asynchronous variant of {@link #deleteDeployment(String, String)}. The response body is not read, as it may be
+     * a status or the deployment.
+     */
+    public CompletableFuture<Void> deleteDeploymentAsync(String name, String namespace) {
+        LOGGER.trace("Async delete deployment request is received for namespace: {}", namespace);
+        CompletableApiCallback<Void> callback = new CompletableApiCallback<>();
+        try {
+            Call call = mutationDeploymentApi.deleteNamespacedDeploymentCall(name, namespace, null, null, null, null, null,
+                    backgroundDeleteOptions(), null);
+            mutationDeploymentApi.getApiClient().executeAsync(call, null, callback);
+        } catch (ApiException ex) {
+            callback.completeExceptionally(ex);
+        }
+        return callback;
+    }
+
+    private static V1DeleteOptions backgroundDeleteOptions() {
+        return new V1DeleteOptions().propagationPolicy(PROPAGATION_POLICY_BACKGROUND);
+    }
+
+    @FunctionalInterface
+    private interface PageRequest<P> {
+        P list(String namespace, String labelSelector, String continueToken) throws ApiException;
+    }
+
+    @FunctionalInterface
+    private interface AsyncPageRequest<P> {
+        CompletableFuture<P> list(String namespace, String labelSelector, String continueToken);
     }
 }
@@ -0,0 +1,151 @@
+package com.k8s.challenge.service;
+
+import com.k8s.challenge.constant.ChallengeConstant;
+import com.k8s.challenge.exception.BadRequestException;
+import io.kubernetes.client.openapi.ApiException;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Holds one {@link KubernetesClientService} per cluster. Every cluster has its own API client and therefore its own
+ * connection pool and dispatcher, so a slow cluster can not starve requests to the others.
+ * <p>
+ * The {@link ChallengeConstant#DEFAULT_CLUSTER default cluster} is the one the informer cache and the database
+ * synchronization work on. Requests without a cluster go to it.
+ */
+public class KubernetesClusterRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KubernetesClusterRegistry.class);
+    private final Map<String, KubernetesClientService> kubernetesClientServices = new LinkedHashMap<>();
+    private final Map<String, Duration> requestTimeouts = new LinkedHashMap<>();
+    private final ScheduledExecutorService timeoutScheduler = Executors.newSingleThreadScheduledExecutor(
+            new DaemonThreadFactory("cluster-request-timeout"));
+
+    /**
+     * @param requestTimeout how long a fanned out request may take on this cluster
+     */
+    public KubernetesClusterRegistry register(String cluster, KubernetesClientService kubernetesClientService,
+                                              Duration requestTimeout) {
+        LOGGER.info("Cluster {} is registered with request timeout {}", cluster, requestTimeout);
+        kubernetesClientServices.put(cluster, kubernetesClientService);
+        requestTimeouts.put(cluster, requestTimeout);
+        return this;
+    }
+
+    public Set<String> getClusters() {
+        return Collections.unmodifiableSet(kubernetesClientServices.keySet());
+    }
+
+    /**
+     * @param cluster cluster parameter is optional, the default cluster is used if it is empty
+     * @throws BadRequestException if the cluster is not registered
+     */
+    public KubernetesClientService getKubernetesClientService(String cluster) {
+        String clusterName = StringUtils.isEmpty(cluster) ? ChallengeConstant.DEFAULT_CLUSTER : cluster;
+        KubernetesClientService kubernetesClientService = kubernetesClientServices.get(clusterName);
+        if (kubernetesClientService == null) {
+            throw new BadRequestException(String.format("Cluster %s is not known", clusterName));
+        }
+        return kubernetesClientService;
+    }
+
+    /**
+     * Sends the request to all clusters at once, so the total latency is that of the slowest cluster. Every cluster
+     * has to answer within its own timeout, after which its request is cancelled. A cluster that fails or times out
+     * does not fail the others; it is reported among the failures.
+     *
+     * @return results and failures by cluster, in registration order, once every cluster has answered or timed out
+     */
+    public <T> CompletableFuture<FanOutResult<T>> fanOut(
+            BiFunction<String, KubernetesClientService, CompletableFuture<T>> request) {
+        Map<String, CompletableFuture<T>> futures = new LinkedHashMap<>();
+        kubernetesClientServices.forEach((cluster, kubernetesClientService) ->
+                futures.put(cluster, withTimeout(cluster, startRequest(cluster, kubernetesClientService, request))));
+        CompletableFuture<?>[] settled = futures.values().stream()
+                .map(future -> future.handle((result, throwable) -> null))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(settled).thenApply(ignored -> {
+            FanOutResult<T> fanOutResult = new FanOutResult<>();
+            futures.forEach((cluster, future) -> {
+                try {
+                    fanOutResult.results.put(cluster, future.join());
+                } catch (CompletionException ex) {
+                    LOGGER.warn("Request to cluster {} failed", cluster, ex.getCause());
+                    fanOutResult.failures.put(cluster, ex.getCause());
+                }
+            });
+            return fanOutResult;
+        });
+    }
+
+    public void shutdown() {
+        timeoutScheduler.shutdownNow();
+    }
+
+    private <T> CompletableFuture<T> startRequest(String cluster, KubernetesClientService kubernetesClientService,
+                                                  BiFunction<String, KubernetesClientService, CompletableFuture<T>> request) {
+        try {
+            return request.apply(cluster, kubernetesClientService);
+        } catch (RuntimeException ex) {
+            CompletableFuture<T> failedFuture = new CompletableFuture<>();
+            failedFuture.completeExceptionally(ex);
+            return failedFuture;
+        }
+    }
+
+    private <T> CompletableFuture<T> withTimeout(String cluster, CompletableFuture<T> future) {
+        Duration requestTimeout = requestTimeouts.get(cluster);
+        if (future.isDone() || requestTimeout == null || requestTimeout.isZero()) {
+            return future;
+        }
+        CompletableFuture<T> timeout = new CompletableFuture<>();
+        ScheduledFuture<?> scheduledTimeout = timeoutScheduler.schedule(() -> {
+            LOGGER.warn("Request to cluster {} did not complete within {}", cluster, requestTimeout);
+            timeout.completeExceptionally(new ApiException(String.format(
+                    "Request to cluster %s did not complete within %s", cluster, requestTimeout)));
+            // Requests of the client services cancel their calls once their future is cancelled
+            future.cancel(false);
+        }, requestTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        future.whenComplete((result, throwable) -> scheduledTimeout.cancel(false));
+        return future.applyToEither(timeout, Function.identity());
+    }
+
+    /**
+     * The outcome of a {@link #fanOut(BiFunction) fanned out} request. Every registered cluster is either among the
+     * results or among the failures.
+     */
+    public static class FanOutResult<T> {
+
+        private final Map<String, T> results = new LinkedHashMap<>();
+        private final Map<String, Throwable> failures = new LinkedHashMap<>();
+
+        /**
+         * @return results of the clusters that answered, in registration order
+         */
+        public Map<String, T> getResults() {
+            return Collections.unmodifiableMap(results);
+        }
+
+        /**
+         * @return failures of the clusters that failed or timed out, in registration order
+         */
+        public Map<String, Throwable> getFailures() {
+            return Collections.unmodifiableMap(failures);
+        }
+    }
+}
@@ -0,0 +1,420 @@
+package com.k8s.challenge.service;
+
+import com.k8s.challenge.exception.ApiServerUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Read path of one cluster's API client. GET requests other than watches are sent as attempts, copies of the call
+ * with a timeout of their own:
+ * <ul>
+ * <li>An attempt that fails to connect, times out or gets a 5xx is retried after an exponential backoff with full
+ * jitter, up to {@link Settings#getMaxAttempts() maxAttempts}. Reads are idempotent, so this is always safe.</li>
+ * <li>If hedging is enabled and an attempt has not answered within the 95th percentile of recent read latencies, a
+ * second attempt is sent and the first answer is used; the other attempt is cancelled. Hedges are counted as
+ * {@code kubernetes.client.reads.hedges} with outcome won or lost.</li>
+ * </ul>
+ * Attempts are enqueued on the dispatcher of the client, i.e. on the read bulkhead of the cluster, and retries and
+ * hedges are started by a timer, so no thread waits for a read sent with
+ * {@link #enqueue(OkHttpClient, Call, Callback)}. A read executed synchronously waits on its own thread only.
+ * Asynchronous reads must not be enqueued on the call directly, as the policy would then wait on a dispatcher thread
+ * for attempts that need one as well.
+ * <p>
+ * Attempts go through the whole interceptor chain again, so the {@link KubernetesRequestGuard} sees each of them.
+ * The policy must therefore be the first interceptor, and failures the guard reports are not retried here; neither
+ * are attempts the bulkhead rejected.
+ */
+public class KubernetesReadPolicy implements Interceptor {
+
+    static final String OPERATION_LIST = "list";
+    static final String OPERATION_GET = "get";
+    private static final Logger LOGGER = LoggerFactory.getLogger(KubernetesReadPolicy.class);
+    private static final double HEDGE_PERCENTILE = 0.95;
+    private static final int LATENCY_WINDOW_SIZE = 200;
+
+    private final String cluster;
+    private final Settings settings;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledExecutorService timer;
+    private final Random random;
+    private final LongSupplier nanoTime;
+    private final LatencyWindow listLatencies;
+    private final LatencyWindow getLatencies;
+    private final Set<Call> attemptCalls = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    public KubernetesReadPolicy(String cluster, Settings settings, MeterRegistry meterRegistry) {
+        this(cluster, settings, meterRegistry,
+                Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("kubernetes-read-timer-" + cluster)),
+                new Random(), System::nanoTime);
+    }
+
+    KubernetesReadPolicy(String cluster, Settings settings, MeterRegistry meterRegistry,
+                         ScheduledExecutorService timer, Random random, LongSupplier nanoTime) {
+        this.cluster = cluster;
+        this.settings = settings;
+        this.meterRegistry = meterRegistry;
+        this.timer = timer;
+        this.random = random;
+        this.nanoTime = nanoTime;
+        this.listLatencies = new LatencyWindow(LATENCY_WINDOW_SIZE, settings.getHedgeMinSamples());
+        this.getLatencies = new LatencyWindow(LATENCY_WINDOW_SIZE, settings.getHedgeMinSamples());
+    }
+
+    /**
+     * Enqueues the call with the read policy of the given client, or as it is if the client has none.
+     *
+     * @return cancels the call, see {@link #enqueue(Call, Callback)}
+     */
+    public static Runnable enqueue(OkHttpClient httpClient, Call call, Callback callback) {
+        for (Interceptor interceptor : httpClient.interceptors()) {
+            if (interceptor instanceof KubernetesReadPolicy) {
+                return ((KubernetesReadPolicy) interceptor).enqueue(call, callback);
+            }
+        }
+        call.enqueue(callback);
+        return call::cancel;
+    }
+
+    /**
+     * Sends a read as attempts and hands the first answer, or the last failure, to the callback. Other calls are
+     * enqueued as they are.
+     *
+     * @return cancels the call. A read is cancelled with all its attempts and is not retried; its callback is not
+     * called any more.
+     */
+    public Runnable enqueue(Call call, Callback callback) {
+        if (!isRead(call.request())) {
+            call.enqueue(callback);
+            return call::cancel;
+        }
+        Read read = new Read(call, callback);
+        read.startRound(1);
+        return read::cancel;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (attemptCalls.remove(chain.call()) || !isRead(request)) {
+            return chain.proceed(request);
+        }
+        CompletableFuture<Response> response = new CompletableFuture<>();
+        Read read = new Read(chain.call(), new Callback() {
+            @Override
+            public void onFailure(Call call, IOException ex) {
+                response.completeExceptionally(ex);
+            }
+
+            @Override
+            public void onResponse(Call call, Response attemptResponse) {
+                if (!response.complete(attemptResponse)) {
+                    attemptResponse.close();
+                }
+            }
+        });
+        read.startRound(1);
+        try {
+            return response.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            read.cancel();
+            response.thenAccept(Response::close);
+            throw new InterruptedIOException("Interrupted while waiting for a read");
+        } catch (ExecutionException ex) {
+            throw (IOException) ex.getCause();
+        }
+    }
+
+    /**
+     * Random between zero and the exponential backoff of the attempt, so clients that failed together do not retry
+     * together.
+     */
+    Duration backoff(int attempt) {
+        long ceilingMillis = settings.getInitialBackoff().toMillis();
+        for (int doubling = 1; doubling < attempt && ceilingMillis < settings.getMaxBackoff().toMillis(); doubling++) {
+            ceilingMillis *= 2;
+        }
+        ceilingMillis = Math.min(ceilingMillis, settings.getMaxBackoff().toMillis());
+        return Duration.ofMillis((long) (random.nextDouble() * ceilingMillis));
+    }
+
+    private Duration hedgeDelay(LatencyWindow latencies) {
+        Duration percentile = latencies.percentile(HEDGE_PERCENTILE);
+        if (percentile == null) {
+            return null;
+        }
+        return percentile.compareTo(settings.getMinHedgeDelay()) > 0 ? percentile : settings.getMinHedgeDelay();
+    }
+
+    private static boolean isRead(Request request) {
+        return "GET".equals(request.method()) && !"true".equals(request.url().queryParameter("watch"));
+    }
+
+    private static String operationOf(Request request) {
+        List<String> pathSegments = request.url().pathSegments();
+        return "deployments".equals(pathSegments.get(pathSegments.size() - 1)) ? OPERATION_LIST : OPERATION_GET;
+    }
+
+    /**
+     * One read, sent in rounds of one attempt and possibly a hedge until an answer is final or the attempts are used
+     * up.
+     */
+    private class Read {
+
+        private final Call call;
+        private final Callback callback;
+        private final String operation;
+        private final LatencyWindow latencies;
+        private volatile Round round;
+        private volatile boolean cancelled;
+
+        Read(Call call, Callback callback) {
+            this.call = call;
+            this.callback = callback;
+            this.operation = operationOf(call.request());
+            this.latencies = OPERATION_LIST.equals(operation) ? listLatencies : getLatencies;
+        }
+
+        void startRound(int number) {
+            Round startedRound = new Round(number);
+            round = startedRound;
+            if (cancelled) {
+                return;
+            }
+            startAttempt(startedRound);
+            Duration hedgeDelay = settings.isHedgeEnabled() ? hedgeDelay(latencies) : null;
+            if (hedgeDelay != null) {
+                try {
+                    startedRound.setHedge(timer.schedule(() -> startAttempt(startedRound), hedgeDelay.toNanos(),
+                            TimeUnit.NANOSECONDS));
+                } catch (RejectedExecutionException ex) {
+                    LOGGER.debug("Hedge of a read on cluster {} could not be scheduled", cluster, ex);
+                }
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            Round cancelledRound = round;
+            if (cancelledRound != null) {
+                cancelledRound.decide(null).forEach(Call::cancel);
+            }
+        }
+
+        private void startAttempt(Round attemptRound) {
+            Call attempt = attemptRound.addAttempt(call);
+            if (attempt == null) {
+                return;
+            }
+            long startNanos = nanoTime.getAsLong();
+            // A rejection by the bulkhead is reported to the callback right away, on this thread
+            attempt.enqueue(new Callback() {
+                @Override
+                public void onFailure(Call failedAttempt, IOException ex) {
+                    attemptCalls.remove(attempt);
+                    finish(attemptRound, new AttemptResult(attempt, null, ex));
+                }
+
+                @Override
+                public void onResponse(Call answeredAttempt, Response response) {
+                    attemptCalls.remove(attempt);
+                    if (response.code() < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                        latencies.record(nanoTime.getAsLong() - startNanos);
+                    }
+                    finish(attemptRound, new AttemptResult(attempt, response, null));
+                }
+            });
+        }
+
+        private void finish(Round attemptRound, AttemptResult result) {
+            List<Call> losers = attemptRound.finish(result);
+            if (losers == null) {
+                return;
+            }
+            losers.forEach(Call::cancel);
+            if (attemptRound.calls.size() > 1) {
+                boolean hedgeWon = result.call == attemptRound.calls.get(1) && !result.isRetryable();
+                meterRegistry.counter("kubernetes.client.reads.hedges", "cluster", cluster,
+                        "operation", operation, "outcome", hedgeWon ? "won" : "lost").increment();
+            }
+            if (!result.isRetryable() || attemptRound.number >= settings.getMaxAttempts() || call.isCanceled()
+                    || cancelled) {
+                deliver(result);
+                return;
+            }
+            Duration backoff = backoff(attemptRound.number);
+            LOGGER.debug("Read attempt {} of {} {} on cluster {} failed. Retrying in {}", attemptRound.number,
+                    call.request().method(), call.request().url().encodedPath(), cluster, backoff);
+            try {
+                timer.schedule(() -> startRound(attemptRound.number + 1), backoff.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ex) {
+                deliver(result);
+                return;
+            }
+            meterRegistry.counter("kubernetes.client.reads.retries", "cluster", cluster, "operation", operation)
+                    .increment();
+            result.discard();
+        }
+
+        private void deliver(AttemptResult result) {
+            if (cancelled) {
+                result.discard();
+                return;
+            }
+            if (result.exception != null) {
+                callback.onFailure(call, result.exception);
+                return;
+            }
+            try {
+                callback.onResponse(call, result.response);
+            } catch (IOException | RuntimeException ex) {
+                LOGGER.warn("Callback of a read on cluster {} failed", cluster, ex);
+                result.discard();
+            }
+        }
+    }
+
+    /**
+     * The attempts of one round. The first answer that is final, or the last answer if none is, decides the round;
+     * answers that arrive afterwards are closed.
+     */
+    private class Round {
+
+        private final int number;
+        private final List<Call> calls = new ArrayList<>(2);
+        private int pendingAttempts;
+        private boolean decided;
+        private ScheduledFuture<?> hedge;
+
+        Round(int number) {
+            this.number = number;
+        }
+
+        /**
+         * @return the attempt to enqueue, or null if the round is decided already
+         */
+        synchronized Call addAttempt(Call call) {
+            if (decided) {
+                return null;
+            }
+            Call attempt = call.clone();
+            attempt.timeout().timeout(settings.getAttemptTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            attemptCalls.add(attempt);
+            calls.add(attempt);
+            pendingAttempts++;
+            return attempt;
+        }
+
+        synchronized void setHedge(ScheduledFuture<?> hedge) {
+            this.hedge = hedge;
+            if (decided) {
+                hedge.cancel(false);
+            }
+        }
+
+        /**
+         * @return the attempts to cancel if the given result decides the round, null otherwise
+         */
+        synchronized List<Call> finish(AttemptResult result) {
+            if (decided) {
+                result.discard();
+                return null;
+            }
+            pendingAttempts--;
+            if (result.isRetryable() && pendingAttempts > 0) {
+                // The other attempt may still answer
+                result.discard();
+                return null;
+            }
+            return decide(result.call);
+        }
+
+        /**
+         * @return the attempts other than the winner, which are to be cancelled
+         */
+        synchronized List<Call> decide(Call winner) {
+            decided = true;
+            if (hedge != null) {
+                hedge.cancel(false);
+            }
+            List<Call> losers = new ArrayList<>(calls);
+            losers.remove(winner);
+            return losers;
+        }
+    }
+
+    private static class AttemptResult {
+
+        private final Call call;
+        private final Response response;
+        private final IOException exception;
+
+        AttemptResult(Call call, Response response, IOException exception) {
+            this.call = call;
+            this.response = response;
+            this.exception = exception;
+        }
+
+        /**
+         * Failures the request guard reports mean the API server must not be asked again right now, and a full
+         * bulkhead will not have room sooner.
+         */
+        boolean isRetryable() {
+            if (exception != null) {
+                return !(exception instanceof ApiServerUnavailableException) && Bulkhead.rejectionOf(exception) == null;
+            }
+            return response.code() >= HttpStatus.INTERNAL_SERVER_ERROR.value()
+                    && response.code() != HttpStatus.NOT_IMPLEMENTED.value();
+        }
+
+        void discard() {
+            if (response != null) {
+                response.close();
+            }
+        }
+    }
+
+    /**
+     * Bound to {@code k8s.read.*}.
+     */
+    @Getter
+    @Setter
+    public static class Settings {
+
+        private Duration attemptTimeout = Duration.ofSeconds(10);
+        private int maxAttempts = 3;
+        private Duration initialBackoff = Duration.ofMillis(100);
+        private Duration maxBackoff = Duration.ofSeconds(2);
+        private boolean hedgeEnabled = true;
+        private Duration minHedgeDelay = Duration.ofMillis(50);
+        private int hedgeMinSamples = 20;
+    }
+}
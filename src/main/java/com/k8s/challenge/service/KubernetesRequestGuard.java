@@ -0,0 +1,177 @@
+package com.k8s.challenge.service;
+
+import com.k8s.challenge.exception.ApiServerUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.apache.commons.lang.math.NumberUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Protects one cluster's API server from this application, and this application from a struggling API server.
+ * <ul>
+ * <li>Consecutive connection failures and 5xx responses open a circuit, and requests fail fast while it is open.</li>
+ * <li>Every verb has its own token bucket, so a burst of listings can not starve creates and deletes. Only requests
+ * the circuit lets through take a token.</li>
+ * <li>A 429 pauses the verb for the Retry-After the server asked for.</li>
+ * </ul>
+ * Requests that are not sent fail at once with {@link ApiServerUnavailableException}, which carries the time to retry
+ * after. The guard never waits, as it runs on the thread of the call: for asynchronous calls a thread of the OkHttp
+ * dispatcher. Watches must not go through the guard, as a watch only completes when it is closed.
+ */
+public class KubernetesRequestGuard implements Interceptor {
+
+    static final String VERB_LIST = "list";
+    static final String VERB_CREATE = "create";
+    static final String VERB_UPDATE = "update";
+    static final String VERB_DELETE = "delete";
+    private static final Logger LOGGER = LoggerFactory.getLogger(KubernetesRequestGuard.class);
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final String cluster;
+    private final Settings settings;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TokenBucket> tokenBuckets = new HashMap<>();
+    private final CircuitBreaker circuitBreaker;
+
+    public KubernetesRequestGuard(String cluster, Settings settings, MeterRegistry meterRegistry) {
+        this(cluster, settings, meterRegistry, System::nanoTime);
+    }
+
+    KubernetesRequestGuard(String cluster, Settings settings, MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        this.cluster = cluster;
+        this.settings = settings;
+        this.meterRegistry = meterRegistry;
+        tokenBuckets.put(VERB_LIST, tokenBucket(settings.getList(), nanoTime));
+        tokenBuckets.put(VERB_CREATE, tokenBucket(settings.getCreate(), nanoTime));
+        tokenBuckets.put(VERB_UPDATE, tokenBucket(settings.getUpdate(), nanoTime));
+        tokenBuckets.put(VERB_DELETE, tokenBucket(settings.getDelete(), nanoTime));
+        circuitBreaker = new CircuitBreaker(settings.getFailureThreshold(), settings.getOpenDuration(), nanoTime);
+        Gauge.builder("kubernetes.client.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("Circuit state of the API server: 0 closed, 1 half open, 2 open")
+                .tag("cluster", cluster)
+                .strongReference(true)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String verb = verbOf(request);
+        if (!circuitBreaker.tryAcquire()) {
+            reject(verb, "circuit_open");
+            throw new ApiServerUnavailableException(String.format(
+                    "API server of cluster %s is unavailable", cluster), circuitBreaker.remainingOpenDuration());
+        }
+        TokenBucket tokenBucket = tokenBuckets.get(verb);
+        Duration wait = tokenBucket.tryAcquire();
+        if (!wait.isZero()) {
+            circuitBreaker.onIgnored();
+            reject(verb, "rate_limited");
+            throw new ApiServerUnavailableException(String.format(
+                    "Client side rate limit for %s requests to cluster %s is exhausted", verb, cluster), wait);
+        }
+
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException ex) {
+            if (chain.call().isCanceled()) {
+                circuitBreaker.onIgnored();
+            } else {
+                circuitBreaker.onFailure();
+            }
+            throw ex;
+        }
+        if (response.code() >= HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+            circuitBreaker.onFailure();
+            return response;
+        }
+        circuitBreaker.onSuccess();
+        if (response.code() != HttpStatus.TOO_MANY_REQUESTS.value()) {
+            return response;
+        }
+
+        Duration retryAfter = retryAfterOf(response);
+        response.close();
+        tokenBucket.pause(retryAfter);
+        reject(verb, "too_many_requests");
+        throw new ApiServerUnavailableException(String.format(
+                "API server of cluster %s asked to retry %s requests after %s", cluster, verb, retryAfter),
+                retryAfter);
+    }
+
+    private void reject(String verb, String reason) {
+        LOGGER.warn("Request to cluster {} is rejected: {}", cluster, reason);
+        meterRegistry.counter("kubernetes.client.requests.rejected", "cluster", cluster, "verb", verb,
+                "reason", reason).increment();
+    }
+
+    private static String verbOf(Request request) {
+        switch (request.method()) {
+            case "POST":
+                return VERB_CREATE;
+            case "PUT":
+            case "PATCH":
+                return VERB_UPDATE;
+            case "DELETE":
+                return VERB_DELETE;
+            default:
+                return VERB_LIST;
+        }
+    }
+
+    /**
+     * Only the delay-seconds form is used by the API server.
+     */
+    private static Duration retryAfterOf(Response response) {
+        String retryAfter = response.header("Retry-After");
+        if (!NumberUtils.isDigits(retryAfter)) {
+            return DEFAULT_RETRY_AFTER;
+        }
+        return Duration.ofSeconds(Long.parseLong(retryAfter));
+    }
+
+    private static TokenBucket tokenBucket(RateLimit rateLimit, LongSupplier nanoTime) {
+        return new TokenBucket(rateLimit.getPermitsPerSecond(), rateLimit.getBurst(), nanoTime);
+    }
+
+    /**
+     * Bound to {@code k8s.guard.*}. GET requests, i.e. lists and reads, share the list bucket.
+     */
+    @Getter
+    @Setter
+    public static class Settings {
+
+        private RateLimit list = new RateLimit(20, 40);
+        private RateLimit create = new RateLimit(5, 10);
+        private RateLimit update = new RateLimit(5, 10);
+        private RateLimit delete = new RateLimit(5, 10);
+        private int failureThreshold = 5;
+        private Duration openDuration = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RateLimit {
+
+        private double permitsPerSecond;
+        private int burst;
+    }
+}
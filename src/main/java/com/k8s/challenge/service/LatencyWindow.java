@@ -0,0 +1,41 @@
+package com.k8s.challenge.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * The latencies of the last requests, kept in a ring. Percentiles are taken over the ring, so they follow the
+ * latency of the API server as it changes.
+ */
+class LatencyWindow {
+
+    private final long[] latencyNanos;
+    private final int minSamples;
+    private int nextIndex;
+    private int samples;
+
+    LatencyWindow(int size, int minSamples) {
+        this.latencyNanos = new long[Math.max(1, size)];
+        this.minSamples = Math.max(1, Math.min(minSamples, latencyNanos.length));
+    }
+
+    synchronized void record(long nanos) {
+        latencyNanos[nextIndex] = nanos;
+        nextIndex = (nextIndex + 1) % latencyNanos.length;
+        samples = Math.min(samples + 1, latencyNanos.length);
+    }
+
+    /**
+     * @return the latency the given share of recorded requests stayed within, or null while there are fewer than
+     * minSamples latencies
+     */
+    synchronized Duration percentile(double percentile) {
+        if (samples < minSamples) {
+            return null;
+        }
+        long[] sorted = Arrays.copyOf(latencyNanos, samples);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * samples) - 1;
+        return Duration.ofNanos(sorted[Math.max(0, Math.min(index, samples - 1))]);
+    }
+}
@@ -0,0 +1,302 @@
+package com.k8s.challenge.service;
+
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.CoordinationV1Api;
+import io.kubernetes.client.openapi.models.V1Lease;
+import io.kubernetes.client.openapi.models.V1LeaseSpec;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import lombok.Getter;
+import lombok.Setter;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Elects one instance of the application as the leader through a coordination.k8s.io Lease, so background work
+ * against the cluster runs only once however many replicas there are. Leadership changes are published as
+ * {@link LeadershipChangedEvent}s.
+ * <p>
+ * Every {@link Settings#getRetryPeriod() retry period} each instance reads the lease. The leader renews it; the
+ * others take it over once it has not changed for a {@link Settings#getLeaseDuration() lease duration}. Expiry is
+ * measured on the local clock from the moment the lease was last seen to change, so clock skew between nodes does
+ * not matter. Writes carry the resource version that was read, so of two instances taking over at once only one
+ * succeeds.
+ * <p>
+ * A leader that can not renew for a {@link Settings#getRenewDeadline() renew deadline}, shorter than the lease
+ * duration, steps down before anyone else may take over. So does a leader whose round took longer than the renew
+ * deadline, even if it renewed, since it went on leading without a renewal meanwhile; the next round takes the lease
+ * back. On shutdown the lease is released, so another instance takes over within a retry period.
+ * <p>
+ * With leader election disabled the instance is the leader as soon as the application is ready.
+ */
+@Service
+public class LeaderElectionService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LeaderElectionService.class);
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000L;
+
+    private final CoordinationV1Api coordinationApi;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Settings settings;
+    private final String identity;
+    private final LongSupplier nanoTime;
+    private final ScheduledExecutorService scheduler;
+    private volatile boolean leader;
+    private String observedResourceVersion;
+    private long observedAtNanos;
+    private long renewedAtNanos;
+
+    @Autowired
+    public LeaderElectionService(CoordinationV1Api coordinationApi, ApplicationEventPublisher eventPublisher,
+                                 Settings leaderElectionSettings) {
+        this(coordinationApi, eventPublisher, leaderElectionSettings, identityOf(leaderElectionSettings),
+                System::nanoTime,
+                Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("leader-election")));
+    }
+
+    LeaderElectionService(CoordinationV1Api coordinationApi, ApplicationEventPublisher eventPublisher,
+                          Settings settings, String identity, LongSupplier nanoTime,
+                          ScheduledExecutorService scheduler) {
+        this.coordinationApi = coordinationApi;
+        this.eventPublisher = eventPublisher;
+        this.settings = settings;
+        this.identity = identity;
+        this.nanoTime = nanoTime;
+        this.scheduler = scheduler;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!settings.isEnabled()) {
+            LOGGER.info("Leader election is disabled. {} leads", identity);
+            setLeader(true);
+            return;
+        }
+        LOGGER.info("Starting leader election for lease {}/{} as {}", settings.getNamespace(), settings.getLeaseName(),
+                identity);
+        scheduler.scheduleWithFixedDelay(this::tryAcquireOrRenew, 0, settings.getRetryPeriod().toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs on context close rather than on destroy, so the listeners are still there to stop their work before the
+     * lease is released.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (leader) {
+            setLeader(false);
+            if (settings.isEnabled()) {
+                release();
+            }
+        }
+    }
+
+    public boolean isLeader() {
+        return leader;
+    }
+
+    public String getIdentity() {
+        return identity;
+    }
+
+    /**
+     * One round of the election. A failed round only costs the leadership once the renew deadline has passed, but
+     * seeing another holder or a round longer than the renew deadline costs it right away.
+     */
+    synchronized void tryAcquireOrRenew() {
+        long startedAtNanos = nanoTime.getAsLong();
+        boolean acquired;
+        try {
+            acquired = acquireOrRenew();
+        } catch (ApiException ex) {
+            LOGGER.warn("Lease {}/{} could not be acquired or renewed. Status: {}", settings.getNamespace(),
+                    settings.getLeaseName(), ex.getCode(), ex);
+            stepDownIfRenewDeadlinePassed();
+            return;
+        } catch (RuntimeException ex) {
+            LOGGER.warn("Lease {}/{} could not be acquired or renewed", settings.getNamespace(),
+                    settings.getLeaseName(), ex);
+            stepDownIfRenewDeadlinePassed();
+            return;
+        }
+        if (nanoTime.getAsLong() - startedAtNanos >= settings.getRenewDeadline().toNanos()) {
+            LOGGER.warn("Round for lease {}/{} took longer than the renew deadline {}. Stepping down",
+                    settings.getNamespace(), settings.getLeaseName(), settings.getRenewDeadline());
+            setLeader(false);
+            return;
+        }
+        if (acquired) {
+            renewedAtNanos = nanoTime.getAsLong();
+        }
+        setLeader(acquired);
+    }
+
+    /**
+     * @return false if the lease is held by another instance and has not expired yet
+     * @throws ApiException if the lease could not be read or written, including when another instance wrote it
+     *                      first (409 Conflict)
+     */
+    private boolean acquireOrRenew() throws ApiException {
+        V1Lease lease;
+        try {
+            lease = coordinationApi.readNamespacedLease(settings.getLeaseName(), settings.getNamespace(), null, null,
+                    null);
+        } catch (ApiException ex) {
+            if (ex.getCode() != HttpStatus.NOT_FOUND.value()) {
+                throw ex;
+            }
+            lease = new V1Lease()
+                    .metadata(new V1ObjectMeta().name(settings.getLeaseName()).namespace(settings.getNamespace()))
+                    .spec(acquiredSpec(new V1LeaseSpec().leaseTransitions(0)));
+            observe(coordinationApi.createNamespacedLease(settings.getNamespace(), lease, null, null, null));
+            return true;
+        }
+
+        observe(lease);
+        V1LeaseSpec spec = lease.getSpec() != null ? lease.getSpec() : new V1LeaseSpec();
+        String holderIdentity = spec.getHolderIdentity();
+        if (!identity.equals(holderIdentity)) {
+            if (StringUtils.hasText(holderIdentity) && !expired(spec)) {
+                return false;
+            }
+            LOGGER.info("Taking over lease {}/{} from {}", settings.getNamespace(), settings.getLeaseName(),
+                    StringUtils.hasText(holderIdentity) ? holderIdentity : "nobody");
+            int leaseTransitions = spec.getLeaseTransitions() != null ? spec.getLeaseTransitions() : 0;
+            spec = acquiredSpec(spec.leaseTransitions(leaseTransitions + 1));
+        } else {
+            spec.renewTime(now()).leaseDurationSeconds(leaseDurationSeconds());
+        }
+        lease.setSpec(spec);
+        observe(coordinationApi.replaceNamespacedLease(settings.getLeaseName(), settings.getNamespace(), lease, null,
+                null, null));
+        return true;
+    }
+
+    /**
+     * Empties the holder, so the lease counts as free for every other instance right away.
+     */
+    private void release() {
+        try {
+            V1Lease lease = coordinationApi.readNamespacedLease(settings.getLeaseName(), settings.getNamespace(),
+                    null, null, null);
+            if (lease.getSpec() == null || !identity.equals(lease.getSpec().getHolderIdentity())) {
+                return;
+            }
+            lease.getSpec().holderIdentity(null).renewTime(now());
+            coordinationApi.replaceNamespacedLease(settings.getLeaseName(), settings.getNamespace(), lease, null, null,
+                    null);
+            LOGGER.info("Lease {}/{} is released", settings.getNamespace(), settings.getLeaseName());
+        } catch (ApiException | RuntimeException ex) {
+            LOGGER.warn("Lease {}/{} could not be released. It is taken over once it expires",
+                    settings.getNamespace(), settings.getLeaseName(), ex);
+        }
+    }
+
+    private V1LeaseSpec acquiredSpec(V1LeaseSpec spec) {
+        DateTime now = now();
+        return spec.holderIdentity(identity).acquireTime(now).renewTime(now)
+                .leaseDurationSeconds(leaseDurationSeconds());
+    }
+
+    private void observe(V1Lease lease) {
+        String resourceVersion = lease.getMetadata() != null ? lease.getMetadata().getResourceVersion() : null;
+        if (resourceVersion == null || !Objects.equals(resourceVersion, observedResourceVersion)) {
+            observedResourceVersion = resourceVersion;
+            observedAtNanos = nanoTime.getAsLong();
+        }
+    }
+
+    private boolean expired(V1LeaseSpec spec) {
+        long leaseDurationNanos = spec.getLeaseDurationSeconds() != null
+                ? TimeUnit.SECONDS.toNanos(spec.getLeaseDurationSeconds()) : settings.getLeaseDuration().toNanos();
+        return nanoTime.getAsLong() - observedAtNanos >= leaseDurationNanos;
+    }
+
+    private void stepDownIfRenewDeadlinePassed() {
+        if (leader && nanoTime.getAsLong() - renewedAtNanos >= settings.getRenewDeadline().toNanos()) {
+            LOGGER.warn("Lease {}/{} was not renewed within {}. Stepping down", settings.getNamespace(),
+                    settings.getLeaseName(), settings.getRenewDeadline());
+            setLeader(false);
+        }
+    }
+
+    private void setLeader(boolean leader) {
+        if (this.leader == leader) {
+            return;
+        }
+        this.leader = leader;
+        LOGGER.info(leader ? "{} became the leader" : "{} is no longer the leader", identity);
+        eventPublisher.publishEvent(new LeadershipChangedEvent(identity, leader));
+    }
+
+    private int leaseDurationSeconds() {
+        return (int) settings.getLeaseDuration().getSeconds();
+    }
+
+    private static DateTime now() {
+        return DateTime.now(DateTimeZone.UTC);
+    }
+
+    /**
+     * The host name is the pod name in a cluster. The random suffix keeps a restarted pod from taking the lease of
+     * its predecessor for its own.
+     */
+    private static String identityOf(Settings settings) {
+        if (StringUtils.hasText(settings.getIdentity())) {
+            return settings.getIdentity();
+        }
+        String hostName;
+        try {
+            hostName = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException ex) {
+            hostName = "unknown";
+        }
+        return hostName + "_" + UUID.randomUUID();
+    }
+
+    /**
+     * Bound to {@code k8s.leader-election.*}. The renew deadline must be shorter than the lease duration, and the
+     * retry period shorter than the renew deadline. The request timeout applies to every request to the leases of the
+     * leader election and of the shard members; a round takes up to two requests, so it must be shorter than half the
+     * renew deadline.
+     */
+    @Getter
+    @Setter
+    public static class Settings {
+
+        private boolean enabled = true;
+        private String namespace = "default";
+        private String leaseName = "k8s-challenge-sync";
+        private String identity;
+        private Duration leaseDuration = Duration.ofSeconds(15);
+        private Duration renewDeadline = Duration.ofSeconds(10);
+        private Duration retryPeriod = Duration.ofSeconds(2);
+        private Duration requestTimeout = Duration.ofSeconds(3);
+    }
+}
@@ -0,0 +1,23 @@
+package com.k8s.challenge.service;
+
+/**
+ * Published by {@link LeaderElectionService} whenever this instance becomes the leader or stops being it.
+ */
+public class LeadershipChangedEvent {
+
+    private final String identity;
+    private final boolean leader;
+
+    public LeadershipChangedEvent(String identity, boolean leader) {
+        this.identity = identity;
+        this.leader = leader;
+    }
+
+    public String getIdentity() {
+        return identity;
+    }
+
+    public boolean isLeader() {
+        return leader;
+    }
+}
@@ -0,0 +1,173 @@
+package com.k8s.challenge.service;
+
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.CoordinationV1Api;
+import io.kubernetes.client.openapi.models.V1DeleteOptions;
+import io.kubernetes.client.openapi.models.V1Lease;
+import io.kubernetes.client.openapi.models.V1LeaseSpec;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.openapi.models.V1Preconditions;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Members are the holders of the coordination.k8s.io Leases labelled with the {@link #GROUP_LABEL group} of
+ * {@link NamespaceShardService.Settings#getLeasePrefix() the lease prefix}. Every instance holds one such lease and
+ * renews it on each refresh.
+ * <p>
+ * Like in {@link LeaderElectionService}, a lease expires once it has not changed for its duration on the local clock,
+ * so clock skew between nodes does not matter. An expired lease is deleted by whichever member sees it first, with
+ * the resource version it was seen at as precondition.
+ */
+public class LeaseShardMembership implements ShardMembership {
+
+    static final String GROUP_LABEL = "k8s-challenge/shard-group";
+    private static final Logger LOGGER = LoggerFactory.getLogger(LeaseShardMembership.class);
+    private static final int MAX_NAME_LENGTH = 253;
+
+    private final CoordinationV1Api coordinationApi;
+    private final NamespaceShardService.Settings settings;
+    private final LongSupplier nanoTime;
+    private final Map<String, Observation> observations = new HashMap<>();
+    private V1Lease ownLease;
+
+    public LeaseShardMembership(CoordinationV1Api coordinationApi, NamespaceShardService.Settings settings) {
+        this(coordinationApi, settings, System::nanoTime);
+    }
+
+    LeaseShardMembership(CoordinationV1Api coordinationApi, NamespaceShardService.Settings settings,
+                         LongSupplier nanoTime) {
+        this.coordinationApi = coordinationApi;
+        this.settings = settings;
+        this.nanoTime = nanoTime;
+    }
+
+    @Override
+    public synchronized Set<String> refresh(String identity) throws ApiException {
+        renew(identity);
+        long now = nanoTime.getAsLong();
+        Set<String> members = new TreeSet<>();
+        members.add(identity);
+        Set<String> listedNames = new HashSet<>();
+        for (V1Lease lease : coordinationApi.listNamespacedLease(settings.getNamespace(), null, null, null, null,
+                GROUP_LABEL + "=" + settings.getLeasePrefix(), null, null, null, null).getItems()) {
+            String name = lease.getMetadata().getName();
+            String resourceVersion = lease.getMetadata().getResourceVersion();
+            listedNames.add(name);
+            Observation observation = observations.get(name);
+            if (observation == null || !observation.resourceVersion.equals(resourceVersion)) {
+                observation = new Observation(resourceVersion, now);
+                observations.put(name, observation);
+            }
+            String holderIdentity = lease.getSpec() != null ? lease.getSpec().getHolderIdentity() : null;
+            if (!StringUtils.hasText(holderIdentity) || holderIdentity.equals(identity)) {
+                continue;
+            }
+            if (now - observation.observedAtNanos < leaseDurationNanosOf(lease)) {
+                members.add(holderIdentity);
+            } else {
+                deleteExpired(name, resourceVersion, holderIdentity);
+            }
+        }
+        observations.keySet().retainAll(listedNames);
+        return members;
+    }
+
+    @Override
+    public synchronized void leave(String identity) {
+        ownLease = null;
+        try {
+            coordinationApi.deleteNamespacedLease(leaseNameOf(identity), settings.getNamespace(), null, null, null,
+                    null, null, null);
+            LOGGER.info("Left the shard members of {}", settings.getLeasePrefix());
+        } catch (ApiException | RuntimeException ex) {
+            LOGGER.warn("Shard member lease of {} could not be deleted. It is dropped once it expires", identity, ex);
+        }
+    }
+
+    /**
+     * Creates the lease of the given instance on the first refresh, or after it has been lost, and renews it after.
+     */
+    private void renew(String identity) throws ApiException {
+        DateTime now = DateTime.now(DateTimeZone.UTC);
+        if (ownLease == null) {
+            String name = leaseNameOf(identity);
+            try {
+                ownLease = coordinationApi.createNamespacedLease(settings.getNamespace(), new V1Lease()
+                        .metadata(new V1ObjectMeta().name(name).namespace(settings.getNamespace())
+                                .putLabelsItem(GROUP_LABEL, settings.getLeasePrefix()))
+                        .spec(new V1LeaseSpec().holderIdentity(identity).acquireTime(now).renewTime(now)
+                                .leaseDurationSeconds((int) settings.getLeaseDuration().getSeconds())), null, null, null);
+                return;
+            } catch (ApiException ex) {
+                if (ex.getCode() != HttpStatus.CONFLICT.value()) {
+                    throw ex;
+                }
+                // Left behind by an earlier run with the same identity
+                ownLease = coordinationApi.readNamespacedLease(name, settings.getNamespace(), null, null, null);
+            }
+        }
+        ownLease.getSpec().holderIdentity(identity).renewTime(now)
+                .leaseDurationSeconds((int) settings.getLeaseDuration().getSeconds());
+        try {
+            ownLease = coordinationApi.replaceNamespacedLease(ownLease.getMetadata().getName(),
+                    settings.getNamespace(), ownLease, null, null, null);
+        } catch (ApiException ex) {
+            ownLease = null;
+            throw ex;
+        }
+    }
+
+    private void deleteExpired(String name, String resourceVersion, String holderIdentity) {
+        try {
+            coordinationApi.deleteNamespacedLease(name, settings.getNamespace(), null, null, null, null, null,
+                    new V1DeleteOptions().preconditions(new V1Preconditions().resourceVersion(resourceVersion)));
+            LOGGER.info("Shard member lease of {} is expired and deleted", holderIdentity);
+        } catch (ApiException ex) {
+            LOGGER.debug("Expired shard member lease of {} could not be deleted. Status: {}", holderIdentity,
+                    ex.getCode());
+        }
+    }
+
+    private long leaseDurationNanosOf(V1Lease lease) {
+        return lease.getSpec().getLeaseDurationSeconds() != null
+                ? TimeUnit.SECONDS.toNanos(lease.getSpec().getLeaseDurationSeconds())
+                : settings.getLeaseDuration().toNanos();
+    }
+
+    /**
+     * Identities may carry characters that are not allowed in object names, e.g. the underscore of the default one.
+     */
+    String leaseNameOf(String identity) {
+        String name = (settings.getLeasePrefix() + "-" + identity).toLowerCase(Locale.ROOT)
+                .replaceAll("[^a-z0-9.-]", "-");
+        if (name.length() > MAX_NAME_LENGTH) {
+            name = name.substring(0, MAX_NAME_LENGTH);
+        }
+        return name.replaceAll("[^a-z0-9]+$", "");
+    }
+
+    private static class Observation {
+
+        private final String resourceVersion;
+        private final long observedAtNanos;
+
+        Observation(String resourceVersion, long observedAtNanos) {
+            this.resourceVersion = resourceVersion;
+            this.observedAtNanos = observedAtNanos;
+        }
+    }
+}
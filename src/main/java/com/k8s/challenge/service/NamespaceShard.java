@@ -0,0 +1,127 @@
+package com.k8s.challenge.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The namespaces one instance is responsible for, out of all namespaces shared by the live instances.
+ * <p>
+ * Namespaces are assigned on a consistent hash ring: every member is placed on the ring at a number of virtual nodes,
+ * and a namespace belongs to the first member at or after its own hash. When a member joins or leaves, only the
+ * namespaces next to its virtual nodes move, about one in every member count.
+ */
+public class NamespaceShard {
+
+    /**
+     * Owns every namespace, used while a single instance does all background work.
+     */
+    public static final NamespaceShard ALL = new NamespaceShard(null, Collections.emptySet(), 0);
+
+    /**
+     * Owns no namespace.
+     */
+    public static final NamespaceShard NONE = new NamespaceShard(null, Collections.emptySet(), 0);
+
+    private final String identity;
+    private final Set<String> members;
+    private final int virtualNodes;
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+    private NamespaceShard(String identity, Collection<String> members, int virtualNodes) {
+        this.identity = identity;
+        this.members = Collections.unmodifiableSet(new TreeSet<>(members));
+        this.virtualNodes = virtualNodes;
+        for (String member : this.members) {
+            for (int virtualNode = 0; virtualNode < virtualNodes; virtualNode++) {
+                ring.put(hash(member + "#" + virtualNode), member);
+            }
+        }
+    }
+
+    /**
+     * @param identity     the member this shard is of
+     * @param members      all live members, including the given one
+     * @param virtualNodes ring positions per member; more spread the namespaces more evenly
+     */
+    public static NamespaceShard of(String identity, Collection<String> members, int virtualNodes) {
+        return members.contains(identity) ? new NamespaceShard(identity, members, virtualNodes) : NONE;
+    }
+
+    public boolean owns(String namespace) {
+        if (this == ALL) {
+            return true;
+        }
+        return identity != null && identity.equals(ownerOf(namespace));
+    }
+
+    public boolean isAll() {
+        return this == ALL;
+    }
+
+    public boolean isEmpty() {
+        return this == NONE;
+    }
+
+    public Set<String> getMembers() {
+        return members;
+    }
+
+    String ownerOf(String namespace) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(namespace));
+        return (entry != null ? entry : ring.firstEntry()).getValue();
+    }
+
+    /**
+     * {@link #ALL} and {@link #NONE} only equal themselves; any other shard equals one of the same member among the
+     * same members.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof NamespaceShard) || identity == null) {
+            return false;
+        }
+        NamespaceShard shard = (NamespaceShard) other;
+        return identity.equals(shard.identity) && members.equals(shard.members) && virtualNodes == shard.virtualNodes;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(identity, members, virtualNodes);
+    }
+
+    @Override
+    public String toString() {
+        if (this == ALL) {
+            return "all namespaces";
+        }
+        return this == NONE ? "no namespace" : String.format("shard of %s among %s", identity, members);
+    }
+
+    /**
+     * The first eight bytes of MD5, which spreads similar names like those of virtual nodes evenly.
+     */
+    private static long hash(String value) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8)))
+                    .getLong();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("MD5 is not available", ex);
+        }
+    }
+}
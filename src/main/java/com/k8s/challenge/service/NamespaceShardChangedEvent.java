@@ -0,0 +1,17 @@
+package com.k8s.challenge.service;
+
+/**
+ * Published by {@link NamespaceShardService} whenever the namespaces this instance is responsible for change.
+ */
+public class NamespaceShardChangedEvent {
+
+    private final NamespaceShard shard;
+
+    public NamespaceShardChangedEvent(NamespaceShard shard) {
+        this.shard = shard;
+    }
+
+    public NamespaceShard getShard() {
+        return shard;
+    }
+}
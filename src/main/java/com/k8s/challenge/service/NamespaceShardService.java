@@ -0,0 +1,160 @@
+package com.k8s.challenge.service;
+
+import io.kubernetes.client.openapi.ApiException;
+import lombok.Getter;
+import lombok.Setter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides which namespaces this instance does background work for, and publishes a
+ * {@link NamespaceShardChangedEvent} whenever that changes.
+ * <p>
+ * With sharding enabled, the live members are taken from the {@link ShardMembership} every
+ * {@link Settings#getRefreshPeriod() refresh period} and the namespaces are spread over them on a consistent hash ring,
+ * so members joining or leaving move only a part of them. A member that can not refresh for a
+ * {@link Settings#getRenewDeadline() renew deadline}, shorter than the lease duration others expire it after, gives
+ * up its namespaces before they are taken over, and so does a member whose refresh took longer than the renew
+ * deadline. On shutdown the member leaves right away.
+ * <p>
+ * With sharding disabled, the leader elected by {@link LeaderElectionService} does the work for all namespaces.
+ */
+@Service
+public class NamespaceShardService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NamespaceShardService.class);
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000L;
+
+    private final LeaderElectionService leaderElectionService;
+    private final ShardMembership shardMembership;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Settings settings;
+    private final LongSupplier nanoTime;
+    private final ScheduledExecutorService scheduler;
+    private volatile NamespaceShard shard = NamespaceShard.NONE;
+    private long refreshedAtNanos;
+
+    @Autowired
+    public NamespaceShardService(LeaderElectionService leaderElectionService, ShardMembership shardMembership,
+                                 ApplicationEventPublisher eventPublisher, Settings namespaceShardSettings) {
+        this(leaderElectionService, shardMembership, eventPublisher, namespaceShardSettings, System::nanoTime,
+                Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("namespace-shard")));
+    }
+
+    NamespaceShardService(LeaderElectionService leaderElectionService, ShardMembership shardMembership,
+                          ApplicationEventPublisher eventPublisher, Settings settings, LongSupplier nanoTime,
+                          ScheduledExecutorService scheduler) {
+        this.leaderElectionService = leaderElectionService;
+        this.shardMembership = shardMembership;
+        this.eventPublisher = eventPublisher;
+        this.settings = settings;
+        this.nanoTime = nanoTime;
+        this.scheduler = scheduler;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (settings.isEnabled()) {
+            LOGGER.info("Starting namespace sharding as {}", leaderElectionService.getIdentity());
+            scheduler.scheduleWithFixedDelay(this::refresh, 0, settings.getRefreshPeriod().toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @EventListener
+    public void onLeadershipChanged(LeadershipChangedEvent event) {
+        if (!settings.isEnabled()) {
+            setShard(event.isLeader() ? NamespaceShard.ALL : NamespaceShard.NONE);
+        }
+    }
+
+    /**
+     * Runs on context close rather than on destroy, so the listeners are still there to stop their work before the
+     * member leaves.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        setShard(NamespaceShard.NONE);
+        shardMembership.leave(leaderElectionService.getIdentity());
+    }
+
+    public NamespaceShard getShard() {
+        return shard;
+    }
+
+    synchronized void refresh() {
+        String identity = leaderElectionService.getIdentity();
+        long startedAtNanos = nanoTime.getAsLong();
+        Set<String> members;
+        try {
+            members = shardMembership.refresh(identity);
+        } catch (ApiException | RuntimeException ex) {
+            LOGGER.warn("Shard members could not be refreshed", ex);
+            if (!shard.isEmpty() && nanoTime.getAsLong() - refreshedAtNanos >= settings.getRenewDeadline().toNanos()) {
+                LOGGER.warn("Shard members were not refreshed within {}. Giving up the namespaces",
+                        settings.getRenewDeadline());
+                setShard(NamespaceShard.NONE);
+            }
+            return;
+        }
+        if (nanoTime.getAsLong() - startedAtNanos >= settings.getRenewDeadline().toNanos()) {
+            LOGGER.warn("Shard members took longer than {} to refresh. Giving up the namespaces",
+                    settings.getRenewDeadline());
+            setShard(NamespaceShard.NONE);
+            return;
+        }
+        refreshedAtNanos = nanoTime.getAsLong();
+        setShard(NamespaceShard.of(identity, members, settings.getVirtualNodes()));
+    }
+
+    private synchronized void setShard(NamespaceShard shard) {
+        if (this.shard.equals(shard)) {
+            return;
+        }
+        this.shard = shard;
+        LOGGER.info("Background work is done for {}", shard);
+        eventPublisher.publishEvent(new NamespaceShardChangedEvent(shard));
+    }
+
+    /**
+     * Bound to {@code k8s.sharding.*}. Without {@link #getMembers() members}, the members are discovered through
+     * leases in the given namespace; the renew deadline must be shorter than the lease duration.
+     */
+    @Getter
+    @Setter
+    public static class Settings {
+
+        private boolean enabled = false;
+        private List<String> members = new ArrayList<>();
+        private String namespace = "default";
+        private String leasePrefix = "k8s-challenge-member";
+        private Duration leaseDuration = Duration.ofSeconds(15);
+        private Duration renewDeadline = Duration.ofSeconds(10);
+        private Duration refreshPeriod = Duration.ofSeconds(2);
+        private int virtualNodes = 100;
+    }
+}
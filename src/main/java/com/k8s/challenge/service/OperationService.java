@@ -0,0 +1,279 @@
+package com.k8s.challenge.service;
+
+import com.k8s.challenge.constant.OperationStatus;
+import com.k8s.challenge.constant.OperationType;
+import com.k8s.challenge.entity.OperationEntity;
+import com.k8s.challenge.exception.NotFoundException;
+import com.k8s.challenge.repository.OperationRepository;
+import com.k8s.challenge.resource.OperationResource;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the state of operations in the database, so their handles can be polled from any instance. Streams are
+ * notified right away of operations completed on this instance, and of operations completed elsewhere once they read
+ * the operation again, every {@link #STREAM_POLL_INTERVAL}.
+ */
+@Service
+public class OperationService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OperationService.class);
+    private static final Duration STREAM_TIMEOUT = Duration.ofMinutes(5);
+    static final Duration STREAM_POLL_INTERVAL = Duration.ofSeconds(2);
+    private final OperationRepository operationRepository;
+    private final UserService userService;
+    private final ConversionService conversionService;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService streamPollScheduler;
+    private final ConcurrentMap<UUID, Set<Consumer<OperationResource>>> completionListeners =
+            new ConcurrentHashMap<>();
+
+    @Autowired
+    public OperationService(OperationRepository operationRepository, UserService userService,
+                            ConversionService conversionService, TransactionTemplate transactionTemplate) {
+        this(operationRepository, userService, conversionService, transactionTemplate,
+                Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("operation-stream-poll")));
+    }
+
+    OperationService(OperationRepository operationRepository, UserService userService,
+                     ConversionService conversionService, TransactionTemplate transactionTemplate,
+                     ScheduledExecutorService streamPollScheduler) {
+        this.operationRepository = operationRepository;
+        this.userService = userService;
+        this.conversionService = conversionService;
+        this.transactionTemplate = transactionTemplate;
+        this.streamPollScheduler = streamPollScheduler;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streamPollScheduler.shutdownNow();
+    }
+
+    /**
+     * @param total total parameter is optional, it is set on completion if it is not known yet
+     */
+    public OperationResource startOperation(String userName, OperationType type, String cluster, String namespace,
+                                            Integer total) {
+        OperationEntity operationEntity = OperationEntity.builder()
+                .type(type)
+                .status(OperationStatus.RUNNING)
+                .cluster(cluster)
+                .namespace(namespace)
+                .total(total)
+                .user(userService.findUserByName(userName))
+                .build();
+        OperationEntity savedOperation = transactionTemplate.execute(status -> operationRepository.save(operationEntity));
+        LOGGER.trace("Operation {} of type {} is started for user : {}", savedOperation.getId(), type, userName);
+        return conversionService.convert(savedOperation, OperationResource.class);
+    }
+
+    /**
+     * Stores a pending operation for a worker to take up. The payload is the request the worker runs.
+     */
+    public OperationResource enqueueOperation(String userName, OperationType type, String cluster, String namespace,
+                                              String name, String payload) {
+        OperationEntity operationEntity = OperationEntity.builder()
+                .type(type)
+                .status(OperationStatus.PENDING)
+                .cluster(cluster)
+                .namespace(namespace)
+                .name(name)
+                .total(1)
+                .payload(payload)
+                .attempts(0)
+                .nextAttemptAt(LocalDateTime.now())
+                .user(userService.findUserByName(userName))
+                .build();
+        OperationEntity savedOperation = transactionTemplate.execute(status -> operationRepository.save(operationEntity));
+        LOGGER.trace("Operation {} of type {} is queued for user : {}", savedOperation.getId(), type, userName);
+        return conversionService.convert(savedOperation, OperationResource.class);
+    }
+
+    /**
+     * The operation succeeds only if no item has failed.
+     *
+     * @param message message parameter is optional, it describes the failed items
+     */
+    public void completeOperation(UUID id, int succeeded, int failed, String message) {
+        updateOperation(id, operationEntity -> {
+            operationEntity.setStatus(failed == 0 ? OperationStatus.SUCCEEDED : OperationStatus.FAILED);
+            operationEntity.setTotal(succeeded + failed);
+            operationEntity.setSucceeded(succeeded);
+            operationEntity.setFailed(failed);
+            operationEntity.setMessage(StringUtils.abbreviate(message, OperationEntity.MESSAGE_LENGTH));
+            operationEntity.setLeaseExpiresAt(null);
+        });
+        LOGGER.trace("Operation {} is completed. Succeeded: {}, failed: {}", id, succeeded, failed);
+    }
+
+    /**
+     * For failures of the operation as a whole, before any item has been processed.
+     */
+    public void failOperation(UUID id, String message) {
+        updateOperation(id, operationEntity -> {
+            operationEntity.setStatus(OperationStatus.FAILED);
+            operationEntity.setMessage(StringUtils.abbreviate(message, OperationEntity.MESSAGE_LENGTH));
+            operationEntity.setLeaseExpiresAt(null);
+        });
+        LOGGER.warn("Operation {} failed: {}", id, message);
+    }
+
+    /**
+     * Puts a queued operation back to be taken up again at the given time.
+     *
+     * @param message message parameter describes why the last attempt failed
+     */
+    public void retryOperation(UUID id, LocalDateTime nextAttemptAt, String message) {
+        updateOperation(id, operationEntity -> {
+            operationEntity.setStatus(OperationStatus.PENDING);
+            operationEntity.setNextAttemptAt(nextAttemptAt);
+            operationEntity.setMessage(StringUtils.abbreviate(message, OperationEntity.MESSAGE_LENGTH));
+            operationEntity.setLeaseExpiresAt(null);
+        });
+        LOGGER.debug("Operation {} is retried at {}: {}", id, nextAttemptAt, message);
+    }
+
+    /**
+     * @throws NotFoundException if the user has no such operation, or the id is not one
+     */
+    public OperationResource findOperation(String userName, String id) {
+        return findOperation(userName, parseId(id));
+    }
+
+    /**
+     * Sends the current state of the operation as an event named after its status, and the final state once it is
+     * reached, after which the stream is closed.
+     *
+     * @throws NotFoundException if the user has no such operation
+     */
+    public SseEmitter streamOperation(String userName, String operationId) {
+        UUID id = parseId(operationId);
+        OperationResource operation = findOperation(userName, id);
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT.toMillis());
+        AtomicBoolean finished = new AtomicBoolean();
+        AtomicReference<ScheduledFuture<?>> poll = new AtomicReference<>();
+        Consumer<OperationResource> completionListener = new Consumer<OperationResource>() {
+            @Override
+            public void accept(OperationResource completedOperation) {
+                if (finished.compareAndSet(false, true)) {
+                    stopStreaming(id, this, poll.get());
+                    send(emitter, completedOperation, true);
+                }
+            }
+        };
+        if (!operation.getStatus().isFinal()) {
+            completionListeners.computeIfAbsent(id, ignored -> new CopyOnWriteArraySet<>()).add(completionListener);
+            emitter.onCompletion(() -> stopStreaming(id, completionListener, poll.get()));
+            emitter.onTimeout(() -> stopStreaming(id, completionListener, poll.get()));
+            // Read again, the operation may have completed before the listener was added
+            operation = findOperation(userName, id);
+        }
+        if (operation.getStatus().isFinal()) {
+            completionListener.accept(operation);
+            return emitter;
+        }
+        send(emitter, operation, false);
+        long pollInterval = STREAM_POLL_INTERVAL.toMillis();
+        poll.set(streamPollScheduler.scheduleWithFixedDelay(() -> pollOperation(userName, id, completionListener),
+                pollInterval, pollInterval, TimeUnit.MILLISECONDS));
+        if (finished.get()) {
+            // Completed on this instance while the poll was being scheduled
+            poll.get().cancel(false);
+        }
+        return emitter;
+    }
+
+    /**
+     * Completions on other instances are only seen in the database.
+     */
+    private void pollOperation(String userName, UUID id, Consumer<OperationResource> completionListener) {
+        try {
+            OperationResource operation = findOperation(userName, id);
+            if (operation.getStatus().isFinal()) {
+                completionListener.accept(operation);
+            }
+        } catch (RuntimeException ex) {
+            LOGGER.debug("Operation {} could not be read for its stream", id, ex);
+        }
+    }
+
+    private void stopStreaming(UUID id, Consumer<OperationResource> completionListener, ScheduledFuture<?> poll) {
+        if (poll != null) {
+            poll.cancel(false);
+        }
+        removeCompletionListener(id, completionListener);
+    }
+
+    private void updateOperation(UUID id, Consumer<OperationEntity> update) {
+        OperationEntity savedOperation = transactionTemplate.execute(status -> {
+            OperationEntity operationEntity = operationRepository.findById(id)
+                    .orElseThrow(() -> new NotFoundException(String.format("Operation %s is not found", id)));
+            update.accept(operationEntity);
+            return operationRepository.save(operationEntity);
+        });
+        if (savedOperation != null && savedOperation.getStatus().isFinal()) {
+            Set<Consumer<OperationResource>> listeners = completionListeners.remove(id);
+            if (listeners != null) {
+                OperationResource operation = conversionService.convert(savedOperation, OperationResource.class);
+                listeners.forEach(listener -> listener.accept(operation));
+            }
+        }
+    }
+
+    private void removeCompletionListener(UUID id, Consumer<OperationResource> completionListener) {
+        completionListeners.computeIfPresent(id, (ignored, listeners) -> {
+            listeners.remove(completionListener);
+            return listeners.isEmpty() ? null : listeners;
+        });
+    }
+
+    private OperationResource findOperation(String userName, UUID id) {
+        return operationRepository.findByIdAndUserUserName(id, userName)
+                .map(operationEntity -> conversionService.convert(operationEntity, OperationResource.class))
+                .orElseThrow(() -> new NotFoundException(String.format("Operation %s is not found", id)));
+    }
+
+    private static UUID parseId(String id) {
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException ex) {
+            throw new NotFoundException(String.format("Operation %s is not found", id));
+        }
+    }
+
+    private static void send(SseEmitter emitter, OperationResource operation, boolean last) {
+        try {
+            emitter.send(SseEmitter.event().name(operation.getStatus().name()).data(operation));
+            if (last) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException ex) {
+            LOGGER.debug("Operation {} could not be sent", operation.getId(), ex);
+            emitter.completeWithError(ex);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.k8s.challenge.service;
+
+import com.google.gson.reflect.TypeToken;
+import com.k8s.challenge.constant.ChallengeConstant;
+import io.kubernetes.client.informer.EventType;
+import io.kubernetes.client.informer.ListerWatcher;
+import io.kubernetes.client.informer.cache.Caches;
+import io.kubernetes.client.informer.cache.Indexer;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.AppsV1Api;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.openapi.models.V1DeploymentList;
+import io.kubernetes.client.openapi.models.V1ListMeta;
+import io.kubernetes.client.util.CallGeneratorParams;
+import io.kubernetes.client.util.Watch;
+import io.kubernetes.client.util.Watchable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Lists and watches the deployments carrying the userName label for the deployment informer, and keeps the resource
+ * version the informer has been given so far together with the resource version of each deployment it was given.
+ * The deployments themselves are only held by the informer's {@link #setIndexer(Indexer) indexer}.
+ * <p>
+ * The informer lists again whenever it restarts its watch. Instead of asking the API server, the deployments of the
+ * indexer are handed back then and the watch resumes from the kept resource version; the listing is a real one when
+ * the API server answers that the resource version has expired (410 Gone), or when the indexer has not yet applied
+ * everything the informer was given. On startup the informer is given the deployments of a
+ * {@link DeploymentSnapshot} written by an earlier run, if there is one.
+ */
+public class ResumableDeploymentListerWatcher implements ListerWatcher<V1Deployment, V1DeploymentList> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResumableDeploymentListerWatcher.class);
+
+    private final ListerWatcher<V1Deployment, V1DeploymentList> apiListerWatcher;
+    private final String cluster;
+    private final Map<String, String> resourceVersions = new HashMap<>();
+    private Indexer<V1Deployment> indexer;
+    private List<V1Deployment> snapshotDeployments;
+    private String resourceVersion;
+
+    /**
+     * @param deploymentApi      client of the read timeout, read policy and request guard, which the listings go
+     *                           through
+     * @param watchDeploymentApi client without a read timeout, which only the watches go through
+     */
+    public ResumableDeploymentListerWatcher(AppsV1Api deploymentApi, AppsV1Api watchDeploymentApi,
+                                            DeploymentSnapshot snapshot) {
+        this(new ListerWatcher<V1Deployment, V1DeploymentList>() {
+            @Override
+            public V1DeploymentList list(CallGeneratorParams params) throws ApiException {
+                V1DeploymentList v1DeploymentList = new V1DeploymentList();
+                v1DeploymentList.setItems(new ArrayList<>());
+                String continueToken = null;
+                // The pages after the first are read at its resource version, which the whole listing carries
+                do {
+                    V1DeploymentList page = deploymentApi.listDeploymentForAllNamespaces(null, continueToken, null,
+                            ChallengeConstant.USER_NAME_LABEL, KubernetesClientService.LIST_PAGE_SIZE, null,
+                            continueToken == null ? params.resourceVersion : null, params.timeoutSeconds,
+                            Boolean.FALSE);
+                    v1DeploymentList.getItems().addAll(page.getItems());
+                    v1DeploymentList.setMetadata(page.getMetadata());
+                    continueToken = page.getMetadata() != null ? page.getMetadata().getContinue() : null;
+                } while (!StringUtils.isEmpty(continueToken));
+                return v1DeploymentList;
+            }
+
+            @Override
+            public Watchable<V1Deployment> watch(CallGeneratorParams params) throws ApiException {
+                return Watch.createWatch(watchDeploymentApi.getApiClient(),
+                        watchDeploymentApi.listDeploymentForAllNamespacesCall(null, null, null,
+                                ChallengeConstant.USER_NAME_LABEL, null, null, params.resourceVersion,
+                                params.timeoutSeconds, Boolean.TRUE, null),
+                        new TypeToken<Watch.Response<V1Deployment>>() {
+                        }.getType());
+            }
+        }, deploymentApi.getApiClient().getBasePath(), snapshot);
+    }
+
+    ResumableDeploymentListerWatcher(ListerWatcher<V1Deployment, V1DeploymentList> apiListerWatcher, String cluster,
+                                     DeploymentSnapshot snapshot) {
+        this.apiListerWatcher = apiListerWatcher;
+        this.cluster = cluster;
+        if (snapshot != null) {
+            snapshot.getDeployments().forEach(this::track);
+            snapshotDeployments = snapshot.getDeployments();
+            resourceVersion = snapshot.getResourceVersion();
+        }
+    }
+
+    /**
+     * @param indexer the indexer of the informer this lists and watches for
+     */
+    public synchronized void setIndexer(Indexer<V1Deployment> indexer) {
+        this.indexer = indexer;
+    }
+
+    /**
+     * @return the base path of the cluster whose deployments are listed and watched
+     */
+    public String getCluster() {
+        return cluster;
+    }
+
+    @Override
+    public V1DeploymentList list(CallGeneratorParams params) throws ApiException {
+        synchronized (this) {
+            List<V1Deployment> deployments = snapshotDeployments != null ? snapshotDeployments : indexedDeployments();
+            snapshotDeployments = null;
+            if (resourceVersion != null && deployments != null) {
+                LOGGER.debug("Resuming deployment informer at resource version {}", resourceVersion);
+                V1DeploymentList v1DeploymentList = new V1DeploymentList();
+                v1DeploymentList.setMetadata(new V1ListMeta().resourceVersion(resourceVersion));
+                v1DeploymentList.setItems(deployments);
+                return v1DeploymentList;
+            }
+        }
+        LOGGER.info("Listing deployments for the deployment informer");
+        V1DeploymentList v1DeploymentList = apiListerWatcher.list(params);
+        synchronized (this) {
+            resourceVersions.clear();
+            v1DeploymentList.getItems().forEach(this::track);
+            resourceVersion = v1DeploymentList.getMetadata() != null
+                    ? v1DeploymentList.getMetadata().getResourceVersion() : null;
+        }
+        return v1DeploymentList;
+    }
+
+    @Override
+    public Watchable<V1Deployment> watch(CallGeneratorParams params) throws ApiException {
+        try {
+            return new TrackingWatch(apiListerWatcher.watch(params));
+        } catch (ApiException ex) {
+            if (ex.getCode() == HttpStatus.GONE.value()) {
+                expire();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * @return the deployments of the indexer at the resource version the informer has been given, or null if it has
+     * not been given any listing yet or the indexer has not applied everything it was given
+     */
+    public synchronized DeploymentSnapshot snapshot() {
+        List<V1Deployment> deployments = resourceVersion != null ? indexedDeployments() : null;
+        return deployments != null ? new DeploymentSnapshot(cluster, resourceVersion, deployments) : null;
+    }
+
+    /**
+     * @return the deployments of the indexer, or null if they are not those the informer has been given
+     */
+    private List<V1Deployment> indexedDeployments() {
+        if (indexer == null) {
+            return null;
+        }
+        List<V1Deployment> deployments = indexer.list();
+        if (deployments.size() != resourceVersions.size()) {
+            return null;
+        }
+        for (V1Deployment deployment : deployments) {
+            if (!Objects.equals(resourceVersions.get(Caches.metaNamespaceKeyFunc(deployment)),
+                    deployment.getMetadata().getResourceVersion())) {
+                return null;
+            }
+        }
+        return deployments;
+    }
+
+    private synchronized void apply(Watch.Response<V1Deployment> event) {
+        EventType eventType = EventType.getByType(event.type);
+        if (eventType == EventType.ERROR) {
+            if (event.status != null && event.status.getCode() != null
+                    && event.status.getCode() == HttpStatus.GONE.value()) {
+                expire();
+            }
+            return;
+        }
+        if (eventType == null || event.object == null || event.object.getMetadata() == null) {
+            return;
+        }
+        if (eventType == EventType.ADDED || eventType == EventType.MODIFIED) {
+            track(event.object);
+        } else if (eventType == EventType.DELETED) {
+            resourceVersions.remove(Caches.metaNamespaceKeyFunc(event.object));
+        }
+        resourceVersion = event.object.getMetadata().getResourceVersion();
+    }
+
+    private synchronized void expire() {
+        LOGGER.info("Resource version {} of the deployment informer is expired. Deployments will be relisted",
+                resourceVersion);
+        resourceVersion = null;
+    }
+
+    private void track(V1Deployment deployment) {
+        resourceVersions.put(Caches.metaNamespaceKeyFunc(deployment), deployment.getMetadata().getResourceVersion());
+    }
+
+    /**
+     * Applies each event to the kept resource versions as the informer takes it.
+     */
+    private class TrackingWatch implements Watchable<V1Deployment> {
+
+        private final Watchable<V1Deployment> watch;
+
+        TrackingWatch(Watchable<V1Deployment> watch) {
+            this.watch = watch;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return watch.hasNext();
+        }
+
+        @Override
+        public Watch.Response<V1Deployment> next() {
+            Watch.Response<V1Deployment> event = watch.next();
+            apply(event);
+            return event;
+        }
+
+        @Override
+        public Iterator<Watch.Response<V1Deployment>> iterator() {
+            return this;
+        }
+
+        @Override
+        public void close() throws IOException {
+            watch.close();
+        }
+    }
+}
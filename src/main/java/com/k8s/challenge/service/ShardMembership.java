@@ -0,0 +1,23 @@
+package com.k8s.challenge.service;
+
+import io.kubernetes.client.openapi.ApiException;
+
+import java.util.Set;
+
+/**
+ * Tells which instances are alive to share the namespaces among.
+ */
+public interface ShardMembership {
+
+    /**
+     * Announces the given instance as alive and returns all instances that are.
+     *
+     * @throws ApiException if the members could not be determined; the last known members are kept then
+     */
+    Set<String> refresh(String identity) throws ApiException;
+
+    /**
+     * Withdraws the given instance, so the others take over its namespaces without waiting for it to expire.
+     */
+    void leave(String identity);
+}
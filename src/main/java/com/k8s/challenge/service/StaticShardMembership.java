@@ -0,0 +1,28 @@
+package com.k8s.challenge.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Members from configuration, for instances that run without a cluster to hold leases in or with a fixed set of
+ * replicas. Every instance must be configured with the same members and its own identity among them.
+ */
+public class StaticShardMembership implements ShardMembership {
+
+    private final Set<String> members;
+
+    public StaticShardMembership(Collection<String> members) {
+        this.members = Collections.unmodifiableSet(new LinkedHashSet<>(members));
+    }
+
+    @Override
+    public Set<String> refresh(String identity) {
+        return members;
+    }
+
+    @Override
+    public void leave(String identity) {
+    }
+}
@@ -0,0 +1,60 @@
+package com.k8s.challenge.service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket that refills continuously. Callers never wait for a permit: a caller that finds the bucket empty is
+ * told how long it would have to wait, so it can fail at once and pass that on as the time to retry after.
+ */
+class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private final double permitsPerSecond;
+    private final double burst;
+    private final LongSupplier nanoTime;
+    private double tokens;
+    private long lastRefillNanos;
+    private long pausedUntilNanos;
+
+    TokenBucket(double permitsPerSecond, int burst, LongSupplier nanoTime) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = Math.max(1, burst);
+        this.nanoTime = nanoTime;
+        this.tokens = this.burst;
+        this.lastRefillNanos = nanoTime.getAsLong();
+        this.pausedUntilNanos = lastRefillNanos;
+    }
+
+    /**
+     * Takes a permit if one is available now.
+     *
+     * @return zero if a permit was taken, otherwise how long until one is available, in which case nothing is taken
+     */
+    synchronized Duration tryAcquire() {
+        long now = nanoTime.getAsLong();
+        refill(now);
+        long waitNanos = Math.max(0L, pausedUntilNanos - now);
+        if (tokens < 1) {
+            waitNanos = Math.max(waitNanos, (long) Math.ceil((1 - tokens) / permitsPerSecond * NANOS_PER_SECOND));
+        }
+        if (waitNanos > 0) {
+            return Duration.ofNanos(waitNanos);
+        }
+        tokens -= 1;
+        return Duration.ZERO;
+    }
+
+    /**
+     * No permit becomes usable before the given time has passed, e.g. because the server asked to retry later.
+     */
+    synchronized void pause(Duration duration) {
+        pausedUntilNanos = Math.max(pausedUntilNanos, nanoTime.getAsLong() + duration.toNanos());
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) * permitsPerSecond / NANOS_PER_SECOND);
+        lastRefillNanos = now;
+    }
+}
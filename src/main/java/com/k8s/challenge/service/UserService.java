@@ -8,23 +8,38 @@ import com.k8s.challenge.entity.AuthorizationEntity;
 import com.k8s.challenge.entity.UserEntity;
 import com.k8s.challenge.exception.BadRequestException;
 import com.k8s.challenge.exception.NotFoundException;
+import com.k8s.challenge.repository.AuthorizationRepository;
 import com.k8s.challenge.repository.UserRepository;
-import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Date;
+import java.util.UUID;
 
 @Service
-@AllArgsConstructor
 public class UserService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(UserService.class);
     private final UserRepository userRepository;
+    private final AuthorizationRepository authorizationRepository;
     private final BCryptPasswordEncoder passwordEncoder;
+    private final TransactionTemplate newTransactionTemplate;
+
+    public UserService(UserRepository userRepository, AuthorizationRepository authorizationRepository,
+                       BCryptPasswordEncoder passwordEncoder, PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.authorizationRepository = authorizationRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
 
     public UserEntity findUserByName(String userName) {
         return userRepository.findByUserName(userName)
@@ -32,6 +47,24 @@ public class UserService {
                         userName)));
     }
 
+    /**
+     * @see #findUserByName(String)
+     */
+    public UserEntity findUserWithAuthorizationsByName(String userName) {
+        return userRepository.findWithAuthorizationsByUserName(userName)
+                .orElseThrow(() -> new NotFoundException(String.format("User can not be found by given username : %s",
+                        userName)));
+    }
+
+    /**
+     * @see #findUserByName(String)
+     */
+    public UUID findUserIdByName(String userName) {
+        return userRepository.findIdByUserName(userName)
+                .orElseThrow(() -> new NotFoundException(String.format("User can not be found by given username : %s",
+                        userName)));
+    }
+
     @Transactional
     public UserEntity createUserEntity(UserEntity userEntity) {
         LOGGER.trace("Create user request is received for user: {} ", userEntity.getUserName());
@@ -39,17 +72,31 @@ public class UserService {
             throw new BadRequestException("User already exists");
         }
 
-        AuthorizationEntity authorizationEntity = new AuthorizationEntity();
-        authorizationEntity.setAuth(ChallengeConstant.ROLE_USER);
-        authorizationEntity.setUsers(ImmutableSet.of(userEntity));
-
-        userEntity.setAuthorizations(ImmutableSet.of(authorizationEntity));
+        userEntity.setAuthorizations(ImmutableSet.of(findOrCreateRoleUser()));
         String password = passwordEncoder.encode(userEntity.getPassword());
         userEntity.setPassword(password);
         LOGGER.trace("Create user request is finished for user: {} ", userEntity.getUserName());
         return userRepository.save(userEntity);
     }
 
+    /**
+     * The role is created in a transaction of its own, so when a concurrent sign up creates it first, only that
+     * transaction fails on the unique auth index and the role is read again.
+     */
+    private AuthorizationEntity findOrCreateRoleUser() {
+        return authorizationRepository.findFirstByAuth(ChallengeConstant.ROLE_USER).orElseGet(() -> {
+            try {
+                return newTransactionTemplate.execute(status -> authorizationRepository.save(
+                        AuthorizationEntity.builder()
+                                .auth(ChallengeConstant.ROLE_USER)
+                                .build()));
+            } catch (DataIntegrityViolationException ex) {
+                LOGGER.debug("Role {} was created by a concurrent request", ChallengeConstant.ROLE_USER);
+                return authorizationRepository.findFirstByAuth(ChallengeConstant.ROLE_USER).orElseThrow(() -> ex);
+            }
+        });
+    }
+
     public String createToken(UserEntity userEntity) {
         LOGGER.trace("Create access token request is received for user: {} ", userEntity.getUserName());
 
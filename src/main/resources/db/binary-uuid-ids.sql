@@ -0,0 +1,24 @@
+-- Converts the ids of a database created while ids were stored as 36 character strings to 16 byte binary, together
+-- with the columns referencing them. Existing ids keep their value, only new rows get time ordered ones. Run it once,
+-- with the application stopped, before starting the version that stores binary ids.
+SET REFERENTIAL_INTEGRITY FALSE;
+
+update user_entity set id = replace(id, '-', '');
+update authorization_entity set id = replace(id, '-', '');
+update deployment_entity set id = replace(id, '-', ''), user_id = replace(user_id, '-', '');
+update operation_entity set id = replace(id, '-', ''), user_id = replace(user_id, '-', '');
+update sync_checkpoint_entity set id = replace(id, '-', '');
+update user_authorization set user_id = replace(user_id, '-', ''), authorization_id = replace(authorization_id, '-', '');
+
+-- A string of hex digits converts to the bytes it spells
+alter table user_entity alter column id binary(16) not null;
+alter table authorization_entity alter column id binary(16) not null;
+alter table deployment_entity alter column id binary(16) not null;
+alter table deployment_entity alter column user_id binary(16) not null;
+alter table operation_entity alter column id binary(16) not null;
+alter table operation_entity alter column user_id binary(16) not null;
+alter table sync_checkpoint_entity alter column id binary(16) not null;
+alter table user_authorization alter column user_id binary(16) not null;
+alter table user_authorization alter column authorization_id binary(16) not null;
+
+SET REFERENTIAL_INTEGRITY TRUE;
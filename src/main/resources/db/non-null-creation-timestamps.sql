@@ -0,0 +1,8 @@
+-- Gives deployments stored without a creation timestamp the time they were first stored, and makes the column
+-- required, as the page order and the page cursor rely on it. Run it once, with the application stopped, before
+-- starting the version that requires creation timestamps.
+update deployment_entity set creation_timestamp = coalesce(created_date, current_timestamp)
+where creation_timestamp is null;
+
+alter table deployment_entity alter column creation_timestamp set default current_timestamp;
+alter table deployment_entity alter column creation_timestamp set not null;
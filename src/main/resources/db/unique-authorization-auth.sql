@@ -0,0 +1,12 @@
+-- Keeps the authorization with the lowest id of each auth, moves the users of the others to it and makes auth
+-- unique, so that concurrent sign ups can no longer create a role twice. Run it once, with the application stopped,
+-- before starting the version that requires unique auths.
+update user_authorization ua set authorization_id = (
+    select min(a.id) from authorization_entity a
+    where a.auth = (select d.auth from authorization_entity d where d.id = ua.authorization_id));
+
+delete from authorization_entity a
+where exists (select 1 from authorization_entity o where o.auth = a.auth and o.id < a.id);
+
+drop index if exists idx_authorization_auth;
+create unique index idx_authorization_auth on authorization_entity (auth);
@@ -0,0 +1,16 @@
+-- Keeps the newest row of each deployment, the one written last and, among rows written at the same time, the one
+-- stored last, and adds the unique constraint on the natural key that update could not add while duplicates were
+-- there. Run it once, with the application stopped, before starting the version that requires unique deployments.
+delete from deployment_entity d
+where exists (select 1 from deployment_entity n
+              where n.user_id = d.user_id and n.cluster = d.cluster and n.namespace = d.namespace
+                and n.deployment_name = d.deployment_name
+                and (coalesce(n.updated_date, n.created_date, timestamp '1970-01-01 00:00:00')
+                         > coalesce(d.updated_date, d.created_date, timestamp '1970-01-01 00:00:00')
+                     or (coalesce(n.updated_date, n.created_date, timestamp '1970-01-01 00:00:00')
+                             = coalesce(d.updated_date, d.created_date, timestamp '1970-01-01 00:00:00')
+                         and n.id > d.id)));
+
+alter table deployment_entity drop constraint if exists uk_deployment_user_cluster_namespace_name;
+alter table deployment_entity add constraint uk_deployment_user_cluster_namespace_name
+    unique (user_id, cluster, namespace, deployment_name);
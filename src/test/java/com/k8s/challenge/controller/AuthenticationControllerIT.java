@@ -23,6 +23,8 @@ import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -80,7 +82,7 @@ public class AuthenticationControllerIT {
                     .name(ANY_NAME)
                     .build();
             // When
-            mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/authorize")
+            performAsync(MockMvcRequestBuilders.post("/api/v1/authorize")
                     .content(objectMapper.writeValueAsString(userDto))
                     .contentType(MediaType.APPLICATION_JSON)
                     .accept(MediaType.APPLICATION_JSON))
@@ -109,7 +111,7 @@ public class AuthenticationControllerIT {
                     .name(ANY_NAME)
                     .build();
             // When
-            mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/authorize")
+            performAsync(MockMvcRequestBuilders.post("/api/v1/authorize")
                     .content(objectMapper.writeValueAsString(userDto))
                     .contentType(MediaType.APPLICATION_JSON)
                     .accept(MediaType.APPLICATION_JSON))
@@ -181,7 +183,7 @@ public class AuthenticationControllerIT {
                     .password(ANY_PASSWORD)
                     .build();
             // When
-            mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/token")
+            performAsync(MockMvcRequestBuilders.post("/api/v1/token")
                     .content(objectMapper.writeValueAsString(userDto))
                     .contentType(MediaType.APPLICATION_JSON)
                     .accept(MediaType.APPLICATION_JSON))
@@ -204,7 +206,7 @@ public class AuthenticationControllerIT {
                     .password(WRONG_PASSWORD)
                     .build();
             // When
-            mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/token")
+            performAsync(MockMvcRequestBuilders.post("/api/v1/token")
                     .content(objectMapper.writeValueAsString(userDto))
                     .contentType(MediaType.APPLICATION_JSON)
                     .accept(MediaType.APPLICATION_JSON))
@@ -254,4 +256,17 @@ public class AuthenticationControllerIT {
             Assertions.assertThat(mvcResult.getResponse().getContentAsString()).contains("password");
         }
     }
+
+    /**
+     * Authentication endpoints complete asynchronously, so the result is dispatched once the request has started
+     * async processing. Requests rejected on the request thread are returned as they are.
+     */
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        ResultActions resultActions = mockMvc.perform(requestBuilder);
+        MvcResult mvcResult = resultActions.andReturn();
+        if (!mvcResult.getRequest().isAsyncStarted()) {
+            return resultActions;
+        }
+        return mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult));
+    }
 }
@@ -4,8 +4,10 @@ import com.k8s.challenge.dto.UserDto;
 import com.k8s.challenge.entity.UserEntity;
 import com.k8s.challenge.resource.TokenResource;
 import com.k8s.challenge.resource.UserResource;
+import com.k8s.challenge.service.Bulkhead;
 import com.k8s.challenge.service.UserService;
 import org.assertj.core.api.Assertions;
+import org.assertj.core.api.ThrowableAssert;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -15,6 +17,8 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.http.ResponseEntity;
 
+import java.util.concurrent.RejectedExecutionException;
+
 public class AuthenticationControllerTest {
 
     private static final String ANY_NAME = "anyName";
@@ -30,13 +34,21 @@ public class AuthenticationControllerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private Bulkhead authBulkhead;
+
     private UserDto userDto;
     private UserEntity userEntity;
 
     @BeforeEach
     public void init() {
         MockitoAnnotations.openMocks(this);
-        authenticationController = new AuthenticationController(conversionService, userService);
+        authenticationController = new AuthenticationController(conversionService, userService, authBulkhead);
+        Mockito.doAnswer(inv -> {
+            inv.<Runnable>getArgument(0).run();
+            return null;
+        }).when(authBulkhead).execute(Mockito.any());
+        Mockito.when(authBulkhead.supplyAsync(Mockito.any())).thenCallRealMethod();
 
          userDto = UserDto.builder()
                 .name(ANY_NAME)
@@ -64,7 +76,7 @@ public class AuthenticationControllerTest {
             Mockito.when(userService.createUserEntity(userEntity)).thenReturn(userEntity);
             Mockito.when(conversionService.convert(userEntity, UserResource.class)).thenReturn(userResource);
             // When
-            ResponseEntity<UserResource> userResourceResponseEntity = authenticationController.authorize(userDto);
+            ResponseEntity<UserResource> userResourceResponseEntity = authenticationController.authorize(userDto).join();
             // Then
             Assertions.assertThat(userResourceResponseEntity.getBody()).isNotNull();
             Assertions.assertThat(userResourceResponseEntity.getBody().getName()).isEqualTo(ANY_NAME);
@@ -82,11 +94,26 @@ public class AuthenticationControllerTest {
             Mockito.when(userService.createToken(userEntity)).thenReturn(ANY_TOKEN);
 
             // When
-            ResponseEntity<TokenResource> tokenResourceResponseEntity = authenticationController.getAccessToken(userDto);
+            ResponseEntity<TokenResource> tokenResourceResponseEntity = authenticationController.getAccessToken(userDto).join();
 
             // Then
             Assertions.assertThat(tokenResourceResponseEntity.getBody()).isNotNull();
             Assertions.assertThat(tokenResourceResponseEntity.getBody().getAccessToken()).isEqualTo(ANY_TOKEN);
         }
+
+        @Test
+        void givenAuthBulkheadIsFull_whenGetAccessToken_thenRejectsWithoutCheckingPassword() {
+            // Given
+            Mockito.when(conversionService.convert(userDto, UserEntity.class)).thenReturn(userEntity);
+            Mockito.doThrow(new RejectedExecutionException("Bulkhead auth is full"))
+                    .when(authBulkhead).execute(Mockito.any());
+
+            // When
+            ThrowableAssert.ThrowingCallable throwingCallable = () -> authenticationController.getAccessToken(userDto);
+
+            // Then
+            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(RejectedExecutionException.class);
+            Mockito.verifyNoInteractions(userService);
+        }
     }
 }
@@ -29,6 +29,8 @@ import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -98,6 +100,19 @@ public class DeploymentControllerIT {
 
     }
 
+    /**
+     * Deployment endpoints complete asynchronously, so the result is dispatched once the request has started async
+     * processing. Requests rejected on the request thread are returned as they are.
+     */
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        ResultActions resultActions = mockMvc.perform(requestBuilder);
+        MvcResult mvcResult = resultActions.andReturn();
+        if (!mvcResult.getRequest().isAsyncStarted()) {
+            return resultActions;
+        }
+        return mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult));
+    }
+
     @Nested
     class ListDeployments {
 
@@ -129,7 +144,7 @@ public class DeploymentControllerIT {
         void givenUserNameAndNullNamespace_whenListDeployment_thenListOfDeploymentsAreReturnedFromDatabase() throws Exception {
             // Given
             // When
-            mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/user/{userName}/deployment", ANY_USER_NAME)
+            performAsync(MockMvcRequestBuilders.get("/api/v1/user/{userName}/deployment", ANY_USER_NAME)
                     .contentType(MediaType.APPLICATION_JSON)
                     .accept(MediaType.APPLICATION_JSON))
                     // Then
@@ -155,7 +170,7 @@ public class DeploymentControllerIT {
             deploymentRepository.save(deploymentEntity);
 
             // When
-            mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/user/{userName}/deployment?namespace=" + OTHER_NAMESPACE,
+            performAsync(MockMvcRequestBuilders.get("/api/v1/user/{userName}/deployment?namespace=" + OTHER_NAMESPACE,
                     ANY_USER_NAME)
                     .contentType(MediaType.APPLICATION_JSON)
                     .accept(MediaType.APPLICATION_JSON))
@@ -173,7 +188,7 @@ public class DeploymentControllerIT {
             // Given
             SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(OTHER_USER_NAME, ANY_PASSWORD));
             // When
-            mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/user/{userName}/deployment", ANY_USER_NAME)
+            performAsync(MockMvcRequestBuilders.get("/api/v1/user/{userName}/deployment", ANY_USER_NAME)
                     .contentType(MediaType.APPLICATION_JSON)
                     .accept(MediaType.APPLICATION_JSON))
                     // Then
@@ -188,7 +203,7 @@ public class DeploymentControllerIT {
             // Given
             userRepository.deleteAll();
             // When
-            mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/user/{userName}/deployment", ANY_USER_NAME)
+            performAsync(MockMvcRequestBuilders.get("/api/v1/user/{userName}/deployment", ANY_USER_NAME)
                     .contentType(MediaType.APPLICATION_JSON)
                     .accept(MediaType.APPLICATION_JSON))
                     // Then
@@ -219,7 +234,7 @@ public class DeploymentControllerIT {
             deploymentRepository.deleteAll();
 
             // When
-            mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/user/{userName}/deployment", ANY_USER_NAME)
+            performAsync(MockMvcRequestBuilders.get("/api/v1/user/{userName}/deployment", ANY_USER_NAME)
                     .contentType(MediaType.APPLICATION_JSON)
                     .accept(MediaType.APPLICATION_JSON))
                     // Then
@@ -237,7 +252,7 @@ public class DeploymentControllerIT {
             deploymentRepository.deleteAll();
 
             // When
-            mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/user/{userName}/deployment", ANY_USER_NAME)
+            performAsync(MockMvcRequestBuilders.get("/api/v1/user/{userName}/deployment", ANY_USER_NAME)
                     .contentType(MediaType.APPLICATION_JSON)
                     .accept(MediaType.APPLICATION_JSON))
                     // Then
@@ -280,7 +295,7 @@ public class DeploymentControllerIT {
                     .build();
 
             // When
-            mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/user/{userName}/deployment", ANY_USER_NAME)
+            performAsync(MockMvcRequestBuilders.post("/api/v1/user/{userName}/deployment", ANY_USER_NAME)
                     .content(objectMapper.writeValueAsString(createDeploymentDto))
                     .contentType(MediaType.APPLICATION_JSON)
                     .accept(MediaType.APPLICATION_JSON))
@@ -309,7 +324,7 @@ public class DeploymentControllerIT {
                     .build();
 
             // When
-            MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/user/{userName}/deployment", ANY_USER_NAME)
+            MvcResult mvcResult = performAsync(MockMvcRequestBuilders.post("/api/v1/user/{userName}/deployment", ANY_USER_NAME)
                     .content(objectMapper.writeValueAsString(createDeploymentDto))
                     .contentType(MediaType.APPLICATION_JSON)
                     .accept(MediaType.APPLICATION_JSON))
@@ -337,7 +352,7 @@ public class DeploymentControllerIT {
                     .build();
 
             // When
-            MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/user/{userName}/deployment", ANY_USER_NAME)
+            MvcResult mvcResult = performAsync(MockMvcRequestBuilders.post("/api/v1/user/{userName}/deployment", ANY_USER_NAME)
                     .content(objectMapper.writeValueAsString(createDeploymentDto))
                     .contentType(MediaType.APPLICATION_JSON)
                     .accept(MediaType.APPLICATION_JSON))
@@ -365,7 +380,7 @@ public class DeploymentControllerIT {
                     .build();
 
             // When
-            MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/user/{userName}/deployment", ANY_USER_NAME)
+            MvcResult mvcResult = performAsync(MockMvcRequestBuilders.post("/api/v1/user/{userName}/deployment", ANY_USER_NAME)
                     .content(objectMapper.writeValueAsString(createDeploymentDto))
                     .contentType(MediaType.APPLICATION_JSON)
                     .accept(MediaType.APPLICATION_JSON))
@@ -1,7 +1,20 @@
 package com.k8s.challenge.controller;
 
+import com.k8s.challenge.dto.CreateDeploymentBatchDto;
 import com.k8s.challenge.dto.CreateDeploymentDto;
+import com.k8s.challenge.dto.ScaleDeploymentDto;
+import com.k8s.challenge.dto.UpdateDeploymentDto;
+import com.k8s.challenge.resource.DeploymentBatchItemResource;
+import com.k8s.challenge.resource.DeploymentChangeFeedResource;
+import com.k8s.challenge.resource.DeploymentPageResource;
 import com.k8s.challenge.resource.DeploymentResource;
+import com.k8s.challenge.resource.ErrorResource;
+import com.k8s.challenge.resource.OperationResource;
+import com.k8s.challenge.service.DeploymentChangeFeedService;
+import com.k8s.challenge.service.DeploymentCreationQueueService;
+import com.k8s.challenge.service.DeploymentDeletionService;
+import com.k8s.challenge.service.DeploymentListing;
+import com.k8s.challenge.service.DeploymentRolloutService;
 import com.k8s.challenge.service.DeploymentService;
 import io.kubernetes.client.openapi.ApiException;
 import io.kubernetes.client.openapi.models.V1Deployment;
@@ -15,13 +28,19 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class DeploymentControllerTest {
 
@@ -32,12 +51,26 @@ public class DeploymentControllerTest {
     private static final String ANY_NAME = "anyName";
     private static final String ANY_PASSWORD = "anyPassword";
     private static final String ANY_IMAGE = "anyImage";
+    private static final String ANY_CURSOR = "anyCursor";
+    private static final UUID ANY_OPERATION_ID = UUID.fromString("0186b8e0-2f4c-7a3d-9b1e-5c6d7e8f9a0b");
 
     private DeploymentController deploymentController;
 
     @Mock
     private DeploymentService deploymentService;
 
+    @Mock
+    private DeploymentRolloutService deploymentRolloutService;
+
+    @Mock
+    private DeploymentChangeFeedService deploymentChangeFeedService;
+
+    @Mock
+    private DeploymentDeletionService deploymentDeletionService;
+
+    @Mock
+    private DeploymentCreationQueueService deploymentCreationQueueService;
+
     @Mock
     private ConversionService conversionService;
 
@@ -45,7 +78,9 @@ public class DeploymentControllerTest {
     @BeforeEach
     public void init() {
         MockitoAnnotations.openMocks(this);
-        deploymentController = new DeploymentController(deploymentService, conversionService);
+        deploymentController = new DeploymentController(deploymentService, deploymentRolloutService,
+                deploymentChangeFeedService, deploymentDeletionService, deploymentCreationQueueService,
+                conversionService);
         SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(ANY_USER_NAME, ANY_PASSWORD));
     }
 
@@ -60,11 +95,12 @@ public class DeploymentControllerTest {
                     .namespace(ANY_NAMESPACE)
                     .build();
 
-            Mockito.when(deploymentService.listDeployments(ANY_USER_NAME, ANY_NAMESPACE))
-                    .thenReturn(Collections.singletonList(deploymentResource));
+            Mockito.when(deploymentService.listDeploymentsAsync(ANY_USER_NAME, ANY_NAMESPACE))
+                    .thenReturn(CompletableFuture.completedFuture(
+                            new DeploymentListing(Collections.singletonList(deploymentResource))));
             // When
             ResponseEntity<List<DeploymentResource>> deploymentResourcesEntity = deploymentController
-                    .listDeployments(ANY_NAMESPACE, ANY_USER_NAME);
+                    .listDeployments(ANY_NAMESPACE, ANY_USER_NAME).join();
 
             // Then
             Assertions.assertThat(deploymentResourcesEntity.getBody()).isNotNull();
@@ -78,23 +114,44 @@ public class DeploymentControllerTest {
         void givenAnyNamespaceAndUserName_whenListDeployments_thenReturnEmptyDeploymentList() throws ApiException {
             // Given
 
-            Mockito.when(deploymentService.listDeployments(ANY_USER_NAME, ANY_NAMESPACE)).thenReturn(Collections.emptyList());
+            Mockito.when(deploymentService.listDeploymentsAsync(ANY_USER_NAME, ANY_NAMESPACE))
+                    .thenReturn(CompletableFuture.completedFuture(new DeploymentListing(Collections.emptyList())));
             // When
             ResponseEntity<List<DeploymentResource>> deploymentResourcesEntity = deploymentController
-                    .listDeployments(ANY_NAMESPACE, ANY_USER_NAME);
+                    .listDeployments(ANY_NAMESPACE, ANY_USER_NAME).join();
             // Then
             Assertions.assertThat(deploymentResourcesEntity.getBody()).isEmpty();
         }
 
         @Test
-        void givenAnyNamespaceAndUserName_whenListDeployments_thenThrowsApiException() throws ApiException {
+        void givenClusterCouldNotBeListed_whenListDeployments_thenReturnsDeploymentsWithWarningOfCluster() {
             // Given
-            Mockito.when(deploymentService.listDeployments(ANY_USER_NAME, ANY_NAMESPACE)).thenThrow(new ApiException());
+            DeploymentResource deploymentResource = DeploymentResource.builder().name(ANY_NAME).build();
+            Mockito.when(deploymentService.listDeploymentsAsync(ANY_USER_NAME, ANY_NAMESPACE))
+                    .thenReturn(CompletableFuture.completedFuture(new DeploymentListing(
+                            Collections.singletonList(deploymentResource), Collections.singletonMap("otherCluster",
+                            new ErrorResource("k8s-1004", "Server is busy. Please retry later")))));
+            // When
+            ResponseEntity<List<DeploymentResource>> deploymentResourcesEntity = deploymentController
+                    .listDeployments(ANY_NAMESPACE, ANY_USER_NAME).join();
+            // Then
+            Assertions.assertThat(deploymentResourcesEntity.getBody()).containsExactly(deploymentResource);
+            Assertions.assertThat(deploymentResourcesEntity.getHeaders().get(HttpHeaders.WARNING))
+                    .containsExactly("199 - \"Cluster otherCluster could not be listed: k8s-1004 Server is busy. Please retry later\"");
+        }
+
+        @Test
+        void givenAnyNamespaceAndUserName_whenListDeployments_thenThrowsApiException() {
+            // Given
+            CompletableFuture<DeploymentListing> failedFuture = new CompletableFuture<>();
+            failedFuture.completeExceptionally(new ApiException());
+            Mockito.when(deploymentService.listDeploymentsAsync(ANY_USER_NAME, ANY_NAMESPACE)).thenReturn(failedFuture);
             // When
             ThrowableAssert.ThrowingCallable throwingCallable = () -> deploymentController
-                    .listDeployments(ANY_NAMESPACE, ANY_USER_NAME);
+                    .listDeployments(ANY_NAMESPACE, ANY_USER_NAME).join();
             // Then
-            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(ApiException.class);
+            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(ApiException.class);
         }
 
         @Test
@@ -107,6 +164,24 @@ public class DeploymentControllerTest {
             // Then
             Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(AccessDeniedException.class);
         }
+
+        @Test
+        void givenLimitAndCursor_whenListDeploymentPage_thenReturnsPage() {
+            // Given
+            DeploymentPageResource page = DeploymentPageResource.builder()
+                    .items(Collections.singletonList(DeploymentResource.builder().name(ANY_NAME).build()))
+                    .nextCursor(ANY_CURSOR)
+                    .build();
+            Mockito.when(deploymentService.listDeploymentPageAsync(ANY_USER_NAME, ANY_NAMESPACE, ANY_CURSOR, 10))
+                    .thenReturn(CompletableFuture.completedFuture(page));
+
+            // When
+            ResponseEntity<DeploymentPageResource> pageEntity = deploymentController
+                    .listDeploymentPage(ANY_NAMESPACE, ANY_CURSOR, 10, ANY_USER_NAME).join();
+
+            // Then
+            Assertions.assertThat(pageEntity.getBody()).isSameAs(page);
+        }
     }
 
 
@@ -114,7 +189,7 @@ public class DeploymentControllerTest {
     class CreateDeployment {
 
         @Test
-        void givenUserNameAndDeploymentDto_whenCreateDeployment_thenCreatesDeploymentInKubernetesEnvironment() throws ApiException {
+        void givenUserNameAndDeploymentDto_whenCreateDeployment_thenCreatesDeploymentInKubernetesEnvironment() {
             // Given
             CreateDeploymentDto createDeploymentDto = CreateDeploymentDto.builder()
                     .appName(ANY_NAME)
@@ -133,11 +208,13 @@ public class DeploymentControllerTest {
                     .build();
 
             Mockito.when(conversionService.convert(createDeploymentDto, V1Deployment.class)).thenReturn(v1Deployment);
-            Mockito.when(deploymentService.createDeployment(ANY_USER_NAME, createDeploymentDto.getNamespace(), v1Deployment,
-                    createDeploymentDto.getPretty(), createDeploymentDto.getDryRun())).thenReturn(deploymentResource);
+            Mockito.when(deploymentService.createDeploymentAsync(ANY_USER_NAME, createDeploymentDto.getCluster(),
+                    createDeploymentDto.getNamespace(), v1Deployment,
+                    createDeploymentDto.getPretty(), createDeploymentDto.getDryRun()))
+                    .thenReturn(CompletableFuture.completedFuture(deploymentResource));
             // When
             ResponseEntity<DeploymentResource> deploymentResourceResponseEntity =
-                    deploymentController.createDeployment(createDeploymentDto, ANY_USER_NAME);
+                    deploymentController.createDeployment(createDeploymentDto, ANY_USER_NAME).join();
 
             // Then
             Assertions.assertThat(deploymentResourceResponseEntity.getBody()).isNotNull();
@@ -147,7 +224,7 @@ public class DeploymentControllerTest {
         }
 
         @Test
-        void givenUserNameAndDeploymentDto_whenCreateDeployment_thenThrowsApiException() throws ApiException {
+        void givenUserNameAndDeploymentDto_whenCreateDeployment_thenThrowsApiException() {
             // Given
             CreateDeploymentDto createDeploymentDto = CreateDeploymentDto.builder()
                     .appName(ANY_NAME)
@@ -160,14 +237,18 @@ public class DeploymentControllerTest {
             V1Deployment v1Deployment = new V1Deployment();
 
             Mockito.when(conversionService.convert(createDeploymentDto, V1Deployment.class)).thenReturn(v1Deployment);
-            Mockito.when(deploymentService.createDeployment(ANY_USER_NAME, createDeploymentDto.getNamespace(), v1Deployment,
-                    createDeploymentDto.getPretty(), createDeploymentDto.getDryRun())).thenThrow(ApiException.class);
+            CompletableFuture<DeploymentResource> failedFuture = new CompletableFuture<>();
+            failedFuture.completeExceptionally(new ApiException());
+            Mockito.when(deploymentService.createDeploymentAsync(ANY_USER_NAME, createDeploymentDto.getCluster(),
+                    createDeploymentDto.getNamespace(), v1Deployment,
+                    createDeploymentDto.getPretty(), createDeploymentDto.getDryRun())).thenReturn(failedFuture);
             // When
             ThrowableAssert.ThrowingCallable throwingCallable = () ->
-                    deploymentController.createDeployment(createDeploymentDto, ANY_USER_NAME);
+                    deploymentController.createDeployment(createDeploymentDto, ANY_USER_NAME).join();
 
             // Then
-            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(ApiException.class);
+            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(ApiException.class);
         }
 
         @Test
@@ -189,4 +270,272 @@ public class DeploymentControllerTest {
             Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(AccessDeniedException.class);
         }
     }
+
+    @Nested
+    class EnqueueDeployment {
+
+        @Test
+        void givenUserNameAndDeploymentDto_whenEnqueueDeployment_thenReturnsAcceptedWithOperationLocation() {
+            // Given
+            CreateDeploymentDto createDeploymentDto = CreateDeploymentDto.builder()
+                    .metaDataName(ANY_NAME)
+                    .namespace(ANY_NAMESPACE)
+                    .build();
+            OperationResource operation = OperationResource.builder().id(ANY_OPERATION_ID).build();
+            Mockito.when(deploymentCreationQueueService.enqueue(ANY_USER_NAME, createDeploymentDto))
+                    .thenReturn(operation);
+
+            // When
+            ResponseEntity<OperationResource> response = deploymentController
+                    .enqueueDeployment(createDeploymentDto, ANY_USER_NAME);
+
+            // Then
+            Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+            Assertions.assertThat(response.getHeaders().getLocation())
+                    .hasPath("/api/v1/user/" + ANY_USER_NAME + "/operation/" + ANY_OPERATION_ID);
+            Assertions.assertThat(response.getBody()).isSameAs(operation);
+        }
+
+        @Test
+        void givenOtherUserName_whenEnqueueDeployment_thenThrowsAccessDeniedException() {
+            // When
+            ThrowableAssert.ThrowingCallable throwingCallable = () ->
+                    deploymentController.enqueueDeployment(new CreateDeploymentDto(), OTHER_USER_NAME);
+
+            // Then
+            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(AccessDeniedException.class);
+            Mockito.verifyNoInteractions(deploymentCreationQueueService);
+        }
+    }
+
+    @Nested
+    class CreateDeployments {
+
+        @Test
+        void givenUserNameAndDeploymentBatchDto_whenCreateDeployments_thenReturnsResultPerItem() {
+            // Given
+            CreateDeploymentDto createDeploymentDto = CreateDeploymentDto.builder()
+                    .appName(ANY_NAME)
+                    .containerPorts(Collections.singletonList(ANY_PORT))
+                    .metaDataName(ANY_NAME)
+                    .imageName(ANY_IMAGE)
+                    .namespace(ANY_NAMESPACE)
+                    .build();
+            CreateDeploymentBatchDto createDeploymentBatchDto = CreateDeploymentBatchDto.builder()
+                    .deployments(Collections.singletonList(createDeploymentDto))
+                    .build();
+
+            DeploymentBatchItemResource deploymentBatchItemResource = DeploymentBatchItemResource.builder()
+                    .index(0)
+                    .deployment(DeploymentResource.builder().name(ANY_NAME).namespace(ANY_NAMESPACE).build())
+                    .build();
+
+            Mockito.when(deploymentService.createDeploymentsAsync(ANY_USER_NAME, createDeploymentBatchDto.getDeployments()))
+                    .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(deploymentBatchItemResource)));
+            // When
+            ResponseEntity<List<DeploymentBatchItemResource>> responseEntity =
+                    deploymentController.createDeployments(createDeploymentBatchDto, ANY_USER_NAME).join();
+
+            // Then
+            Assertions.assertThat(responseEntity.getBody()).containsExactly(deploymentBatchItemResource);
+        }
+
+        @Test
+        void givenOtherUserNameAndDeploymentBatchDto_whenCreateDeployments_thenThrowsAccessDeniedException() {
+            // Given
+            CreateDeploymentBatchDto createDeploymentBatchDto = CreateDeploymentBatchDto.builder()
+                    .deployments(Collections.emptyList())
+                    .build();
+
+            // When
+            ThrowableAssert.ThrowingCallable throwingCallable = () ->
+                    deploymentController.createDeployments(createDeploymentBatchDto, OTHER_USER_NAME);
+
+            // Then
+            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(AccessDeniedException.class);
+            Mockito.verifyNoInteractions(deploymentService);
+        }
+    }
+
+    @Nested
+    class UpdateDeployment {
+
+        @Test
+        void givenUserNameAndUpdateDeploymentDto_whenUpdateDeployment_thenDelegatesToService() {
+            // Given
+            UpdateDeploymentDto updateDeploymentDto = UpdateDeploymentDto.builder()
+                    .replicas(3)
+                    .image(ANY_IMAGE)
+                    .build();
+            DeploymentResource deploymentResource = DeploymentResource.builder()
+                    .name(ANY_NAME)
+                    .namespace(ANY_NAMESPACE)
+                    .replicas(3)
+                    .build();
+            Mockito.when(deploymentService.updateDeploymentAsync(ANY_USER_NAME, null, ANY_NAMESPACE, ANY_NAME, 3,
+                    ANY_IMAGE, null)).thenReturn(CompletableFuture.completedFuture(deploymentResource));
+            // When
+            ResponseEntity<DeploymentResource> responseEntity = deploymentController
+                    .updateDeployment(updateDeploymentDto, ANY_USER_NAME, ANY_NAMESPACE, ANY_NAME).join();
+
+            // Then
+            Assertions.assertThat(responseEntity.getBody()).isEqualTo(deploymentResource);
+        }
+
+        @Test
+        void givenOtherUserNameAndScaleDeploymentDto_whenScaleDeployment_thenThrowsAccessDeniedException() {
+            // Given
+            ScaleDeploymentDto scaleDeploymentDto = ScaleDeploymentDto.builder().replicas(3).build();
+
+            // When
+            ThrowableAssert.ThrowingCallable throwingCallable = () -> deploymentController
+                    .scaleDeployment(scaleDeploymentDto, OTHER_USER_NAME, ANY_NAMESPACE, ANY_NAME);
+
+            // Then
+            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(AccessDeniedException.class);
+            Mockito.verifyNoInteractions(deploymentService);
+        }
+    }
+
+    @Nested
+    class StreamRollout {
+
+        @Test
+        void givenUserNameAndDeployment_whenStreamRollout_thenReturnsEmitterOfRolloutService() {
+            // Given
+            SseEmitter sseEmitter = new SseEmitter();
+            Mockito.when(deploymentRolloutService.streamRollout(ANY_USER_NAME, null, ANY_NAMESPACE, ANY_NAME))
+                    .thenReturn(sseEmitter);
+            // When
+            SseEmitter rolloutEmitter = deploymentController.streamRollout(null, ANY_USER_NAME, ANY_NAMESPACE, ANY_NAME);
+
+            // Then
+            Assertions.assertThat(rolloutEmitter).isSameAs(sseEmitter);
+        }
+
+        @Test
+        void givenOtherUserName_whenStreamRollout_thenThrowsAccessDeniedException() {
+            // When
+            ThrowableAssert.ThrowingCallable throwingCallable = () ->
+                    deploymentController.streamRollout(null, OTHER_USER_NAME, ANY_NAMESPACE, ANY_NAME);
+
+            // Then
+            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(AccessDeniedException.class);
+            Mockito.verifyNoInteractions(deploymentRolloutService);
+        }
+    }
+
+    @Nested
+    class DeleteDeployment {
+
+        @Test
+        void givenUserNameAndDeployment_whenDeleteDeployment_thenReturnsAcceptedWithOperationLocation() {
+            // Given
+            OperationResource operation = OperationResource.builder().id(ANY_OPERATION_ID).build();
+            Mockito.when(deploymentDeletionService.deleteDeploymentAsync(ANY_USER_NAME, null, ANY_NAMESPACE, ANY_NAME))
+                    .thenReturn(CompletableFuture.completedFuture(operation));
+
+            // When
+            ResponseEntity<OperationResource> response = deploymentController
+                    .deleteDeployment(null, ANY_USER_NAME, ANY_NAMESPACE, ANY_NAME).join();
+
+            // Then
+            Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+            Assertions.assertThat(response.getHeaders().getLocation())
+                    .hasPath("/api/v1/user/" + ANY_USER_NAME + "/operation/" + ANY_OPERATION_ID);
+            Assertions.assertThat(response.getBody()).isSameAs(operation);
+        }
+
+        @Test
+        void givenOtherUserName_whenDeleteDeployment_thenThrowsAccessDeniedException() {
+            // When
+            ThrowableAssert.ThrowingCallable throwingCallable = () ->
+                    deploymentController.deleteDeployment(null, OTHER_USER_NAME, ANY_NAMESPACE, ANY_NAME);
+
+            // Then
+            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(AccessDeniedException.class);
+            Mockito.verifyNoInteractions(deploymentDeletionService);
+        }
+    }
+
+    @Nested
+    class DeleteDeployments {
+
+        @Test
+        void givenNames_whenDeleteDeployments_thenReturnsAcceptedOperation() {
+            // Given
+            List<String> names = Collections.singletonList(ANY_NAME);
+            OperationResource operation = OperationResource.builder().id(ANY_OPERATION_ID).build();
+            Mockito.when(deploymentDeletionService.deleteDeploymentsAsync(ANY_USER_NAME, null, ANY_NAMESPACE, names,
+                    null)).thenReturn(CompletableFuture.completedFuture(operation));
+
+            // When
+            ResponseEntity<OperationResource> response = deploymentController
+                    .deleteDeployments(ANY_NAMESPACE, names, null, null, ANY_USER_NAME).join();
+
+            // Then
+            Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+            Assertions.assertThat(response.getBody()).isSameAs(operation);
+        }
+    }
+
+    @Nested
+    class PollChanges {
+
+        @Test
+        void givenUserNameAndCursor_whenPollChanges_thenReturnsFeedOfChangeFeedService() {
+            // Given
+            DeploymentChangeFeedResource feed = new DeploymentChangeFeedResource(2L, false, Collections.emptyList());
+            Mockito.when(deploymentChangeFeedService.pollChanges(ANY_USER_NAME, 1L))
+                    .thenReturn(CompletableFuture.completedFuture(feed));
+
+            // When
+            ResponseEntity<DeploymentChangeFeedResource> response =
+                    deploymentController.pollChanges(1L, ANY_USER_NAME).join();
+
+            // Then
+            Assertions.assertThat(response.getBody()).isSameAs(feed);
+        }
+
+        @Test
+        void givenOtherUserName_whenPollChanges_thenThrowsAccessDeniedException() {
+            // When
+            ThrowableAssert.ThrowingCallable throwingCallable = () ->
+                    deploymentController.pollChanges(1L, OTHER_USER_NAME);
+
+            // Then
+            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(AccessDeniedException.class);
+            Mockito.verifyNoInteractions(deploymentChangeFeedService);
+        }
+    }
+
+    @Nested
+    class StreamChanges {
+
+        @Test
+        void givenLastEventIdOnly_whenStreamChanges_thenResumesFromLastEventId() {
+            // Given
+            SseEmitter sseEmitter = new SseEmitter();
+            Mockito.when(deploymentChangeFeedService.streamChanges(ANY_USER_NAME, 5L)).thenReturn(sseEmitter);
+
+            // When
+            SseEmitter changeEmitter = deploymentController.streamChanges(null, 5L, ANY_USER_NAME);
+
+            // Then
+            Assertions.assertThat(changeEmitter).isSameAs(sseEmitter);
+        }
+
+        @Test
+        void givenCursorAndLastEventId_whenStreamChanges_thenResumesFromCursor() {
+            // Given
+            SseEmitter sseEmitter = new SseEmitter();
+            Mockito.when(deploymentChangeFeedService.streamChanges(ANY_USER_NAME, 3L)).thenReturn(sseEmitter);
+
+            // When
+            SseEmitter changeEmitter = deploymentController.streamChanges(3L, 5L, ANY_USER_NAME);
+
+            // Then
+            Assertions.assertThat(changeEmitter).isSameAs(sseEmitter);
+        }
+    }
 }
@@ -0,0 +1,79 @@
+package com.k8s.challenge.controller;
+
+import com.k8s.challenge.constant.OperationStatus;
+import com.k8s.challenge.resource.OperationResource;
+import com.k8s.challenge.service.OperationService;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.ThrowableAssert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.UUID;
+
+public class OperationControllerTest {
+
+    private static final String ANY_USER_NAME = "anyUserName";
+    private static final String OTHER_USER_NAME = "otherUserName";
+    private static final String ANY_PASSWORD = "anyPassword";
+    private static final UUID ANY_OPERATION_ID = UUID.fromString("0186b8e0-2f4c-7a3d-9b1e-5c6d7e8f9a0b");
+
+    private OperationController operationController;
+
+    @Mock
+    private OperationService operationService;
+
+    @BeforeEach
+    public void init() {
+        MockitoAnnotations.openMocks(this);
+        operationController = new OperationController(operationService);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(ANY_USER_NAME, ANY_PASSWORD));
+    }
+
+    @Test
+    void givenUserNameAndOperationId_whenGetOperation_thenReturnsOperation() {
+        // Given
+        OperationResource operation = OperationResource.builder()
+                .id(ANY_OPERATION_ID)
+                .status(OperationStatus.RUNNING)
+                .build();
+        Mockito.when(operationService.findOperation(ANY_USER_NAME, ANY_OPERATION_ID.toString())).thenReturn(operation);
+
+        // When
+        ResponseEntity<OperationResource> response = operationController.getOperation(ANY_USER_NAME, ANY_OPERATION_ID.toString());
+
+        // Then
+        Assertions.assertThat(response.getBody()).isSameAs(operation);
+    }
+
+    @Test
+    void givenOtherUserName_whenGetOperation_thenThrowsAccessDeniedException() {
+        // When
+        ThrowableAssert.ThrowingCallable throwingCallable = () ->
+                operationController.getOperation(OTHER_USER_NAME, ANY_OPERATION_ID.toString());
+
+        // Then
+        Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(AccessDeniedException.class);
+        Mockito.verifyNoInteractions(operationService);
+    }
+
+    @Test
+    void givenUserNameAndOperationId_whenStreamOperation_thenReturnsEmitterOfOperationService() {
+        // Given
+        SseEmitter emitter = new SseEmitter();
+        Mockito.when(operationService.streamOperation(ANY_USER_NAME, ANY_OPERATION_ID.toString())).thenReturn(emitter);
+
+        // When
+        SseEmitter streamedOperation = operationController.streamOperation(ANY_USER_NAME, ANY_OPERATION_ID.toString());
+
+        // Then
+        Assertions.assertThat(streamedOperation).isSameAs(emitter);
+    }
+}
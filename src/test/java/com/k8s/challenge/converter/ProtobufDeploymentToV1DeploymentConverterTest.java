@@ -0,0 +1,67 @@
+package com.k8s.challenge.converter;
+
+import com.k8s.challenge.objectfactory.ProtobufDeploymentFactory;
+import com.k8s.challenge.resource.DeploymentResource;
+import io.kubernetes.client.openapi.JSON;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.proto.V1Apps;
+import org.assertj.core.api.Assertions;
+import org.joda.time.DateTimeZone;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.TimeZone;
+
+public class ProtobufDeploymentToV1DeploymentConverterTest {
+
+    private static final String ANY_NAME = "anyName";
+    private static final String ANY_NAMESPACE = "anyNamespace";
+    private static final String ANY_USER_NAME = "anyUserName";
+    private static final String NON_UTC_ZONE = "Asia/Kolkata";
+
+    private final ProtobufDeploymentToV1DeploymentConverter protobufConverter =
+            new ProtobufDeploymentToV1DeploymentConverter();
+    private final V1DeploymentToDeploymentResourceConverter resourceConverter =
+            new V1DeploymentToDeploymentResourceConverter();
+    private TimeZone defaultTimeZone;
+    private DateTimeZone defaultDateTimeZone;
+
+    @BeforeEach
+    void init() {
+        defaultTimeZone = TimeZone.getDefault();
+        defaultDateTimeZone = DateTimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone(NON_UTC_ZONE));
+        DateTimeZone.setDefault(DateTimeZone.forID(NON_UTC_ZONE));
+    }
+
+    @AfterEach
+    void restore() {
+        TimeZone.setDefault(defaultTimeZone);
+        DateTimeZone.setDefault(defaultDateTimeZone);
+    }
+
+    @Test
+    void givenNonUtcDefaultZone_whenConvert_thenCreationTimestampEqualsThatOfJson() {
+        // Given
+        V1Apps.Deployment deployment = ProtobufDeploymentFactory.createDeployment(ANY_NAME, ANY_NAMESPACE,
+                ANY_USER_NAME);
+        Instant creationTimestamp = Instant.ofEpochSecond(deployment.getMetadata().getCreationTimestamp().getSeconds());
+        V1Deployment jsonDeployment = new JSON().deserialize("{\"metadata\":{\"creationTimestamp\":\""
+                + creationTimestamp + "\"}}", V1Deployment.class);
+
+        // When
+        V1Deployment v1Deployment = protobufConverter.convert(deployment);
+
+        // Then
+        Assertions.assertThat(v1Deployment.getMetadata().getCreationTimestamp())
+                .isEqualTo(jsonDeployment.getMetadata().getCreationTimestamp());
+        DeploymentResource deploymentResource = resourceConverter.convert(v1Deployment);
+        Assertions.assertThat(deploymentResource.getCreationTimestamp())
+                .isEqualTo(resourceConverter.convert(jsonDeployment).getCreationTimestamp())
+                .isEqualTo(LocalDateTime.ofInstant(creationTimestamp, ZoneId.of(NON_UTC_ZONE)));
+    }
+}
@@ -0,0 +1,37 @@
+package com.k8s.challenge.entity;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+public class TimeOrderedUuidGeneratorTest {
+
+    @Test
+    void givenCurrentTime_whenNext_thenVersion7UuidStartsWithEpochMillis() {
+        // Given
+        long before = System.currentTimeMillis();
+
+        // When
+        UUID uuid = TimeOrderedUuidGenerator.next();
+
+        // Then
+        Assertions.assertThat(uuid.version()).isEqualTo(7);
+        Assertions.assertThat(uuid.variant()).isEqualTo(2);
+        Assertions.assertThat(uuid.getMostSignificantBits() >>> 16).isBetween(before, System.currentTimeMillis());
+    }
+
+    @Test
+    void givenLaterMillisecond_whenNext_thenUuidSortsAfterAsUnsignedBytes() throws InterruptedException {
+        // Given
+        UUID earlier = TimeOrderedUuidGenerator.next();
+        Thread.sleep(2);
+
+        // When
+        UUID later = TimeOrderedUuidGenerator.next();
+
+        // Then
+        Assertions.assertThat(Long.compareUnsigned(later.getMostSignificantBits(), earlier.getMostSignificantBits()))
+                .isPositive();
+    }
+}
@@ -0,0 +1,62 @@
+package com.k8s.challenge.objectfactory;
+
+import com.google.protobuf.Message;
+import io.kubernetes.client.proto.Meta;
+import io.kubernetes.client.proto.Runtime;
+import io.kubernetes.client.proto.V1;
+import io.kubernetes.client.proto.V1Apps;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.UUID;
+
+public final class ProtobufDeploymentFactory {
+
+    private static final byte[] PROTOBUF_MAGIC = {'k', '8', 's', 0};
+    private static final String APP = "app";
+    private static final String IMAGE = "nginx";
+    private static final int PORT = 80;
+    private static final long CREATION_TIMESTAMP_SECONDS = 1600000000L;
+
+    private ProtobufDeploymentFactory() {
+    }
+
+    public static V1Apps.Deployment createDeployment(String name, String namespace, String userName) {
+        return V1Apps.Deployment.newBuilder()
+                .setMetadata(Meta.ObjectMeta.newBuilder()
+                        .setName(name)
+                        .setNamespace(namespace)
+                        .setUid(UUID.randomUUID().toString())
+                        .setResourceVersion("1")
+                        .setCreationTimestamp(Meta.Time.newBuilder().setSeconds(CREATION_TIMESTAMP_SECONDS))
+                        .putLabels("userName", userName))
+                .setSpec(V1Apps.DeploymentSpec.newBuilder()
+                        .setReplicas(2)
+                        .setSelector(Meta.LabelSelector.newBuilder().putMatchLabels(APP, APP))
+                        .setTemplate(V1.PodTemplateSpec.newBuilder()
+                                .setMetadata(Meta.ObjectMeta.newBuilder().putLabels(APP, APP))
+                                .setSpec(V1.PodSpec.newBuilder()
+                                        .addContainers(V1.Container.newBuilder()
+                                                .setName(APP)
+                                                .setImage(IMAGE)
+                                                .addPorts(V1.ContainerPort.newBuilder().setContainerPort(PORT))))))
+                .setStatus(V1Apps.DeploymentStatus.newBuilder().setReplicas(2).setReadyReplicas(2))
+                .build();
+    }
+
+    /**
+     * Encodes the message the way the API server does: the "k8s\0" magic number followed by a runtime.Unknown
+     * envelope.
+     */
+    public static byte[] encode(Message message, String apiVersion, String kind) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        outputStream.write(PROTOBUF_MAGIC);
+        Runtime.Unknown.newBuilder()
+                .setTypeMeta(Runtime.TypeMeta.newBuilder().setApiVersion(apiVersion).setKind(kind))
+                .setRaw(message.toByteString())
+                .setContentType("application/vnd.kubernetes.protobuf")
+                .build()
+                .writeTo(outputStream);
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,37 @@
+package com.k8s.challenge.repository;
+
+import com.k8s.challenge.entity.AuthorizationEntity;
+import org.assertj.core.api.Assertions;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import javax.persistence.PersistenceException;
+
+import static com.k8s.challenge.constant.ChallengeConstant.ROLE_USER;
+
+@DataJpaTest
+public class AuthorizationRepositoryTest {
+
+    @Autowired
+    private AuthorizationRepository authorizationRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void givenPersistedRole_whenSaveSameAuth_thenThrowsConstraintViolation() {
+        // Given
+        authorizationRepository.save(AuthorizationEntity.builder().auth(ROLE_USER).build());
+        entityManager.flush();
+
+        // When
+        authorizationRepository.save(AuthorizationEntity.builder().auth(ROLE_USER).build());
+
+        // Then
+        Assertions.assertThatThrownBy(() -> entityManager.flush()).isInstanceOf(PersistenceException.class)
+                .hasCauseInstanceOf(ConstraintViolationException.class);
+    }
+}
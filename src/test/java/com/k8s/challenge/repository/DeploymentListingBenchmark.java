@@ -0,0 +1,185 @@
+package com.k8s.challenge.repository;
+
+import com.k8s.challenge.entity.DeploymentEntity;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Measures how long a page of the deployments of one user takes as the table grows into millions of rows. The table
+ * and indexes are those Hibernate creates for {@link DeploymentEntity} on H2, and the statements are those generated
+ * for the page queries of {@link DeploymentRepository}. Reports the first page, the deepest page read by keyset, and
+ * the same deepest page read by offset for comparison, with and without a namespace.
+ * <p>
+ * Not a unit test. Run it after {@code mvn test-compile} with
+ * {@code java -cp target/classes:target/test-classes:<dependency classpath>
+ * com.k8s.challenge.repository.DeploymentListingBenchmark [maxRowCount] [pageSize]}
+ */
+public final class DeploymentListingBenchmark {
+
+    // Results are not reused, or a repeated page would be answered without reading the table
+    private static final String URL = "jdbc:h2:./target/deployment-listing-benchmark;OPTIMIZE_REUSE_RESULTS=0";
+    private static final int USER_COUNT = 10;
+    private static final int NAMESPACE_COUNT = 10;
+    // The ids of the users are their number, zero padded to 16 bytes
+    private static final byte[] USER_ID = new byte[16];
+    private static final String NAMESPACE = "namespace-0";
+    private static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 0, 0);
+    private static final String COLUMNS = "d.id, d.api_version, d.kind, d.creation_timestamp, d.deployment_name,"
+            + " d.namespace, d.image, d.replicas, d.cluster";
+    private static final String AFTER = " and d.creation_timestamp<=?"
+            + " and (d.creation_timestamp<? or d.creation_timestamp=? and d.id<?)";
+
+    private DeploymentListingBenchmark() {
+    }
+
+    public static void main(String[] args) throws SQLException {
+        long maxRowCount = args.length > 0 ? Long.parseLong(args[0]) : 2_560_000;
+        int pageSize = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "")) {
+            createSchema(connection);
+            System.out.printf("page size: %d, users: %d, namespaces per user: %d%n", pageSize, USER_COUNT,
+                    NAMESPACE_COUNT);
+            System.out.printf("%10s %10s | %-9s %12s %12s %12s%n", "table rows", "user rows", "namespace",
+                    "first ms", "keyset ms", "offset ms");
+            long rowCount = 0;
+            for (long targetRowCount = 10_000; targetRowCount <= maxRowCount; targetRowCount *= 4) {
+                insertDeployments(connection, rowCount, targetRowCount);
+                rowCount = targetRowCount;
+                report(connection, rowCount, null, pageSize);
+                report(connection, rowCount, NAMESPACE, pageSize);
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("drop all objects delete files");
+            }
+        }
+    }
+
+    private static void report(Connection connection, long rowCount, String namespace, int pageSize)
+            throws SQLException {
+        String where = " from deployment_entity d where d.user_id=?" + (namespace != null ? " and d.namespace=?" : "");
+        String order = " order by d.user_id," + (namespace != null ? " d.namespace," : "")
+                + " d.creation_timestamp desc, d.id desc";
+        long userRowCount = count(connection, "select count(*)" + where, namespace);
+        long depth = userRowCount - pageSize;
+
+        // The cursor of the page before the deepest one, as the client would have it after paging through all others
+        Object[] cursor;
+        try (PreparedStatement statement = connection.prepareStatement("select d.creation_timestamp, d.id" + where
+                + order + " limit 1 offset ?")) {
+            int index = bind(statement, namespace);
+            statement.setLong(index, depth - 1);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                cursor = new Object[]{resultSet.getTimestamp(1), resultSet.getBytes(2)};
+            }
+        }
+
+        double firstMillis = measure(connection, "select " + COLUMNS + where + order + " limit ?", namespace,
+                pageSize, 200);
+        double keysetMillis = measure(connection, "select " + COLUMNS + where + AFTER + order + " limit ?",
+                namespace, pageSize, 200, cursor[0], cursor[0], cursor[0], cursor[1]);
+        double offsetMillis = measure(connection, "select " + COLUMNS + where + order + " limit ? offset " + depth,
+                namespace, pageSize, 10);
+        System.out.printf("%10d %10d | %-9s %12.3f %12.3f %12.3f%n", rowCount, userRowCount,
+                namespace != null ? "one" : "all", firstMillis, keysetMillis, offsetMillis);
+    }
+
+    /**
+     * @return mean milliseconds of reading the page, after as many unmeasured reads to warm up
+     */
+    private static double measure(Connection connection, String sql, String namespace, int pageSize, int iterations,
+                                  Object... keys) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            int index = bind(statement, namespace);
+            for (Object key : keys) {
+                statement.setObject(index++, key);
+            }
+            statement.setInt(index, pageSize);
+            for (int i = 0; i < iterations; i++) {
+                readPage(statement, pageSize);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                readPage(statement, pageSize);
+            }
+            return (System.nanoTime() - start) / 1_000_000.0 / iterations;
+        }
+    }
+
+    private static void readPage(PreparedStatement statement, int pageSize) throws SQLException {
+        int rows = 0;
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                resultSet.getString(1);
+                rows++;
+            }
+        }
+        if (rows != pageSize) {
+            throw new IllegalStateException("Page has " + rows + " rows instead of " + pageSize);
+        }
+    }
+
+    private static int bind(PreparedStatement statement, String namespace) throws SQLException {
+        statement.setBytes(1, USER_ID);
+        if (namespace == null) {
+            return 2;
+        }
+        statement.setString(2, namespace);
+        return 3;
+    }
+
+    private static long count(Connection connection, String sql, String namespace) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            bind(statement, namespace);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        }
+    }
+
+    private static void createSchema(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop all objects");
+            statement.execute("create table deployment_entity (id binary(16) not null, created_by varchar(255),"
+                    + " created_date timestamp, updated_by varchar(255), updated_date timestamp,"
+                    + " api_version varchar(255), app_name varchar(255),"
+                    + " cluster varchar(255) default 'default' not null, creation_timestamp timestamp,"
+                    + " deployment_name varchar(255), image varchar(255), kind varchar(255), namespace varchar(255),"
+                    + " replicas integer, user_id binary(16) not null, primary key (id))");
+            statement.execute("create index idx_deployment_user_namespace_created"
+                    + " on deployment_entity (user_id, namespace, creation_timestamp desc, id desc)");
+            statement.execute("create index idx_deployment_user_created"
+                    + " on deployment_entity (user_id, creation_timestamp desc, id desc)");
+        }
+    }
+
+    /**
+     * Deployments are spread round robin over users and their namespaces. Every three share a creation timestamp, so
+     * pages also break ties by id.
+     */
+    private static void insertDeployments(Connection connection, long from, long to) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("insert into deployment_entity (id,"
+                + " api_version, app_name, cluster, creation_timestamp, deployment_name, image, kind, namespace,"
+                + " replicas, user_id) select random_uuid(), 'apps/v1', 'deployment-' || x, 'default',"
+                + " dateadd('second', x / 3, ?), 'deployment-' || x, 'nginx', 'Deployment',"
+                + " 'namespace-' || mod(x / ?, ?), 2, cast(lpad(mod(x, ?), 32, '0') as binary(16))"
+                + " from system_range(?, ?)")) {
+            statement.setTimestamp(1, Timestamp.valueOf(START));
+            statement.setInt(2, USER_COUNT);
+            statement.setInt(3, NAMESPACE_COUNT);
+            statement.setInt(4, USER_COUNT);
+            statement.setLong(5, from);
+            statement.setLong(6, to - 1);
+            statement.executeUpdate();
+        }
+    }
+}
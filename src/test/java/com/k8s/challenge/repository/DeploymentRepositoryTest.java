@@ -0,0 +1,163 @@
+package com.k8s.challenge.repository;
+
+import com.k8s.challenge.constant.ChallengeConstant;
+import com.k8s.challenge.entity.DeploymentEntity;
+import com.k8s.challenge.entity.UserEntity;
+import org.assertj.core.api.Assertions;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import javax.persistence.PersistenceException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@DataJpaTest
+public class DeploymentRepositoryTest {
+
+    private static final String ANY_USER_NAME = "anyUserName";
+    private static final String ANY_NAMESPACE = "anyNamespace";
+    private static final String ANY_IMAGE = "anyImage";
+    private static final String OTHER_IMAGE = "otherImage";
+    private static final LocalDateTime ANY_CREATION_TIMESTAMP = LocalDateTime.of(2020, 1, 1, 0, 0);
+    private static final int DEPLOYMENT_COUNT = 120;
+
+    @Autowired
+    private DeploymentRepository deploymentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private UserEntity userEntity;
+
+    @BeforeEach
+    void init() {
+        userEntity = userRepository.save(UserEntity.builder()
+                .name(ANY_USER_NAME)
+                .userName(ANY_USER_NAME)
+                .password(ANY_USER_NAME)
+                .build());
+        entityManager.flush();
+    }
+
+    @Nested
+    class UpsertAll {
+
+        @Test
+        void givenNewDeployments_whenUpsertAll_thenAllAreInserted() {
+            // When
+            deploymentRepository.upsertAll(userEntity.getId(), deployments(ANY_IMAGE));
+
+            // Then
+            List<DeploymentSummary> summaries = deploymentRepository.findSummariesByUserId(userEntity.getId());
+            Assertions.assertThat(summaries).hasSize(DEPLOYMENT_COUNT);
+            Assertions.assertThat(summaries).extracting(DeploymentSummary::getImage).containsOnly(ANY_IMAGE);
+            Assertions.assertThat(summaries).extracting(DeploymentSummary::getCluster)
+                    .containsOnly(ChallengeConstant.DEFAULT_CLUSTER);
+        }
+
+        @Test
+        void givenPersistedDeployments_whenUpsertAllAgain_thenTheyAreUpdatedInPlace() {
+            // Given
+            deploymentRepository.upsertAll(userEntity.getId(), deployments(ANY_IMAGE));
+            List<UUID> ids = ids();
+
+            // When
+            deploymentRepository.upsertAll(userEntity.getId(), deployments(OTHER_IMAGE));
+
+            // Then
+            List<DeploymentSummary> summaries = deploymentRepository.findSummariesByUserId(userEntity.getId());
+            Assertions.assertThat(summaries).hasSize(DEPLOYMENT_COUNT);
+            Assertions.assertThat(summaries).extracting(DeploymentSummary::getImage).containsOnly(OTHER_IMAGE);
+            Assertions.assertThat(ids()).containsExactlyElementsOf(ids);
+        }
+
+        @Test
+        void givenDeploymentsWithoutCreationTimestamp_whenUpsertAll_thenNewGetOneAndPersistedKeepTheirs() {
+            // Given
+            List<DeploymentEntity> deployments = deployments(ANY_IMAGE).subList(0, 2);
+            deploymentRepository.upsertAll(userEntity.getId(), deployments.subList(0, 1));
+            deployments.forEach(deployment -> deployment.setCreationTimestamp(null));
+
+            // When
+            deploymentRepository.upsertAll(userEntity.getId(), deployments);
+
+            // Then
+            Assertions.assertThat(deploymentRepository.findSummariesByUserId(userEntity.getId()))
+                    .extracting(DeploymentSummary::getCreationTimestamp)
+                    .doesNotContainNull()
+                    .contains(ANY_CREATION_TIMESTAMP);
+        }
+    }
+
+    @Test
+    void givenDeploymentWithoutCreationTimestamp_whenSave_thenItIsStoredWithOneAndPagedAfterCursor() {
+        // Given
+        DeploymentEntity deployment = deployments(ANY_IMAGE).get(0);
+        deployment.setCreationTimestamp(null);
+        deployment.setUser(userEntity);
+        deploymentRepository.upsertAll(userEntity.getId(), deployments(ANY_IMAGE).subList(1, 2));
+
+        // When
+        deploymentRepository.save(deployment);
+        entityManager.flush();
+
+        // Then
+        List<DeploymentSummary> firstPage = deploymentRepository.findPageByUserId(userEntity.getId(),
+                PageRequest.of(0, 1));
+        Assertions.assertThat(firstPage).extracting(DeploymentSummary::getId).containsExactly(deployment.getId());
+        Assertions.assertThat(firstPage.get(0).getCreationTimestamp()).isNotNull();
+        Assertions.assertThat(deploymentRepository.findPageByUserIdAfter(userEntity.getId(),
+                firstPage.get(0).getCreationTimestamp(), firstPage.get(0).getId(), PageRequest.of(0, 1)))
+                .extracting(DeploymentSummary::getDeploymentName).containsExactly("deployment-1");
+    }
+
+    @Test
+    void givenPersistedDeployment_whenSaveSameNaturalKey_thenThrowsConstraintViolation() {
+        // Given
+        deploymentRepository.upsertAll(userEntity.getId(), deployments(ANY_IMAGE).subList(0, 1));
+        DeploymentEntity duplicate = deployments(OTHER_IMAGE).get(0);
+        duplicate.setUser(userEntity);
+
+        // When
+        deploymentRepository.save(duplicate);
+
+        // Then
+        Assertions.assertThatThrownBy(() -> entityManager.flush()).isInstanceOf(PersistenceException.class)
+                .hasCauseInstanceOf(ConstraintViolationException.class);
+    }
+
+    private List<UUID> ids() {
+        return deploymentRepository.findSummariesByUserId(userEntity.getId()).stream()
+                .map(DeploymentSummary::getId)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static List<DeploymentEntity> deployments(String image) {
+        return IntStream.range(0, DEPLOYMENT_COUNT)
+                .mapToObj(i -> DeploymentEntity.builder()
+                        .deploymentName("deployment-" + i)
+                        .appName("deployment-" + i)
+                        .namespace(ANY_NAMESPACE)
+                        .image(image)
+                        .replicas(1)
+                        .apiVersion("apps/v1")
+                        .kind("Deployment")
+                        .creationTimestamp(ANY_CREATION_TIMESTAMP.plusSeconds(i))
+                        .cluster(ChallengeConstant.DEFAULT_CLUSTER)
+                        .build())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,156 @@
+package com.k8s.challenge.repository;
+
+import com.k8s.challenge.entity.TimeOrderedUuidGenerator;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Measures inserting deployments under the former id strategy, random UUIDs stored as strings as the uuid2 generator
+ * made them, and under the current one, UUIDs of {@link TimeOrderedUuidGenerator} stored as 16 bytes. Random UUIDs
+ * stored as 16 bytes are measured as well, to tell the effect of the order from the effect of the size. The tables
+ * have the primary key, the user index and the natural key Hibernate creates for the deployments on H2, and rows are
+ * inserted in JDBC batches of 50, each committed on its own.
+ * <p>
+ * Reports the insert throughput as the table grows, then the size of the database file as the inserts left it, after
+ * compaction, and how much of it each index takes.
+ * <p>
+ * Not a unit test. Run it after {@code mvn test-compile} with
+ * {@code java -cp target/classes:target/test-classes:<dependency classpath>
+ * com.k8s.challenge.repository.IdStrategyBenchmark [maxRowCount]}
+ */
+public final class IdStrategyBenchmark {
+
+    private static final String FILE = "./target/id-strategy-benchmark";
+    private static final int USER_COUNT = 100;
+    private static final int BATCH_SIZE = 50;
+    private static final int REPORT_COUNT = 4;
+    private static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    private IdStrategyBenchmark() {
+    }
+
+    public static void main(String[] args) throws SQLException {
+        long maxRowCount = args.length > 0 ? Long.parseLong(args[0]) : 400_000;
+
+        run("random string", "varchar(255)", () -> UUID.randomUUID().toString(), maxRowCount);
+        run("random binary", "binary(16)", () -> toBytes(UUID.randomUUID()), maxRowCount);
+        run("time ordered binary", "binary(16)", () -> toBytes(TimeOrderedUuidGenerator.next()), maxRowCount);
+    }
+
+    private static void run(String name, String idType, Supplier<Object> ids, long maxRowCount) throws SQLException {
+        String url = "jdbc:h2:" + FILE;
+        System.out.printf("%s ids, %s%n", name, idType);
+        System.out.printf("%10s %14s%n", "table rows", "rows per s");
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            createSchema(connection, idType);
+            Object[] userIds = new Object[USER_COUNT];
+            for (int i = 0; i < USER_COUNT; i++) {
+                userIds[i] = ids.get();
+            }
+            long step = maxRowCount / REPORT_COUNT;
+            for (long rowCount = 0; rowCount < maxRowCount; rowCount += step) {
+                long start = System.nanoTime();
+                insertDeployments(connection, rowCount, rowCount + step, ids, index -> userIds[index]);
+                double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+                System.out.printf("%10d %14.0f%n", rowCount + step, step / seconds);
+            }
+        }
+
+        // As the inserts left it, then only what the rows and each index need
+        double insertedMegabytes = fileMegabytes();
+        compact(url, null);
+        double compactedMegabytes = fileMegabytes();
+        double primaryKeyMegabytes = compactedMegabytes - compact(url, "alter table deployment_entity drop primary key");
+        double naturalKeyMegabytes = compactedMegabytes - primaryKeyMegabytes - compact(url,
+                "alter table deployment_entity drop constraint uk_deployment_user_cluster_namespace_name");
+        double userIndexMegabytes = compactedMegabytes - primaryKeyMegabytes - naturalKeyMegabytes
+                - compact(url, "drop index idx_deployment_user_created");
+        System.out.printf("file MB: %.1f as inserted, %.1f compacted, of which primary key %.1f, natural key %.1f,"
+                        + " user index %.1f%n%n", insertedMegabytes, compactedMegabytes, primaryKeyMegabytes,
+                naturalKeyMegabytes, userIndexMegabytes);
+
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("drop all objects delete files");
+        }
+    }
+
+    /**
+     * @return megabytes of the database file after running the statement, if any, and compacting
+     */
+    private static double compact(String url, String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            if (sql != null) {
+                statement.execute(sql);
+            }
+            statement.execute("shutdown compact");
+        }
+        return fileMegabytes();
+    }
+
+    private static double fileMegabytes() {
+        return new File(FILE + ".mv.db").length() / 1024.0 / 1024.0;
+    }
+
+    private static void createSchema(Connection connection, String idType) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop all objects");
+            statement.execute("create table deployment_entity (id " + idType + " not null, created_by varchar(255),"
+                    + " created_date timestamp, updated_by varchar(255), updated_date timestamp,"
+                    + " api_version varchar(255), app_name varchar(255),"
+                    + " cluster varchar(255) default 'default' not null, creation_timestamp timestamp,"
+                    + " deployment_name varchar(255), image varchar(255), kind varchar(255), namespace varchar(255),"
+                    + " replicas integer, user_id " + idType + " not null, primary key (id))");
+            statement.execute("create index idx_deployment_user_created"
+                    + " on deployment_entity (user_id, creation_timestamp desc, id desc)");
+            statement.execute("alter table deployment_entity add constraint uk_deployment_user_cluster_namespace_name"
+                    + " unique (user_id, cluster, namespace, deployment_name)");
+        }
+    }
+
+    /**
+     * Deployments are spread round robin over users, one per second, in the order the application would create them.
+     */
+    private static void insertDeployments(Connection connection, long from, long to, Supplier<Object> ids,
+                                          Function<Integer, Object> userIds) throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement("insert into deployment_entity (id,"
+                + " api_version, app_name, cluster, creation_timestamp, deployment_name, image, kind, namespace,"
+                + " replicas, user_id) values (?, 'apps/v1', ?, 'default', ?, ?, 'nginx', 'Deployment', 'default', 2,"
+                + " ?)")) {
+            for (long x = from; x < to; x++) {
+                statement.setObject(1, ids.get());
+                statement.setString(2, "deployment-" + x);
+                statement.setTimestamp(3, Timestamp.valueOf(START.plusSeconds(x)));
+                statement.setString(4, "deployment-" + x);
+                statement.setObject(5, userIds.apply((int) (x % USER_COUNT)));
+                statement.addBatch();
+                if ((x + 1) % BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                    connection.commit();
+                }
+            }
+            statement.executeBatch();
+            connection.commit();
+        }
+    }
+
+    private static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+}
@@ -0,0 +1,111 @@
+package com.k8s.challenge.repository;
+
+import com.k8s.challenge.constant.OperationStatus;
+import com.k8s.challenge.constant.OperationType;
+import com.k8s.challenge.entity.OperationEntity;
+import com.k8s.challenge.entity.UserEntity;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+
+@DataJpaTest
+public class OperationRepositoryTest {
+
+    private static final String ANY_USER_NAME = "anyUserName";
+    private static final String ANY_MESSAGE = "anyMessage";
+    private static final LocalDateTime NOW = LocalDateTime.of(2020, 1, 1, 0, 0);
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private OperationRepository operationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private UserEntity userEntity;
+
+    @BeforeEach
+    void init() {
+        userEntity = userRepository.save(UserEntity.builder()
+                .name(ANY_USER_NAME)
+                .userName(ANY_USER_NAME)
+                .password(ANY_USER_NAME)
+                .build());
+    }
+
+    @Test
+    void givenExpiredLeaseWithAttemptsLeft_whenClaimOperation_thenOperationIsTakenUpAgain() {
+        // Given
+        OperationEntity operation = saveRunningOperation(MAX_ATTEMPTS - 1);
+
+        // When
+        int claimed = operationRepository.claimOperation(operation.getId(), OperationStatus.PENDING,
+                OperationStatus.RUNNING, NOW, NOW.plusMinutes(2), MAX_ATTEMPTS);
+
+        // Then
+        Assertions.assertThat(claimed).isEqualTo(1);
+        entityManager.clear();
+        Assertions.assertThat(operationRepository.findById(operation.getId()).get().getAttempts())
+                .isEqualTo(MAX_ATTEMPTS);
+    }
+
+    @Test
+    void givenExpiredLeaseOfLastAttempt_whenClaimOperation_thenOperationIsNotTakenUpAgain() {
+        // Given
+        OperationEntity operation = saveRunningOperation(MAX_ATTEMPTS);
+
+        // When
+        int claimed = operationRepository.claimOperation(operation.getId(), OperationStatus.PENDING,
+                OperationStatus.RUNNING, NOW, NOW.plusMinutes(2), MAX_ATTEMPTS);
+
+        // Then
+        Assertions.assertThat(claimed).isZero();
+        Assertions.assertThat(operationRepository.findDueOperationIds(OperationType.CREATE_DEPLOYMENT,
+                OperationStatus.PENDING, OperationStatus.RUNNING, NOW, MAX_ATTEMPTS, PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    void givenExpiredLeaseOfLastAttempt_whenFailExhaustedOperations_thenOperationFails() {
+        // Given
+        OperationEntity exhausted = saveRunningOperation(MAX_ATTEMPTS);
+        OperationEntity retried = saveRunningOperation(MAX_ATTEMPTS - 1);
+
+        // When
+        int failed = operationRepository.failExhaustedOperations(OperationType.CREATE_DEPLOYMENT,
+                OperationStatus.RUNNING, OperationStatus.FAILED, NOW, MAX_ATTEMPTS, ANY_MESSAGE);
+
+        // Then
+        Assertions.assertThat(failed).isEqualTo(1);
+        entityManager.clear();
+        OperationEntity failedOperation = operationRepository.findById(exhausted.getId()).get();
+        Assertions.assertThat(failedOperation.getStatus()).isEqualTo(OperationStatus.FAILED);
+        Assertions.assertThat(failedOperation.getFailed()).isEqualTo(1);
+        Assertions.assertThat(failedOperation.getMessage()).isEqualTo(ANY_MESSAGE);
+        Assertions.assertThat(failedOperation.getLeaseExpiresAt()).isNull();
+        Assertions.assertThat(operationRepository.findById(retried.getId()).get().getStatus())
+                .isEqualTo(OperationStatus.RUNNING);
+    }
+
+    private OperationEntity saveRunningOperation(int attempts) {
+        OperationEntity operation = operationRepository.save(OperationEntity.builder()
+                .type(OperationType.CREATE_DEPLOYMENT)
+                .status(OperationStatus.RUNNING)
+                .total(1)
+                .attempts(attempts)
+                .nextAttemptAt(NOW.minusMinutes(3))
+                .leaseExpiresAt(NOW.minusMinutes(1))
+                .user(userEntity)
+                .build());
+        entityManager.flush();
+        return operation;
+    }
+}
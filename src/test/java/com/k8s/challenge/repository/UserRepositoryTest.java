@@ -0,0 +1,89 @@
+package com.k8s.challenge.repository;
+
+import com.google.common.collect.ImmutableSet;
+import com.k8s.challenge.entity.AuthorizationEntity;
+import com.k8s.challenge.entity.UserEntity;
+import org.assertj.core.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import javax.persistence.EntityManagerFactory;
+
+import static com.k8s.challenge.constant.ChallengeConstant.ROLE_USER;
+
+/**
+ * Counts the statements Hibernate prepares to resolve the principal of a request while the users sharing its role
+ * grow.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class UserRepositoryTest {
+
+    private static final String ANY_USER_NAME = "anyUserName";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuthorizationRepository authorizationRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private AuthorizationEntity roleUser;
+    private Statistics statistics;
+
+    @BeforeEach
+    void init() {
+        roleUser = authorizationRepository.save(AuthorizationEntity.builder().auth(ROLE_USER).build());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void givenMoreUsersSharingRole_whenFindWithAuthorizationsByUserName_thenStatementsAndLoadsStayTheSame() {
+        // Given
+        saveUsers(0, 10);
+        long[] fewUsers = resolvePrincipal();
+        saveUsers(10, 1000);
+
+        // When
+        long[] manyUsers = resolvePrincipal();
+
+        // Then
+        Assertions.assertThat(fewUsers).containsExactly(1, 2);
+        Assertions.assertThat(manyUsers).containsExactly(fewUsers);
+    }
+
+    /**
+     * @return the statements prepared and the entities loaded to resolve the principal from a fresh session
+     */
+    private long[] resolvePrincipal() {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        UserEntity userEntity = userRepository.findWithAuthorizationsByUserName(ANY_USER_NAME + 0).orElseThrow(
+                IllegalStateException::new);
+        Assertions.assertThat(userEntity.getAuthorizations()).extracting(AuthorizationEntity::getAuth)
+                .containsExactly(ROLE_USER);
+        return new long[]{statistics.getPrepareStatementCount(), statistics.getEntityLoadCount()};
+    }
+
+    private void saveUsers(int from, int to) {
+        for (int i = from; i < to; i++) {
+            userRepository.save(UserEntity.builder()
+                    .name(ANY_USER_NAME + i)
+                    .userName(ANY_USER_NAME + i)
+                    .password(ANY_USER_NAME + i)
+                    .authorizations(ImmutableSet.of(roleUser))
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.k8s.challenge.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class BulkheadTest {
+
+    private static final String ANY_NAME = "anyName";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private Bulkhead bulkhead;
+
+    @BeforeEach
+    void init() {
+        bulkhead = new Bulkhead(ANY_NAME, new Bulkhead.Limits(1, 1), meterRegistry);
+    }
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        bulkhead.shutdown();
+    }
+
+    @Test
+    void givenThreadBusyAndQueueFull_whenExecute_thenRejectsAndCountsRejection() throws InterruptedException {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        bulkhead.execute(() -> {
+            started.countDown();
+            awaitRelease();
+        });
+        Assertions.assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        bulkhead.execute(this::awaitRelease);
+
+        // When
+        // Then
+        Assertions.assertThatThrownBy(() -> bulkhead.execute(this::awaitRelease))
+                .isInstanceOf(RejectedExecutionException.class)
+                .hasMessageContaining(ANY_NAME);
+        Assertions.assertThat(meterRegistry.counter("bulkhead.rejected", "bulkhead", ANY_NAME).count()).isEqualTo(1);
+    }
+
+    @Test
+    void givenBulkheadIsFull_whenCallIsEnqueuedOnItsDispatcher_thenCallFailsWithRejection() throws Exception {
+        // Given
+        bulkhead.execute(this::awaitRelease);
+        bulkhead.execute(this::awaitRelease);
+        OkHttpClient httpClient = new OkHttpClient.Builder().dispatcher(bulkhead.dispatcher()).build();
+        CompletableFuture<IOException> failure = new CompletableFuture<>();
+
+        // When
+        httpClient.newCall(new Request.Builder().url("https://127.0.0.1/apis").build()).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException ex) {
+                failure.complete(ex);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                response.close();
+                failure.complete(null);
+            }
+        });
+
+        // Then
+        Assertions.assertThat(Bulkhead.rejectionOf(failure.get(5, TimeUnit.SECONDS))).isNotNull();
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
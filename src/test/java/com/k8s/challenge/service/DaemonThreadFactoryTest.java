@@ -0,0 +1,24 @@
+package com.k8s.challenge.service;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DaemonThreadFactoryTest {
+
+    @Test
+    void givenName_whenNewThread_thenCreatesNumberedDaemonThreads() {
+        // Given
+        DaemonThreadFactory daemonThreadFactory = new DaemonThreadFactory("anyPool");
+
+        // When
+        Thread first = daemonThreadFactory.newThread(() -> {
+        });
+        Thread second = daemonThreadFactory.newThread(() -> {
+        });
+
+        // Then
+        Assertions.assertThat(first.isDaemon()).isTrue();
+        Assertions.assertThat(first.getName()).isEqualTo("anyPool-1");
+        Assertions.assertThat(second.getName()).isEqualTo("anyPool-2");
+    }
+}
@@ -0,0 +1,117 @@
+package com.k8s.challenge.service;
+
+import com.k8s.challenge.constant.ChallengeConstant;
+import com.k8s.challenge.objectfactory.V1DeploymentFactory;
+import io.kubernetes.client.informer.SharedIndexInformer;
+import io.kubernetes.client.informer.SharedInformerFactory;
+import io.kubernetes.client.informer.cache.Cache;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class DeploymentCacheServiceTest {
+
+    private static final String ANY_USER_NAME = "anyUserName";
+    private static final String OTHER_USER_NAME = "otherUserName";
+    private static final String ANY_NAMESPACE = "anyNamespace";
+    private static final String OTHER_NAMESPACE = "otherNamespace";
+
+    private DeploymentCacheService deploymentCacheService;
+
+    @Mock
+    private SharedInformerFactory sharedInformerFactory;
+
+    @Mock
+    private SharedIndexInformer<V1Deployment> deploymentInformer;
+
+    private Cache<V1Deployment> cache;
+
+    @BeforeEach
+    void init() {
+        MockitoAnnotations.openMocks(this);
+        deploymentCacheService = new DeploymentCacheService(sharedInformerFactory, deploymentInformer);
+
+        cache = new Cache<>();
+        cache.addIndexers(DeploymentCacheService.indexers());
+        Mockito.when(deploymentInformer.getIndexer()).thenReturn(cache);
+
+        cache.add(createDeployment("first", ANY_NAMESPACE, ANY_USER_NAME));
+        cache.add(createDeployment("second", OTHER_NAMESPACE, ANY_USER_NAME));
+        cache.add(createDeployment("third", ANY_NAMESPACE, OTHER_USER_NAME));
+        cache.add(createDeployment("unlabeled", ANY_NAMESPACE, null));
+    }
+
+    @Nested
+    class ListDeployments {
+
+        @Test
+        void givenUserNameAndNullNamespace_whenListDeployments_thenReturnsDeploymentsOfUserInAllNamespaces() {
+            // When
+            List<V1Deployment> deployments = deploymentCacheService.listDeployments(null, ANY_USER_NAME);
+
+            // Then
+            Assertions.assertThat(deployments).extracting(deployment -> deployment.getMetadata().getName())
+                    .containsExactlyInAnyOrder("first", "second");
+        }
+
+        @Test
+        void givenUserNameAndNamespace_whenListDeployments_thenReturnsDeploymentsOfUserInNamespace() {
+            // When
+            List<V1Deployment> deployments = deploymentCacheService.listDeployments(ANY_NAMESPACE, ANY_USER_NAME);
+
+            // Then
+            Assertions.assertThat(deployments).extracting(deployment -> deployment.getMetadata().getName())
+                    .containsExactly("first");
+        }
+
+        @Test
+        void givenUnknownUserName_whenListDeployments_thenReturnsEmptyList() {
+            // When
+            List<V1Deployment> deployments = deploymentCacheService.listDeployments(ANY_NAMESPACE, "unknownUserName");
+
+            // Then
+            Assertions.assertThat(deployments).isEmpty();
+        }
+    }
+
+    @Test
+    void givenNamespaceAndName_whenGetDeployment_thenReturnsCachedDeployment() {
+        // When
+        V1Deployment deployment = deploymentCacheService.getDeployment(OTHER_NAMESPACE, "second");
+
+        // Then
+        Assertions.assertThat(deployment.getMetadata().getName()).isEqualTo("second");
+        Assertions.assertThat(deploymentCacheService.getDeployment(OTHER_NAMESPACE, "first")).isNull();
+    }
+
+    @Test
+    void givenInformer_whenHasSynced_thenDelegatesToInformer() {
+        // Given
+        Mockito.when(deploymentInformer.hasSynced()).thenReturn(true);
+        // When
+        boolean synced = deploymentCacheService.hasSynced();
+        // Then
+        Assertions.assertThat(synced).isTrue();
+    }
+
+    private V1Deployment createDeployment(String name, String namespace, String userName) {
+        V1Deployment v1Deployment = V1DeploymentFactory.createV1Deployment();
+        v1Deployment.getMetadata().setName(name);
+        v1Deployment.getMetadata().setNamespace(namespace);
+        if (userName != null) {
+            Map<String, String> labels = new HashMap<>();
+            labels.put(ChallengeConstant.USER_NAME_LABEL, userName);
+            v1Deployment.getMetadata().setLabels(labels);
+        }
+        return v1Deployment;
+    }
+}
@@ -0,0 +1,341 @@
+package com.k8s.challenge.service;
+
+import com.k8s.challenge.constant.ChallengeConstant;
+import com.k8s.challenge.resource.DeploymentChangeFeedResource;
+import com.k8s.challenge.resource.DeploymentChangeResource;
+import com.k8s.challenge.resource.DeploymentResource;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.openapi.models.V1DeploymentBuilder;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.convert.ConversionService;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+public class DeploymentChangeFeedServiceTest {
+
+    private static final long INITIAL_CURSOR = 100L;
+    private static final String ANY_USER_NAME = "anyUserName";
+    private static final String OTHER_USER_NAME = "otherUserName";
+    private static final String ANY_NAMESPACE = "anyNamespace";
+    private static final Duration IDLE_FEED_TTL = Duration.ofMinutes(10);
+
+    private DeploymentChangeFeedService deploymentChangeFeedService;
+    private DeploymentChangeFeedService.Settings settings;
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    @Mock
+    private ConversionService conversionService;
+
+    @Mock
+    private ScheduledExecutorService pollTimeoutScheduler;
+
+    @BeforeEach
+    void init() {
+        MockitoAnnotations.openMocks(this);
+        settings = new DeploymentChangeFeedService.Settings();
+        settings.setRetainedChanges(2);
+        settings.setMaxPendingChanges(3);
+        settings.setPollTimeout(Duration.ofSeconds(25));
+        settings.setIdleFeedTtl(IDLE_FEED_TTL);
+        deploymentChangeFeedService = new DeploymentChangeFeedService(conversionService, settings, INITIAL_CURSOR,
+                pollTimeoutScheduler, Runnable::run, nanoTime::get);
+        Mockito.when(conversionService.convert(Mockito.any(V1Deployment.class), Mockito.eq(DeploymentResource.class)))
+                .thenAnswer(invocation -> DeploymentResource.builder()
+                        .name(invocation.getArgument(0, V1Deployment.class).getMetadata().getName())
+                        .build());
+    }
+
+    @Nested
+    class PollChanges {
+
+        @Test
+        void givenChangesAfterCursor_whenPollChanges_thenReturnsThemImmediately() {
+            // Given
+            deploymentChangeFeedService.onAdd(createDeployment("first", ANY_USER_NAME, "1"));
+            deploymentChangeFeedService.onAdd(createDeployment("second", ANY_USER_NAME, "2"));
+
+            // When
+            DeploymentChangeFeedResource feed = deploymentChangeFeedService
+                    .pollChanges(ANY_USER_NAME, INITIAL_CURSOR + 1).join();
+
+            // Then
+            Assertions.assertThat(feed.isReset()).isFalse();
+            Assertions.assertThat(feed.getCursor()).isEqualTo(INITIAL_CURSOR + 2);
+            Assertions.assertThat(feed.getChanges()).hasSize(1);
+            DeploymentChangeResource change = feed.getChanges().get(0);
+            Assertions.assertThat(change.getCursor()).isEqualTo(INITIAL_CURSOR + 2);
+            Assertions.assertThat(change.getType()).isEqualTo(DeploymentChangeFeedService.ADDED);
+            Assertions.assertThat(change.getDeployment().getName()).isEqualTo("second");
+            Assertions.assertThat(change.getDeployment().getCluster()).isEqualTo(ChallengeConstant.DEFAULT_CLUSTER);
+        }
+
+        @Test
+        void givenCursorOfEvictedChange_whenPollChanges_thenReturnsReset() {
+            // Given
+            deploymentChangeFeedService.onAdd(createDeployment("first", ANY_USER_NAME, "1"));
+            deploymentChangeFeedService.onAdd(createDeployment("second", ANY_USER_NAME, "2"));
+            deploymentChangeFeedService.onAdd(createDeployment("third", ANY_USER_NAME, "3"));
+
+            // When
+            DeploymentChangeFeedResource feed = deploymentChangeFeedService
+                    .pollChanges(ANY_USER_NAME, INITIAL_CURSOR).join();
+
+            // Then
+            Assertions.assertThat(feed.isReset()).isTrue();
+            Assertions.assertThat(feed.getCursor()).isEqualTo(INITIAL_CURSOR + 3);
+            Assertions.assertThat(feed.getChanges()).isEmpty();
+        }
+
+        @Test
+        void givenCursorFromBeforeStart_whenPollChanges_thenReturnsReset() {
+            // When
+            DeploymentChangeFeedResource feed = deploymentChangeFeedService
+                    .pollChanges(ANY_USER_NAME, INITIAL_CURSOR - 1).join();
+
+            // Then
+            Assertions.assertThat(feed.isReset()).isTrue();
+            Assertions.assertThat(feed.getCursor()).isEqualTo(INITIAL_CURSOR);
+        }
+
+        @Test
+        void givenNoChangesAfterCursor_whenChangeIsPublished_thenCompletesWaitingPoll() {
+            // Given
+            CompletableFuture<DeploymentChangeFeedResource> poll =
+                    deploymentChangeFeedService.pollChanges(ANY_USER_NAME, INITIAL_CURSOR);
+            Assertions.assertThat(poll).isNotDone();
+
+            // When
+            deploymentChangeFeedService.onAdd(createDeployment("first", ANY_USER_NAME, "1"));
+
+            // Then
+            Assertions.assertThat(poll).isDone();
+            Assertions.assertThat(poll.join().getCursor()).isEqualTo(INITIAL_CURSOR + 1);
+            Assertions.assertThat(poll.join().getChanges()).hasSize(1);
+        }
+
+        @Test
+        void givenNoChangesAfterCursor_whenPollTimeoutPasses_thenCompletesWithoutChanges() {
+            // Given
+            CompletableFuture<DeploymentChangeFeedResource> poll =
+                    deploymentChangeFeedService.pollChanges(ANY_USER_NAME, INITIAL_CURSOR);
+            deploymentChangeFeedService.onAdd(createDeployment("first", OTHER_USER_NAME, "1"));
+            ArgumentCaptor<Runnable> timeout = ArgumentCaptor.forClass(Runnable.class);
+            Mockito.verify(pollTimeoutScheduler).schedule(timeout.capture(), Mockito.eq(25000L),
+                    Mockito.eq(TimeUnit.MILLISECONDS));
+            Assertions.assertThat(poll).isNotDone();
+
+            // When
+            timeout.getValue().run();
+
+            // Then
+            Assertions.assertThat(poll.join().isReset()).isFalse();
+            Assertions.assertThat(poll.join().getChanges()).isEmpty();
+            Assertions.assertThat(poll.join().getCursor()).isEqualTo(INITIAL_CURSOR + 1);
+        }
+    }
+
+    @Nested
+    class Subscribe {
+
+        @Test
+        void givenCursor_whenSubscribe_thenReplaysMissedChangesFollowedByNewOnes() {
+            // Given
+            deploymentChangeFeedService.onAdd(createDeployment("first", ANY_USER_NAME, "1"));
+            deploymentChangeFeedService.onAdd(createDeployment("second", ANY_USER_NAME, "2"));
+            List<DeploymentChangeResource> sentChanges = new ArrayList<>();
+
+            // When
+            deploymentChangeFeedService.subscribe(ANY_USER_NAME, INITIAL_CURSOR + 1, sink(sentChanges));
+            deploymentChangeFeedService.onDelete(createDeployment("second", ANY_USER_NAME, "3"), false);
+
+            // Then
+            Assertions.assertThat(sentChanges.stream().map(DeploymentChangeResource::getType)
+                    .collect(Collectors.toList()))
+                    .containsExactly(DeploymentChangeFeedService.ADDED, DeploymentChangeFeedService.DELETED);
+            Assertions.assertThat(sentChanges.stream().map(DeploymentChangeResource::getCursor)
+                    .collect(Collectors.toList()))
+                    .containsExactly(INITIAL_CURSOR + 2, INITIAL_CURSOR + 3);
+        }
+
+        @Test
+        void givenNoCursor_whenSubscribe_thenStartsWithReset() {
+            // Given
+            deploymentChangeFeedService.onAdd(createDeployment("first", ANY_USER_NAME, "1"));
+            List<DeploymentChangeResource> sentChanges = new ArrayList<>();
+
+            // When
+            deploymentChangeFeedService.subscribe(ANY_USER_NAME, null, sink(sentChanges));
+
+            // Then
+            Assertions.assertThat(sentChanges).hasSize(1);
+            Assertions.assertThat(sentChanges.get(0).getType()).isEqualTo(DeploymentChangeFeedService.RESET);
+            Assertions.assertThat(sentChanges.get(0).getCursor()).isEqualTo(INITIAL_CURSOR + 1);
+        }
+
+        @Test
+        void givenOtherUsersChangeAndResync_whenSubscribed_thenNothingIsSent() {
+            // Given
+            List<DeploymentChangeResource> sentChanges = new ArrayList<>();
+            deploymentChangeFeedService.subscribe(ANY_USER_NAME, INITIAL_CURSOR, sink(sentChanges));
+            V1Deployment deployment = createDeployment("first", ANY_USER_NAME, "1");
+
+            // When
+            deploymentChangeFeedService.onAdd(createDeployment("other", OTHER_USER_NAME, "2"));
+            deploymentChangeFeedService.onUpdate(deployment, createDeployment("first", ANY_USER_NAME, "1"));
+
+            // Then
+            Assertions.assertThat(sentChanges).isEmpty();
+        }
+
+        @Test
+        void givenSinkFails_whenChangeIsPublished_thenSubscriptionIsClosed() {
+            // Given
+            List<DeploymentChangeResource> sentChanges = new ArrayList<>();
+            boolean[] closed = new boolean[1];
+            deploymentChangeFeedService.subscribe(ANY_USER_NAME, INITIAL_CURSOR,
+                    new DeploymentChangeFeedService.ChangeSink() {
+                        @Override
+                        public void send(DeploymentChangeResource change) throws IOException {
+                            sentChanges.add(change);
+                            throw new IOException("Broken pipe");
+                        }
+
+                        @Override
+                        public void close() {
+                            closed[0] = true;
+                        }
+                    });
+
+            // When
+            deploymentChangeFeedService.onAdd(createDeployment("first", ANY_USER_NAME, "1"));
+            deploymentChangeFeedService.onAdd(createDeployment("second", ANY_USER_NAME, "2"));
+
+            // Then
+            Assertions.assertThat(closed[0]).isTrue();
+            Assertions.assertThat(sentChanges).hasSize(1);
+        }
+
+        @Test
+        void givenDispatchExecutorFull_whenChangeIsPublished_thenSubscriptionIsClosed() {
+            // Given
+            deploymentChangeFeedService = new DeploymentChangeFeedService(conversionService, settings, INITIAL_CURSOR,
+                    pollTimeoutScheduler, runnable -> {
+                        throw new RejectedExecutionException("Bulkhead change-feed is full");
+                    }, nanoTime::get);
+            List<DeploymentChangeResource> sentChanges = new ArrayList<>();
+            boolean[] closed = new boolean[1];
+            deploymentChangeFeedService.subscribe(ANY_USER_NAME, INITIAL_CURSOR,
+                    new DeploymentChangeFeedService.ChangeSink() {
+                        @Override
+                        public void send(DeploymentChangeResource change) {
+                            sentChanges.add(change);
+                        }
+
+                        @Override
+                        public void close() {
+                            closed[0] = true;
+                        }
+                    });
+
+            // When
+            deploymentChangeFeedService.onAdd(createDeployment("first", ANY_USER_NAME, "1"));
+
+            // Then
+            Assertions.assertThat(closed[0]).isTrue();
+            Assertions.assertThat(sentChanges).isEmpty();
+        }
+    }
+
+    @Nested
+    class EvictIdleFeeds {
+
+        @Test
+        void givenFeedIdleForLongerThanTtl_whenEvictIdleFeeds_thenResumingClientIsReset() {
+            // Given
+            deploymentChangeFeedService.pollChanges(ANY_USER_NAME, null).join();
+            deploymentChangeFeedService.onAdd(createDeployment("first", ANY_USER_NAME, "1"));
+            nanoTime.addAndGet(IDLE_FEED_TTL.toNanos());
+
+            // When
+            deploymentChangeFeedService.evictIdleFeeds();
+
+            // Then
+            DeploymentChangeFeedResource feed = deploymentChangeFeedService
+                    .pollChanges(ANY_USER_NAME, INITIAL_CURSOR).join();
+            Assertions.assertThat(feed.isReset()).isTrue();
+            Assertions.assertThat(feed.getCursor()).isEqualTo(INITIAL_CURSOR + 1);
+        }
+
+        @Test
+        void givenFeedAccessedWithinTtl_whenEvictIdleFeeds_thenKeepsChanges() {
+            // Given
+            deploymentChangeFeedService.onAdd(createDeployment("first", ANY_USER_NAME, "1"));
+            nanoTime.addAndGet(IDLE_FEED_TTL.toNanos() - 1);
+
+            // When
+            deploymentChangeFeedService.evictIdleFeeds();
+
+            // Then
+            DeploymentChangeFeedResource feed = deploymentChangeFeedService
+                    .pollChanges(ANY_USER_NAME, INITIAL_CURSOR).join();
+            Assertions.assertThat(feed.isReset()).isFalse();
+            Assertions.assertThat(feed.getChanges()).hasSize(1);
+        }
+
+        @Test
+        void givenSubscribedFeedIdleForLongerThanTtl_whenEvictIdleFeeds_thenSubscriberKeepsGettingChanges() {
+            // Given
+            List<DeploymentChangeResource> sentChanges = new ArrayList<>();
+            deploymentChangeFeedService.subscribe(ANY_USER_NAME, INITIAL_CURSOR, sink(sentChanges));
+            nanoTime.addAndGet(IDLE_FEED_TTL.toNanos());
+
+            // When
+            deploymentChangeFeedService.evictIdleFeeds();
+            deploymentChangeFeedService.onAdd(createDeployment("first", ANY_USER_NAME, "1"));
+
+            // Then
+            Assertions.assertThat(sentChanges).extracting(change -> change.getDeployment().getName())
+                    .containsExactly("first");
+        }
+    }
+
+    private static DeploymentChangeFeedService.ChangeSink sink(List<DeploymentChangeResource> sentChanges) {
+        return new DeploymentChangeFeedService.ChangeSink() {
+            @Override
+            public void send(DeploymentChangeResource change) {
+                sentChanges.add(change);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static V1Deployment createDeployment(String name, String userName, String resourceVersion) {
+        return new V1DeploymentBuilder()
+                .withNewMetadata()
+                .withName(name)
+                .withNamespace(ANY_NAMESPACE)
+                .withResourceVersion(resourceVersion)
+                .addToLabels(ChallengeConstant.USER_NAME_LABEL, userName)
+                .endMetadata()
+                .build();
+    }
+}
@@ -0,0 +1,362 @@
+package com.k8s.challenge.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.k8s.challenge.constant.ChallengeConstant;
+import com.k8s.challenge.constant.OperationStatus;
+import com.k8s.challenge.constant.OperationType;
+import com.k8s.challenge.dto.CreateDeploymentDto;
+import com.k8s.challenge.entity.OperationEntity;
+import com.k8s.challenge.entity.UserEntity;
+import com.k8s.challenge.exception.BadRequestException;
+import com.k8s.challenge.repository.OperationRepository;
+import com.k8s.challenge.resource.OperationResource;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.ThrowableAssert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+
+public class DeploymentCreationQueueServiceTest {
+
+    private static final String ANY_USER_NAME = "anyUserName";
+    private static final String ANY_NAMESPACE = "anyNamespace";
+    private static final String ANY_NAME = "anyName";
+    private static final UUID ANY_OPERATION_ID = UUID.fromString("0186b8e0-2f4c-7a3d-9b1e-5c6d7e8f9a0b");
+    private static final UUID OTHER_OPERATION_ID = UUID.fromString("0186b8e0-2f4d-7b2c-8a0f-4e5d6c7b8a9f");
+    private static final Instant NOW = Instant.parse("2020-12-01T10:00:00Z");
+    private static final LocalDateTime LOCAL_NOW = LocalDateTime.ofInstant(NOW, ZoneOffset.UTC);
+
+    private DeploymentCreationQueueService deploymentCreationQueueService;
+    private DeploymentCreationQueueService.Settings settings;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private OperationRepository operationRepository;
+
+    @Mock
+    private OperationService operationService;
+
+    @Mock
+    private DeploymentService deploymentService;
+
+    @Mock
+    private KubernetesClientService kubernetesClientService;
+
+    @Mock
+    private ConversionService conversionService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ScheduledExecutorService dispatchScheduler;
+
+    @BeforeEach
+    void init() {
+        MockitoAnnotations.openMocks(this);
+        settings = new DeploymentCreationQueueService.Settings();
+        KubernetesClusterRegistry kubernetesClusterRegistry = new KubernetesClusterRegistry()
+                .register(ChallengeConstant.DEFAULT_CLUSTER, kubernetesClientService, Duration.ofSeconds(10));
+        deploymentCreationQueueService = new DeploymentCreationQueueService(operationRepository, operationService,
+                deploymentService, kubernetesClusterRegistry, conversionService, objectMapper, transactionTemplate,
+                settings, Clock.fixed(NOW, ZoneOffset.UTC), dispatchScheduler, Runnable::run);
+        Mockito.when(transactionTemplate.execute(Mockito.any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        Mockito.when(conversionService.convert(Mockito.any(CreateDeploymentDto.class), Mockito.eq(V1Deployment.class)))
+                .thenReturn(new V1Deployment());
+    }
+
+    @Nested
+    class Enqueue {
+
+        @Test
+        void givenCreateDeploymentDto_whenEnqueue_thenStoresRequestAsPendingOperation() throws Exception {
+            // Given
+            OperationResource operation = OperationResource.builder().id(ANY_OPERATION_ID).build();
+            Mockito.when(operationService.enqueueOperation(Mockito.eq(ANY_USER_NAME),
+                    Mockito.eq(OperationType.CREATE_DEPLOYMENT), Mockito.eq(ChallengeConstant.DEFAULT_CLUSTER),
+                    Mockito.eq(ANY_NAMESPACE), Mockito.eq(ANY_NAME), Mockito.anyString())).thenReturn(operation);
+
+            // When
+            OperationResource queuedOperation = deploymentCreationQueueService.enqueue(ANY_USER_NAME,
+                    createDeploymentDto(null));
+
+            // Then
+            Assertions.assertThat(queuedOperation).isSameAs(operation);
+            ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+            Mockito.verify(operationService).enqueueOperation(Mockito.any(), Mockito.any(), Mockito.any(),
+                    Mockito.any(), Mockito.any(), payload.capture());
+            Assertions.assertThat(objectMapper.readValue(payload.getValue(), CreateDeploymentDto.class))
+                    .usingRecursiveComparison().isEqualTo(createDeploymentDto(null));
+            Mockito.verify(dispatchScheduler).execute(Mockito.any());
+        }
+
+        @Test
+        void givenUnknownCluster_whenEnqueue_thenThrowsBadRequestException() {
+            // When
+            ThrowableAssert.ThrowingCallable throwingCallable = () ->
+                    deploymentCreationQueueService.enqueue(ANY_USER_NAME, createDeploymentDto("unknownCluster"));
+
+            // Then
+            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(BadRequestException.class);
+            Mockito.verifyNoInteractions(operationService);
+        }
+    }
+
+    @Nested
+    class Dispatch {
+
+        @Test
+        void givenDueOperations_whenDispatch_thenCreatesDeploymentsOfClaimedOperationsOnly() throws Exception {
+            // Given
+            Mockito.when(operationRepository.findDueOperationIds(OperationType.CREATE_DEPLOYMENT,
+                    OperationStatus.PENDING, OperationStatus.RUNNING, LOCAL_NOW, settings.getMaxAttempts(),
+                    PageRequest.of(0, settings.getWorkers())))
+                    .thenReturn(Arrays.asList(ANY_OPERATION_ID, OTHER_OPERATION_ID));
+            Mockito.when(operationRepository.claimOperation(ANY_OPERATION_ID, OperationStatus.PENDING,
+                    OperationStatus.RUNNING, LOCAL_NOW, LOCAL_NOW.plus(settings.getLease()), settings.getMaxAttempts()))
+                    .thenReturn(1);
+            Mockito.when(operationRepository.claimOperation(OTHER_OPERATION_ID, OperationStatus.PENDING,
+                    OperationStatus.RUNNING, LOCAL_NOW, LOCAL_NOW.plus(settings.getLease()), settings.getMaxAttempts()))
+                    .thenReturn(0);
+            givenClaimedOperation(1);
+
+            // When
+            deploymentCreationQueueService.dispatch();
+
+            // Then
+            Mockito.verify(kubernetesClientService).createDeployment(Mockito.eq(ANY_NAMESPACE),
+                    Mockito.any(V1Deployment.class), Mockito.isNull(), Mockito.isNull(), Mockito.eq(ANY_USER_NAME));
+            Mockito.verify(deploymentService).persistDeployment(Mockito.eq(ANY_USER_NAME), Mockito.isNull(),
+                    Mockito.any());
+            Mockito.verify(operationService).completeOperation(ANY_OPERATION_ID, 1, 0, null);
+            Mockito.verify(operationRepository, Mockito.never()).findWithUserById(OTHER_OPERATION_ID);
+        }
+
+        @Test
+        void givenServerErrorBeforeMaxAttempts_whenDispatch_thenRetriesWithBackoff() throws Exception {
+            // Given
+            givenDueOperation();
+            givenClaimedOperation(2);
+            Mockito.when(kubernetesClientService.createDeployment(Mockito.any(), Mockito.any(), Mockito.any(),
+                    Mockito.any(), Mockito.any())).thenThrow(new ApiException(503, "Unavailable"));
+
+            // When
+            deploymentCreationQueueService.dispatch();
+
+            // Then
+            Mockito.verify(operationService).retryOperation(Mockito.eq(ANY_OPERATION_ID),
+                    Mockito.eq(LOCAL_NOW.plusSeconds(2)), Mockito.anyString());
+            Mockito.verify(operationService, Mockito.never()).completeOperation(Mockito.any(), Mockito.anyInt(),
+                    Mockito.anyInt(), Mockito.any());
+        }
+
+        @Test
+        void givenServerErrorOnLastAttempt_whenDispatch_thenOperationFails() throws Exception {
+            // Given
+            givenDueOperation();
+            givenClaimedOperation(settings.getMaxAttempts());
+            Mockito.when(kubernetesClientService.createDeployment(Mockito.any(), Mockito.any(), Mockito.any(),
+                    Mockito.any(), Mockito.any())).thenThrow(new ApiException(503, "Unavailable"));
+
+            // When
+            deploymentCreationQueueService.dispatch();
+
+            // Then
+            Mockito.verify(operationService).completeOperation(Mockito.eq(ANY_OPERATION_ID), Mockito.eq(0),
+                    Mockito.eq(1), Mockito.anyString());
+            Mockito.verify(operationService, Mockito.never()).retryOperation(Mockito.any(), Mockito.any(),
+                    Mockito.any());
+        }
+
+        @Test
+        void givenRejectedRequest_whenDispatch_thenOperationFailsWithoutRetry() throws Exception {
+            // Given
+            givenDueOperation();
+            givenClaimedOperation(1);
+            Mockito.when(kubernetesClientService.createDeployment(Mockito.any(), Mockito.any(), Mockito.any(),
+                    Mockito.any(), Mockito.any()))
+                    .thenThrow(new ApiException("Unprocessable", 422, Collections.emptyMap(), "invalid spec"));
+
+            // When
+            deploymentCreationQueueService.dispatch();
+
+            // Then
+            Mockito.verify(operationService).completeOperation(Mockito.eq(ANY_OPERATION_ID), Mockito.eq(0),
+                    Mockito.eq(1), Mockito.contains("invalid spec"));
+        }
+
+        @Test
+        void givenConflictAfterEarlierAttempt_whenDispatch_thenAdoptsAndStoresDeploymentOfUser() throws Exception {
+            // Given
+            V1Deployment existingDeployment = new V1Deployment();
+            givenDueOperation();
+            givenClaimedOperation(2);
+            Mockito.when(kubernetesClientService.createDeployment(Mockito.any(), Mockito.any(), Mockito.any(),
+                    Mockito.any(), Mockito.any())).thenThrow(new ApiException(409, "Conflict"));
+            Mockito.when(deploymentService.findDeploymentAsync(ANY_USER_NAME, null, ANY_NAMESPACE, ANY_NAME))
+                    .thenReturn(CompletableFuture.completedFuture(existingDeployment));
+
+            // When
+            deploymentCreationQueueService.dispatch();
+
+            // Then
+            Mockito.verify(deploymentService).persistDeployment(ANY_USER_NAME, null, existingDeployment);
+            Mockito.verify(operationService).completeOperation(ANY_OPERATION_ID, 1, 0, null);
+        }
+
+        @Test
+        void givenStoringDeploymentFails_whenDispatch_thenRetriesWithoutFailing() throws Exception {
+            // Given
+            givenDueOperation();
+            givenClaimedOperation(1);
+            Mockito.when(kubernetesClientService.createDeployment(Mockito.any(), Mockito.any(), Mockito.any(),
+                    Mockito.any(), Mockito.any())).thenReturn(new V1Deployment());
+            Mockito.when(deploymentService.persistDeployment(Mockito.any(), Mockito.any(), Mockito.any()))
+                    .thenThrow(new IllegalStateException("Database is down"));
+
+            // When
+            deploymentCreationQueueService.dispatch();
+
+            // Then
+            Mockito.verify(operationService).retryOperation(Mockito.eq(ANY_OPERATION_ID),
+                    Mockito.eq(LOCAL_NOW.plusSeconds(1)), Mockito.contains("could not be stored"));
+            Mockito.verify(operationService, Mockito.never()).completeOperation(Mockito.any(), Mockito.anyInt(),
+                    Mockito.anyInt(), Mockito.any());
+        }
+
+        @Test
+        void givenStoringDeploymentFailsOnLastAttempt_whenDispatch_thenOperationSucceedsWithMessage() throws Exception {
+            // Given
+            givenDueOperation();
+            givenClaimedOperation(settings.getMaxAttempts());
+            Mockito.when(kubernetesClientService.createDeployment(Mockito.any(), Mockito.any(), Mockito.any(),
+                    Mockito.any(), Mockito.any())).thenReturn(new V1Deployment());
+            Mockito.when(deploymentService.persistDeployment(Mockito.any(), Mockito.any(), Mockito.any()))
+                    .thenThrow(new IllegalStateException("Database is down"));
+
+            // When
+            deploymentCreationQueueService.dispatch();
+
+            // Then
+            Mockito.verify(operationService).completeOperation(Mockito.eq(ANY_OPERATION_ID), Mockito.eq(1),
+                    Mockito.eq(0), Mockito.contains("could not be stored"));
+        }
+
+        @Test
+        void givenOperationsThatLostTheirLastAttempt_whenDispatch_thenFailsThemBeforeClaiming() {
+            // Given
+            Mockito.when(operationRepository.failExhaustedOperations(Mockito.eq(OperationType.CREATE_DEPLOYMENT),
+                    Mockito.eq(OperationStatus.RUNNING), Mockito.eq(OperationStatus.FAILED), Mockito.eq(LOCAL_NOW),
+                    Mockito.eq(settings.getMaxAttempts()), Mockito.anyString())).thenReturn(1);
+
+            // When
+            deploymentCreationQueueService.dispatch();
+
+            // Then
+            InOrder inOrder = Mockito.inOrder(operationRepository);
+            inOrder.verify(operationRepository).failExhaustedOperations(Mockito.any(), Mockito.any(), Mockito.any(),
+                    Mockito.any(), Mockito.anyInt(), Mockito.anyString());
+            inOrder.verify(operationRepository).findDueOperationIds(Mockito.any(), Mockito.any(), Mockito.any(),
+                    Mockito.any(), Mockito.eq(settings.getMaxAttempts()), Mockito.any());
+        }
+
+        @Test
+        void givenWorkerExecutorFull_whenDispatch_thenLeavesClaimedOperationToItsLease() {
+            // Given
+            deploymentCreationQueueService = new DeploymentCreationQueueService(operationRepository, operationService,
+                    deploymentService, new KubernetesClusterRegistry(), conversionService, objectMapper,
+                    transactionTemplate, settings, Clock.fixed(NOW, ZoneOffset.UTC), dispatchScheduler, runnable -> {
+                        throw new RejectedExecutionException("Bulkhead create-queue is full");
+                    });
+            givenDueOperation();
+
+            // When
+            deploymentCreationQueueService.dispatch();
+            deploymentCreationQueueService.dispatch();
+
+            // Then
+            Mockito.verify(operationRepository, Mockito.times(2)).findDueOperationIds(OperationType.CREATE_DEPLOYMENT,
+                    OperationStatus.PENDING, OperationStatus.RUNNING, LOCAL_NOW, settings.getMaxAttempts(),
+                    PageRequest.of(0, settings.getWorkers()));
+            Mockito.verify(operationRepository, Mockito.never()).findWithUserById(ANY_OPERATION_ID);
+            Mockito.verifyNoInteractions(operationService);
+        }
+
+        @Test
+        void givenAllWorkersBusy_whenDispatch_thenClaimsNothing() {
+            // Given
+            settings.setWorkers(0);
+
+            // When
+            deploymentCreationQueueService.dispatch();
+
+            // Then
+            Mockito.verifyNoInteractions(operationRepository);
+        }
+    }
+
+    @Test
+    void givenManyAttempts_whenBackoff_thenDoublesUpToMaxBackoff() {
+        // Then
+        Assertions.assertThat(deploymentCreationQueueService.backoff(1)).isEqualTo(Duration.ofSeconds(1));
+        Assertions.assertThat(deploymentCreationQueueService.backoff(3)).isEqualTo(Duration.ofSeconds(4));
+        Assertions.assertThat(deploymentCreationQueueService.backoff(30)).isEqualTo(settings.getMaxBackoff());
+    }
+
+    private void givenDueOperation() {
+        Mockito.when(operationRepository.findDueOperationIds(Mockito.any(), Mockito.any(), Mockito.any(),
+                Mockito.any(), Mockito.anyInt(), Mockito.any())).thenReturn(Collections.singletonList(ANY_OPERATION_ID));
+        Mockito.when(operationRepository.claimOperation(Mockito.eq(ANY_OPERATION_ID), Mockito.any(), Mockito.any(),
+                Mockito.any(), Mockito.any(), Mockito.anyInt())).thenReturn(1);
+    }
+
+    private void givenClaimedOperation(int attempts) throws Exception {
+        OperationEntity operationEntity = OperationEntity.builder()
+                .type(OperationType.CREATE_DEPLOYMENT)
+                .status(OperationStatus.RUNNING)
+                .attempts(attempts)
+                .payload(objectMapper.writeValueAsString(createDeploymentDto(null)))
+                .user(UserEntity.builder().userName(ANY_USER_NAME).build())
+                .build();
+        Mockito.when(operationRepository.findWithUserById(ANY_OPERATION_ID)).thenReturn(Optional.of(operationEntity));
+    }
+
+    private static CreateDeploymentDto createDeploymentDto(String cluster) {
+        return CreateDeploymentDto.builder()
+                .apiVersion("apps/v1")
+                .kind("Deployment")
+                .metaDataName(ANY_NAME)
+                .specReplicas(1)
+                .appName("anyApp")
+                .imageName("anyImage")
+                .containerPorts(Collections.singletonList(80))
+                .namespace(ANY_NAMESPACE)
+                .cluster(cluster)
+                .build();
+    }
+}
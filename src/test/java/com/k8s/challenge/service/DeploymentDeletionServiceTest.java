@@ -0,0 +1,303 @@
+package com.k8s.challenge.service;
+
+import com.k8s.challenge.constant.ChallengeConstant;
+import com.k8s.challenge.constant.OperationType;
+import com.k8s.challenge.entity.UserEntity;
+import com.k8s.challenge.exception.BadRequestException;
+import com.k8s.challenge.exception.NotFoundException;
+import com.k8s.challenge.repository.DeploymentRepository;
+import com.k8s.challenge.resource.DeploymentResource;
+import com.k8s.challenge.resource.OperationResource;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.ThrowableAssert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class DeploymentDeletionServiceTest {
+
+    private static final String ANY_USER_NAME = "anyUserName";
+    private static final String ANY_NAMESPACE = "anyNamespace";
+    private static final String ANY_NAME = "anyName";
+    private static final String OTHER_NAME = "otherName";
+    private static final UUID ANY_OPERATION_ID = UUID.fromString("0186b8e0-2f4c-7a3d-9b1e-5c6d7e8f9a0b");
+    private static final String ANY_LABEL_SELECTOR = "app=web";
+
+    private DeploymentDeletionService deploymentDeletionService;
+    private UserEntity userEntity;
+    private OperationResource operation;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private DeploymentService deploymentService;
+
+    @Mock
+    private KubernetesClientService kubernetesClientService;
+
+    @Mock
+    private DeploymentRepository deploymentRepository;
+
+    @Mock
+    private OperationService operationService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private Bulkhead databaseBulkhead;
+
+    @Captor
+    private ArgumentCaptor<Collection<String>> batches;
+
+    @BeforeEach
+    void init() {
+        MockitoAnnotations.openMocks(this);
+        KubernetesClusterRegistry kubernetesClusterRegistry = new KubernetesClusterRegistry()
+                .register(ChallengeConstant.DEFAULT_CLUSTER, kubernetesClientService, Duration.ofSeconds(10));
+        deploymentDeletionService = new DeploymentDeletionService(userService, deploymentService,
+                kubernetesClusterRegistry, deploymentRepository, operationService, transactionTemplate,
+                databaseBulkhead);
+        Mockito.when(transactionTemplate.execute(Mockito.any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        Mockito.doAnswer(inv -> {
+            inv.<Runnable>getArgument(0).run();
+            return null;
+        }).when(databaseBulkhead).execute(Mockito.any());
+        Mockito.when(databaseBulkhead.supplyAsync(Mockito.any())).thenCallRealMethod();
+        userEntity = UserEntity.builder().userName(ANY_USER_NAME).build();
+        Mockito.when(userService.findUserByName(ANY_USER_NAME)).thenReturn(userEntity);
+        operation = OperationResource.builder().id(ANY_OPERATION_ID).type(OperationType.DELETE_DEPLOYMENTS).build();
+        Mockito.when(operationService.startOperation(Mockito.eq(ANY_USER_NAME),
+                Mockito.eq(OperationType.DELETE_DEPLOYMENTS), Mockito.eq(ChallengeConstant.DEFAULT_CLUSTER),
+                Mockito.eq(ANY_NAMESPACE), Mockito.any())).thenReturn(operation);
+        Mockito.when(kubernetesClientService.deleteDeploymentAsync(Mockito.anyString(), Mockito.eq(ANY_NAMESPACE)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Nested
+    class DeleteDeployments {
+
+        @Test
+        void givenOwnedNames_whenDeleteDeployments_thenDeletesThemAndCompletesOperation() {
+            // Given
+            givenOwnedDeployment(ANY_NAME);
+            givenOwnedDeployment(OTHER_NAME);
+
+            // When
+            OperationResource operationResource = deploymentDeletionService.deleteDeploymentsAsync(ANY_USER_NAME, null,
+                    ANY_NAMESPACE, Arrays.asList(ANY_NAME, OTHER_NAME, ANY_NAME), null).join();
+
+            // Then
+            Assertions.assertThat(operationResource).isSameAs(operation);
+            Mockito.verify(operationService).startOperation(ANY_USER_NAME, OperationType.DELETE_DEPLOYMENTS,
+                    ChallengeConstant.DEFAULT_CLUSTER, ANY_NAMESPACE, 2);
+            Mockito.verify(kubernetesClientService).deleteDeploymentAsync(ANY_NAME, ANY_NAMESPACE);
+            Mockito.verify(kubernetesClientService).deleteDeploymentAsync(OTHER_NAME, ANY_NAMESPACE);
+            Mockito.verify(deploymentRepository).deleteAllByUserAndClusterAndNamespaceAndDeploymentNameIn(userEntity,
+                    ChallengeConstant.DEFAULT_CLUSTER, ANY_NAMESPACE, Arrays.asList(ANY_NAME, OTHER_NAME));
+            Mockito.verify(operationService).completeOperation(ANY_OPERATION_ID, 2, 0, null);
+        }
+
+        @Test
+        void givenNameOfOtherUser_whenDeleteDeployments_thenSkipsItAndReportsItAsFailed() {
+            // Given
+            givenOwnedDeployment(ANY_NAME);
+            CompletableFuture<V1Deployment> notFound = new CompletableFuture<>();
+            notFound.completeExceptionally(new NotFoundException("Deployment otherName is not found"));
+            Mockito.when(deploymentService.findDeploymentAsync(ANY_USER_NAME, null, ANY_NAMESPACE, OTHER_NAME))
+                    .thenReturn(notFound);
+
+            // When
+            deploymentDeletionService.deleteDeploymentsAsync(ANY_USER_NAME, null, ANY_NAMESPACE,
+                    Arrays.asList(ANY_NAME, OTHER_NAME), null);
+
+            // Then
+            Mockito.verify(kubernetesClientService).deleteDeploymentAsync(ANY_NAME, ANY_NAMESPACE);
+            Mockito.verify(kubernetesClientService, Mockito.never()).deleteDeploymentAsync(OTHER_NAME, ANY_NAMESPACE);
+            ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+            Mockito.verify(operationService).completeOperation(Mockito.eq(ANY_OPERATION_ID), Mockito.eq(1),
+                    Mockito.eq(1), message.capture());
+            Assertions.assertThat(message.getValue()).startsWith(OTHER_NAME + ": k8s-1002");
+        }
+
+        @Test
+        void givenDeploymentAlreadyGone_whenDeleteDeployments_thenCountsItAsDeleted() {
+            // Given
+            givenOwnedDeployment(ANY_NAME);
+            CompletableFuture<Void> gone = new CompletableFuture<>();
+            gone.completeExceptionally(new ApiException(HttpStatus.NOT_FOUND.value(), "Not Found"));
+            Mockito.when(kubernetesClientService.deleteDeploymentAsync(ANY_NAME, ANY_NAMESPACE)).thenReturn(gone);
+
+            // When
+            deploymentDeletionService.deleteDeploymentsAsync(ANY_USER_NAME, null, ANY_NAMESPACE,
+                    Collections.singletonList(ANY_NAME), null);
+
+            // Then
+            Mockito.verify(operationService).completeOperation(ANY_OPERATION_ID, 1, 0, null);
+        }
+
+        @Test
+        void givenLabelSelector_whenDeleteDeployments_thenDeletesSelectedDeploymentsInBatches() {
+            // Given
+            List<DeploymentResource> selected = IntStream.range(0, DeploymentDeletionService.DELETE_BATCH_SIZE + 1)
+                    .mapToObj(index -> DeploymentResource.builder().name(ANY_NAME + index).build())
+                    .collect(Collectors.toList());
+            Mockito.when(kubernetesClientService.listDeploymentResourcesAsync(Mockito.eq(ANY_NAMESPACE),
+                    Mockito.eq(ANY_USER_NAME), Mockito.eq(ANY_LABEL_SELECTOR), Mockito.any()))
+                    .thenAnswer(inv -> {
+                        inv.<Consumer<List<DeploymentResource>>>getArgument(3).accept(selected);
+                        return CompletableFuture.completedFuture(null);
+                    });
+
+            // When
+            deploymentDeletionService.deleteDeploymentsAsync(ANY_USER_NAME, null, ANY_NAMESPACE, null,
+                    ANY_LABEL_SELECTOR);
+
+            // Then
+            Mockito.verify(kubernetesClientService, Mockito.times(selected.size()))
+                    .deleteDeploymentAsync(Mockito.anyString(), Mockito.eq(ANY_NAMESPACE));
+            Mockito.verify(deploymentRepository, Mockito.times(2)).deleteAllByUserAndClusterAndNamespaceAndDeploymentNameIn(
+                    Mockito.eq(userEntity), Mockito.eq(ChallengeConstant.DEFAULT_CLUSTER), Mockito.eq(ANY_NAMESPACE),
+                    batches.capture());
+            Assertions.assertThat(batches.getAllValues()).extracting(Collection::size)
+                    .containsExactly(DeploymentDeletionService.DELETE_BATCH_SIZE, 1);
+            Mockito.verifyNoInteractions(deploymentService);
+            Mockito.verify(operationService).completeOperation(ANY_OPERATION_ID, selected.size(), 0, null);
+        }
+
+        @Test
+        void givenManyNames_whenDeleteDeployments_thenKeepsAtMostParallelismRequestsInFlight() {
+            // Given
+            List<String> names = IntStream.range(0, DeploymentDeletionService.DELETE_PARALLELISM * 2)
+                    .mapToObj(index -> ANY_NAME + index)
+                    .peek(name -> givenOwnedDeployment(name))
+                    .collect(Collectors.toList());
+            List<CompletableFuture<Void>> pendingDeletions = new ArrayList<>();
+            Mockito.when(kubernetesClientService.deleteDeploymentAsync(Mockito.anyString(), Mockito.eq(ANY_NAMESPACE)))
+                    .thenAnswer(inv -> {
+                        CompletableFuture<Void> pendingDeletion = new CompletableFuture<>();
+                        pendingDeletions.add(pendingDeletion);
+                        return pendingDeletion;
+                    });
+
+            // When
+            deploymentDeletionService.deleteDeploymentsAsync(ANY_USER_NAME, null, ANY_NAMESPACE, names, null);
+
+            // Then
+            Assertions.assertThat(pendingDeletions).hasSize(DeploymentDeletionService.DELETE_PARALLELISM);
+            pendingDeletions.get(0).complete(null);
+            Assertions.assertThat(pendingDeletions).hasSize(DeploymentDeletionService.DELETE_PARALLELISM + 1);
+            Mockito.verify(operationService, Mockito.never()).completeOperation(Mockito.any(), Mockito.anyInt(),
+                    Mockito.anyInt(), Mockito.any());
+        }
+
+        @Test
+        void givenNamesAndLabelSelector_whenDeleteDeployments_thenThrowsBadRequestException() {
+            // When
+            ThrowableAssert.ThrowingCallable throwingCallable = () -> deploymentDeletionService.deleteDeploymentsAsync(
+                    ANY_USER_NAME, null, ANY_NAMESPACE, Collections.singletonList(ANY_NAME), ANY_LABEL_SELECTOR);
+
+            // Then
+            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(BadRequestException.class);
+            Mockito.verifyNoInteractions(operationService);
+        }
+
+        @Test
+        void givenDatabaseBulkheadIsFull_whenDeleteDeployments_thenRejectsWithoutStartingOperation() {
+            // Given
+            Mockito.doThrow(new RejectedExecutionException("Bulkhead database is full"))
+                    .when(databaseBulkhead).execute(Mockito.any());
+
+            // When
+            ThrowableAssert.ThrowingCallable throwingCallable = () -> deploymentDeletionService.deleteDeploymentsAsync(
+                    ANY_USER_NAME, null, ANY_NAMESPACE, Collections.singletonList(ANY_NAME), null);
+
+            // Then
+            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(RejectedExecutionException.class);
+            Mockito.verifyNoInteractions(userService, operationService, kubernetesClientService);
+        }
+
+        @Test
+        void givenListingFails_whenDeleteDeployments_thenFailsOperation() {
+            // Given
+            CompletableFuture<Void> failedListing = new CompletableFuture<>();
+            failedListing.completeExceptionally(new ApiException("Connection refused"));
+            Mockito.when(kubernetesClientService.listDeploymentResourcesAsync(Mockito.eq(ANY_NAMESPACE),
+                    Mockito.eq(ANY_USER_NAME), Mockito.eq(ANY_LABEL_SELECTOR), Mockito.any())).thenReturn(failedListing);
+
+            // When
+            deploymentDeletionService.deleteDeploymentsAsync(ANY_USER_NAME, null, ANY_NAMESPACE, null,
+                    ANY_LABEL_SELECTOR);
+
+            // Then
+            Mockito.verify(operationService).failOperation(Mockito.eq(ANY_OPERATION_ID), Mockito.startsWith("k8s-1003"));
+            Mockito.verifyNoInteractions(deploymentRepository);
+        }
+    }
+
+    @Nested
+    class DeleteDeployment {
+
+        @Test
+        void givenUnknownDeployment_whenDeleteDeploymentAsync_thenFailsWithNotFoundWithoutOperation() {
+            // Given
+            CompletableFuture<V1Deployment> notFound = new CompletableFuture<>();
+            notFound.completeExceptionally(new NotFoundException("Deployment anyName is not found"));
+            Mockito.when(deploymentService.findDeploymentAsync(ANY_USER_NAME, null, ANY_NAMESPACE, ANY_NAME))
+                    .thenReturn(notFound);
+
+            // When
+            CompletableFuture<OperationResource> deletion = deploymentDeletionService.deleteDeploymentAsync(
+                    ANY_USER_NAME, null, ANY_NAMESPACE, ANY_NAME);
+
+            // Then
+            Assertions.assertThat(deletion).isCompletedExceptionally();
+            Mockito.verifyNoInteractions(operationService);
+        }
+
+        @Test
+        void givenOwnedDeployment_whenDeleteDeploymentAsync_thenReturnsOperation() {
+            // Given
+            givenOwnedDeployment(ANY_NAME);
+
+            // When
+            OperationResource operationResource = deploymentDeletionService.deleteDeploymentAsync(ANY_USER_NAME, null,
+                    ANY_NAMESPACE, ANY_NAME).join();
+
+            // Then
+            Assertions.assertThat(operationResource).isSameAs(operation);
+            Mockito.verify(kubernetesClientService).deleteDeploymentAsync(ANY_NAME, ANY_NAMESPACE);
+            Mockito.verify(operationService).completeOperation(ANY_OPERATION_ID, 1, 0, null);
+        }
+    }
+
+    private void givenOwnedDeployment(String name) {
+        Mockito.when(deploymentService.findDeploymentAsync(ANY_USER_NAME, null, ANY_NAMESPACE, name))
+                .thenReturn(CompletableFuture.completedFuture(new V1Deployment()));
+    }
+}
@@ -0,0 +1,137 @@
+package com.k8s.challenge.service;
+
+import com.k8s.challenge.converter.ProtobufDeploymentToV1DeploymentConverter;
+import com.k8s.challenge.objectfactory.ProtobufDeploymentFactory;
+import com.k8s.challenge.objectfactory.V1DeploymentFactory;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.JSON;
+import io.kubernetes.client.openapi.apis.AppsV1Api;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.openapi.models.V1DeploymentList;
+import io.kubernetes.client.openapi.models.V1Status;
+import io.kubernetes.client.proto.Meta;
+import io.kubernetes.client.proto.V1Apps;
+import okhttp3.MediaType;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class DeploymentProtobufClientTest {
+
+    private static final MediaType PROTOBUF = MediaType.parse("application/vnd.kubernetes.protobuf");
+    private static final MediaType JSON_MEDIA_TYPE = MediaType.parse("application/json");
+    private static final String ANY_NAME = "anyName";
+    private static final String ANY_NAMESPACE = "anyNamespace";
+    private static final String ANY_USER_NAME = "anyUserName";
+    private static final String CONTINUE_TOKEN = "continueToken";
+    private static final String RESOURCE_VERSION = "42";
+
+    private DeploymentProtobufClient deploymentProtobufClient;
+
+    @Mock
+    private AppsV1Api deploymentApi;
+
+    @Mock
+    private ConversionService conversionService;
+
+    @BeforeEach
+    void init() {
+        MockitoAnnotations.openMocks(this);
+        deploymentProtobufClient = new DeploymentProtobufClient(deploymentApi, conversionService);
+        ProtobufDeploymentToV1DeploymentConverter converter = new ProtobufDeploymentToV1DeploymentConverter();
+        Mockito.when(deploymentApi.getApiClient()).thenReturn(new ApiClient());
+        Mockito.when(conversionService.convert(Mockito.any(V1Apps.Deployment.class), Mockito.eq(V1Deployment.class)))
+                .thenAnswer(invocation -> converter.convert(invocation.getArgument(0)));
+    }
+
+    @Nested
+    class DecodeDeploymentList {
+
+        @Test
+        void givenProtobufResponse_whenDecodeDeploymentList_thenReturnsDeploymentsAndListMetadata() throws IOException {
+            // Given
+            V1Apps.DeploymentList deploymentList = V1Apps.DeploymentList.newBuilder()
+                    .setMetadata(Meta.ListMeta.newBuilder().setContinue(CONTINUE_TOKEN).setResourceVersion(RESOURCE_VERSION))
+                    .addItems(ProtobufDeploymentFactory.createDeployment(ANY_NAME, ANY_NAMESPACE, ANY_USER_NAME))
+                    .build();
+            byte[] body = ProtobufDeploymentFactory.encode(deploymentList, "apps/v1", "DeploymentList");
+
+            // When
+            V1DeploymentList v1DeploymentList = deploymentProtobufClient.decodeDeploymentList(PROTOBUF, body);
+
+            // Then
+            Assertions.assertThat(v1DeploymentList.getMetadata().getContinue()).isEqualTo(CONTINUE_TOKEN);
+            Assertions.assertThat(v1DeploymentList.getMetadata().getResourceVersion()).isEqualTo(RESOURCE_VERSION);
+            Assertions.assertThat(v1DeploymentList.getItems()).hasSize(1);
+            V1Deployment v1Deployment = v1DeploymentList.getItems().get(0);
+            Assertions.assertThat(v1Deployment.getMetadata().getName()).isEqualTo(ANY_NAME);
+            Assertions.assertThat(v1Deployment.getMetadata().getNamespace()).isEqualTo(ANY_NAMESPACE);
+            Assertions.assertThat(v1Deployment.getMetadata().getLabels()).containsEntry("userName", ANY_USER_NAME);
+            Assertions.assertThat(v1Deployment.getMetadata().getCreationTimestamp()).isNotNull();
+            Assertions.assertThat(v1Deployment.getSpec().getReplicas()).isEqualTo(2);
+            Assertions.assertThat(v1Deployment.getSpec().getTemplate().getSpec().getContainers().get(0).getImage())
+                    .isEqualTo("nginx");
+            Assertions.assertThat(v1Deployment.getStatus().getReadyReplicas()).isEqualTo(2);
+        }
+
+        @Test
+        void givenJsonResponse_whenDecodeDeploymentList_thenFallsBackToJson() throws IOException {
+            // Given
+            V1DeploymentList jsonDeploymentList = V1DeploymentFactory.createV1DeploymentList();
+            byte[] body = new JSON().serialize(jsonDeploymentList).getBytes(StandardCharsets.UTF_8);
+
+            // When
+            V1DeploymentList v1DeploymentList = deploymentProtobufClient.decodeDeploymentList(JSON_MEDIA_TYPE, body);
+
+            // Then
+            Assertions.assertThat(v1DeploymentList.getItems()).hasSize(jsonDeploymentList.getItems().size());
+            Assertions.assertThat(v1DeploymentList.getItems().get(0).getMetadata().getName())
+                    .isEqualTo(jsonDeploymentList.getItems().get(0).getMetadata().getName());
+            Mockito.verifyNoInteractions(conversionService);
+        }
+
+        @Test
+        void givenProtobufContentTypeWithoutMagicNumber_whenDecodeDeploymentList_thenThrowsIOException() {
+            // Given
+            byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+
+            // When
+            // Then
+            Assertions.assertThatThrownBy(() -> deploymentProtobufClient.decodeDeploymentList(PROTOBUF, body))
+                    .isInstanceOf(IOException.class);
+        }
+    }
+
+    @Nested
+    class ErrorBody {
+
+        @Test
+        void givenProtobufStatus_whenErrorBody_thenReturnsStatusAsJson() throws IOException {
+            // Given
+            Meta.Status status = Meta.Status.newBuilder()
+                    .setCode(HttpStatus.GONE.value())
+                    .setReason("Expired")
+                    .setMetadata(Meta.ListMeta.newBuilder().setContinue(CONTINUE_TOKEN))
+                    .build();
+            byte[] body = ProtobufDeploymentFactory.encode(status, "v1", "Status");
+
+            // When
+            String errorBody = deploymentProtobufClient.errorBody(PROTOBUF, body);
+
+            // Then
+            V1Status v1Status = new JSON().deserialize(errorBody, V1Status.class);
+            Assertions.assertThat(v1Status.getCode()).isEqualTo(HttpStatus.GONE.value());
+            Assertions.assertThat(v1Status.getReason()).isEqualTo("Expired");
+            Assertions.assertThat(v1Status.getMetadata().getContinue()).isEqualTo(CONTINUE_TOKEN);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.k8s.challenge.service;
+
+import com.google.gson.stream.JsonReader;
+import com.k8s.challenge.converter.V1DeploymentToDeploymentResourceConverter;
+import com.k8s.challenge.objectfactory.V1DeploymentFactory;
+import com.k8s.challenge.resource.DeploymentResource;
+import com.k8s.challenge.service.DeploymentResourceListDecoder.DeploymentResourcePage;
+import io.kubernetes.client.openapi.JSON;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.openapi.models.V1DeploymentCondition;
+import io.kubernetes.client.openapi.models.V1DeploymentList;
+import io.kubernetes.client.openapi.models.V1DeploymentStatus;
+import io.kubernetes.client.openapi.models.V1ListMeta;
+import io.kubernetes.client.openapi.models.V1ManagedFieldsEntry;
+import org.assertj.core.api.Assertions;
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collections;
+
+public class DeploymentResourceListDecoderTest {
+
+    private static final String ANY_NAMESPACE = "anyNamespace";
+    private static final String CONTINUE_TOKEN = "continueToken";
+    private static final String RESOURCE_VERSION = "42";
+
+    private final JSON json = new JSON();
+
+    @Test
+    void givenDeploymentList_whenDecode_thenReturnsSameResourcesAsConverter() throws IOException {
+        // Given
+        V1Deployment v1Deployment = V1DeploymentFactory.createV1Deployment();
+        v1Deployment.getMetadata().setNamespace(ANY_NAMESPACE);
+        v1Deployment.getMetadata().setCreationTimestamp(new DateTime(2020, 10, 1, 12, 30, 15));
+        v1Deployment.getMetadata().setManagedFields(Collections.singletonList(new V1ManagedFieldsEntry()
+                .manager("kubectl").operation("Update").fieldsV1(Collections.singletonMap("f:spec", "{}"))));
+        v1Deployment.setStatus(new V1DeploymentStatus().replicas(2).readyReplicas(1)
+                .conditions(Collections.singletonList(new V1DeploymentCondition().type("Available").status("True"))));
+        V1DeploymentList v1DeploymentList = new V1DeploymentList()
+                .metadata(new V1ListMeta()._continue(CONTINUE_TOKEN).resourceVersion(RESOURCE_VERSION))
+                .items(Collections.singletonList(v1Deployment));
+        DeploymentResource expected = new V1DeploymentToDeploymentResourceConverter().convert(v1Deployment);
+
+        // When
+        DeploymentResourcePage page = decode(json.serialize(v1DeploymentList));
+
+        // Then
+        Assertions.assertThat(page.getContinueToken()).isEqualTo(CONTINUE_TOKEN);
+        Assertions.assertThat(page.getResourceVersion()).isEqualTo(RESOURCE_VERSION);
+        Assertions.assertThat(page.getItems()).hasSize(1);
+        Assertions.assertThat(page.getItems().get(0)).usingRecursiveComparison().isEqualTo(expected);
+    }
+
+    @Test
+    void givenDeploymentWithoutSpecAndMetadata_whenDecode_thenReturnsEmptyResource() throws IOException {
+        // Given
+        String body = "{\"kind\":\"DeploymentList\",\"metadata\":{},\"items\":[{\"metadata\":null,\"spec\":"
+                + "{\"replicas\":null,\"template\":{\"spec\":{\"containers\":[]}}},\"status\":{\"replicas\":3}}]}";
+
+        // When
+        DeploymentResourcePage page = decode(body);
+
+        // Then
+        Assertions.assertThat(page.getContinueToken()).isNull();
+        Assertions.assertThat(page.getItems()).hasSize(1);
+        DeploymentResource deploymentResource = page.getItems().get(0);
+        Assertions.assertThat(deploymentResource.getName()).isNull();
+        Assertions.assertThat(deploymentResource.getReplicas()).isNull();
+        Assertions.assertThat(deploymentResource.getImage()).isNull();
+    }
+
+    @Test
+    void givenMultipleContainers_whenDecode_thenTakesImageOfFirstContainer() throws IOException {
+        // Given
+        String body = "{\"items\":[{\"spec\":{\"template\":{\"metadata\":{\"labels\":{\"app\":\"app\"}},\"spec\":"
+                + "{\"containers\":[{\"name\":\"first\",\"image\":\"nginx\",\"ports\":[{\"containerPort\":80}]},"
+                + "{\"name\":\"second\",\"image\":\"busybox\"}]}},\"replicas\":2}}],\"metadata\":{\"continue\":\"\"}}";
+
+        // When
+        DeploymentResourcePage page = decode(body);
+
+        // Then
+        Assertions.assertThat(page.getItems()).hasSize(1);
+        Assertions.assertThat(page.getItems().get(0).getImage()).isEqualTo("nginx");
+        Assertions.assertThat(page.getItems().get(0).getReplicas()).isEqualTo(2);
+        Assertions.assertThat(page.getContinueToken()).isEmpty();
+    }
+
+    @Test
+    void givenEmptyList_whenDecode_thenReturnsNoResources() throws IOException {
+        // Given
+        String body = "{\"apiVersion\":\"apps/v1\",\"kind\":\"DeploymentList\",\"items\":null}";
+
+        // When
+        DeploymentResourcePage page = decode(body);
+
+        // Then
+        Assertions.assertThat(page.getItems()).isEmpty();
+    }
+
+    private DeploymentResourcePage decode(String body) throws IOException {
+        try (JsonReader reader = new JsonReader(new StringReader(body))) {
+            return DeploymentResourceListDecoder.decode(reader);
+        }
+    }
+}
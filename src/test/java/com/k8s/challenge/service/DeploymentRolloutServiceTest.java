@@ -0,0 +1,258 @@
+package com.k8s.challenge.service;
+
+import com.k8s.challenge.constant.ChallengeConstant;
+import com.k8s.challenge.constant.RolloutState;
+import com.k8s.challenge.exception.NotFoundException;
+import com.k8s.challenge.objectfactory.V1DeploymentFactory;
+import com.k8s.challenge.resource.RolloutStatusResource;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.openapi.models.V1DeploymentCondition;
+import io.kubernetes.client.openapi.models.V1DeploymentStatus;
+import io.kubernetes.client.openapi.models.V1Status;
+import io.kubernetes.client.util.Watch;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class DeploymentRolloutServiceTest {
+
+    private static final String ANY_USER_NAME = "anyUserName";
+    private static final String ANY_NAMESPACE = "anyNamespace";
+    private static final String ANY_NAME = "deployment";
+
+    private DeploymentRolloutService deploymentRolloutService;
+    private final List<RolloutStatusResource> sentStatuses = new ArrayList<>();
+
+    @Mock
+    private DeploymentService deploymentService;
+
+    @Mock
+    private KubernetesClientService kubernetesClientService;
+
+    @BeforeEach
+    void init() {
+        MockitoAnnotations.openMocks(this);
+        KubernetesClusterRegistry kubernetesClusterRegistry = new KubernetesClusterRegistry()
+                .register(ChallengeConstant.DEFAULT_CLUSTER, kubernetesClientService, Duration.ofSeconds(10));
+        deploymentRolloutService = new DeploymentRolloutService(deploymentService, kubernetesClusterRegistry,
+                new DeploymentRolloutService.Settings());
+    }
+
+    @AfterEach
+    void shutdown() {
+        deploymentRolloutService.shutdown();
+    }
+
+    @Nested
+    class ToRolloutStatus {
+
+        @Test
+        void givenAllReplicasUpdatedAndAvailable_whenToRolloutStatus_thenReturnsComplete() {
+            // Given
+            V1Deployment deployment = createDeployment(2, 2, 2, 2);
+
+            // When
+            RolloutStatusResource status = DeploymentRolloutService.toRolloutStatus(deployment, ChallengeConstant.DEFAULT_CLUSTER);
+
+            // Then
+            Assertions.assertThat(status.getState()).isEqualTo(RolloutState.COMPLETE);
+            Assertions.assertThat(status.getReplicas()).isEqualTo(2);
+            Assertions.assertThat(status.getAvailableReplicas()).isEqualTo(2);
+            Assertions.assertThat(status.getCluster()).isEqualTo(ChallengeConstant.DEFAULT_CLUSTER);
+        }
+
+        @Test
+        void givenOldReplicasStillRunning_whenToRolloutStatus_thenReturnsProgressing() {
+            // Given
+            V1Deployment deployment = createDeployment(3, 2, 2, 2);
+
+            // When
+            RolloutStatusResource status = DeploymentRolloutService.toRolloutStatus(deployment, ChallengeConstant.DEFAULT_CLUSTER);
+
+            // Then
+            Assertions.assertThat(status.getState()).isEqualTo(RolloutState.PROGRESSING);
+        }
+
+        @Test
+        void givenLatestGenerationNotObserved_whenToRolloutStatus_thenReturnsProgressing() {
+            // Given
+            V1Deployment deployment = createDeployment(2, 2, 2, 2);
+            deployment.getMetadata().setGeneration(2L);
+
+            // When
+            RolloutStatusResource status = DeploymentRolloutService.toRolloutStatus(deployment, ChallengeConstant.DEFAULT_CLUSTER);
+
+            // Then
+            Assertions.assertThat(status.getState()).isEqualTo(RolloutState.PROGRESSING);
+        }
+
+        @Test
+        void givenProgressDeadlineExceeded_whenToRolloutStatus_thenReturnsFailed() {
+            // Given
+            V1Deployment deployment = createDeployment(2, 1, 0, 0);
+            deployment.getStatus().setConditions(Collections.singletonList(new V1DeploymentCondition()
+                    .type("Progressing").status("False").reason("ProgressDeadlineExceeded")));
+
+            // When
+            RolloutStatusResource status = DeploymentRolloutService.toRolloutStatus(deployment, ChallengeConstant.DEFAULT_CLUSTER);
+
+            // Then
+            Assertions.assertThat(status.getState()).isEqualTo(RolloutState.FAILED);
+        }
+    }
+
+    @Nested
+    class FollowRollout {
+
+        @Test
+        void givenEventsUntilComplete_whenFollowRollout_thenSendsEveryChangeOnceAndStopsAtComplete() throws IOException {
+            // Given
+            List<Watch.Response<V1Deployment>> events = Arrays.asList(
+                    new Watch.Response<>("ADDED", createDeployment(2, 1, 0, 0)),
+                    new Watch.Response<>("MODIFIED", createDeployment(2, 1, 0, 0)),
+                    new Watch.Response<>("MODIFIED", createDeployment(2, 2, 1, 1)),
+                    new Watch.Response<>("MODIFIED", createDeployment(2, 2, 2, 2)),
+                    new Watch.Response<>("MODIFIED", createDeployment(2, 2, 2, 2)));
+
+            // When
+            RolloutState rolloutState = deploymentRolloutService.followRollout(events, ChallengeConstant.DEFAULT_CLUSTER,
+                    sentStatuses::add);
+
+            // Then
+            Assertions.assertThat(rolloutState).isEqualTo(RolloutState.COMPLETE);
+            Assertions.assertThat(sentStatuses).extracting(RolloutStatusResource::getState)
+                    .containsExactly(RolloutState.PROGRESSING, RolloutState.PROGRESSING, RolloutState.COMPLETE);
+            Assertions.assertThat(sentStatuses).extracting(RolloutStatusResource::getReadyReplicas)
+                    .containsExactly(0, 1, 2);
+        }
+
+        @Test
+        void givenEventsEndBeforeComplete_whenFollowRollout_thenSendsTimedOut() throws IOException {
+            // Given
+            List<Watch.Response<V1Deployment>> events = Collections.singletonList(
+                    new Watch.Response<>("ADDED", createDeployment(2, 1, 0, 0)));
+
+            // When
+            RolloutState rolloutState = deploymentRolloutService.followRollout(events, ChallengeConstant.DEFAULT_CLUSTER,
+                    sentStatuses::add);
+
+            // Then
+            Assertions.assertThat(rolloutState).isEqualTo(RolloutState.TIMED_OUT);
+            Assertions.assertThat(sentStatuses).extracting(RolloutStatusResource::getState)
+                    .containsExactly(RolloutState.PROGRESSING, RolloutState.TIMED_OUT);
+        }
+
+        @Test
+        void givenErrorEvent_whenFollowRollout_thenSendsErrorWithReportedStatus() throws IOException {
+            // Given
+            List<Watch.Response<V1Deployment>> events = Arrays.asList(
+                    new Watch.Response<>("ADDED", createDeployment(2, 1, 0, 0)),
+                    new Watch.Response<>("ERROR", new V1Status().code(410).message("too old resource version")),
+                    new Watch.Response<>("MODIFIED", createDeployment(2, 2, 2, 2)));
+
+            // When
+            RolloutState rolloutState = deploymentRolloutService.followRollout(events, ChallengeConstant.DEFAULT_CLUSTER,
+                    sentStatuses::add);
+
+            // Then
+            Assertions.assertThat(rolloutState).isEqualTo(RolloutState.ERROR);
+            Assertions.assertThat(sentStatuses).extracting(RolloutStatusResource::getState)
+                    .containsExactly(RolloutState.PROGRESSING, RolloutState.ERROR);
+            Assertions.assertThat(sentStatuses.get(1).getMessage()).contains("410", "too old resource version");
+            Assertions.assertThat(sentStatuses.get(1).getReadyReplicas()).isEqualTo(0);
+        }
+
+        @Test
+        void givenDeletedEvent_whenFollowRollout_thenSendsDeleted() throws IOException {
+            // Given
+            List<Watch.Response<V1Deployment>> events = Arrays.asList(
+                    new Watch.Response<>("ADDED", createDeployment(2, 1, 0, 0)),
+                    new Watch.Response<>("DELETED", createDeployment(2, 1, 0, 0)));
+
+            // When
+            RolloutState rolloutState = deploymentRolloutService.followRollout(events, ChallengeConstant.DEFAULT_CLUSTER,
+                    sentStatuses::add);
+
+            // Then
+            Assertions.assertThat(rolloutState).isEqualTo(RolloutState.DELETED);
+            Assertions.assertThat(sentStatuses).hasSize(2);
+        }
+    }
+
+    @Test
+    void givenUnknownDeployment_whenStreamRollout_thenCompletesEmitterWithoutWatching() {
+        // Given
+        CompletableFuture<V1Deployment> notFound = new CompletableFuture<>();
+        notFound.completeExceptionally(new NotFoundException("Deployment is not found"));
+        Mockito.when(deploymentService.findDeploymentAsync(ANY_USER_NAME, null, ANY_NAMESPACE, ANY_NAME))
+                .thenReturn(notFound);
+
+        // When
+        SseEmitter emitter = deploymentRolloutService.streamRollout(ANY_USER_NAME, null, ANY_NAMESPACE, ANY_NAME);
+
+        // Then
+        Assertions.assertThatThrownBy(() -> emitter.send("status")).isInstanceOf(IllegalStateException.class);
+        Mockito.verifyNoInteractions(kubernetesClientService);
+    }
+
+    @Test
+    void givenDeploymentNotFoundYet_whenStreamRollout_thenReturnsEmitterAndWatchesOnceFound() throws ApiException {
+        // Given
+        CompletableFuture<V1Deployment> deployment = new CompletableFuture<>();
+        Mockito.when(deploymentService.findDeploymentAsync(ANY_USER_NAME, null, ANY_NAMESPACE, ANY_NAME))
+                .thenReturn(deployment);
+
+        // When
+        SseEmitter emitter = deploymentRolloutService.streamRollout(ANY_USER_NAME, null, ANY_NAMESPACE, ANY_NAME);
+
+        // Then
+        Assertions.assertThat(emitter).isNotNull();
+        Mockito.verifyNoInteractions(kubernetesClientService);
+        deployment.complete(createDeployment(2, 2, 2, 2));
+        Mockito.verify(kubernetesClientService, Mockito.timeout(5000))
+                .watchDeployment(ANY_NAMESPACE, ANY_NAME, ANY_USER_NAME, (int) Duration.ofMinutes(5).getSeconds());
+    }
+
+    @Test
+    void givenOwnDeployment_whenStreamRollout_thenWatchesDeploymentWithRolloutTimeout() throws ApiException {
+        // Given
+        Mockito.when(deploymentService.findDeploymentAsync(ANY_USER_NAME, null, ANY_NAMESPACE, ANY_NAME))
+                .thenReturn(CompletableFuture.completedFuture(createDeployment(2, 2, 2, 2)));
+
+        // When
+        deploymentRolloutService.streamRollout(ANY_USER_NAME, null, ANY_NAMESPACE, ANY_NAME);
+
+        // Then
+        Mockito.verify(kubernetesClientService, Mockito.timeout(5000))
+                .watchDeployment(ANY_NAMESPACE, ANY_NAME, ANY_USER_NAME, (int) Duration.ofMinutes(5).getSeconds());
+    }
+
+    private V1Deployment createDeployment(int replicas, int updatedReplicas, int readyReplicas, int availableReplicas) {
+        V1Deployment deployment = V1DeploymentFactory.createV1Deployment();
+        deployment.getMetadata().setNamespace(ANY_NAMESPACE);
+        deployment.getMetadata().setGeneration(1L);
+        deployment.setStatus(new V1DeploymentStatus()
+                .observedGeneration(1L)
+                .replicas(Math.max(replicas, updatedReplicas))
+                .updatedReplicas(updatedReplicas)
+                .readyReplicas(readyReplicas)
+                .availableReplicas(availableReplicas));
+        deployment.getSpec().setReplicas(2);
+        return deployment;
+    }
+}
@@ -0,0 +1,95 @@
+package com.k8s.challenge.service;
+
+import com.k8s.challenge.resource.DeploymentResource;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class DeploymentScaleDebouncerTest {
+
+    private static final String ANY_KEY = "anyKey";
+    private static final String OTHER_KEY = "otherKey";
+    private static final Duration WINDOW = Duration.ofMillis(500);
+
+    private DeploymentScaleDebouncer deploymentScaleDebouncer;
+    private final List<Integer> sentReplicas = new ArrayList<>();
+    private final DeploymentResource deploymentResource = DeploymentResource.builder().replicas(3).build();
+
+    @Mock
+    private ScheduledExecutorService scheduler;
+
+    @BeforeEach
+    void init() {
+        MockitoAnnotations.openMocks(this);
+        deploymentScaleDebouncer = new DeploymentScaleDebouncer(WINDOW, scheduler);
+    }
+
+    @Test
+    void givenRequestsWithinWindow_whenWindowCloses_thenSendsOneRequestWithLastReplicas() {
+        // Given
+        CompletableFuture<DeploymentResource> first = deploymentScaleDebouncer.debounce(ANY_KEY, 1, this::scale);
+        CompletableFuture<DeploymentResource> second = deploymentScaleDebouncer.debounce(ANY_KEY, 2, this::scale);
+        CompletableFuture<DeploymentResource> third = deploymentScaleDebouncer.debounce(ANY_KEY, 3, this::scale);
+        Assertions.assertThat(sentReplicas).isEmpty();
+
+        // When
+        closeWindows(1);
+
+        // Then
+        Assertions.assertThat(sentReplicas).containsExactly(3);
+        Assertions.assertThat(first.join()).isSameAs(deploymentResource);
+        Assertions.assertThat(second.join()).isSameAs(deploymentResource);
+        Assertions.assertThat(third.join()).isSameAs(deploymentResource);
+    }
+
+    @Test
+    void givenRequestsForDifferentKeys_whenWindowsClose_thenSendsRequestPerKey() {
+        // Given
+        deploymentScaleDebouncer.debounce(ANY_KEY, 1, this::scale);
+        deploymentScaleDebouncer.debounce(OTHER_KEY, 2, this::scale);
+
+        // When
+        closeWindows(2);
+
+        // Then
+        Assertions.assertThat(sentReplicas).containsExactly(1, 2);
+    }
+
+    @Test
+    void givenRequestAfterWindowClosed_whenDebounce_thenOpensNewWindow() {
+        // Given
+        CompletableFuture<DeploymentResource> first = deploymentScaleDebouncer.debounce(ANY_KEY, 1, this::scale);
+        closeWindows(1);
+
+        // When
+        CompletableFuture<DeploymentResource> second = deploymentScaleDebouncer.debounce(ANY_KEY, 2, this::scale);
+
+        // Then
+        Assertions.assertThat(second).isNotSameAs(first).isNotDone();
+        Mockito.verify(scheduler, Mockito.times(2))
+                .schedule(Mockito.any(Runnable.class), Mockito.eq(WINDOW.toMillis()), Mockito.eq(TimeUnit.MILLISECONDS));
+    }
+
+    private CompletableFuture<DeploymentResource> scale(int replicas) {
+        sentReplicas.add(replicas);
+        return CompletableFuture.completedFuture(deploymentResource);
+    }
+
+    private void closeWindows(int count) {
+        ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(scheduler, Mockito.times(count))
+                .schedule(flush.capture(), Mockito.eq(WINDOW.toMillis()), Mockito.eq(TimeUnit.MILLISECONDS));
+        flush.getAllValues().forEach(Runnable::run);
+    }
+}
@@ -1,27 +1,47 @@
 package com.k8s.challenge.service;
 
+import com.k8s.challenge.constant.ChallengeConstant;
+import com.k8s.challenge.constant.ExceptionResponse;
+import com.k8s.challenge.dto.CreateDeploymentDto;
 import com.k8s.challenge.entity.DeploymentEntity;
 import com.k8s.challenge.entity.UserEntity;
+import com.k8s.challenge.exception.BadRequestException;
 import com.k8s.challenge.exception.NotFoundException;
 import com.k8s.challenge.objectfactory.V1DeploymentFactory;
 import com.k8s.challenge.repository.DeploymentRepository;
+import com.k8s.challenge.repository.DeploymentSummary;
+import com.k8s.challenge.resource.DeploymentBatchItemResource;
+import com.k8s.challenge.resource.DeploymentPageResource;
 import com.k8s.challenge.resource.DeploymentResource;
 import io.kubernetes.client.openapi.ApiException;
 import io.kubernetes.client.openapi.models.V1Deployment;
-import io.kubernetes.client.openapi.models.V1DeploymentList;
 import org.assertj.core.api.Assertions;
 import org.assertj.core.api.ThrowableAssert;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 public class DeploymentServiceTest {
 
@@ -33,6 +53,9 @@ public class DeploymentServiceTest {
     private static final String ANY_DEPLOYMENT_NAME = "anyDeploymentName";
     private static final String ANY_IMAGE = "anyImage";
     private static final String INVALID_USER_NAME = "invalidUserName";
+    private static final UUID ANY_USER_ID = UUID.fromString("0186b8e0-2f4a-7c1d-8e2f-3a4b5c6d7e8f");
+    private static final UUID ANY_ID = UUID.fromString("0186b8e0-2f50-7d4e-9f5a-6b7c8d9e0f1a");
+    private static final UUID OTHER_ID = UUID.fromString("0186b8e0-2f4f-7e5f-a06b-7c8d9e0f1a2b");
     private static final Boolean IS_PRETTY = true;
     private static final String ANY_DRY_RUN = "anyDryRun";
 
@@ -44,20 +67,45 @@ public class DeploymentServiceTest {
     @Mock
     private KubernetesClientService kubernetesClientService;
 
+    @Mock
+    private DeploymentCacheService deploymentCacheService;
+
     @Mock
     private DeploymentRepository deploymentRepository;
 
     @Mock
     private ConversionService conversionService;
 
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private DeploymentScaleDebouncer deploymentScaleDebouncer;
+
+    @Mock
+    private Bulkhead databaseBulkhead;
+
+    private KubernetesClusterRegistry kubernetesClusterRegistry;
     private UserEntity userEntity;
     private DeploymentEntity deploymentEntity;
+    private DeploymentSummary deploymentSummary;
     private DeploymentResource deploymentResource;
 
     @BeforeEach
     void init() {
         MockitoAnnotations.openMocks(this);
-        deploymentService = new DeploymentService(userService, kubernetesClientService, deploymentRepository, conversionService);
+        kubernetesClusterRegistry = new KubernetesClusterRegistry()
+                .register(ChallengeConstant.DEFAULT_CLUSTER, kubernetesClientService, Duration.ofSeconds(10));
+        deploymentService = new DeploymentService(userService, kubernetesClusterRegistry, deploymentCacheService,
+                deploymentRepository, conversionService, transactionTemplate, deploymentScaleDebouncer, databaseBulkhead);
+        Mockito.when(transactionTemplate.execute(Mockito.any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        Mockito.doAnswer(inv -> {
+            inv.<Runnable>getArgument(0).run();
+            return null;
+        }).when(databaseBulkhead).execute(Mockito.any());
+        Mockito.when(databaseBulkhead.supplyAsync(Mockito.any())).thenCallRealMethod();
+        Mockito.when(userService.findUserIdByName(ANY_USER_NAME)).thenReturn(ANY_USER_ID);
 
         userEntity = UserEntity.builder()
                 .name(ANY_NAME)
@@ -73,6 +121,9 @@ public class DeploymentServiceTest {
                 .user(userEntity)
                 .build();
 
+        deploymentSummary = new DeploymentSummary(ANY_ID, null, null, null, ANY_DEPLOYMENT_NAME, DEFAULT_NAMESPACE,
+                ANY_IMAGE, 2, ChallengeConstant.DEFAULT_CLUSTER);
+
         deploymentResource = DeploymentResource.builder()
                 .name(ANY_NAME)
                 .namespace(ANY_NAMESPACE)
@@ -86,15 +137,16 @@ public class DeploymentServiceTest {
     class ListDeployments {
 
         @Test
-        void givenUserNameAndNamespace_whenListDeployments_thenReturnsListOfDeploymentResourcesFromDatabase() throws ApiException {
+        void givenUserNameAndNamespace_whenListDeploymentsAsync_thenReturnsListOfDeploymentResourcesFromDatabase() {
             // Given
             Mockito.when(userService.findUserByName(ANY_USER_NAME)).thenReturn(userEntity);
-            Mockito.when(deploymentRepository.findAllByNamespaceAndUserUserNameOrderByCreationTimestampDesc(ANY_NAMESPACE, ANY_USER_NAME))
-                    .thenReturn(Collections.singletonList(deploymentEntity));
-            Mockito.when(conversionService.convert(deploymentEntity, DeploymentResource.class)).thenReturn(deploymentResource);
+            Mockito.when(deploymentRepository.findSummariesByUserIdAndNamespace(ANY_USER_ID, ANY_NAMESPACE))
+                    .thenReturn(Collections.singletonList(deploymentSummary));
+            Mockito.when(conversionService.convert(deploymentSummary, DeploymentResource.class)).thenReturn(deploymentResource);
 
             // When
-            List<DeploymentResource> deploymentResources = deploymentService.listDeployments(ANY_USER_NAME, ANY_NAMESPACE);
+            List<DeploymentResource> deploymentResources = deploymentService.listDeploymentsAsync(ANY_USER_NAME, ANY_NAMESPACE)
+                    .join().getDeployments();
 
             // Then
             Assertions.assertThat(deploymentResources).isNotEmpty();
@@ -105,15 +157,16 @@ public class DeploymentServiceTest {
         }
 
         @Test
-        void givenUserNameAndNullNamespace_whenListDeployments_thenReturnsListOfDeploymentResourcesFromDatabase() throws ApiException {
+        void givenUserNameAndNullNamespace_whenListDeploymentsAsync_thenReturnsListOfDeploymentResourcesFromDatabase() {
             // Given
             Mockito.when(userService.findUserByName(ANY_USER_NAME)).thenReturn(userEntity);
-            Mockito.when(deploymentRepository.findAllByUserUserNameOrderByCreationTimestampDesc(ANY_USER_NAME))
-                    .thenReturn(Collections.singletonList(deploymentEntity));
-            Mockito.when(conversionService.convert(deploymentEntity, DeploymentResource.class)).thenReturn(deploymentResource);
+            Mockito.when(deploymentRepository.findSummariesByUserId(ANY_USER_ID))
+                    .thenReturn(Collections.singletonList(deploymentSummary));
+            Mockito.when(conversionService.convert(deploymentSummary, DeploymentResource.class)).thenReturn(deploymentResource);
 
             // When
-            List<DeploymentResource> deploymentResources = deploymentService.listDeployments(ANY_USER_NAME, null);
+            List<DeploymentResource> deploymentResources = deploymentService.listDeploymentsAsync(ANY_USER_NAME, null)
+                    .join().getDeployments();
 
             // Then
             Assertions.assertThat(deploymentResources).isNotEmpty();
@@ -124,31 +177,35 @@ public class DeploymentServiceTest {
         }
 
         @Test
-        void givenInvalidUserNameAndNullNamespace_whenListDeployments_thenThrowNotFoundException() {
+        void givenInvalidUserNameAndNullNamespace_whenListDeploymentsAsync_thenCompletesWithNotFoundException() {
             // Given
-            Mockito.when(userService.findUserByName(INVALID_USER_NAME)).thenThrow(NotFoundException.class);
+            Mockito.when(userService.findUserIdByName(INVALID_USER_NAME)).thenThrow(NotFoundException.class);
 
             // When
-            ThrowableAssert.ThrowingCallable throwingCallable = () -> deploymentService.listDeployments(INVALID_USER_NAME, null);
+            ThrowableAssert.ThrowingCallable throwingCallable = () -> deploymentService
+                    .listDeploymentsAsync(INVALID_USER_NAME, null).join();
 
             // Then
-            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(NotFoundException.class);
+            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(NotFoundException.class);
         }
 
         @Test
-        void givenUserNameAndNullNamespace_whenListDeployments_thenReturnsListOfDeploymentResourcesFromKubernetesApi() throws ApiException {
+        void givenUserNameAndNullNamespace_whenListDeploymentsAsync_thenReturnsListOfDeploymentResourcesFromKubernetesApi() {
             // Given
-            V1DeploymentList v1DeploymentList = V1DeploymentFactory.createV1DeploymentList();
             Mockito.when(userService.findUserByName(ANY_USER_NAME)).thenReturn(userEntity);
-            Mockito.when(deploymentRepository.findAllByUserUserNameOrderByCreationTimestampDesc(ANY_USER_NAME))
+            Mockito.when(deploymentRepository.findSummariesByUserId(ANY_USER_ID))
                     .thenReturn(Collections.emptyList());
-            Mockito.when(kubernetesClientService.listDeployments(null, ANY_USER_NAME))
-                    .thenReturn(v1DeploymentList);
-            Mockito.when(conversionService.convert(v1DeploymentList.getItems().get(0), DeploymentResource.class))
-                    .thenReturn(deploymentResource);
+            Mockito.when(kubernetesClientService.listDeploymentResourcesAsync(Mockito.isNull(), Mockito.eq(ANY_USER_NAME), Mockito.any()))
+                    .thenAnswer(invocation -> {
+                        invocation.<Consumer<List<DeploymentResource>>>getArgument(2)
+                                .accept(Collections.singletonList(deploymentResource));
+                        return CompletableFuture.completedFuture(null);
+                    });
             Mockito.when(conversionService.convert(deploymentResource, DeploymentEntity.class)).thenReturn(deploymentEntity);
             // When
-            List<DeploymentResource> deploymentResources = deploymentService.listDeployments(ANY_USER_NAME, null);
+            List<DeploymentResource> deploymentResources = deploymentService.listDeploymentsAsync(ANY_USER_NAME, null)
+                    .join().getDeployments();
 
             // Then
             Assertions.assertThat(deploymentResources).isNotEmpty();
@@ -159,15 +216,42 @@ public class DeploymentServiceTest {
         }
 
         @Test
-        void givenUserNameAndNullNamespace_whenListDeployments_thenReturnsEmptyDeploymentResourcesFromKubernetesApi() throws ApiException {
+        void givenUserNameAndNamespaceAndSyncedCache_whenListDeploymentsAsync_thenReturnsListOfDeploymentResourcesFromCache() {
+            // Given
+            V1Deployment v1Deployment = V1DeploymentFactory.createV1Deployment();
+            Mockito.when(userService.findUserByName(ANY_USER_NAME)).thenReturn(userEntity);
+            Mockito.when(deploymentRepository.findSummariesByUserIdAndNamespace(ANY_USER_ID, ANY_NAMESPACE))
+                    .thenReturn(Collections.emptyList());
+            Mockito.when(deploymentCacheService.hasSynced()).thenReturn(true);
+            Mockito.when(deploymentCacheService.listDeployments(ANY_NAMESPACE, ANY_USER_NAME))
+                    .thenReturn(Collections.singletonList(v1Deployment));
+            Mockito.when(conversionService.convert(v1Deployment, DeploymentResource.class)).thenReturn(deploymentResource);
+            Mockito.when(conversionService.convert(deploymentResource, DeploymentEntity.class)).thenReturn(deploymentEntity);
+
+            // When
+            List<DeploymentResource> deploymentResources = deploymentService.listDeploymentsAsync(ANY_USER_NAME, ANY_NAMESPACE)
+                    .join().getDeployments();
+
+            // Then
+            Assertions.assertThat(deploymentResources).hasSize(1);
+            Assertions.assertThat(deploymentResources.get(0).getName()).isEqualTo(ANY_NAME);
+            Mockito.verifyNoInteractions(kubernetesClientService);
+        }
+
+        @Test
+        void givenUserNameAndNullNamespace_whenListDeploymentsAsync_thenReturnsEmptyDeploymentResourcesFromKubernetesApi() {
             // Given
             Mockito.when(userService.findUserByName(ANY_USER_NAME)).thenReturn(userEntity);
-            Mockito.when(deploymentRepository.findAllByUserUserNameOrderByCreationTimestampDesc(ANY_USER_NAME))
+            Mockito.when(deploymentRepository.findSummariesByUserId(ANY_USER_ID))
                     .thenReturn(Collections.emptyList());
-            Mockito.when(kubernetesClientService.listDeployments(null, ANY_USER_NAME))
-                    .thenReturn(new V1DeploymentList());
+            Mockito.when(kubernetesClientService.listDeploymentResourcesAsync(Mockito.isNull(), Mockito.eq(ANY_USER_NAME), Mockito.any()))
+                    .thenAnswer(invocation -> {
+                        invocation.<Consumer<List<DeploymentResource>>>getArgument(2).accept(Collections.emptyList());
+                        return CompletableFuture.completedFuture(null);
+                    });
             // When
-            List<DeploymentResource> deploymentResources = deploymentService.listDeployments(ANY_USER_NAME, null);
+            List<DeploymentResource> deploymentResources = deploymentService.listDeploymentsAsync(ANY_USER_NAME, null)
+                    .join().getDeployments();
 
             // Then
             Assertions.assertThat(deploymentResources).isEmpty();
@@ -188,13 +272,14 @@ public class DeploymentServiceTest {
             Mockito.when(conversionService.convert(deploymentResource, DeploymentEntity.class)).thenReturn(deploymentEntity);
             // When
             DeploymentResource deploymentResource = deploymentService
-                    .createDeployment(ANY_USER_NAME, ANY_NAMESPACE, v1Deployment, IS_PRETTY, ANY_DRY_RUN);
+                    .createDeployment(ANY_USER_NAME, null, ANY_NAMESPACE, v1Deployment, IS_PRETTY, ANY_DRY_RUN);
 
             // Then
             Assertions.assertThat(deploymentResource).isNotNull();
             Assertions.assertThat(deploymentResource.getNamespace()).isEqualTo(ANY_NAMESPACE);
             Assertions.assertThat(deploymentResource.getImage()).isEqualTo(ANY_IMAGE);
             Assertions.assertThat(deploymentResource.getName()).isEqualTo(ANY_NAME);
+            Mockito.verify(deploymentRepository).save(deploymentEntity);
         }
 
         @Test
@@ -204,7 +289,7 @@ public class DeploymentServiceTest {
             V1Deployment v1Deployment = V1DeploymentFactory.createV1Deployment();
             // When
             ThrowableAssert.ThrowingCallable throwingCallable = () -> deploymentService
-                    .createDeployment(ANY_USER_NAME, ANY_NAMESPACE, v1Deployment, IS_PRETTY, ANY_DRY_RUN);
+                    .createDeployment(ANY_USER_NAME, null, ANY_NAMESPACE, v1Deployment, IS_PRETTY, ANY_DRY_RUN);
 
             // Then
             Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(NotFoundException.class);
@@ -219,11 +304,761 @@ public class DeploymentServiceTest {
                     ANY_USER_NAME)).thenThrow(ApiException.class);
             // When
             ThrowableAssert.ThrowingCallable throwingCallable = () -> deploymentService
-                    .createDeployment(ANY_USER_NAME, ANY_NAMESPACE, v1Deployment, IS_PRETTY, ANY_DRY_RUN);
+                    .createDeployment(ANY_USER_NAME, null, ANY_NAMESPACE, v1Deployment, IS_PRETTY, ANY_DRY_RUN);
 
             // Then
             Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(ApiException.class);
 
         }
     }
+
+    @Nested
+    class PersistDeployment {
+
+        @Test
+        void givenCreatedDeployment_whenPersistDeployment_thenUpsertsRowOfUser() {
+            // Given
+            V1Deployment v1Deployment = V1DeploymentFactory.createV1Deployment();
+            Mockito.when(conversionService.convert(v1Deployment, DeploymentResource.class)).thenReturn(deploymentResource);
+            Mockito.when(conversionService.convert(deploymentResource, DeploymentEntity.class)).thenReturn(deploymentEntity);
+
+            // When
+            DeploymentResource persistedDeploymentResource = deploymentService.persistDeployment(ANY_USER_NAME, null,
+                    v1Deployment);
+
+            // Then
+            Assertions.assertThat(persistedDeploymentResource.getCluster()).isEqualTo(ChallengeConstant.DEFAULT_CLUSTER);
+            Mockito.verify(deploymentRepository).upsertAll(ANY_USER_ID, Collections.singletonList(deploymentEntity));
+        }
+    }
+
+    @Nested
+    class ListDeploymentsAsync {
+
+        @Test
+        void givenUserNameAndNullNamespace_whenListDeploymentsAsync_thenReturnsDeploymentResourcesFromKubernetesApi() {
+            // Given
+            Mockito.when(deploymentRepository.findSummariesByUserId(ANY_USER_ID))
+                    .thenReturn(Collections.emptyList());
+            Mockito.when(kubernetesClientService.listDeploymentResourcesAsync(Mockito.isNull(), Mockito.eq(ANY_USER_NAME), Mockito.any()))
+                    .thenAnswer(invocation -> {
+                        invocation.<Consumer<List<DeploymentResource>>>getArgument(2)
+                                .accept(Collections.singletonList(deploymentResource));
+                        return CompletableFuture.completedFuture(null);
+                    });
+            Mockito.when(conversionService.convert(deploymentResource, DeploymentEntity.class)).thenReturn(deploymentEntity);
+
+            // When
+            List<DeploymentResource> deploymentResources = deploymentService.listDeploymentsAsync(ANY_USER_NAME, null)
+                    .join().getDeployments();
+
+            // Then
+            Assertions.assertThat(deploymentResources).hasSize(1);
+            Assertions.assertThat(deploymentResources.get(0).getName()).isEqualTo(ANY_NAME);
+            Mockito.verify(deploymentRepository).upsertAll(ANY_USER_ID, Collections.singletonList(deploymentEntity));
+            Mockito.verify(transactionTemplate).execute(Mockito.any());
+        }
+
+        @Test
+        void givenUserNameAndNamespace_whenListDeploymentsAsync_thenCompletesFromDatabaseWithoutKubernetesCall() {
+            // Given
+            Mockito.when(userService.findUserByName(ANY_USER_NAME)).thenReturn(userEntity);
+            Mockito.when(deploymentRepository.findSummariesByUserIdAndNamespace(ANY_USER_ID, ANY_NAMESPACE))
+                    .thenReturn(Collections.singletonList(deploymentSummary));
+            Mockito.when(conversionService.convert(deploymentSummary, DeploymentResource.class)).thenReturn(deploymentResource);
+
+            // When
+            CompletableFuture<DeploymentListing> deploymentResources =
+                    deploymentService.listDeploymentsAsync(ANY_USER_NAME, ANY_NAMESPACE);
+
+            // Then
+            Assertions.assertThat(deploymentResources).isCompleted();
+            Assertions.assertThat(deploymentResources.join().getDeployments()).containsExactly(deploymentResource);
+            Mockito.verifyNoInteractions(kubernetesClientService);
+        }
+
+        @Test
+        void givenDatabaseBulkheadIsFull_whenListDeploymentsAsync_thenRejectsWithoutQueryingDatabase() {
+            // Given
+            Mockito.doThrow(new RejectedExecutionException("Bulkhead database is full"))
+                    .when(databaseBulkhead).execute(Mockito.any());
+
+            // When
+            ThrowableAssert.ThrowingCallable throwingCallable = () ->
+                    deploymentService.listDeploymentsAsync(ANY_USER_NAME, ANY_NAMESPACE);
+
+            // Then
+            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(RejectedExecutionException.class);
+            Mockito.verifyNoInteractions(deploymentRepository, kubernetesClientService);
+        }
+    }
+
+    @Nested
+    class ListDeploymentPage {
+
+        @Test
+        void givenMoreDeploymentsThanLimit_whenListDeploymentPageAsync_thenReturnsLimitAndCursorOfLastItem() {
+            // Given
+            LocalDateTime creationTimestamp = LocalDateTime.of(2020, 11, 20, 10, 15, 30);
+            DeploymentSummary newerSummary = new DeploymentSummary(ANY_ID, null, null, creationTimestamp,
+                    ANY_DEPLOYMENT_NAME, ANY_NAMESPACE, ANY_IMAGE, 2, ChallengeConstant.DEFAULT_CLUSTER);
+            Mockito.when(deploymentRepository.findPageByUserIdAndNamespace(ANY_USER_ID, ANY_NAMESPACE, PageRequest.of(0, 2)))
+                    .thenReturn(Arrays.asList(newerSummary, deploymentSummary));
+            Mockito.when(conversionService.convert(newerSummary, DeploymentResource.class)).thenReturn(deploymentResource);
+
+            // When
+            DeploymentPageResource page = deploymentService
+                    .listDeploymentPageAsync(ANY_USER_NAME, ANY_NAMESPACE, null, 1).join();
+
+            // Then
+            Assertions.assertThat(page.getItems()).containsExactly(deploymentResource);
+            DeploymentService.PageCursor pageCursor = DeploymentService.PageCursor.decode(page.getNextCursor());
+            Assertions.assertThat(pageCursor.getCreationTimestamp()).isEqualTo(creationTimestamp);
+            Assertions.assertThat(pageCursor.getId()).isEqualTo(ANY_ID);
+            Mockito.verifyNoInteractions(kubernetesClientService);
+        }
+
+        @Test
+        void givenCursor_whenListDeploymentPageAsync_thenContinuesAfterCursorAndLastPageHasNoCursor() {
+            // Given
+            LocalDateTime creationTimestamp = LocalDateTime.of(2020, 11, 20, 10, 15, 30, 1000);
+            String cursor = new DeploymentService.PageCursor(creationTimestamp, OTHER_ID).encode();
+            Mockito.when(deploymentRepository.findPageByUserIdAfter(ANY_USER_ID, creationTimestamp, OTHER_ID,
+                    PageRequest.of(0, 11))).thenReturn(Collections.singletonList(deploymentSummary));
+            Mockito.when(conversionService.convert(deploymentSummary, DeploymentResource.class)).thenReturn(deploymentResource);
+
+            // When
+            DeploymentPageResource page = deploymentService
+                    .listDeploymentPageAsync(ANY_USER_NAME, null, cursor, 10).join();
+
+            // Then
+            Assertions.assertThat(page.getItems()).containsExactly(deploymentResource);
+            Assertions.assertThat(page.getNextCursor()).isNull();
+        }
+
+        @Test
+        void givenNoPersistedDeployments_whenListDeploymentPageAsync_thenMigratesFromKubernetesApiAndQueriesAgain() {
+            // Given
+            Mockito.when(deploymentRepository.findPageByUserId(ANY_USER_ID, PageRequest.of(0, 11)))
+                    .thenReturn(Collections.emptyList())
+                    .thenReturn(Collections.singletonList(deploymentSummary));
+            Mockito.when(kubernetesClientService.listDeploymentResourcesAsync(Mockito.isNull(), Mockito.eq(ANY_USER_NAME), Mockito.any()))
+                    .thenAnswer(invocation -> {
+                        invocation.<Consumer<List<DeploymentResource>>>getArgument(2)
+                                .accept(Collections.singletonList(deploymentResource));
+                        return CompletableFuture.completedFuture(null);
+                    });
+            Mockito.when(conversionService.convert(deploymentResource, DeploymentEntity.class)).thenReturn(deploymentEntity);
+            Mockito.when(conversionService.convert(deploymentSummary, DeploymentResource.class)).thenReturn(deploymentResource);
+
+            // When
+            DeploymentPageResource page = deploymentService.listDeploymentPageAsync(ANY_USER_NAME, null, null, 10).join();
+
+            // Then
+            Assertions.assertThat(page.getItems()).containsExactly(deploymentResource);
+            Mockito.verify(deploymentRepository).upsertAll(ANY_USER_ID, Collections.singletonList(deploymentEntity));
+            Mockito.verify(deploymentRepository, Mockito.times(2)).findPageByUserId(ANY_USER_ID, PageRequest.of(0, 11));
+        }
+
+        @Test
+        void givenMalformedCursor_whenListDeploymentPageAsync_thenThrowsBadRequestException() {
+            // When
+            ThrowableAssert.ThrowingCallable throwingCallable = () ->
+                    deploymentService.listDeploymentPageAsync(ANY_USER_NAME, ANY_NAMESPACE, "not-a-cursor", 10);
+
+            // Then
+            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(BadRequestException.class);
+            Mockito.verifyNoInteractions(deploymentRepository);
+        }
+
+        @Test
+        void givenLimitAboveMaximum_whenListDeploymentPageAsync_thenThrowsBadRequestException() {
+            // When
+            ThrowableAssert.ThrowingCallable throwingCallable = () -> deploymentService
+                    .listDeploymentPageAsync(ANY_USER_NAME, ANY_NAMESPACE, null, DeploymentService.MAX_PAGE_SIZE + 1);
+
+            // Then
+            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(BadRequestException.class);
+            Mockito.verifyNoInteractions(deploymentRepository);
+        }
+    }
+
+    @Nested
+    class CoalescedListDeployments {
+
+        private CompletableFuture<Void> pendingListing;
+
+        @BeforeEach
+        void init() {
+            pendingListing = new CompletableFuture<>();
+            Mockito.when(userService.findUserByName(ANY_USER_NAME)).thenReturn(userEntity);
+            Mockito.when(deploymentRepository.findSummariesByUserId(ANY_USER_ID))
+                    .thenReturn(Collections.emptyList());
+            Mockito.when(deploymentRepository.findSummariesByUserIdAndNamespace(ANY_USER_ID, ANY_NAMESPACE))
+                    .thenReturn(Collections.emptyList());
+            Mockito.when(kubernetesClientService.listDeploymentResourcesAsync(Mockito.any(), Mockito.eq(ANY_USER_NAME), Mockito.any()))
+                    .thenAnswer(invocation -> {
+                        invocation.<Consumer<List<DeploymentResource>>>getArgument(2)
+                                .accept(Collections.singletonList(deploymentResource));
+                        return pendingListing;
+                    });
+            Mockito.when(conversionService.convert(deploymentResource, DeploymentEntity.class)).thenReturn(deploymentEntity);
+        }
+
+        @Test
+        void givenInFlightListing_whenListDeploymentsAsync_thenSharesResultOfSingleBackendCall() {
+            // Given
+            CompletableFuture<DeploymentListing> firstListing = deploymentService.listDeploymentsAsync(ANY_USER_NAME, null);
+
+            // When
+            CompletableFuture<DeploymentListing> secondListing = deploymentService.listDeploymentsAsync(ANY_USER_NAME, "");
+            pendingListing.complete(null);
+
+            // Then
+            Assertions.assertThat(firstListing.join().getDeployments()).containsExactly(deploymentResource);
+            Assertions.assertThat(secondListing.join().getDeployments()).containsExactly(deploymentResource);
+            Mockito.verify(deploymentRepository).findSummariesByUserId(ANY_USER_ID);
+            Mockito.verify(kubernetesClientService).listDeploymentResourcesAsync(Mockito.isNull(), Mockito.eq(ANY_USER_NAME), Mockito.any());
+        }
+
+        @Test
+        void givenInFlightListing_whenListDeploymentsAsync_thenWaitersCanNotModifySharedResult() {
+            // Given
+            CompletableFuture<DeploymentListing> firstListing = deploymentService.listDeploymentsAsync(ANY_USER_NAME, null);
+            CompletableFuture<DeploymentListing> secondListing = deploymentService.listDeploymentsAsync(ANY_USER_NAME, null);
+
+            // When
+            pendingListing.complete(null);
+
+            // Then
+            Assertions.assertThatThrownBy(() -> firstListing.join().getDeployments().clear())
+                    .isInstanceOf(UnsupportedOperationException.class);
+            Assertions.assertThat(secondListing.join().getDeployments()).containsExactly(deploymentResource);
+        }
+
+        @Test
+        void givenCompletedListing_whenListDeploymentsAsync_thenStartsNewBackendCall() {
+            // Given
+            pendingListing.complete(null);
+            deploymentService.listDeploymentsAsync(ANY_USER_NAME, null).join();
+
+            // When
+            deploymentService.listDeploymentsAsync(ANY_USER_NAME, null).join();
+
+            // Then
+            Mockito.verify(kubernetesClientService, Mockito.times(2))
+                    .listDeploymentResourcesAsync(Mockito.isNull(), Mockito.eq(ANY_USER_NAME), Mockito.any());
+        }
+
+        @Test
+        void givenInFlightListingOfOtherNamespace_whenListDeploymentsAsync_thenStartsOwnBackendCall() {
+            // Given
+            deploymentService.listDeploymentsAsync(ANY_USER_NAME, null);
+
+            // When
+            deploymentService.listDeploymentsAsync(ANY_USER_NAME, ANY_NAMESPACE);
+
+            // Then
+            Mockito.verify(kubernetesClientService).listDeploymentResourcesAsync(Mockito.isNull(), Mockito.eq(ANY_USER_NAME), Mockito.any());
+            Mockito.verify(kubernetesClientService).listDeploymentResourcesAsync(Mockito.eq(ANY_NAMESPACE), Mockito.eq(ANY_USER_NAME), Mockito.any());
+        }
+
+        @Test
+        void givenFailingInFlightListing_whenListDeploymentsAsync_thenAllWaitersFailAndNextRequestRetries() {
+            // Given
+            CompletableFuture<DeploymentListing> firstListing = deploymentService.listDeploymentsAsync(ANY_USER_NAME, null);
+            CompletableFuture<DeploymentListing> secondListing = deploymentService.listDeploymentsAsync(ANY_USER_NAME, null);
+
+            // When
+            pendingListing.completeExceptionally(new ApiException());
+
+            // Then
+            Assertions.assertThatThrownBy(firstListing::join).hasCauseInstanceOf(ApiException.class);
+            Assertions.assertThatThrownBy(secondListing::join).hasCauseInstanceOf(ApiException.class);
+            deploymentService.listDeploymentsAsync(ANY_USER_NAME, null);
+            Mockito.verify(kubernetesClientService, Mockito.times(2))
+                    .listDeploymentResourcesAsync(Mockito.isNull(), Mockito.eq(ANY_USER_NAME), Mockito.any());
+        }
+    }
+
+    @Nested
+    class MultiCluster {
+
+        private static final String OTHER_CLUSTER = "otherCluster";
+
+        @Mock
+        private KubernetesClientService otherKubernetesClientService;
+
+        @BeforeEach
+        void init() {
+            MockitoAnnotations.openMocks(this);
+            kubernetesClusterRegistry.register(OTHER_CLUSTER, otherKubernetesClientService, Duration.ofSeconds(10));
+        }
+
+        @Test
+        void givenTwoClustersAndSyncedCache_whenListDeploymentsAsync_thenReturnsDeploymentResourcesOfBothClusters() {
+            // Given
+            V1Deployment v1Deployment = V1DeploymentFactory.createV1Deployment();
+            DeploymentResource otherDeploymentResource = DeploymentResource.builder().name(ANY_DEPLOYMENT_NAME).build();
+            Mockito.when(userService.findUserByName(ANY_USER_NAME)).thenReturn(userEntity);
+            Mockito.when(deploymentRepository.findSummariesByUserId(ANY_USER_ID))
+                    .thenReturn(Collections.emptyList());
+            Mockito.when(deploymentCacheService.hasSynced()).thenReturn(true);
+            Mockito.when(deploymentCacheService.listDeployments(null, ANY_USER_NAME))
+                    .thenReturn(Collections.singletonList(v1Deployment));
+            Mockito.when(conversionService.convert(v1Deployment, DeploymentResource.class)).thenReturn(deploymentResource);
+            Mockito.when(otherKubernetesClientService.listDeploymentResourcesAsync(Mockito.isNull(), Mockito.eq(ANY_USER_NAME), Mockito.any()))
+                    .thenAnswer(invocation -> {
+                        invocation.<Consumer<List<DeploymentResource>>>getArgument(2)
+                                .accept(Collections.singletonList(otherDeploymentResource));
+                        return CompletableFuture.completedFuture(null);
+                    });
+            Mockito.when(conversionService.convert(Mockito.any(DeploymentResource.class), Mockito.eq(DeploymentEntity.class)))
+                    .thenReturn(deploymentEntity);
+
+            // When
+            List<DeploymentResource> deploymentResources = deploymentService.listDeploymentsAsync(ANY_USER_NAME, null)
+                    .join().getDeployments();
+
+            // Then
+            Assertions.assertThat(deploymentResources).containsExactly(deploymentResource, otherDeploymentResource);
+            Assertions.assertThat(deploymentResource.getCluster()).isEqualTo(ChallengeConstant.DEFAULT_CLUSTER);
+            Assertions.assertThat(otherDeploymentResource.getCluster()).isEqualTo(OTHER_CLUSTER);
+            Mockito.verifyNoInteractions(kubernetesClientService);
+        }
+
+        @Test
+        void givenFailingCluster_whenListDeploymentsAsync_thenReturnsOtherClusterAndClusterErrorWithoutPersisting() {
+            // Given
+            V1Deployment v1Deployment = V1DeploymentFactory.createV1Deployment();
+            CompletableFuture<Void> failedListing = new CompletableFuture<>();
+            failedListing.completeExceptionally(new ApiException());
+            Mockito.when(userService.findUserByName(ANY_USER_NAME)).thenReturn(userEntity);
+            Mockito.when(deploymentRepository.findSummariesByUserId(ANY_USER_ID))
+                    .thenReturn(Collections.emptyList());
+            Mockito.when(deploymentCacheService.hasSynced()).thenReturn(true);
+            Mockito.when(deploymentCacheService.listDeployments(null, ANY_USER_NAME))
+                    .thenReturn(Collections.singletonList(v1Deployment));
+            Mockito.when(conversionService.convert(v1Deployment, DeploymentResource.class)).thenReturn(deploymentResource);
+            Mockito.when(otherKubernetesClientService.listDeploymentResourcesAsync(Mockito.isNull(), Mockito.eq(ANY_USER_NAME), Mockito.any()))
+                    .thenReturn(failedListing);
+
+            // When
+            DeploymentListing listing = deploymentService.listDeploymentsAsync(ANY_USER_NAME, null).join();
+
+            // Then
+            Assertions.assertThat(listing.getDeployments()).containsExactly(deploymentResource);
+            Assertions.assertThat(listing.getClusterErrors()).containsOnlyKeys(OTHER_CLUSTER);
+            Assertions.assertThat(listing.isComplete()).isFalse();
+            Mockito.verify(deploymentRepository, Mockito.never()).upsertAll(Mockito.any(), Mockito.any());
+        }
+
+        @Test
+        void givenCluster_whenCreateDeploymentAsync_thenCreatesOnThatCluster() {
+            // Given
+            Mockito.when(userService.findUserByName(ANY_USER_NAME)).thenReturn(userEntity);
+            V1Deployment v1Deployment = V1DeploymentFactory.createV1Deployment();
+            Mockito.when(otherKubernetesClientService.createDeploymentAsync(ANY_NAMESPACE, v1Deployment, IS_PRETTY, ANY_DRY_RUN,
+                    ANY_USER_NAME)).thenReturn(CompletableFuture.completedFuture(v1Deployment));
+            Mockito.when(conversionService.convert(v1Deployment, DeploymentResource.class)).thenReturn(deploymentResource);
+            Mockito.when(conversionService.convert(deploymentResource, DeploymentEntity.class)).thenReturn(deploymentEntity);
+
+            // When
+            DeploymentResource createdDeploymentResource = deploymentService
+                    .createDeploymentAsync(ANY_USER_NAME, OTHER_CLUSTER, ANY_NAMESPACE, v1Deployment, IS_PRETTY, ANY_DRY_RUN).join();
+
+            // Then
+            Assertions.assertThat(createdDeploymentResource.getCluster()).isEqualTo(OTHER_CLUSTER);
+            Mockito.verifyNoInteractions(kubernetesClientService);
+        }
+
+        @Test
+        void givenUnknownCluster_whenCreateDeploymentAsync_thenThrowsBadRequestException() {
+            // Given
+            Mockito.when(userService.findUserByName(ANY_USER_NAME)).thenReturn(userEntity);
+            V1Deployment v1Deployment = V1DeploymentFactory.createV1Deployment();
+
+            // When
+            ThrowableAssert.ThrowingCallable throwingCallable = () -> deploymentService
+                    .createDeploymentAsync(ANY_USER_NAME, "unknownCluster", ANY_NAMESPACE, v1Deployment, IS_PRETTY, ANY_DRY_RUN);
+
+            // Then
+            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(BadRequestException.class);
+        }
+    }
+
+    @Nested
+    class CreateDeploymentAsync {
+
+        @Test
+        void givenAllValidParameters_whenCreateDeploymentAsync_thenPersistsAndReturnsDeploymentResource() {
+            // Given
+            Mockito.when(userService.findUserByName(ANY_USER_NAME)).thenReturn(userEntity);
+            V1Deployment v1Deployment = V1DeploymentFactory.createV1Deployment();
+            Mockito.when(kubernetesClientService.createDeploymentAsync(ANY_NAMESPACE, v1Deployment, IS_PRETTY, ANY_DRY_RUN,
+                    ANY_USER_NAME)).thenReturn(CompletableFuture.completedFuture(v1Deployment));
+            Mockito.when(conversionService.convert(v1Deployment, DeploymentResource.class)).thenReturn(deploymentResource);
+            Mockito.when(conversionService.convert(deploymentResource, DeploymentEntity.class)).thenReturn(deploymentEntity);
+
+            // When
+            DeploymentResource createdDeploymentResource = deploymentService
+                    .createDeploymentAsync(ANY_USER_NAME, null, ANY_NAMESPACE, v1Deployment, IS_PRETTY, ANY_DRY_RUN).join();
+
+            // Then
+            Assertions.assertThat(createdDeploymentResource).isEqualTo(deploymentResource);
+            Assertions.assertThat(deploymentEntity.getUser()).isEqualTo(userEntity);
+            Mockito.verify(deploymentRepository).save(deploymentEntity);
+        }
+
+        @Test
+        void givenAllValidParameters_whenCreateDeploymentAsync_thenCompletesExceptionallyWithApiException() {
+            // Given
+            Mockito.when(userService.findUserByName(ANY_USER_NAME)).thenReturn(userEntity);
+            V1Deployment v1Deployment = V1DeploymentFactory.createV1Deployment();
+            CompletableFuture<V1Deployment> failedFuture = new CompletableFuture<>();
+            failedFuture.completeExceptionally(new ApiException());
+            Mockito.when(kubernetesClientService.createDeploymentAsync(ANY_NAMESPACE, v1Deployment, IS_PRETTY, ANY_DRY_RUN,
+                    ANY_USER_NAME)).thenReturn(failedFuture);
+
+            // When
+            ThrowableAssert.ThrowingCallable throwingCallable = () -> deploymentService
+                    .createDeploymentAsync(ANY_USER_NAME, null, ANY_NAMESPACE, v1Deployment, IS_PRETTY, ANY_DRY_RUN).join();
+
+            // Then
+            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(ApiException.class);
+            Mockito.verifyNoInteractions(deploymentRepository);
+        }
+
+        @Test
+        void givenDatabaseBulkheadIsFull_whenCreateDeploymentAsync_thenRejectsWithoutCreating() {
+            // Given
+            Mockito.doThrow(new RejectedExecutionException("Bulkhead database is full"))
+                    .when(databaseBulkhead).execute(Mockito.any());
+            V1Deployment v1Deployment = V1DeploymentFactory.createV1Deployment();
+
+            // When
+            ThrowableAssert.ThrowingCallable throwingCallable = () -> deploymentService
+                    .createDeploymentAsync(ANY_USER_NAME, null, ANY_NAMESPACE, v1Deployment, IS_PRETTY, ANY_DRY_RUN);
+
+            // Then
+            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(RejectedExecutionException.class);
+            Mockito.verifyNoInteractions(userService, kubernetesClientService, deploymentRepository);
+        }
+    }
+
+    @Nested
+    class CreateDeploymentsAsync {
+
+        @Test
+        void givenSucceedingAndFailingItems_whenCreateDeploymentsAsync_thenReturnsResultPerItemAndPersistsCreatedOnes() {
+            // Given
+            Mockito.when(userService.findUserByName(ANY_USER_NAME)).thenReturn(userEntity);
+            CreateDeploymentDto succeedingDto = createDeploymentDto(null);
+            CreateDeploymentDto failingDto = createDeploymentDto(null);
+            V1Deployment succeedingDeployment = V1DeploymentFactory.createV1Deployment();
+            V1Deployment failingDeployment = new V1Deployment();
+            Mockito.when(conversionService.convert(succeedingDto, V1Deployment.class)).thenReturn(succeedingDeployment);
+            Mockito.when(conversionService.convert(failingDto, V1Deployment.class)).thenReturn(failingDeployment);
+            Mockito.when(kubernetesClientService.createDeploymentAsync(ANY_NAMESPACE, succeedingDeployment, null, null,
+                    ANY_USER_NAME)).thenReturn(CompletableFuture.completedFuture(succeedingDeployment));
+            CompletableFuture<V1Deployment> failedFuture = new CompletableFuture<>();
+            failedFuture.completeExceptionally(new ApiException(409, Collections.emptyMap(), "AlreadyExists"));
+            Mockito.when(kubernetesClientService.createDeploymentAsync(ANY_NAMESPACE, failingDeployment, null, null,
+                    ANY_USER_NAME)).thenReturn(failedFuture);
+            Mockito.when(conversionService.convert(succeedingDeployment, DeploymentResource.class)).thenReturn(deploymentResource);
+            Mockito.when(conversionService.convert(deploymentResource, DeploymentEntity.class)).thenReturn(deploymentEntity);
+
+            // When
+            List<DeploymentBatchItemResource> results = deploymentService
+                    .createDeploymentsAsync(ANY_USER_NAME, Arrays.asList(failingDto, succeedingDto)).join();
+
+            // Then
+            Assertions.assertThat(results).extracting(DeploymentBatchItemResource::getIndex).containsExactly(0, 1);
+            Assertions.assertThat(results.get(0).getDeployment()).isNull();
+            Assertions.assertThat(results.get(0).getError().getCode()).isEqualTo(ExceptionResponse.BAD_REQUEST.getCode());
+            Assertions.assertThat(results.get(1).getDeployment()).isEqualTo(deploymentResource);
+            Assertions.assertThat(results.get(1).getDeployment().getCluster()).isEqualTo(ChallengeConstant.DEFAULT_CLUSTER);
+            Assertions.assertThat(deploymentEntity.getUser()).isEqualTo(userEntity);
+            Mockito.verify(deploymentRepository).saveAll(Collections.singletonList(deploymentEntity));
+            Mockito.verify(transactionTemplate).execute(Mockito.any());
+        }
+
+        @Test
+        void givenMoreItemsThanParallelism_whenCreateDeploymentsAsync_thenBoundsRequestsInFlight() {
+            // Given
+            Mockito.when(userService.findUserByName(ANY_USER_NAME)).thenReturn(userEntity);
+            List<CreateDeploymentDto> createDeploymentDtos = new ArrayList<>();
+            for (int i = 0; i < DeploymentService.CREATE_BATCH_PARALLELISM * 2; i++) {
+                createDeploymentDtos.add(createDeploymentDto(null));
+            }
+            V1Deployment v1Deployment = V1DeploymentFactory.createV1Deployment();
+            Mockito.when(conversionService.convert(Mockito.any(CreateDeploymentDto.class), Mockito.eq(V1Deployment.class)))
+                    .thenReturn(v1Deployment);
+            List<CompletableFuture<V1Deployment>> pendingCreates = new ArrayList<>();
+            Mockito.when(kubernetesClientService.createDeploymentAsync(ANY_NAMESPACE, v1Deployment, null, null, ANY_USER_NAME))
+                    .thenAnswer(inv -> {
+                        CompletableFuture<V1Deployment> pendingCreate = new CompletableFuture<>();
+                        pendingCreates.add(pendingCreate);
+                        return pendingCreate;
+                    });
+            Mockito.when(conversionService.convert(v1Deployment, DeploymentResource.class)).thenReturn(deploymentResource);
+            Mockito.when(conversionService.convert(deploymentResource, DeploymentEntity.class)).thenReturn(deploymentEntity);
+
+            // When
+            CompletableFuture<List<DeploymentBatchItemResource>> results =
+                    deploymentService.createDeploymentsAsync(ANY_USER_NAME, createDeploymentDtos);
+
+            // Then
+            Assertions.assertThat(pendingCreates).hasSize(DeploymentService.CREATE_BATCH_PARALLELISM);
+            pendingCreates.get(0).complete(v1Deployment);
+            Assertions.assertThat(pendingCreates).hasSize(DeploymentService.CREATE_BATCH_PARALLELISM + 1);
+            for (int i = 1; i < pendingCreates.size(); i++) {
+                pendingCreates.get(i).complete(v1Deployment);
+            }
+            Assertions.assertThat(results.join()).hasSize(createDeploymentDtos.size());
+            Mockito.verify(deploymentRepository).saveAll(Mockito.argThat(entities ->
+                    ((List<?>) entities).size() == createDeploymentDtos.size()));
+        }
+
+        @Test
+        void givenBatchCanNotBePersisted_whenCreateDeploymentsAsync_thenPersistsOneByOneAndReportsItemsNotStored() {
+            // Given
+            Mockito.when(userService.findUserByName(ANY_USER_NAME)).thenReturn(userEntity);
+            CreateDeploymentDto storedDto = createDeploymentDto(null);
+            CreateDeploymentDto notStoredDto = createDeploymentDto(null);
+            V1Deployment storedDeployment = V1DeploymentFactory.createV1Deployment();
+            V1Deployment notStoredDeployment = new V1Deployment();
+            Mockito.when(conversionService.convert(storedDto, V1Deployment.class)).thenReturn(storedDeployment);
+            Mockito.when(conversionService.convert(notStoredDto, V1Deployment.class)).thenReturn(notStoredDeployment);
+            Mockito.when(kubernetesClientService.createDeploymentAsync(ANY_NAMESPACE, storedDeployment, null, null,
+                    ANY_USER_NAME)).thenReturn(CompletableFuture.completedFuture(storedDeployment));
+            Mockito.when(kubernetesClientService.createDeploymentAsync(ANY_NAMESPACE, notStoredDeployment, null, null,
+                    ANY_USER_NAME)).thenReturn(CompletableFuture.completedFuture(notStoredDeployment));
+            DeploymentResource notStoredResource = new DeploymentResource();
+            DeploymentEntity notStoredEntity = new DeploymentEntity();
+            notStoredEntity.setDeploymentName("notStored");
+            Mockito.when(conversionService.convert(storedDeployment, DeploymentResource.class)).thenReturn(deploymentResource);
+            Mockito.when(conversionService.convert(notStoredDeployment, DeploymentResource.class)).thenReturn(notStoredResource);
+            Mockito.when(conversionService.convert(deploymentResource, DeploymentEntity.class)).thenReturn(deploymentEntity);
+            Mockito.when(conversionService.convert(notStoredResource, DeploymentEntity.class)).thenReturn(notStoredEntity);
+            Mockito.when(deploymentRepository.saveAll(Mockito.any())).thenThrow(new DataIntegrityViolationException("batch"));
+            Mockito.when(deploymentRepository.save(notStoredEntity)).thenThrow(new DataIntegrityViolationException("item"));
+
+            // When
+            List<DeploymentBatchItemResource> results = deploymentService
+                    .createDeploymentsAsync(ANY_USER_NAME, Arrays.asList(storedDto, notStoredDto)).join();
+
+            // Then
+            Assertions.assertThat(results.get(0).getDeployment()).isEqualTo(deploymentResource);
+            Assertions.assertThat(results.get(0).getError()).isNull();
+            Assertions.assertThat(results.get(1).getDeployment()).isEqualTo(notStoredResource);
+            Assertions.assertThat(results.get(1).getError().getCode()).isEqualTo(ExceptionResponse.SERVER_ERROR.getCode());
+            Assertions.assertThat(results.get(1).getError().getReasonMessage()).contains("notStored");
+            Mockito.verify(deploymentRepository).save(deploymentEntity);
+            Mockito.verify(deploymentRepository).save(notStoredEntity);
+        }
+
+        @Test
+        void givenUnknownCluster_whenCreateDeploymentsAsync_thenReturnsBadRequestForItemAndPersistsNothing() {
+            // Given
+            Mockito.when(userService.findUserByName(ANY_USER_NAME)).thenReturn(userEntity);
+            CreateDeploymentDto createDeploymentDto = createDeploymentDto("unknownCluster");
+
+            // When
+            List<DeploymentBatchItemResource> results = deploymentService
+                    .createDeploymentsAsync(ANY_USER_NAME, Collections.singletonList(createDeploymentDto)).join();
+
+            // Then
+            Assertions.assertThat(results).hasSize(1);
+            Assertions.assertThat(results.get(0).getError().getCode()).isEqualTo(ExceptionResponse.BAD_REQUEST.getCode());
+            Mockito.verifyNoInteractions(kubernetesClientService, deploymentRepository);
+        }
+
+        private CreateDeploymentDto createDeploymentDto(String cluster) {
+            return CreateDeploymentDto.builder()
+                    .namespace(ANY_NAMESPACE)
+                    .metaDataName(ANY_DEPLOYMENT_NAME)
+                    .imageName(ANY_IMAGE)
+                    .cluster(cluster)
+                    .build();
+        }
+    }
+
+    @Nested
+    class UpdateDeploymentAsync {
+
+        @BeforeEach
+        void init() {
+            deploymentEntity.setCluster(ChallengeConstant.DEFAULT_CLUSTER);
+            Mockito.when(deploymentCacheService.hasSynced()).thenReturn(true);
+        }
+
+        @Test
+        void givenCachedDeploymentWithSameReplicas_whenUpdateDeploymentAsync_thenSkipsPatchAndPersistsCurrent() {
+            // Given
+            V1Deployment currentDeployment = createUserDeployment(ANY_USER_NAME);
+            Mockito.when(deploymentCacheService.getDeployment(DEFAULT_NAMESPACE, ANY_DEPLOYMENT_NAME)).thenReturn(currentDeployment);
+            DeploymentResource currentResource = DeploymentResource.builder().name(ANY_DEPLOYMENT_NAME)
+                    .namespace(DEFAULT_NAMESPACE).image(ANY_IMAGE).replicas(2).build();
+            Mockito.when(conversionService.convert(currentDeployment, DeploymentResource.class)).thenReturn(currentResource);
+            Mockito.when(deploymentRepository.findFirstByClusterAndNamespaceAndDeploymentNameAndUserUserName(
+                    ChallengeConstant.DEFAULT_CLUSTER, DEFAULT_NAMESPACE, ANY_DEPLOYMENT_NAME, ANY_USER_NAME))
+                    .thenReturn(Optional.of(deploymentEntity));
+
+            // When
+            DeploymentResource updatedDeploymentResource = deploymentService.updateDeploymentAsync(ANY_USER_NAME, null,
+                    DEFAULT_NAMESPACE, ANY_DEPLOYMENT_NAME, 2, ANY_IMAGE, null).join();
+
+            // Then
+            Assertions.assertThat(updatedDeploymentResource).isEqualTo(currentResource);
+            Mockito.verifyNoInteractions(kubernetesClientService);
+            Mockito.verify(deploymentRepository).save(deploymentEntity);
+            Assertions.assertThat(deploymentEntity.getReplicas()).isEqualTo(2);
+        }
+
+        @Test
+        void givenStalePersistedDeploymentWithSameReplicas_whenUpdateDeploymentAsync_thenPatchesCurrentDeployment() {
+            // Given
+            deploymentEntity.setReplicas(5);
+            Mockito.when(deploymentRepository.findFirstByClusterAndNamespaceAndDeploymentNameAndUserUserName(
+                    ChallengeConstant.DEFAULT_CLUSTER, DEFAULT_NAMESPACE, ANY_DEPLOYMENT_NAME, ANY_USER_NAME))
+                    .thenReturn(Optional.of(deploymentEntity));
+            V1Deployment currentDeployment = createUserDeployment(ANY_USER_NAME);
+            Mockito.when(deploymentCacheService.getDeployment(DEFAULT_NAMESPACE, ANY_DEPLOYMENT_NAME)).thenReturn(currentDeployment);
+            Mockito.when(conversionService.convert(currentDeployment, DeploymentResource.class))
+                    .thenReturn(DeploymentResource.builder().name(ANY_DEPLOYMENT_NAME).namespace(DEFAULT_NAMESPACE)
+                            .image(ANY_IMAGE).replicas(2).build());
+            Mockito.when(kubernetesClientService.patchDeploymentAsync(Mockito.eq(ANY_DEPLOYMENT_NAME),
+                    Mockito.eq(DEFAULT_NAMESPACE), Mockito.any(V1Deployment.class), Mockito.eq(ANY_DRY_RUN)))
+                    .thenReturn(CompletableFuture.completedFuture(currentDeployment));
+
+            // When
+            deploymentService.updateDeploymentAsync(ANY_USER_NAME, null, DEFAULT_NAMESPACE, ANY_DEPLOYMENT_NAME, 5,
+                    null, ANY_DRY_RUN).join();
+
+            // Then
+            Mockito.verify(kubernetesClientService).patchDeploymentAsync(Mockito.eq(ANY_DEPLOYMENT_NAME),
+                    Mockito.eq(DEFAULT_NAMESPACE), Mockito.any(V1Deployment.class), Mockito.eq(ANY_DRY_RUN));
+        }
+
+        @Test
+        void givenCachedDeploymentWithOtherReplicas_whenUpdateDeploymentAsync_thenPatchesReplicasAndPersists() {
+            // Given
+            V1Deployment currentDeployment = createUserDeployment(ANY_USER_NAME);
+            Mockito.when(deploymentCacheService.getDeployment(DEFAULT_NAMESPACE, ANY_DEPLOYMENT_NAME)).thenReturn(currentDeployment);
+            Mockito.when(conversionService.convert(currentDeployment, DeploymentResource.class))
+                    .thenReturn(DeploymentResource.builder().name(ANY_DEPLOYMENT_NAME).namespace(DEFAULT_NAMESPACE)
+                            .image(ANY_IMAGE).replicas(2).build());
+            V1Deployment patchedDeployment = createUserDeployment(ANY_USER_NAME);
+            patchedDeployment.getSpec().setReplicas(5);
+            Mockito.when(kubernetesClientService.patchDeploymentAsync(Mockito.eq(ANY_DEPLOYMENT_NAME),
+                    Mockito.eq(DEFAULT_NAMESPACE), Mockito.any(V1Deployment.class), Mockito.isNull()))
+                    .thenReturn(CompletableFuture.completedFuture(patchedDeployment));
+            DeploymentResource patchedResource = DeploymentResource.builder().name(ANY_DEPLOYMENT_NAME)
+                    .namespace(DEFAULT_NAMESPACE).image(ANY_IMAGE).replicas(5).build();
+            Mockito.when(conversionService.convert(patchedDeployment, DeploymentResource.class)).thenReturn(patchedResource);
+            Mockito.when(conversionService.convert(patchedResource, DeploymentEntity.class)).thenReturn(deploymentEntity);
+            Mockito.when(userService.findUserByName(ANY_USER_NAME)).thenReturn(userEntity);
+
+            // When
+            DeploymentResource updatedDeploymentResource = deploymentService.updateDeploymentAsync(ANY_USER_NAME, null,
+                    DEFAULT_NAMESPACE, ANY_DEPLOYMENT_NAME, 5, null, null).join();
+
+            // Then
+            Assertions.assertThat(updatedDeploymentResource.getReplicas()).isEqualTo(5);
+            Assertions.assertThat(updatedDeploymentResource.getCluster()).isEqualTo(ChallengeConstant.DEFAULT_CLUSTER);
+            ArgumentCaptor<V1Deployment> patch = ArgumentCaptor.forClass(V1Deployment.class);
+            Mockito.verify(kubernetesClientService).patchDeploymentAsync(Mockito.eq(ANY_DEPLOYMENT_NAME),
+                    Mockito.eq(DEFAULT_NAMESPACE), patch.capture(), Mockito.isNull());
+            Assertions.assertThat(patch.getValue().getSpec().getReplicas()).isEqualTo(5);
+            Assertions.assertThat(patch.getValue().getSpec().getTemplate()).isNull();
+            Assertions.assertThat(patch.getValue().getMetadata()).isNull();
+            Mockito.verify(deploymentRepository).save(deploymentEntity);
+        }
+
+        @Test
+        void givenNewImage_whenUpdateDeploymentAsync_thenPatchesImageOfNamedContainer() {
+            // Given
+            V1Deployment currentDeployment = createUserDeployment(ANY_USER_NAME);
+            Mockito.when(deploymentCacheService.getDeployment(DEFAULT_NAMESPACE, ANY_DEPLOYMENT_NAME)).thenReturn(currentDeployment);
+            Mockito.when(conversionService.convert(currentDeployment, DeploymentResource.class))
+                    .thenReturn(DeploymentResource.builder().name(ANY_DEPLOYMENT_NAME).namespace(DEFAULT_NAMESPACE)
+                            .image(ANY_IMAGE).replicas(2).build());
+            Mockito.when(kubernetesClientService.patchDeploymentAsync(Mockito.eq(ANY_DEPLOYMENT_NAME),
+                    Mockito.eq(DEFAULT_NAMESPACE), Mockito.any(V1Deployment.class), Mockito.eq(ANY_DRY_RUN)))
+                    .thenReturn(CompletableFuture.completedFuture(currentDeployment));
+
+            // When
+            deploymentService.updateDeploymentAsync(ANY_USER_NAME, null, DEFAULT_NAMESPACE, ANY_DEPLOYMENT_NAME, null,
+                    "otherImage", ANY_DRY_RUN).join();
+
+            // Then
+            ArgumentCaptor<V1Deployment> patch = ArgumentCaptor.forClass(V1Deployment.class);
+            Mockito.verify(kubernetesClientService).patchDeploymentAsync(Mockito.eq(ANY_DEPLOYMENT_NAME),
+                    Mockito.eq(DEFAULT_NAMESPACE), patch.capture(), Mockito.eq(ANY_DRY_RUN));
+            Assertions.assertThat(patch.getValue().getSpec().getReplicas()).isNull();
+            Assertions.assertThat(patch.getValue().getSpec().getTemplate().getSpec().getContainers())
+                    .singleElement()
+                    .satisfies(container -> {
+                        Assertions.assertThat(container.getName()).isEqualTo("app");
+                        Assertions.assertThat(container.getImage()).isEqualTo("otherImage");
+                    });
+            Mockito.verify(deploymentRepository, Mockito.never()).save(Mockito.any());
+        }
+
+        @Test
+        void givenCachedDeploymentOfOtherUser_whenUpdateDeploymentAsync_thenCompletesWithNotFoundException() {
+            // Given
+            Mockito.when(deploymentCacheService.getDeployment(DEFAULT_NAMESPACE, ANY_DEPLOYMENT_NAME))
+                    .thenReturn(createUserDeployment("otherUserName"));
+
+            // When
+            ThrowableAssert.ThrowingCallable throwingCallable = () -> deploymentService.updateDeploymentAsync(
+                    ANY_USER_NAME, null, DEFAULT_NAMESPACE, ANY_DEPLOYMENT_NAME, 5, null, null).join();
+
+            // Then
+            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(NotFoundException.class);
+            Mockito.verifyNoInteractions(kubernetesClientService);
+        }
+
+        private V1Deployment createUserDeployment(String userName) {
+            V1Deployment v1Deployment = V1DeploymentFactory.createV1Deployment();
+            v1Deployment.getMetadata().setNamespace(DEFAULT_NAMESPACE);
+            v1Deployment.getMetadata().setName(ANY_DEPLOYMENT_NAME);
+            v1Deployment.getMetadata().setLabels(Collections.singletonMap(ChallengeConstant.USER_NAME_LABEL, userName));
+            return v1Deployment;
+        }
+    }
+
+    @Nested
+    class ScaleDeploymentAsync {
+
+        @Test
+        void givenReplicas_whenScaleDeploymentAsync_thenDebouncesUpdateOfReplicas() {
+            // Given
+            CompletableFuture<DeploymentResource> debounced = CompletableFuture.completedFuture(deploymentResource);
+            Mockito.when(deploymentScaleDebouncer.debounce(Mockito.any(), Mockito.eq(5), Mockito.any()))
+                    .thenReturn(debounced);
+
+            // When
+            CompletableFuture<DeploymentResource> scaled =
+                    deploymentService.scaleDeploymentAsync(ANY_USER_NAME, null, DEFAULT_NAMESPACE, ANY_DEPLOYMENT_NAME, 5);
+
+            // Then
+            Assertions.assertThat(scaled).isSameAs(debounced);
+        }
+
+        @Test
+        void givenUnknownCluster_whenScaleDeploymentAsync_thenThrowsBadRequestExceptionWithoutDebouncing() {
+            // When
+            ThrowableAssert.ThrowingCallable throwingCallable = () -> deploymentService.scaleDeploymentAsync(
+                    ANY_USER_NAME, "unknownCluster", DEFAULT_NAMESPACE, ANY_DEPLOYMENT_NAME, 5);
+
+            // Then
+            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(BadRequestException.class);
+            Mockito.verifyNoInteractions(deploymentScaleDebouncer);
+        }
+    }
 }
@@ -0,0 +1,63 @@
+package com.k8s.challenge.service;
+
+import com.k8s.challenge.objectfactory.V1DeploymentFactory;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+
+public class DeploymentSnapshotServiceTest {
+
+    private static final String ANY_CLUSTER = "https://anyCluster:6443";
+    private static final String OTHER_CLUSTER = "https://otherCluster:6443";
+    private static final String ANY_RESOURCE_VERSION = "12345";
+
+    @TempDir
+    Path directory;
+
+    private DeploymentSnapshotService.Settings settings;
+
+    @BeforeEach
+    void init() throws IOException {
+        settings = new DeploymentSnapshotService.Settings();
+        settings.setPath(directory.resolve("deployments.snapshot").toString());
+        new DeploymentSnapshot(ANY_CLUSTER, ANY_RESOURCE_VERSION,
+                Collections.singletonList(V1DeploymentFactory.createV1Deployment()))
+                .writeTo(directory.resolve("deployments.snapshot"));
+    }
+
+    @Test
+    void givenSnapshotOfCluster_whenReadSnapshot_thenReturnsSnapshot() {
+        // When
+        DeploymentSnapshot snapshot = DeploymentSnapshotService.readSnapshot(settings, ANY_CLUSTER);
+
+        // Then
+        Assertions.assertThat(snapshot).isNotNull();
+        Assertions.assertThat(snapshot.getResourceVersion()).isEqualTo(ANY_RESOURCE_VERSION);
+    }
+
+    @Test
+    void givenSnapshotOfOtherCluster_whenReadSnapshot_thenReturnsNull() {
+        // When
+        DeploymentSnapshot snapshot = DeploymentSnapshotService.readSnapshot(settings, OTHER_CLUSTER);
+
+        // Then
+        Assertions.assertThat(snapshot).isNull();
+    }
+
+    @Test
+    void givenSnapshotsDisabled_whenReadSnapshot_thenReturnsNull() {
+        // Given
+        settings.setEnabled(false);
+
+        // When
+        DeploymentSnapshot snapshot = DeploymentSnapshotService.readSnapshot(settings, ANY_CLUSTER);
+
+        // Then
+        Assertions.assertThat(snapshot).isNull();
+    }
+}
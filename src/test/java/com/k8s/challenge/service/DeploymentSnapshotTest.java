@@ -0,0 +1,81 @@
+package com.k8s.challenge.service;
+
+import com.k8s.challenge.objectfactory.V1DeploymentFactory;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.openapi.models.V1ManagedFieldsEntry;
+import org.assertj.core.api.Assertions;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+public class DeploymentSnapshotTest {
+
+    private static final String ANY_RESOURCE_VERSION = "12345";
+    private static final String ANY_NAMESPACE = "anyNamespace";
+    private static final String ANY_CLUSTER = "https://anyCluster:6443";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void givenWrittenSnapshot_whenReadFrom_thenReturnsDeploymentsWithoutManagedFields() throws IOException {
+        // Given
+        Path path = directory.resolve("snapshot").resolve("deployments.snapshot");
+        V1Deployment v1Deployment = V1DeploymentFactory.createV1Deployment();
+        v1Deployment.getMetadata().setNamespace(ANY_NAMESPACE);
+        v1Deployment.getMetadata().setCreationTimestamp(new DateTime(2020, 1, 2, 3, 4, 5, DateTimeZone.UTC));
+        v1Deployment.getMetadata().setManagedFields(Collections.singletonList(
+                new V1ManagedFieldsEntry().manager("kubectl")));
+        new DeploymentSnapshot(ANY_CLUSTER, ANY_RESOURCE_VERSION, Collections.singletonList(v1Deployment))
+                .writeTo(path);
+
+        // When
+        DeploymentSnapshot snapshot = DeploymentSnapshot.readFrom(path);
+
+        // Then
+        Assertions.assertThat(snapshot).isNotNull();
+        Assertions.assertThat(snapshot.getCluster()).isEqualTo(ANY_CLUSTER);
+        Assertions.assertThat(snapshot.getResourceVersion()).isEqualTo(ANY_RESOURCE_VERSION);
+        Assertions.assertThat(snapshot.getDeployments()).hasSize(1);
+        V1Deployment readDeployment = snapshot.getDeployments().get(0);
+        Assertions.assertThat(readDeployment.getMetadata().getName()).isEqualTo(v1Deployment.getMetadata().getName());
+        Assertions.assertThat(readDeployment.getMetadata().getCreationTimestamp().getMillis())
+                .isEqualTo(v1Deployment.getMetadata().getCreationTimestamp().getMillis());
+        Assertions.assertThat(readDeployment.getSpec()).isEqualTo(v1Deployment.getSpec());
+        Assertions.assertThat(readDeployment.getMetadata().getManagedFields()).isNullOrEmpty();
+        Assertions.assertThat(v1Deployment.getMetadata().getManagedFields()).hasSize(1);
+        Assertions.assertThat(Files.list(path.getParent())).containsExactly(path);
+    }
+
+    @Test
+    void givenCorruptedSnapshot_whenReadFrom_thenReturnsNull() throws IOException {
+        // Given
+        Path path = directory.resolve("deployments.snapshot");
+        new DeploymentSnapshot(ANY_CLUSTER, ANY_RESOURCE_VERSION,
+                Collections.singletonList(V1DeploymentFactory.createV1Deployment())).writeTo(path);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(path, bytes);
+
+        // When
+        DeploymentSnapshot snapshot = DeploymentSnapshot.readFrom(path);
+
+        // Then
+        Assertions.assertThat(snapshot).isNull();
+    }
+
+    @Test
+    void givenNoSnapshot_whenReadFrom_thenReturnsNull() {
+        // When
+        DeploymentSnapshot snapshot = DeploymentSnapshot.readFrom(directory.resolve("deployments.snapshot"));
+
+        // Then
+        Assertions.assertThat(snapshot).isNull();
+    }
+}
@@ -0,0 +1,250 @@
+package com.k8s.challenge.service;
+
+import com.k8s.challenge.constant.ChallengeConstant;
+import com.k8s.challenge.entity.DeploymentEntity;
+import com.k8s.challenge.entity.SyncCheckpointEntity;
+import com.k8s.challenge.entity.UserEntity;
+import com.k8s.challenge.objectfactory.V1DeploymentFactory;
+import com.k8s.challenge.repository.DeploymentRepository;
+import com.k8s.challenge.repository.SyncCheckpointRepository;
+import com.k8s.challenge.repository.UserRepository;
+import com.k8s.challenge.resource.DeploymentResource;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.openapi.models.V1Status;
+import io.kubernetes.client.util.Watch;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.ThrowableAssert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+public class DeploymentSyncServiceTest {
+
+    private static final String ANY_USER_NAME = "anyUserName";
+    private static final String ANY_NAMESPACE = "anyNamespace";
+    private static final String ANY_IMAGE = "anyImage";
+    private static final String OTHER_IMAGE = "otherImage";
+    private static final String ANY_RESOURCE_VERSION = "42";
+
+    private DeploymentSyncService deploymentSyncService;
+
+    @Mock
+    private KubernetesClientService kubernetesClientService;
+
+    @Mock
+    private DeploymentRepository deploymentRepository;
+
+    @Mock
+    private SyncCheckpointRepository syncCheckpointRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ConversionService conversionService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private UserEntity userEntity;
+    private V1Deployment v1Deployment;
+    private DeploymentResource deploymentResource;
+
+    @BeforeEach
+    void init() {
+        MockitoAnnotations.openMocks(this);
+        deploymentSyncService = new DeploymentSyncService(kubernetesClientService, deploymentRepository,
+                syncCheckpointRepository, userRepository, conversionService, transactionTemplate);
+        Mockito.when(transactionTemplate.execute(Mockito.any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        userEntity = UserEntity.builder().userName(ANY_USER_NAME).build();
+        v1Deployment = V1DeploymentFactory.createV1Deployment();
+        v1Deployment.getMetadata().setNamespace(ANY_NAMESPACE);
+        v1Deployment.getMetadata().setResourceVersion(ANY_RESOURCE_VERSION);
+        Map<String, String> labels = new HashMap<>();
+        labels.put(ChallengeConstant.USER_NAME_LABEL, ANY_USER_NAME);
+        v1Deployment.getMetadata().setLabels(labels);
+
+        deploymentResource = DeploymentResource.builder()
+                .name(v1Deployment.getMetadata().getName())
+                .namespace(ANY_NAMESPACE)
+                .image(OTHER_IMAGE)
+                .replicas(3)
+                .build();
+        Mockito.when(conversionService.convert(v1Deployment, DeploymentResource.class)).thenReturn(deploymentResource);
+        Mockito.when(syncCheckpointRepository.findByName(DeploymentSyncService.CHECKPOINT_NAME))
+                .thenReturn(Optional.empty());
+    }
+
+    @Nested
+    class ApplyEvent {
+
+        @Test
+        void givenAddedEventOfKnownUser_whenApplyEvent_thenDeploymentIsInsertedAndCheckpointIsSaved() {
+            // Given
+            DeploymentEntity deploymentEntity = new DeploymentEntity();
+            Mockito.when(userRepository.findByUserName(ANY_USER_NAME)).thenReturn(Optional.of(userEntity));
+            Mockito.when(deploymentRepository.findAllByClusterAndNamespaceAndDeploymentName(ChallengeConstant.DEFAULT_CLUSTER, ANY_NAMESPACE,
+                    v1Deployment.getMetadata().getName())).thenReturn(Collections.emptyList());
+            Mockito.when(conversionService.convert(deploymentResource, DeploymentEntity.class)).thenReturn(deploymentEntity);
+
+            // When
+            boolean result = deploymentSyncService.applyEvent(NamespaceShard.ALL,
+                    new Watch.Response<>("ADDED", v1Deployment));
+
+            // Then
+            Assertions.assertThat(result).isTrue();
+            Assertions.assertThat(deploymentEntity.getUser()).isEqualTo(userEntity);
+            Mockito.verify(deploymentRepository).save(deploymentEntity);
+            assertCheckpointSaved(ANY_RESOURCE_VERSION);
+        }
+
+        @Test
+        void givenModifiedEventOfPersistedDeployment_whenApplyEvent_thenDeploymentIsUpdated() {
+            // Given
+            DeploymentEntity deploymentEntity = DeploymentEntity.builder()
+                    .deploymentName(v1Deployment.getMetadata().getName())
+                    .namespace(ANY_NAMESPACE)
+                    .image(ANY_IMAGE)
+                    .replicas(1)
+                    .build();
+            Mockito.when(userRepository.findByUserName(ANY_USER_NAME)).thenReturn(Optional.of(userEntity));
+            Mockito.when(deploymentRepository.findAllByClusterAndNamespaceAndDeploymentName(ChallengeConstant.DEFAULT_CLUSTER, ANY_NAMESPACE,
+                    v1Deployment.getMetadata().getName())).thenReturn(Collections.singletonList(deploymentEntity));
+
+            // When
+            deploymentSyncService.applyEvent(NamespaceShard.ALL, new Watch.Response<>("MODIFIED", v1Deployment));
+
+            // Then
+            Assertions.assertThat(deploymentEntity.getImage()).isEqualTo(OTHER_IMAGE);
+            Assertions.assertThat(deploymentEntity.getReplicas()).isEqualTo(3);
+            Mockito.verify(deploymentRepository).save(deploymentEntity);
+        }
+
+        @Test
+        void givenAddedEventOfUnknownUser_whenApplyEvent_thenDeploymentIsSkipped() {
+            // Given
+            Mockito.when(userRepository.findByUserName(ANY_USER_NAME)).thenReturn(Optional.empty());
+
+            // When
+            boolean result = deploymentSyncService.applyEvent(NamespaceShard.ALL,
+                    new Watch.Response<>("ADDED", v1Deployment));
+
+            // Then
+            Assertions.assertThat(result).isTrue();
+            Mockito.verify(deploymentRepository, Mockito.never()).save(Mockito.any());
+            assertCheckpointSaved(ANY_RESOURCE_VERSION);
+        }
+
+        @Test
+        void givenDeletedEvent_whenApplyEvent_thenPersistedDeploymentsAreDeleted() {
+            // Given
+            DeploymentEntity deploymentEntity = new DeploymentEntity();
+            Mockito.when(deploymentRepository.findAllByClusterAndNamespaceAndDeploymentName(ChallengeConstant.DEFAULT_CLUSTER, ANY_NAMESPACE,
+                    v1Deployment.getMetadata().getName())).thenReturn(Collections.singletonList(deploymentEntity));
+
+            // When
+            deploymentSyncService.applyEvent(NamespaceShard.ALL, new Watch.Response<>("DELETED", v1Deployment));
+
+            // Then
+            Mockito.verify(deploymentRepository).deleteAll(Collections.singletonList(deploymentEntity));
+            assertCheckpointSaved(ANY_RESOURCE_VERSION);
+        }
+
+        @Test
+        void givenBookmarkEvent_whenApplyEvent_thenOnlyCheckpointIsSaved() {
+            // When
+            boolean result = deploymentSyncService.applyEvent(NamespaceShard.ALL,
+                    new Watch.Response<>("BOOKMARK", v1Deployment));
+
+            // Then
+            Assertions.assertThat(result).isTrue();
+            Mockito.verifyNoInteractions(deploymentRepository);
+            assertCheckpointSaved(ANY_RESOURCE_VERSION);
+        }
+
+        @Test
+        void givenGoneErrorEvent_whenApplyEvent_thenCheckpointIsClearedAndWatchStops() {
+            // Given
+            Mockito.when(syncCheckpointRepository.findByName(DeploymentSyncService.CHECKPOINT_NAME))
+                    .thenReturn(Optional.of(SyncCheckpointEntity.builder()
+                            .name(DeploymentSyncService.CHECKPOINT_NAME)
+                            .resourceVersion(ANY_RESOURCE_VERSION)
+                            .build()));
+
+            // When
+            boolean result = deploymentSyncService.applyEvent(NamespaceShard.ALL,
+                    new Watch.Response<>("ERROR", new V1Status().code(410)));
+
+            // Then
+            Assertions.assertThat(result).isFalse();
+            assertCheckpointSaved(null);
+        }
+
+        @Test
+        void givenAddedEventOfNamespaceOutsideShard_whenApplyEvent_thenDeploymentIsSkipped() {
+            // Given
+            NamespaceShard shard = NamespaceShard.of("first", Arrays.asList("first", "second"), 100);
+            if (shard.owns(ANY_NAMESPACE)) {
+                shard = NamespaceShard.of("second", Arrays.asList("first", "second"), 100);
+            }
+
+            // When
+            boolean result = deploymentSyncService.applyEvent(shard, new Watch.Response<>("ADDED", v1Deployment));
+
+            // Then
+            Assertions.assertThat(result).isTrue();
+            Mockito.verifyNoInteractions(deploymentRepository, syncCheckpointRepository, transactionTemplate);
+        }
+
+        @Test
+        void givenOtherErrorEvent_whenApplyEvent_thenThrowsIllegalStateException() {
+            // When
+            ThrowableAssert.ThrowingCallable throwingCallable = () -> deploymentSyncService
+                    .applyEvent(NamespaceShard.ALL, new Watch.Response<>("ERROR", new V1Status().code(500)));
+
+            // Then
+            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Nested
+    class Synchronize {
+
+        @Test
+        void givenShardChanged_whenSynchronizeOfEarlierSession_thenDeploymentsAreNotWatched() throws Exception {
+            // Given
+            Mockito.when(syncCheckpointRepository.findByName(DeploymentSyncService.CHECKPOINT_NAME)).thenReturn(
+                    Optional.of(SyncCheckpointEntity.builder().resourceVersion(ANY_RESOURCE_VERSION).build()));
+            deploymentSyncService.onShardChanged(new NamespaceShardChangedEvent(NamespaceShard.NONE));
+
+            // When
+            deploymentSyncService.synchronize(0, NamespaceShard.ALL);
+
+            // Then
+            Mockito.verify(kubernetesClientService, Mockito.never()).watchUserDeployments(Mockito.any());
+            Mockito.verifyNoInteractions(transactionTemplate);
+        }
+    }
+
+    private void assertCheckpointSaved(String resourceVersion) {
+        ArgumentCaptor<SyncCheckpointEntity> captor = ArgumentCaptor.forClass(SyncCheckpointEntity.class);
+        Mockito.verify(syncCheckpointRepository).save(captor.capture());
+        Assertions.assertThat(captor.getValue().getName()).isEqualTo(DeploymentSyncService.CHECKPOINT_NAME);
+        Assertions.assertThat(captor.getValue().getResourceVersion()).isEqualTo(resourceVersion);
+    }
+}
@@ -0,0 +1,113 @@
+package com.k8s.challenge.service;
+
+import com.google.gson.stream.JsonReader;
+import com.k8s.challenge.converter.ProtobufDeploymentToV1DeploymentConverter;
+import com.k8s.challenge.converter.V1DeploymentToDeploymentResourceConverter;
+import com.k8s.challenge.objectfactory.ProtobufDeploymentFactory;
+import com.k8s.challenge.resource.DeploymentResource;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.apis.AppsV1Api;
+import io.kubernetes.client.openapi.models.V1DeploymentList;
+import io.kubernetes.client.proto.V1Apps;
+import okhttp3.MediaType;
+import org.springframework.core.convert.support.GenericConversionService;
+
+import com.sun.management.ThreadMXBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares the ways a synthetic deployment list page can be decoded: JSON and protobuf into {@link V1DeploymentList}
+ * and converted to resources, and JSON streamed by {@link DeploymentResourceListDecoder} straight into resources.
+ * Reports encoded and gzipped size, decode time and bytes allocated per page.
+ * <p>
+ * Not a unit test. Run it after {@code mvn test-compile} with
+ * {@code java -cp target/classes:target/test-classes:<dependency classpath>
+ * com.k8s.challenge.service.DeploymentWireFormatBenchmark [itemCount] [iterations]}
+ */
+public final class DeploymentWireFormatBenchmark {
+
+    private static final MediaType PROTOBUF = MediaType.parse("application/vnd.kubernetes.protobuf");
+    private static final MediaType JSON = MediaType.parse("application/json");
+
+    private DeploymentWireFormatBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int itemCount = args.length > 0 ? Integer.parseInt(args[0]) : KubernetesClientService.LIST_PAGE_SIZE;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        ApiClient apiClient = new ApiClient();
+        GenericConversionService conversionService = new GenericConversionService();
+        conversionService.addConverter(new ProtobufDeploymentToV1DeploymentConverter());
+        DeploymentProtobufClient deploymentProtobufClient = new DeploymentProtobufClient(new AppsV1Api(apiClient),
+                conversionService);
+
+        V1Apps.DeploymentList.Builder deploymentList = V1Apps.DeploymentList.newBuilder();
+        for (int i = 0; i < itemCount; i++) {
+            deploymentList.addItems(ProtobufDeploymentFactory.createDeployment("deployment-" + i, "default",
+                    "user-" + (i % 10)));
+        }
+        byte[] protobufBody = ProtobufDeploymentFactory.encode(deploymentList.build(), "apps/v1", "DeploymentList");
+        byte[] jsonBody = apiClient.getJSON()
+                .serialize(deploymentProtobufClient.decodeDeploymentList(PROTOBUF, protobufBody))
+                .getBytes(StandardCharsets.UTF_8);
+
+        V1DeploymentToDeploymentResourceConverter converter = new V1DeploymentToDeploymentResourceConverter();
+        System.out.printf("items per page: %d, iterations: %d%n", itemCount, iterations);
+        report("json", jsonBody, iterations, body -> toResources(
+                deploymentProtobufClient.decodeDeploymentList(JSON, body), converter));
+        report("protobuf", protobufBody, iterations, body -> toResources(
+                deploymentProtobufClient.decodeDeploymentList(PROTOBUF, body), converter));
+        report("json streaming", jsonBody, iterations, body -> {
+            try (JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(body),
+                    StandardCharsets.UTF_8))) {
+                return DeploymentResourceListDecoder.decode(reader).getItems();
+            }
+        });
+    }
+
+    private static void report(String name, byte[] body, int iterations, PageDecoder pageDecoder) throws IOException {
+        // Warm up so that every decoder is compiled before measuring
+        for (int i = 0; i < iterations; i++) {
+            pageDecoder.decode(body);
+        }
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            pageDecoder.decode(body);
+        }
+        double decodeMillis = (System.nanoTime() - start) / 1_000_000.0 / iterations;
+        long allocatedPerPage = (threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore) / iterations;
+        System.out.printf("%-15s raw: %8d bytes, gzip: %7d bytes, decode: %7.3f ms/page, allocated: %9d bytes/page%n",
+                name, body.length, gzip(body).length, decodeMillis, allocatedPerPage);
+    }
+
+    private static List<DeploymentResource> toResources(V1DeploymentList v1DeploymentList,
+                                                        V1DeploymentToDeploymentResourceConverter converter) {
+        return v1DeploymentList.getItems().stream().map(converter::convert).collect(Collectors.toList());
+    }
+
+    @FunctionalInterface
+    private interface PageDecoder {
+        List<DeploymentResource> decode(byte[] body) throws IOException;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+            gzipOutputStream.write(body);
+        }
+        return outputStream.toByteArray();
+    }
+}
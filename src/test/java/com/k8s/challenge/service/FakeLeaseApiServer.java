@@ -0,0 +1,174 @@
+package com.k8s.challenge.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.JSON;
+import io.kubernetes.client.openapi.models.V1DeleteOptions;
+import io.kubernetes.client.openapi.models.V1Lease;
+import io.kubernetes.client.openapi.models.V1LeaseList;
+import io.kubernetes.client.openapi.models.V1Status;
+import org.apache.commons.compress.utils.IOUtils;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * A local stand-in for the lease part of the API server: get, list by a single label, create, replace and delete of
+ * the leases of one namespace. Like the real one it only accepts a replace, or a delete with preconditions, at the
+ * current resource version.
+ */
+class FakeLeaseApiServer implements AutoCloseable {
+
+    private final JSON json = new JSON();
+    private final String leasesPath;
+    private final HttpServer server;
+    private final Map<String, String> leases = new TreeMap<>();
+    private int resourceVersion;
+    private volatile boolean available = true;
+
+    FakeLeaseApiServer(String namespace) throws IOException {
+        leasesPath = "/apis/coordination.k8s.io/v1/namespaces/" + namespace + "/leases";
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(leasesPath, this::handle);
+        server.start();
+    }
+
+    ApiClient apiClient() {
+        ApiClient apiClient = new ApiClient();
+        apiClient.setBasePath("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort());
+        return apiClient;
+    }
+
+    synchronized V1Lease getLease(String name) {
+        String lease = leases.get(name);
+        return lease != null ? deserialize(lease) : null;
+    }
+
+    synchronized List<String> getLeaseNames() {
+        return new ArrayList<>(leases.keySet());
+    }
+
+    void setAvailable(boolean available) {
+        this.available = available;
+    }
+
+    private synchronized void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String name = path.startsWith(leasesPath + "/") ? path.substring(leasesPath.length() + 1) : null;
+        String method = exchange.getRequestMethod();
+        if (!available) {
+            respondStatus(exchange, HttpStatus.SERVICE_UNAVAILABLE);
+        } else if (name == null && "GET".equals(method)) {
+            list(exchange);
+        } else if (name == null && "POST".equals(method)) {
+            V1Lease lease = json.deserialize(readBody(exchange), V1Lease.class);
+            if (leases.containsKey(lease.getMetadata().getName())) {
+                respondStatus(exchange, HttpStatus.CONFLICT);
+            } else {
+                respond(exchange, HttpStatus.CREATED, store(lease));
+            }
+        } else if (name != null && !leases.containsKey(name)) {
+            respondStatus(exchange, HttpStatus.NOT_FOUND);
+        } else if ("GET".equals(method)) {
+            respond(exchange, HttpStatus.OK, leases.get(name));
+        } else if ("PUT".equals(method)) {
+            V1Lease lease = json.deserialize(readBody(exchange), V1Lease.class);
+            if (!isCurrent(name, lease.getMetadata().getResourceVersion())) {
+                respondStatus(exchange, HttpStatus.CONFLICT);
+            } else {
+                respond(exchange, HttpStatus.OK, store(lease));
+            }
+        } else if ("DELETE".equals(method)) {
+            String body = readBody(exchange);
+            V1DeleteOptions deleteOptions = body.isEmpty() ? null : json.deserialize(body, V1DeleteOptions.class);
+            if (deleteOptions != null && deleteOptions.getPreconditions() != null
+                    && !isCurrent(name, deleteOptions.getPreconditions().getResourceVersion())) {
+                respondStatus(exchange, HttpStatus.CONFLICT);
+            } else {
+                leases.remove(name);
+                respondStatus(exchange, HttpStatus.OK);
+            }
+        } else {
+            respondStatus(exchange, HttpStatus.METHOD_NOT_ALLOWED);
+        }
+    }
+
+    private void list(HttpExchange exchange) throws IOException {
+        String labelSelector = queryParameter(exchange, "labelSelector");
+        V1LeaseList leaseList = new V1LeaseList().items(leases.values().stream()
+                .map(this::deserialize)
+                .filter(lease -> labelSelector == null || matches(lease, labelSelector))
+                .collect(Collectors.toList()));
+        respond(exchange, HttpStatus.OK, json.serialize(leaseList));
+    }
+
+    private boolean isCurrent(String name, String expectedResourceVersion) {
+        return deserialize(leases.get(name)).getMetadata().getResourceVersion().equals(expectedResourceVersion);
+    }
+
+    private V1Lease deserialize(String lease) {
+        return json.deserialize(lease, V1Lease.class);
+    }
+
+    private String store(V1Lease lease) {
+        lease.getMetadata().setResourceVersion(String.valueOf(++resourceVersion));
+        String serialized = json.serialize(lease);
+        leases.put(lease.getMetadata().getName(), serialized);
+        return serialized;
+    }
+
+    private static boolean matches(V1Lease lease, String labelSelector) {
+        String[] label = labelSelector.split("=", 2);
+        Map<String, String> labels = lease.getMetadata().getLabels();
+        return labels != null && label[1].equals(labels.get(label[0]));
+    }
+
+    private static String queryParameter(HttpExchange exchange, String name) throws UnsupportedEncodingException {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String parameter : query.split("&")) {
+            String[] pair = parameter.split("=", 2);
+            if (pair[0].equals(name) && pair.length == 2) {
+                return URLDecoder.decode(pair[1], StandardCharsets.UTF_8.name());
+            }
+        }
+        return null;
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        return new String(IOUtils.toByteArray(exchange.getRequestBody()), StandardCharsets.UTF_8);
+    }
+
+    private void respondStatus(HttpExchange exchange, HttpStatus httpStatus) throws IOException {
+        respond(exchange, httpStatus, json.serialize(new V1Status().code(httpStatus.value())
+                .reason(httpStatus.getReasonPhrase())));
+    }
+
+    private static void respond(HttpExchange exchange, HttpStatus httpStatus, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(httpStatus.value(), bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -2,11 +2,27 @@ package com.k8s.challenge.service;
 
 import com.google.common.collect.ImmutableMap;
 import com.k8s.challenge.objectfactory.V1DeploymentFactory;
+import com.k8s.challenge.resource.DeploymentResource;
+import io.kubernetes.client.custom.V1Patch;
+import io.kubernetes.client.openapi.ApiCallback;
+import io.kubernetes.client.openapi.ApiClient;
 import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.JSON;
 import io.kubernetes.client.openapi.apis.AppsV1Api;
 import io.kubernetes.client.openapi.models.V1DeleteOptions;
 import io.kubernetes.client.openapi.models.V1Deployment;
 import io.kubernetes.client.openapi.models.V1DeploymentList;
+import io.kubernetes.client.openapi.models.V1DeploymentSpec;
+import io.kubernetes.client.openapi.models.V1ListMeta;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
 import org.assertj.core.api.Assertions;
 import org.assertj.core.api.ThrowableAssert;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,12 +31,22 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 public class KubernetesClientServiceTest {
 
+    private static final JSON JSON = new JSON();
     private static final String ANY_USER_NAME = "anyUserName";
     private static final String ANY_NAMESPACE = "anyNamespace";
     private static final String NAME = "deployment";
@@ -28,15 +54,26 @@ public class KubernetesClientServiceTest {
     private static final Boolean IS_PRETTY = true;
     private static final String INVALID_NAMESPACE = "invalidNamespace";
     private static final String ANY_LABEL = "anyLabel";
+    private static final String FIRST_PAGE_NAME = "firstPageDeployment";
+    private static final String CONTINUE_TOKEN = "continueToken";
+    private static final String OTHER_CONTINUE_TOKEN = "otherContinueToken";
+    private static final String INCONSISTENT_CONTINUE_TOKEN = "inconsistentContinueToken";
     private KubernetesClientService kubernetesClientService;
 
     @Mock
     private AppsV1Api deploymentApi;
 
+    @Mock
+    private AppsV1Api mutationDeploymentApi;
+
+    @Mock
+    private AppsV1Api watchDeploymentApi;
+
     @BeforeEach
     void init() {
         MockitoAnnotations.openMocks(this);
-        kubernetesClientService = new KubernetesClientService(deploymentApi);
+        kubernetesClientService = new KubernetesClientService(deploymentApi, mutationDeploymentApi, watchDeploymentApi,
+                Optional.empty());
     }
 
     @Nested
@@ -46,7 +83,7 @@ public class KubernetesClientServiceTest {
         void givenUserNameAndNamespace_whenListDeployments_thenReturnDeployments() throws ApiException {
             // Given
             Mockito.when(deploymentApi.listNamespacedDeployment(ANY_NAMESPACE, null, null, null,
-                    null, "userName=" + ANY_USER_NAME, null, null, null, Boolean.FALSE))
+                    null, "userName=" + ANY_USER_NAME, KubernetesClientService.LIST_PAGE_SIZE, null, null, Boolean.FALSE))
                     .thenReturn(V1DeploymentFactory.createV1DeploymentList());
             // When
             V1DeploymentList v1DeploymentList = kubernetesClientService.listDeployments(ANY_NAMESPACE, ANY_USER_NAME);
@@ -61,7 +98,7 @@ public class KubernetesClientServiceTest {
         void givenUserNameAndNullNamespace_whenListDeployments_thenReturnDeployments() throws ApiException {
             // Given
             Mockito.when(deploymentApi.listDeploymentForAllNamespaces(null, null,
-                    null, "userName=" + ANY_USER_NAME, Integer.MAX_VALUE, null, null, null, Boolean.FALSE))
+                    null, "userName=" + ANY_USER_NAME, KubernetesClientService.LIST_PAGE_SIZE, null, null, null, Boolean.FALSE))
                     .thenReturn(V1DeploymentFactory.createV1DeploymentList());
             // When
             V1DeploymentList v1DeploymentList = kubernetesClientService.listDeployments(null, ANY_USER_NAME);
@@ -76,7 +113,7 @@ public class KubernetesClientServiceTest {
         void givenUserNameAndInvalidNamespace_whenListDeployments_thenThrowsApiException() throws ApiException {
             // Given
             Mockito.when(deploymentApi.listNamespacedDeployment(INVALID_NAMESPACE, null, null, null,
-                    null, "userName=" + ANY_USER_NAME, null, null, null, Boolean.FALSE))
+                    null, "userName=" + ANY_USER_NAME, KubernetesClientService.LIST_PAGE_SIZE, null, null, Boolean.FALSE))
                     .thenThrow(ApiException.class);
             // When
             ThrowableAssert.ThrowingCallable throwingCallable = () -> kubernetesClientService
@@ -85,23 +122,220 @@ public class KubernetesClientServiceTest {
             // Then
             Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(ApiException.class);
         }
+
+        @Test
+        void givenMultiplePages_whenListDeployments_thenFollowsContinueTokenAndEmitsEveryPage() throws ApiException {
+            // Given
+            Mockito.when(deploymentApi.listDeploymentForAllNamespaces(null, null,
+                    null, "userName=" + ANY_USER_NAME, KubernetesClientService.LIST_PAGE_SIZE, null, null, null, Boolean.FALSE))
+                    .thenReturn(createPage(FIRST_PAGE_NAME, CONTINUE_TOKEN));
+            Mockito.when(deploymentApi.listDeploymentForAllNamespaces(null, CONTINUE_TOKEN,
+                    null, "userName=" + ANY_USER_NAME, KubernetesClientService.LIST_PAGE_SIZE, null, null, null, Boolean.FALSE))
+                    .thenReturn(createPage(NAME, null));
+            List<V1DeploymentList> pages = new ArrayList<>();
+            // When
+            kubernetesClientService.listDeployments(null, ANY_USER_NAME, pages::add);
+
+            // Then
+            Assertions.assertThat(pages).hasSize(2);
+            Assertions.assertThat(pages.get(0).getItems().get(0).getMetadata().getName()).isEqualTo(FIRST_PAGE_NAME);
+            Assertions.assertThat(pages.get(1).getItems().get(0).getMetadata().getName()).isEqualTo(NAME);
+        }
+
+        @Test
+        void givenExpiredContinueTokenWithInconsistentContinueToken_whenListDeployments_thenContinuesWithNewToken() throws ApiException {
+            // Given
+            Mockito.when(deploymentApi.listNamespacedDeployment(ANY_NAMESPACE, null, null, null,
+                    null, "userName=" + ANY_USER_NAME, KubernetesClientService.LIST_PAGE_SIZE, null, null, Boolean.FALSE))
+                    .thenReturn(createPage(FIRST_PAGE_NAME, CONTINUE_TOKEN));
+            Mockito.when(deploymentApi.listNamespacedDeployment(ANY_NAMESPACE, null, null, CONTINUE_TOKEN,
+                    null, "userName=" + ANY_USER_NAME, KubernetesClientService.LIST_PAGE_SIZE, null, null, Boolean.FALSE))
+                    .thenThrow(new ApiException(HttpStatus.GONE.value(), Collections.emptyMap(),
+                            "{\"kind\":\"Status\",\"metadata\":{\"continue\":\"" + INCONSISTENT_CONTINUE_TOKEN + "\"},\"code\":410}"));
+            Mockito.when(deploymentApi.listNamespacedDeployment(ANY_NAMESPACE, null, null, INCONSISTENT_CONTINUE_TOKEN,
+                    null, "userName=" + ANY_USER_NAME, KubernetesClientService.LIST_PAGE_SIZE, null, null, Boolean.FALSE))
+                    .thenReturn(createPage(NAME, null));
+            // When
+            V1DeploymentList v1DeploymentList = kubernetesClientService.listDeployments(ANY_NAMESPACE, ANY_USER_NAME);
+
+            // Then
+            Assertions.assertThat(v1DeploymentList.getItems()).extracting(deployment -> deployment.getMetadata().getName())
+                    .containsExactly(FIRST_PAGE_NAME, NAME);
+        }
+
+        @Test
+        void givenExpiredContinueTokenWithoutInconsistentContinueToken_whenListDeployments_thenRestartsFromFirstPage() throws ApiException {
+            // Given
+            Mockito.when(deploymentApi.listNamespacedDeployment(ANY_NAMESPACE, null, null, null,
+                    null, "userName=" + ANY_USER_NAME, KubernetesClientService.LIST_PAGE_SIZE, null, null, Boolean.FALSE))
+                    .thenReturn(createPage(FIRST_PAGE_NAME, CONTINUE_TOKEN))
+                    .thenReturn(createPage(FIRST_PAGE_NAME, OTHER_CONTINUE_TOKEN));
+            Mockito.when(deploymentApi.listNamespacedDeployment(ANY_NAMESPACE, null, null, CONTINUE_TOKEN,
+                    null, "userName=" + ANY_USER_NAME, KubernetesClientService.LIST_PAGE_SIZE, null, null, Boolean.FALSE))
+                    .thenThrow(new ApiException(HttpStatus.GONE.value(), Collections.emptyMap(), null));
+            Mockito.when(deploymentApi.listNamespacedDeployment(ANY_NAMESPACE, null, null, OTHER_CONTINUE_TOKEN,
+                    null, "userName=" + ANY_USER_NAME, KubernetesClientService.LIST_PAGE_SIZE, null, null, Boolean.FALSE))
+                    .thenReturn(createPage(NAME, null));
+            // When
+            V1DeploymentList v1DeploymentList = kubernetesClientService.listDeployments(ANY_NAMESPACE, ANY_USER_NAME);
+
+            // Then
+            Assertions.assertThat(v1DeploymentList.getItems()).extracting(deployment -> deployment.getMetadata().getName())
+                    .containsExactly(FIRST_PAGE_NAME, NAME);
+        }
+
+        private V1DeploymentList createPage(String name, String continueToken) {
+            V1DeploymentList v1DeploymentList = V1DeploymentFactory.createV1DeploymentList();
+            v1DeploymentList.getItems().get(0).getMetadata().setName(name);
+            v1DeploymentList.getItems().get(0).getMetadata().setNamespace(ANY_NAMESPACE);
+            v1DeploymentList.setMetadata(new V1ListMeta()._continue(continueToken));
+            return v1DeploymentList;
+        }
+    }
+
+    @Nested
+    class ListDeploymentResources {
+
+        @Test
+        void givenMultiplePages_whenListDeploymentResourcesAsync_thenDecodesEveryPageIntoResources() throws Exception {
+            // Given
+            Call firstPageCall = createCall(HttpStatus.OK, JSON.serialize(createPage(FIRST_PAGE_NAME, CONTINUE_TOKEN)));
+            Call secondPageCall = createCall(HttpStatus.OK, JSON.serialize(createPage(NAME, null)));
+            Mockito.when(deploymentApi.getApiClient()).thenReturn(new ApiClient());
+            Mockito.when(deploymentApi.listNamespacedDeploymentCall(ANY_NAMESPACE, null, null, null, null,
+                    "userName=" + ANY_USER_NAME, KubernetesClientService.LIST_PAGE_SIZE, null, null, Boolean.FALSE, null))
+                    .thenReturn(firstPageCall);
+            Mockito.when(deploymentApi.listNamespacedDeploymentCall(ANY_NAMESPACE, null, null, CONTINUE_TOKEN, null,
+                    "userName=" + ANY_USER_NAME, KubernetesClientService.LIST_PAGE_SIZE, null, null, Boolean.FALSE, null))
+                    .thenReturn(secondPageCall);
+            List<List<DeploymentResource>> pages = new ArrayList<>();
+            // When
+            kubernetesClientService.listDeploymentResourcesAsync(ANY_NAMESPACE, ANY_USER_NAME, pages::add).join();
+
+            // Then
+            Assertions.assertThat(pages).hasSize(2);
+            Assertions.assertThat(pages.get(0)).extracting(DeploymentResource::getName).containsExactly(FIRST_PAGE_NAME);
+            Assertions.assertThat(pages.get(1)).extracting(DeploymentResource::getName).containsExactly(NAME);
+            Assertions.assertThat(pages.get(1).get(0).getNamespace()).isEqualTo(ANY_NAMESPACE);
+            Assertions.assertThat(pages.get(1).get(0).getImage()).isEqualTo("nginx");
+        }
+
+        @Test
+        void givenErrorResponse_whenListDeploymentResourcesAsync_thenCompletesWithApiExceptionWithCode() throws Exception {
+            // Given
+            Call call = createCall(HttpStatus.FORBIDDEN, "{\"kind\":\"Status\",\"code\":403}");
+            Mockito.when(deploymentApi.getApiClient()).thenReturn(new ApiClient());
+            Mockito.when(deploymentApi.listDeploymentForAllNamespacesCall(null, null, null, "userName=" + ANY_USER_NAME,
+                    KubernetesClientService.LIST_PAGE_SIZE, null, null, null, Boolean.FALSE, null)).thenReturn(call);
+            // When
+            ThrowableAssert.ThrowingCallable throwingCallable = () -> kubernetesClientService
+                    .listDeploymentResourcesAsync(null, ANY_USER_NAME, page -> {
+                    }).join();
+
+            // Then
+            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(CompletionException.class)
+                    .extracting(Throwable::getCause).isInstanceOf(ApiException.class)
+                    .extracting(ex -> ((ApiException) ex).getCode()).isEqualTo(HttpStatus.FORBIDDEN.value());
+        }
+
+        @Test
+        void givenPendingPage_whenListDeploymentResourcesAsyncIsCancelled_thenCancelsCall() throws Exception {
+            // Given
+            Call call = Mockito.mock(Call.class);
+            Mockito.when(call.request()).thenReturn(
+                    new Request.Builder().url("https://localhost/apis/apps/v1/deployments").build());
+            Mockito.when(deploymentApi.getApiClient()).thenReturn(new ApiClient());
+            Mockito.when(deploymentApi.listDeploymentForAllNamespacesCall(null, null, null, "userName=" + ANY_USER_NAME,
+                    KubernetesClientService.LIST_PAGE_SIZE, null, null, null, Boolean.FALSE, null)).thenReturn(call);
+            CompletableFuture<Void> listing = kubernetesClientService.listDeploymentResourcesAsync(null, ANY_USER_NAME,
+                    page -> {
+                    });
+
+            // When
+            listing.cancel(false);
+
+            // Then
+            Mockito.verify(call).enqueue(Mockito.any());
+            Mockito.verify(call).cancel();
+        }
+
+        private Call createCall(HttpStatus httpStatus, String body) {
+            Request request = new Request.Builder().url("https://localhost/apis/apps/v1/deployments").build();
+            Call call = Mockito.mock(Call.class);
+            Mockito.when(call.request()).thenReturn(request);
+            Mockito.doAnswer(inv -> {
+                inv.<Callback>getArgument(0).onResponse(call, new Response.Builder()
+                        .request(request)
+                        .protocol(Protocol.HTTP_1_1)
+                        .code(httpStatus.value())
+                        .message(httpStatus.getReasonPhrase())
+                        .body(ResponseBody.create(MediaType.parse("application/json"), body))
+                        .build());
+                return null;
+            }).when(call).enqueue(Mockito.any());
+            return call;
+        }
+
+        private V1DeploymentList createPage(String name, String continueToken) {
+            V1DeploymentList v1DeploymentList = V1DeploymentFactory.createV1DeploymentList();
+            v1DeploymentList.getItems().get(0).getMetadata().setName(name);
+            v1DeploymentList.getItems().get(0).getMetadata().setNamespace(ANY_NAMESPACE);
+            v1DeploymentList.setMetadata(new V1ListMeta()._continue(continueToken));
+            return v1DeploymentList;
+        }
+    }
+
+    @Nested
+    class ProtobufWireFormat {
+
+        @Mock
+        private DeploymentProtobufClient deploymentProtobufClient;
+
+        @BeforeEach
+        void init() {
+            MockitoAnnotations.openMocks(this);
+            kubernetesClientService = new KubernetesClientService(deploymentApi, mutationDeploymentApi,
+                    watchDeploymentApi, Optional.of(deploymentProtobufClient));
+        }
+
+        @Test
+        void givenProtobufClient_whenListDeployments_thenListsThroughProtobufClient() throws ApiException {
+            // Given
+            Mockito.when(deploymentProtobufClient.listDeploymentPage(ANY_NAMESPACE, "userName=" + ANY_USER_NAME, null,
+                    KubernetesClientService.LIST_PAGE_SIZE)).thenReturn(V1DeploymentFactory.createV1DeploymentList());
+            // When
+            V1DeploymentList v1DeploymentList = kubernetesClientService.listDeployments(ANY_NAMESPACE, ANY_USER_NAME);
+
+            // Then
+            Assertions.assertThat(v1DeploymentList.getItems()).isNotEmpty();
+            Mockito.verifyNoInteractions(deploymentApi);
+        }
     }
 
     @Nested
     class CreateDeployment {
 
         @Test
-        void givenValidParameters_whenCreateDeployment_thenReturnsDeployment() throws ApiException {
+        void givenValidParameters_whenCreateDeployment_thenReturnsDeploymentCreatedAsynchronously() throws ApiException {
             // Given
             V1Deployment v1Deployment = V1DeploymentFactory.createV1Deployment();
-            Mockito.when(deploymentApi.createNamespacedDeployment(ANY_NAMESPACE, v1Deployment, IS_PRETTY.toString(),
-                    DRY_RUN, null)).thenReturn(v1Deployment);
+            Mockito.doAnswer(inv -> {
+                inv.<ApiCallback<V1Deployment>>getArgument(5).onSuccess(v1Deployment, HttpStatus.CREATED.value(),
+                        Collections.emptyMap());
+                return null;
+            }).when(mutationDeploymentApi).createNamespacedDeploymentAsync(Mockito.eq(ANY_NAMESPACE),
+                    Mockito.eq(v1Deployment), Mockito.eq(IS_PRETTY.toString()), Mockito.eq(DRY_RUN), Mockito.isNull(),
+                    Mockito.any());
             // When
-            v1Deployment = kubernetesClientService
+            V1Deployment createdDeployment = kubernetesClientService
                     .createDeployment(ANY_NAMESPACE, v1Deployment, IS_PRETTY, DRY_RUN, ANY_USER_NAME);
 
             // Then
-            Assertions.assertThat(v1Deployment.getMetadata().getName()).isEqualTo(NAME);
+            Assertions.assertThat(createdDeployment.getMetadata().getName()).isEqualTo(NAME);
+            Assertions.assertThat(createdDeployment.getMetadata().getLabels()).containsEntry("userName", ANY_USER_NAME);
+            Mockito.verify(mutationDeploymentApi, Mockito.never()).createNamespacedDeployment(Mockito.any(),
+                    Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+            Mockito.verifyNoInteractions(deploymentApi);
         }
 
         @Test
@@ -111,8 +345,14 @@ public class KubernetesClientServiceTest {
             Map<String, String> labels = new HashMap<>();
             labels.put(ANY_LABEL, ANY_LABEL);
             v1Deployment.getMetadata().setLabels(labels);
-            Mockito.when(deploymentApi.createNamespacedDeployment(INVALID_NAMESPACE, v1Deployment, IS_PRETTY.toString(),
-                    DRY_RUN, null)).thenThrow(ApiException.class);
+            Mockito.doAnswer(inv -> {
+                inv.<ApiCallback<V1Deployment>>getArgument(5).onFailure(new ApiException(
+                        HttpStatus.NOT_FOUND.value(), "namespace not found"), HttpStatus.NOT_FOUND.value(),
+                        Collections.emptyMap());
+                return null;
+            }).when(mutationDeploymentApi).createNamespacedDeploymentAsync(Mockito.eq(INVALID_NAMESPACE),
+                    Mockito.eq(v1Deployment), Mockito.eq(IS_PRETTY.toString()), Mockito.eq(DRY_RUN), Mockito.isNull(),
+                    Mockito.any());
             // When
             ThrowableAssert.ThrowingCallable throwingCallable = () -> kubernetesClientService
                     .createDeployment(INVALID_NAMESPACE, v1Deployment, IS_PRETTY, DRY_RUN, ANY_USER_NAME);
@@ -123,26 +363,75 @@ public class KubernetesClientServiceTest {
 
     }
 
+    @Nested
+    class PatchDeployment {
+
+        @Test
+        void givenPartialDeployment_whenPatchDeploymentAsync_thenSendsStrategicMergePatch() throws Exception {
+            // Given
+            V1Deployment patchedDeployment = V1DeploymentFactory.createV1Deployment();
+            List<Request> sentRequests = new ArrayList<>();
+            ApiClient apiClient = new ApiClient();
+            apiClient.setHttpClient(new OkHttpClient.Builder().addInterceptor(chain -> {
+                sentRequests.add(chain.request());
+                return new Response.Builder()
+                        .request(chain.request())
+                        .protocol(Protocol.HTTP_1_1)
+                        .code(HttpStatus.OK.value())
+                        .message(HttpStatus.OK.getReasonPhrase())
+                        .body(ResponseBody.create(MediaType.parse("application/json"), JSON.serialize(patchedDeployment)))
+                        .build();
+            }).build());
+            Mockito.when(mutationDeploymentApi.getApiClient()).thenReturn(apiClient);
+            Mockito.when(mutationDeploymentApi.patchNamespacedDeploymentCall(Mockito.eq(NAME), Mockito.eq(ANY_NAMESPACE),
+                    Mockito.any(V1Patch.class), Mockito.isNull(), Mockito.eq(DRY_RUN), Mockito.anyString(),
+                    Mockito.isNull(), Mockito.isNull()))
+                    .thenAnswer(inv -> new AppsV1Api(apiClient).patchNamespacedDeploymentCall(NAME, ANY_NAMESPACE,
+                            inv.getArgument(2), null, DRY_RUN, inv.getArgument(5), null, null));
+            V1Deployment patch = new V1Deployment().spec(new V1DeploymentSpec().replicas(3));
+
+            // When
+            V1Deployment v1Deployment = kubernetesClientService
+                    .patchDeploymentAsync(NAME, ANY_NAMESPACE, patch, DRY_RUN).get(5, TimeUnit.SECONDS);
+
+            // Then
+            Assertions.assertThat(v1Deployment.getMetadata().getName()).isEqualTo(NAME);
+            Assertions.assertThat(sentRequests).hasSize(1);
+            Request sentRequest = sentRequests.get(0);
+            Assertions.assertThat(sentRequest.method()).isEqualTo("PATCH");
+            Assertions.assertThat(sentRequest.body().contentType().toString())
+                    .startsWith(V1Patch.PATCH_FORMAT_STRATEGIC_MERGE_PATCH);
+            Buffer body = new Buffer();
+            sentRequest.body().writeTo(body);
+            Assertions.assertThat(body.readUtf8()).isEqualTo("{\"spec\":{\"replicas\":3}}");
+        }
+    }
+
     @Nested
     class DeleteDeployment {
 
         @Test
-        void givenNamespaceAndDeploymentNameParameters_whenDeleteDeployment_thenDeletesDeployment() throws ApiException {
+        void givenNamespaceAndDeploymentNameParameters_whenDeleteDeployment_thenDeletesDeploymentAsynchronously() throws ApiException {
+            // Given
+            List<Request> sentRequests = new ArrayList<>();
+            givenMutationApiClientAnswering(HttpStatus.OK, sentRequests);
             // When
             kubernetesClientService.deleteDeployment(NAME, ANY_NAMESPACE);
             // Then
-            Mockito.verify(deploymentApi).deleteNamespacedDeployment(Mockito.eq(NAME), Mockito.eq(ANY_NAMESPACE),
-                    Mockito.any(), Mockito.any(), Mockito.eq(0), Mockito.eq(true),
-                    Mockito.any(), Mockito.any(V1DeleteOptions.class));
-
+            Assertions.assertThat(sentRequests).extracting(Request::method).containsExactly("DELETE");
+            Mockito.verify(mutationDeploymentApi).deleteNamespacedDeploymentCall(Mockito.eq(NAME),
+                    Mockito.eq(ANY_NAMESPACE), Mockito.isNull(), Mockito.isNull(), Mockito.isNull(), Mockito.isNull(),
+                    Mockito.isNull(), Mockito.argThat((V1DeleteOptions options) ->
+                            "Background".equals(options.getPropagationPolicy())), Mockito.isNull());
+            Mockito.verify(mutationDeploymentApi, Mockito.never()).deleteNamespacedDeployment(Mockito.any(),
+                    Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(),
+                    Mockito.any());
         }
 
         @Test
         void givenInvalidNamespaceAndDeploymentNameParameters_whenDeleteDeployment_thenDeletesDeployment() throws ApiException {
             //Given
-            Mockito.when(deploymentApi.deleteNamespacedDeployment(Mockito.eq(NAME), Mockito.eq(INVALID_NAMESPACE),
-                    Mockito.any(), Mockito.any(), Mockito.eq(0), Mockito.eq(true),
-                    Mockito.any(), Mockito.any(V1DeleteOptions.class))).thenThrow(ApiException.class);
+            givenMutationApiClientAnswering(HttpStatus.NOT_FOUND, new ArrayList<>());
             // When
             ThrowableAssert.ThrowingCallable throwingCallable = () -> kubernetesClientService
                     .deleteDeployment(NAME, INVALID_NAMESPACE);
@@ -150,5 +439,62 @@ public class KubernetesClientServiceTest {
             Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(ApiException.class);
 
         }
+
+        private void givenMutationApiClientAnswering(HttpStatus httpStatus, List<Request> sentRequests)
+                throws ApiException {
+            ApiClient apiClient = new ApiClient();
+            apiClient.setHttpClient(new OkHttpClient.Builder().addInterceptor(chain -> {
+                sentRequests.add(chain.request());
+                return new Response.Builder()
+                        .request(chain.request())
+                        .protocol(Protocol.HTTP_1_1)
+                        .code(httpStatus.value())
+                        .message(httpStatus.getReasonPhrase())
+                        .body(ResponseBody.create(MediaType.parse("application/json"), "{}"))
+                        .build();
+            }).build());
+            Mockito.when(mutationDeploymentApi.getApiClient()).thenReturn(apiClient);
+            Mockito.when(mutationDeploymentApi.deleteNamespacedDeploymentCall(Mockito.eq(NAME), Mockito.any(),
+                    Mockito.isNull(), Mockito.isNull(), Mockito.isNull(), Mockito.isNull(), Mockito.isNull(),
+                    Mockito.any(V1DeleteOptions.class), Mockito.isNull()))
+                    .thenAnswer(inv -> new AppsV1Api(apiClient).deleteNamespacedDeploymentCall(NAME,
+                            inv.getArgument(1), null, null, null, null, null, inv.getArgument(7), null));
+        }
+
+        @Test
+        void givenDeploymentInResponse_whenDeleteDeploymentAsync_thenSendsBackgroundDeletionAndCompletes() throws Exception {
+            // Given
+            List<Request> sentRequests = new ArrayList<>();
+            ApiClient apiClient = new ApiClient();
+            apiClient.setHttpClient(new OkHttpClient.Builder().addInterceptor(chain -> {
+                sentRequests.add(chain.request());
+                return new Response.Builder()
+                        .request(chain.request())
+                        .protocol(Protocol.HTTP_1_1)
+                        .code(HttpStatus.OK.value())
+                        .message(HttpStatus.OK.getReasonPhrase())
+                        .body(ResponseBody.create(MediaType.parse("application/json"),
+                                JSON.serialize(V1DeploymentFactory.createV1Deployment())))
+                        .build();
+            }).build());
+            Mockito.when(mutationDeploymentApi.getApiClient()).thenReturn(apiClient);
+            Mockito.when(mutationDeploymentApi.deleteNamespacedDeploymentCall(Mockito.eq(NAME), Mockito.eq(ANY_NAMESPACE),
+                    Mockito.isNull(), Mockito.isNull(), Mockito.isNull(), Mockito.isNull(), Mockito.isNull(),
+                    Mockito.any(V1DeleteOptions.class), Mockito.isNull()))
+                    .thenAnswer(inv -> new AppsV1Api(apiClient).deleteNamespacedDeploymentCall(NAME, ANY_NAMESPACE,
+                            null, null, null, null, null, inv.getArgument(7), null));
+
+            // When
+            kubernetesClientService.deleteDeploymentAsync(NAME, ANY_NAMESPACE).get(5, TimeUnit.SECONDS);
+
+            // Then
+            Assertions.assertThat(sentRequests).hasSize(1);
+            Request sentRequest = sentRequests.get(0);
+            Assertions.assertThat(sentRequest.method()).isEqualTo("DELETE");
+            Assertions.assertThat(sentRequest.url().queryParameter("gracePeriodSeconds")).isNull();
+            Buffer body = new Buffer();
+            sentRequest.body().writeTo(body);
+            Assertions.assertThat(body.readUtf8()).contains("\"propagationPolicy\":\"Background\"");
+        }
     }
 }
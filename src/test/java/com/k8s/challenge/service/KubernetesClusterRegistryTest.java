@@ -0,0 +1,143 @@
+package com.k8s.challenge.service;
+
+import com.k8s.challenge.constant.ChallengeConstant;
+import com.k8s.challenge.exception.BadRequestException;
+import io.kubernetes.client.openapi.ApiException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+public class KubernetesClusterRegistryTest {
+
+    private static final String OTHER_CLUSTER = "otherCluster";
+    private static final String UNKNOWN_CLUSTER = "unknownCluster";
+
+    private KubernetesClusterRegistry kubernetesClusterRegistry;
+
+    @Mock
+    private KubernetesClientService defaultKubernetesClientService;
+
+    @Mock
+    private KubernetesClientService otherKubernetesClientService;
+
+    @BeforeEach
+    void init() {
+        MockitoAnnotations.openMocks(this);
+        kubernetesClusterRegistry = new KubernetesClusterRegistry()
+                .register(ChallengeConstant.DEFAULT_CLUSTER, defaultKubernetesClientService, Duration.ofSeconds(10))
+                .register(OTHER_CLUSTER, otherKubernetesClientService, Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void destroy() {
+        kubernetesClusterRegistry.shutdown();
+    }
+
+    @Nested
+    class GetKubernetesClientService {
+
+        @Test
+        void givenNullCluster_whenGetKubernetesClientService_thenReturnsDefaultCluster() {
+            // When
+            KubernetesClientService kubernetesClientService = kubernetesClusterRegistry.getKubernetesClientService(null);
+
+            // Then
+            Assertions.assertThat(kubernetesClientService).isSameAs(defaultKubernetesClientService);
+        }
+
+        @Test
+        void givenRegisteredCluster_whenGetKubernetesClientService_thenReturnsClusterClient() {
+            // When
+            KubernetesClientService kubernetesClientService =
+                    kubernetesClusterRegistry.getKubernetesClientService(OTHER_CLUSTER);
+
+            // Then
+            Assertions.assertThat(kubernetesClientService).isSameAs(otherKubernetesClientService);
+        }
+
+        @Test
+        void givenUnknownCluster_whenGetKubernetesClientService_thenThrowsBadRequestException() {
+            // When
+            // Then
+            Assertions.assertThatThrownBy(() -> kubernetesClusterRegistry.getKubernetesClientService(UNKNOWN_CLUSTER))
+                    .isInstanceOf(BadRequestException.class);
+        }
+    }
+
+    @Nested
+    class FanOut {
+
+        @Test
+        void givenTwoClusters_whenFanOut_thenRequestsAreSentBeforeAnyCompletes() {
+            // Given
+            List<String> startedClusters = new ArrayList<>();
+            CompletableFuture<String> defaultResult = new CompletableFuture<>();
+            CompletableFuture<String> otherResult = new CompletableFuture<>();
+
+            // When
+            CompletableFuture<KubernetesClusterRegistry.FanOutResult<String>> results =
+                    kubernetesClusterRegistry.fanOut((cluster, client) -> {
+                startedClusters.add(cluster);
+                return client == defaultKubernetesClientService ? defaultResult : otherResult;
+            });
+
+            // Then
+            Assertions.assertThat(startedClusters).containsExactly(ChallengeConstant.DEFAULT_CLUSTER, OTHER_CLUSTER);
+            Assertions.assertThat(results).isNotDone();
+            otherResult.complete("other");
+            defaultResult.complete("default");
+            Assertions.assertThat(results.join().getResults())
+                    .containsEntry(ChallengeConstant.DEFAULT_CLUSTER, "default")
+                    .containsEntry(OTHER_CLUSTER, "other");
+            Assertions.assertThat(results.join().getFailures()).isEmpty();
+        }
+
+        @Test
+        void givenClusterSlowerThanItsTimeout_whenFanOut_thenReportsTimeoutAndCancelsRequest() {
+            // Given
+            CompletableFuture<String> slowResult = new CompletableFuture<>();
+
+            // When
+            CompletableFuture<KubernetesClusterRegistry.FanOutResult<String>> results =
+                    kubernetesClusterRegistry.fanOut((cluster, client) -> ChallengeConstant.DEFAULT_CLUSTER.equals(cluster)
+                            ? CompletableFuture.completedFuture("default") : slowResult);
+
+            // Then
+            Map<String, Throwable> failures = results.join().getFailures();
+            Assertions.assertThat(results.join().getResults())
+                    .containsOnlyKeys(ChallengeConstant.DEFAULT_CLUSTER);
+            Assertions.assertThat(failures).containsOnlyKeys(OTHER_CLUSTER);
+            Assertions.assertThat(failures.get(OTHER_CLUSTER)).isInstanceOf(ApiException.class)
+                    .hasMessageContaining(OTHER_CLUSTER);
+            Assertions.assertThatThrownBy(slowResult::join).isInstanceOf(CancellationException.class);
+        }
+
+        @Test
+        void givenFailingCluster_whenFanOut_thenReportsClusterExceptionNextToOtherResults() {
+            // Given
+            ApiException clusterException = new ApiException();
+            CompletableFuture<String> failedFuture = new CompletableFuture<>();
+            failedFuture.completeExceptionally(clusterException);
+
+            // When
+            CompletableFuture<KubernetesClusterRegistry.FanOutResult<String>> results =
+                    kubernetesClusterRegistry.fanOut((cluster, client) -> ChallengeConstant.DEFAULT_CLUSTER.equals(cluster)
+                            ? CompletableFuture.completedFuture("default") : failedFuture);
+
+            // Then
+            Assertions.assertThat(results.join().getResults()).containsEntry(ChallengeConstant.DEFAULT_CLUSTER, "default");
+            Assertions.assertThat(results.join().getFailures()).containsEntry(OTHER_CLUSTER, clusterException);
+        }
+    }
+}
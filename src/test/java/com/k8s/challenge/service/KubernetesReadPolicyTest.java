@@ -0,0 +1,347 @@
+package com.k8s.challenge.service;
+
+import com.k8s.challenge.exception.ApiServerUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.Timeout;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class KubernetesReadPolicyTest {
+
+    private static final String ANY_CLUSTER = "anyCluster";
+    private static final String LIST_URL = "https://127.0.0.1/apis/apps/v1/namespaces/default/deployments";
+    private static final String GET_URL = LIST_URL + "/anyName";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+    private KubernetesReadPolicy.Settings settings;
+    private KubernetesReadPolicy kubernetesReadPolicy;
+    private double randomValue;
+
+    @Mock
+    private Interceptor.Chain chain;
+
+    @Mock
+    private Call call;
+
+    @Mock
+    private Call firstAttempt;
+
+    @Mock
+    private Call secondAttempt;
+
+    @BeforeEach
+    void init() {
+        MockitoAnnotations.openMocks(this);
+        settings = new KubernetesReadPolicy.Settings();
+        settings.setHedgeMinSamples(1);
+        settings.setMinHedgeDelay(Duration.ofMillis(20));
+        randomValue = 0;
+        kubernetesReadPolicy = new KubernetesReadPolicy(ANY_CLUSTER, settings, meterRegistry, timer,
+                new Random() {
+                    @Override
+                    public double nextDouble() {
+                        return randomValue;
+                    }
+                }, () -> 0L);
+        Mockito.when(chain.call()).thenReturn(call);
+        Mockito.when(call.clone()).thenReturn(firstAttempt, secondAttempt);
+        Mockito.when(firstAttempt.timeout()).thenReturn(new Timeout());
+        Mockito.when(secondAttempt.timeout()).thenReturn(new Timeout());
+        givenRequest(new Request.Builder().url(LIST_URL).build());
+    }
+
+    @AfterEach
+    void shutdown() {
+        timer.shutdownNow();
+    }
+
+    @Nested
+    class Retry {
+
+        @Test
+        void givenServerErrorThenSuccess_whenIntercept_thenReturnsResponseOfRetry() throws IOException {
+            // Given
+            givenAnswer(firstAttempt, response(HttpStatus.SERVICE_UNAVAILABLE));
+            givenAnswer(secondAttempt, response(HttpStatus.OK));
+
+            // When
+            Response response = kubernetesReadPolicy.intercept(chain);
+
+            // Then
+            Assertions.assertThat(response.code()).isEqualTo(HttpStatus.OK.value());
+            Assertions.assertThat(meterRegistry.counter("kubernetes.client.reads.retries", "cluster", ANY_CLUSTER,
+                    "operation", KubernetesReadPolicy.OPERATION_LIST).count()).isEqualTo(1);
+            Mockito.verify(chain, Mockito.never()).proceed(Mockito.any());
+        }
+
+        @Test
+        void givenTimeoutOnEveryAttempt_whenIntercept_thenThrowsAfterMaxAttempts() {
+            // Given
+            settings.setMaxAttempts(2);
+            givenFailure(firstAttempt, new SocketTimeoutException("timeout"));
+            givenFailure(secondAttempt, new SocketTimeoutException("timeout"));
+
+            // When
+            // Then
+            Assertions.assertThatThrownBy(() -> kubernetesReadPolicy.intercept(chain))
+                    .isInstanceOf(SocketTimeoutException.class);
+            Mockito.verify(firstAttempt).enqueue(Mockito.any());
+            Mockito.verify(secondAttempt).enqueue(Mockito.any());
+        }
+
+        @Test
+        void givenNotFound_whenIntercept_thenIsNotRetried() throws IOException {
+            // Given
+            givenRequest(new Request.Builder().url(GET_URL).build());
+            givenAnswer(firstAttempt, response(HttpStatus.NOT_FOUND));
+
+            // When
+            Response response = kubernetesReadPolicy.intercept(chain);
+
+            // Then
+            Assertions.assertThat(response.code()).isEqualTo(HttpStatus.NOT_FOUND.value());
+            Mockito.verifyNoInteractions(secondAttempt);
+        }
+
+        @Test
+        void givenRequestRejectedByGuard_whenIntercept_thenIsNotRetried() {
+            // Given
+            givenFailure(firstAttempt, new ApiServerUnavailableException("circuit open", Duration.ofSeconds(30)));
+
+            // When
+            // Then
+            Assertions.assertThatThrownBy(() -> kubernetesReadPolicy.intercept(chain))
+                    .isInstanceOf(ApiServerUnavailableException.class);
+            Mockito.verifyNoInteractions(secondAttempt);
+        }
+
+        @Test
+        void givenAttemptRejectedByBulkhead_whenIntercept_thenIsNotRetried() {
+            // Given
+            InterruptedIOException rejected = new InterruptedIOException("executor rejected");
+            rejected.initCause(new RejectedExecutionException("Bulkhead kubernetes-read-anyCluster is full"));
+            givenFailure(firstAttempt, rejected);
+
+            // When
+            // Then
+            Assertions.assertThatThrownBy(() -> kubernetesReadPolicy.intercept(chain)).isSameAs(rejected);
+            Mockito.verifyNoInteractions(secondAttempt);
+        }
+
+        @Test
+        void givenCreate_whenIntercept_thenRequestIsSentOnce() throws IOException {
+            // Given
+            givenRequest(new Request.Builder().url(LIST_URL).post(RequestBody.create(null, new byte[0])).build());
+            Mockito.when(chain.proceed(Mockito.any())).thenReturn(response(HttpStatus.SERVICE_UNAVAILABLE));
+
+            // When
+            Response response = kubernetesReadPolicy.intercept(chain);
+
+            // Then
+            Assertions.assertThat(response.code()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+            Mockito.verify(call, Mockito.never()).clone();
+        }
+    }
+
+    @Nested
+    class Hedge {
+
+        @Test
+        void givenSlowAttempt_whenIntercept_thenReturnsResponseOfHedge() throws Exception {
+            // Given
+            givenRecordedLatency();
+            Call slowAttempt = Mockito.mock(Call.class);
+            Call hedge = Mockito.mock(Call.class);
+            Mockito.when(call.clone()).thenReturn(slowAttempt, hedge);
+            Mockito.when(slowAttempt.timeout()).thenReturn(new Timeout());
+            Mockito.when(hedge.timeout()).thenReturn(new Timeout());
+            CountDownLatch lateResponseClosed = new CountDownLatch(1);
+            Response lateResponse = response(HttpStatus.OK).newBuilder()
+                    .body(new ResponseBody() {
+                        @Override
+                        public MediaType contentType() {
+                            return null;
+                        }
+
+                        @Override
+                        public long contentLength() {
+                            return 0;
+                        }
+
+                        @Override
+                        public BufferedSource source() {
+                            return new Buffer();
+                        }
+
+                        @Override
+                        public void close() {
+                            lateResponseClosed.countDown();
+                        }
+                    })
+                    .build();
+            Response hedgeResponse = response(HttpStatus.OK);
+            givenAnswer(hedge, hedgeResponse);
+
+            // When
+            Response response = kubernetesReadPolicy.intercept(chain);
+
+            // Then
+            Assertions.assertThat(response).isSameAs(hedgeResponse);
+            Assertions.assertThat(meterRegistry.counter("kubernetes.client.reads.hedges", "cluster", ANY_CLUSTER,
+                    "operation", KubernetesReadPolicy.OPERATION_LIST, "outcome", "won").count()).isEqualTo(1);
+            Mockito.verify(slowAttempt).cancel();
+            Mockito.verify(hedge, Mockito.never()).cancel();
+            ArgumentCaptor<Callback> slowCallback = ArgumentCaptor.forClass(Callback.class);
+            Mockito.verify(slowAttempt).enqueue(slowCallback.capture());
+            slowCallback.getValue().onResponse(slowAttempt, lateResponse);
+            Assertions.assertThat(lateResponseClosed.await(1, TimeUnit.SECONDS)).isTrue();
+        }
+
+        @Test
+        void givenHedgingDisabled_whenIntercept_thenWaitsForFirstAttempt() throws Exception {
+            // Given
+            settings.setHedgeEnabled(false);
+            givenRecordedLatency();
+            Call slowAttempt = Mockito.mock(Call.class);
+            Mockito.when(call.clone()).thenReturn(slowAttempt);
+            Mockito.when(slowAttempt.timeout()).thenReturn(new Timeout());
+            Mockito.doAnswer(invocation -> timer.schedule(() -> {
+                invocation.<Callback>getArgument(0).onResponse(slowAttempt, response(HttpStatus.OK));
+                return null;
+            }, 100, TimeUnit.MILLISECONDS)).when(slowAttempt).enqueue(Mockito.any());
+
+            // When
+            Response response = kubernetesReadPolicy.intercept(chain);
+
+            // Then
+            Assertions.assertThat(response.code()).isEqualTo(HttpStatus.OK.value());
+            Mockito.verify(call, Mockito.times(2)).clone();
+            Assertions.assertThat(meterRegistry.find("kubernetes.client.reads.hedges").counter()).isNull();
+        }
+
+        private void givenRecordedLatency() throws IOException {
+            givenAnswer(firstAttempt, response(HttpStatus.OK));
+            kubernetesReadPolicy.intercept(chain).close();
+        }
+    }
+
+    @Nested
+    class Enqueue {
+
+        @Test
+        void givenRead_whenEnqueue_thenReturnsBeforeAttemptAnswersAndCompletesCallbackWithItsResponse() throws Exception {
+            // Given
+            CompletableFuture<Response> answered = new CompletableFuture<>();
+            Response okResponse = response(HttpStatus.OK);
+
+            // When
+            kubernetesReadPolicy.enqueue(call, new Callback() {
+                @Override
+                public void onFailure(Call failedCall, IOException ex) {
+                    answered.completeExceptionally(ex);
+                }
+
+                @Override
+                public void onResponse(Call answeredCall, Response response) {
+                    Assertions.assertThat(answeredCall).isSameAs(call);
+                    answered.complete(response);
+                }
+            });
+
+            // Then
+            Assertions.assertThat(answered).isNotDone();
+            ArgumentCaptor<Callback> attemptCallback = ArgumentCaptor.forClass(Callback.class);
+            Mockito.verify(firstAttempt).enqueue(attemptCallback.capture());
+            attemptCallback.getValue().onResponse(firstAttempt, okResponse);
+            Assertions.assertThat(answered.get(1, TimeUnit.SECONDS)).isSameAs(okResponse);
+            Mockito.verify(call, Mockito.never()).execute();
+            Mockito.verify(call, Mockito.never()).enqueue(Mockito.any());
+        }
+
+        @Test
+        void givenCreate_whenEnqueue_thenCallIsEnqueuedAsItIs() {
+            // Given
+            givenRequest(new Request.Builder().url(LIST_URL).post(RequestBody.create(null, new byte[0])).build());
+            Callback callback = Mockito.mock(Callback.class);
+
+            // When
+            kubernetesReadPolicy.enqueue(call, callback);
+
+            // Then
+            Mockito.verify(call).enqueue(callback);
+            Mockito.verify(call, Mockito.never()).clone();
+        }
+    }
+
+    @Test
+    void givenAttempts_whenBackoff_thenStaysBelowDoubledCeilingAndMaxBackoff() {
+        // Given
+        randomValue = 0.99;
+
+        // Then
+        Assertions.assertThat(kubernetesReadPolicy.backoff(1)).isEqualTo(Duration.ofMillis(99));
+        Assertions.assertThat(kubernetesReadPolicy.backoff(3)).isEqualTo(Duration.ofMillis(396));
+        Assertions.assertThat(kubernetesReadPolicy.backoff(20)).isLessThan(settings.getMaxBackoff());
+    }
+
+    private void givenRequest(Request request) {
+        Mockito.when(chain.request()).thenReturn(request);
+        Mockito.when(call.request()).thenReturn(request);
+    }
+
+    private static void givenAnswer(Call attempt, Response response) {
+        Mockito.doAnswer(invocation -> {
+            invocation.<Callback>getArgument(0).onResponse(attempt, response);
+            return null;
+        }).when(attempt).enqueue(Mockito.any());
+    }
+
+    private static void givenFailure(Call attempt, IOException exception) {
+        Mockito.doAnswer(invocation -> {
+            invocation.<Callback>getArgument(0).onFailure(attempt, exception);
+            return null;
+        }).when(attempt).enqueue(Mockito.any());
+    }
+
+    private static Response response(HttpStatus httpStatus) {
+        return new Response.Builder()
+                .request(new Request.Builder().url(LIST_URL).build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(httpStatus.value())
+                .message(httpStatus.getReasonPhrase())
+                .body(ResponseBody.create(null, ""))
+                .build();
+    }
+}
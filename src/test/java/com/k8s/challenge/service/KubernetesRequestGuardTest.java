@@ -0,0 +1,252 @@
+package com.k8s.challenge.service;
+
+import com.k8s.challenge.exception.ApiServerUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.Call;
+import okhttp3.Interceptor;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class KubernetesRequestGuardTest {
+
+    private static final String ANY_CLUSTER = "anyCluster";
+    private static final String ANY_URL = "https://127.0.0.1/apis/apps/v1/namespaces/default/deployments";
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private KubernetesRequestGuard.Settings settings;
+    private KubernetesRequestGuard kubernetesRequestGuard;
+
+    @Mock
+    private Interceptor.Chain chain;
+
+    @Mock
+    private Call call;
+
+    @BeforeEach
+    void init() {
+        MockitoAnnotations.openMocks(this);
+        settings = new KubernetesRequestGuard.Settings();
+        settings.setList(new KubernetesRequestGuard.RateLimit(1, 1));
+        settings.setFailureThreshold(2);
+        settings.setOpenDuration(Duration.ofSeconds(30));
+        kubernetesRequestGuard = new KubernetesRequestGuard(ANY_CLUSTER, settings, meterRegistry, nanoTime::get);
+        Mockito.when(chain.call()).thenReturn(call);
+    }
+
+    @Nested
+    class RateLimit {
+
+        @Test
+        void givenExhaustedListBucket_whenIntercept_thenThrowsApiServerUnavailableException() throws IOException {
+            // Given
+            givenRequest("GET");
+            Mockito.when(chain.proceed(Mockito.any())).thenReturn(response(HttpStatus.OK, null));
+            kubernetesRequestGuard.intercept(chain);
+
+            // When
+            // Then
+            Assertions.assertThatThrownBy(() -> kubernetesRequestGuard.intercept(chain))
+                    .isInstanceOfSatisfying(ApiServerUnavailableException.class, ex ->
+                            Assertions.assertThat(ex.getRetryAfter()).isEqualTo(Duration.ofSeconds(1)));
+            Assertions.assertThat(meterRegistry.counter("kubernetes.client.requests.rejected", "cluster", ANY_CLUSTER,
+                    "verb", KubernetesRequestGuard.VERB_LIST, "reason", "rate_limited").count()).isEqualTo(1);
+            Mockito.verify(chain).proceed(Mockito.any());
+        }
+
+        @Test
+        void givenExhaustedListBucket_whenInterceptCreate_thenCreateIsSent() throws IOException {
+            // Given
+            givenRequest("GET");
+            Mockito.when(chain.proceed(Mockito.any())).thenReturn(response(HttpStatus.OK, null));
+            kubernetesRequestGuard.intercept(chain);
+            givenRequest("POST");
+
+            // When
+            Response response = kubernetesRequestGuard.intercept(chain);
+
+            // Then
+            Assertions.assertThat(response.code()).isEqualTo(HttpStatus.OK.value());
+        }
+
+        @Test
+        void givenExhaustedListBucketAndOneSecondPassed_whenIntercept_thenRequestIsSent() throws IOException {
+            // Given
+            givenRequest("GET");
+            Mockito.when(chain.proceed(Mockito.any())).thenReturn(response(HttpStatus.OK, null));
+            kubernetesRequestGuard.intercept(chain);
+            nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+            // When
+            Response response = kubernetesRequestGuard.intercept(chain);
+
+            // Then
+            Assertions.assertThat(response.code()).isEqualTo(HttpStatus.OK.value());
+        }
+    }
+
+    @Nested
+    class RetryAfter {
+
+        @Test
+        void givenTooManyRequests_whenIntercept_thenThrowsWithRetryAfterWithoutRetrying() throws IOException {
+            // Given
+            givenRequest("DELETE");
+            Mockito.when(chain.proceed(Mockito.any())).thenReturn(response(HttpStatus.TOO_MANY_REQUESTS, "5"));
+
+            // When
+            // Then
+            Assertions.assertThatThrownBy(() -> kubernetesRequestGuard.intercept(chain))
+                    .isInstanceOfSatisfying(ApiServerUnavailableException.class, ex ->
+                            Assertions.assertThat(ex.getRetryAfter()).isEqualTo(Duration.ofSeconds(5)));
+            Mockito.verify(chain).proceed(Mockito.any());
+        }
+
+        @Test
+        void givenTooManyRequests_whenInterceptWithinRetryAfter_thenFailsFastWithRemainingRetryAfter()
+                throws IOException {
+            // Given
+            givenRequest("POST");
+            Mockito.when(chain.proceed(Mockito.any())).thenReturn(response(HttpStatus.TOO_MANY_REQUESTS, "5"));
+            Assertions.assertThatThrownBy(() -> kubernetesRequestGuard.intercept(chain))
+                    .isInstanceOf(ApiServerUnavailableException.class);
+            nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(2));
+
+            // When
+            // Then
+            Assertions.assertThatThrownBy(() -> kubernetesRequestGuard.intercept(chain))
+                    .isInstanceOfSatisfying(ApiServerUnavailableException.class, ex ->
+                            Assertions.assertThat(ex.getRetryAfter()).isEqualTo(Duration.ofSeconds(3)));
+            Mockito.verify(chain).proceed(Mockito.any());
+        }
+    }
+
+    @Nested
+    class CircuitBreaking {
+
+        @Test
+        void givenConsecutiveServerErrors_whenIntercept_thenFailsFastWithoutSendingRequest() throws IOException {
+            // Given
+            givenRequest("POST");
+            Mockito.when(chain.proceed(Mockito.any()))
+                    .thenReturn(response(HttpStatus.SERVICE_UNAVAILABLE, null))
+                    .thenThrow(new ConnectException("Connection refused"));
+            kubernetesRequestGuard.intercept(chain);
+            Assertions.assertThatThrownBy(() -> kubernetesRequestGuard.intercept(chain))
+                    .isInstanceOf(ConnectException.class);
+
+            // When
+            // Then
+            Assertions.assertThatThrownBy(() -> kubernetesRequestGuard.intercept(chain))
+                    .isInstanceOfSatisfying(ApiServerUnavailableException.class, ex ->
+                            Assertions.assertThat(ex.getRetryAfter()).isEqualTo(Duration.ofSeconds(30)));
+            Mockito.verify(chain, Mockito.times(2)).proceed(Mockito.any());
+            Assertions.assertThat(circuitState()).isEqualTo(CircuitBreaker.State.OPEN.ordinal());
+        }
+
+        @Test
+        void givenOpenCircuitAndOpenDurationPassed_whenInterceptSucceeds_thenClosesCircuit() throws IOException {
+            // Given
+            givenRequest("POST");
+            Mockito.when(chain.proceed(Mockito.any()))
+                    .thenReturn(response(HttpStatus.INTERNAL_SERVER_ERROR, null))
+                    .thenReturn(response(HttpStatus.BAD_GATEWAY, null))
+                    .thenReturn(response(HttpStatus.CREATED, null));
+            kubernetesRequestGuard.intercept(chain);
+            kubernetesRequestGuard.intercept(chain);
+            nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(30));
+            Assertions.assertThat(circuitState()).isEqualTo(CircuitBreaker.State.HALF_OPEN.ordinal());
+
+            // When
+            Response response = kubernetesRequestGuard.intercept(chain);
+
+            // Then
+            Assertions.assertThat(response.code()).isEqualTo(HttpStatus.CREATED.value());
+            Assertions.assertThat(circuitState()).isEqualTo(CircuitBreaker.State.CLOSED.ordinal());
+        }
+
+        @Test
+        void givenOpenCircuit_whenInterceptIsRejected_thenNoTokenIsTaken() throws IOException {
+            // Given
+            settings.setList(new KubernetesRequestGuard.RateLimit(0.001, 1));
+            kubernetesRequestGuard = new KubernetesRequestGuard(ANY_CLUSTER, settings, meterRegistry, nanoTime::get);
+            givenRequest("POST");
+            Mockito.when(chain.proceed(Mockito.any()))
+                    .thenReturn(response(HttpStatus.INTERNAL_SERVER_ERROR, null))
+                    .thenReturn(response(HttpStatus.BAD_GATEWAY, null))
+                    .thenReturn(response(HttpStatus.OK, null));
+            kubernetesRequestGuard.intercept(chain);
+            kubernetesRequestGuard.intercept(chain);
+            givenRequest("GET");
+            for (int i = 0; i < 3; i++) {
+                Assertions.assertThatThrownBy(() -> kubernetesRequestGuard.intercept(chain))
+                        .isInstanceOf(ApiServerUnavailableException.class);
+            }
+            nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+            // When
+            Response response = kubernetesRequestGuard.intercept(chain);
+
+            // Then
+            Assertions.assertThat(response.code()).isEqualTo(HttpStatus.OK.value());
+            Assertions.assertThat(meterRegistry.counter("kubernetes.client.requests.rejected", "cluster", ANY_CLUSTER,
+                    "verb", KubernetesRequestGuard.VERB_LIST, "reason", "circuit_open").count()).isEqualTo(3);
+        }
+
+        @Test
+        void givenClientErrors_whenIntercept_thenCircuitStaysClosed() throws IOException {
+            // Given
+            givenRequest("POST");
+            Mockito.when(chain.proceed(Mockito.any())).thenReturn(response(HttpStatus.CONFLICT, null));
+
+            // When
+            kubernetesRequestGuard.intercept(chain);
+            kubernetesRequestGuard.intercept(chain);
+            Response response = kubernetesRequestGuard.intercept(chain);
+
+            // Then
+            Assertions.assertThat(response.code()).isEqualTo(HttpStatus.CONFLICT.value());
+            Assertions.assertThat(circuitState()).isEqualTo(CircuitBreaker.State.CLOSED.ordinal());
+        }
+    }
+
+    private void givenRequest(String method) {
+        Request.Builder request = new Request.Builder().url(ANY_URL);
+        Mockito.when(chain.request()).thenReturn("GET".equals(method) ? request.build()
+                : request.method(method, RequestBody.create(null, new byte[0])).build());
+    }
+
+    private Response response(HttpStatus httpStatus, String retryAfter) {
+        Response.Builder response = new Response.Builder()
+                .request(new Request.Builder().url(ANY_URL).build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(httpStatus.value())
+                .message(httpStatus.getReasonPhrase())
+                .body(ResponseBody.create(null, ""));
+        if (retryAfter != null) {
+            response.header("Retry-After", retryAfter);
+        }
+        return response.build();
+    }
+
+    private double circuitState() {
+        return meterRegistry.get("kubernetes.client.circuit.state").tag("cluster", ANY_CLUSTER).gauge().value();
+    }
+}
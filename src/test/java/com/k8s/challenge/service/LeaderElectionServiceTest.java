@@ -0,0 +1,203 @@
+package com.k8s.challenge.service;
+
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.apis.CoordinationV1Api;
+import io.kubernetes.client.openapi.models.V1Lease;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the election of two instances against a {@link FakeLeaseApiServer}.
+ */
+public class LeaderElectionServiceTest {
+
+    private static final String LEASE_NAMESPACE = "anyNamespace";
+    private static final String LEASE_NAME = "anyLease";
+    private static final String FIRST_IDENTITY = "first";
+    private static final String SECOND_IDENTITY = "second";
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ScheduledExecutorService scheduler;
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private Duration requestDuration = Duration.ZERO;
+    private FakeLeaseApiServer apiServer;
+    private LeaderElectionService.Settings settings;
+    private LeaderElectionService first;
+    private LeaderElectionService second;
+
+    @BeforeEach
+    void init() throws IOException {
+        MockitoAnnotations.openMocks(this);
+        apiServer = new FakeLeaseApiServer(LEASE_NAMESPACE);
+        settings = new LeaderElectionService.Settings();
+        settings.setNamespace(LEASE_NAMESPACE);
+        settings.setLeaseName(LEASE_NAME);
+        first = candidate(FIRST_IDENTITY);
+        second = candidate(SECOND_IDENTITY);
+    }
+
+    @AfterEach
+    void destroy() {
+        apiServer.close();
+    }
+
+    @Test
+    void givenNoLease_whenTryAcquireOrRenew_thenLeaseIsCreatedAndInstanceLeads() {
+        // When
+        first.tryAcquireOrRenew();
+        second.tryAcquireOrRenew();
+
+        // Then
+        Assertions.assertThat(first.isLeader()).isTrue();
+        Assertions.assertThat(second.isLeader()).isFalse();
+        V1Lease lease = apiServer.getLease(LEASE_NAME);
+        Assertions.assertThat(lease.getSpec().getHolderIdentity()).isEqualTo(FIRST_IDENTITY);
+        Assertions.assertThat(lease.getSpec().getLeaseDurationSeconds()).isEqualTo(15);
+        Assertions.assertThat(lease.getSpec().getLeaseTransitions()).isZero();
+        ArgumentCaptor<LeadershipChangedEvent> eventCaptor = ArgumentCaptor.forClass(LeadershipChangedEvent.class);
+        Mockito.verify(eventPublisher).publishEvent(eventCaptor.capture());
+        Assertions.assertThat(eventCaptor.getValue().getIdentity()).isEqualTo(FIRST_IDENTITY);
+        Assertions.assertThat(eventCaptor.getValue().isLeader()).isTrue();
+    }
+
+    @Test
+    void givenLeaderRenews_whenLeaseDurationPassed_thenOtherInstanceDoesNotTakeOver() {
+        // Given
+        first.tryAcquireOrRenew();
+        second.tryAcquireOrRenew();
+        advance(Duration.ofSeconds(10));
+        first.tryAcquireOrRenew();
+        second.tryAcquireOrRenew();
+
+        // When
+        advance(Duration.ofSeconds(10));
+        second.tryAcquireOrRenew();
+
+        // Then
+        Assertions.assertThat(first.isLeader()).isTrue();
+        Assertions.assertThat(second.isLeader()).isFalse();
+        Assertions.assertThat(apiServer.getLease(LEASE_NAME).getSpec().getHolderIdentity()).isEqualTo(FIRST_IDENTITY);
+    }
+
+    @Test
+    void givenLeaderStoppedRenewing_whenLeaseDurationPassed_thenOtherInstanceTakesOverAndLeaderStepsDown() {
+        // Given
+        first.tryAcquireOrRenew();
+        second.tryAcquireOrRenew();
+        advance(Duration.ofSeconds(15));
+
+        // When
+        second.tryAcquireOrRenew();
+        first.tryAcquireOrRenew();
+
+        // Then
+        Assertions.assertThat(second.isLeader()).isTrue();
+        Assertions.assertThat(first.isLeader()).isFalse();
+        V1Lease lease = apiServer.getLease(LEASE_NAME);
+        Assertions.assertThat(lease.getSpec().getHolderIdentity()).isEqualTo(SECOND_IDENTITY);
+        Assertions.assertThat(lease.getSpec().getLeaseTransitions()).isEqualTo(1);
+    }
+
+    @Test
+    void givenLeaderStopped_whenTryAcquireOrRenew_thenOtherInstanceTakesOverAtOnce() {
+        // Given
+        first.tryAcquireOrRenew();
+        second.tryAcquireOrRenew();
+        first.stop();
+
+        // When
+        second.tryAcquireOrRenew();
+
+        // Then
+        Assertions.assertThat(first.isLeader()).isFalse();
+        Assertions.assertThat(second.isLeader()).isTrue();
+        Assertions.assertThat(apiServer.getLease(LEASE_NAME).getSpec().getHolderIdentity()).isEqualTo(SECOND_IDENTITY);
+    }
+
+    @Test
+    void givenApiServerUnavailable_whenRenewDeadlinePassed_thenLeaderStepsDown() {
+        // Given
+        first.tryAcquireOrRenew();
+        apiServer.setAvailable(false);
+        advance(Duration.ofSeconds(5));
+        first.tryAcquireOrRenew();
+        Assertions.assertThat(first.isLeader()).isTrue();
+
+        // When
+        advance(Duration.ofSeconds(5));
+        first.tryAcquireOrRenew();
+
+        // Then
+        Assertions.assertThat(first.isLeader()).isFalse();
+        ArgumentCaptor<LeadershipChangedEvent> eventCaptor = ArgumentCaptor.forClass(LeadershipChangedEvent.class);
+        Mockito.verify(eventPublisher, Mockito.times(2)).publishEvent(eventCaptor.capture());
+        Assertions.assertThat(eventCaptor.getValue().isLeader()).isFalse();
+    }
+
+    @Test
+    void givenRoundLongerThanRenewDeadline_whenTryAcquireOrRenew_thenLeaderStepsDownAndTakesLeaseBackNextRound() {
+        // Given
+        first.tryAcquireOrRenew();
+        requestDuration = Duration.ofSeconds(6);
+
+        // When
+        first.tryAcquireOrRenew();
+
+        // Then
+        Assertions.assertThat(first.isLeader()).isFalse();
+        Assertions.assertThat(apiServer.getLease(LEASE_NAME).getSpec().getHolderIdentity()).isEqualTo(FIRST_IDENTITY);
+        ArgumentCaptor<LeadershipChangedEvent> eventCaptor = ArgumentCaptor.forClass(LeadershipChangedEvent.class);
+        Mockito.verify(eventPublisher, Mockito.times(2)).publishEvent(eventCaptor.capture());
+        Assertions.assertThat(eventCaptor.getValue().isLeader()).isFalse();
+        requestDuration = Duration.ZERO;
+        first.tryAcquireOrRenew();
+        Assertions.assertThat(first.isLeader()).isTrue();
+    }
+
+    @Test
+    void givenLeaderElectionDisabled_whenStart_thenInstanceLeadsWithoutLease() {
+        // Given
+        settings.setEnabled(false);
+
+        // When
+        first.start();
+
+        // Then
+        Assertions.assertThat(first.isLeader()).isTrue();
+        Assertions.assertThat(apiServer.getLease(LEASE_NAME)).isNull();
+        Mockito.verifyNoInteractions(scheduler);
+    }
+
+    /**
+     * Each request of the candidate takes the {@link #requestDuration request duration} on the clock.
+     */
+    private LeaderElectionService candidate(String identity) {
+        ApiClient apiClient = apiServer.apiClient();
+        apiClient.setHttpClient(apiClient.getHttpClient().newBuilder().addInterceptor(chain -> {
+            advance(requestDuration);
+            return chain.proceed(chain.request());
+        }).build());
+        return new LeaderElectionService(new CoordinationV1Api(apiClient), eventPublisher, settings, identity,
+                nanoTime::get, scheduler);
+    }
+
+    private void advance(Duration duration) {
+        nanoTime.addAndGet(duration.toNanos());
+    }
+}
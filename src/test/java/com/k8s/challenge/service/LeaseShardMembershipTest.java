@@ -0,0 +1,126 @@
+package com.k8s.challenge.service;
+
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.CoordinationV1Api;
+import io.kubernetes.client.openapi.models.V1Lease;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the membership of two instances against a {@link FakeLeaseApiServer}.
+ */
+public class LeaseShardMembershipTest {
+
+    private static final String LEASE_NAMESPACE = "anyNamespace";
+    private static final String FIRST_IDENTITY = "first";
+    private static final String SECOND_IDENTITY = "second";
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private FakeLeaseApiServer apiServer;
+    private NamespaceShardService.Settings settings;
+    private LeaseShardMembership first;
+    private LeaseShardMembership second;
+
+    @BeforeEach
+    void init() throws IOException {
+        apiServer = new FakeLeaseApiServer(LEASE_NAMESPACE);
+        settings = new NamespaceShardService.Settings();
+        settings.setNamespace(LEASE_NAMESPACE);
+        first = member();
+        second = member();
+    }
+
+    @AfterEach
+    void destroy() {
+        apiServer.close();
+    }
+
+    @Test
+    void givenTwoMembers_whenRefresh_thenBothAreLiveAndHoldLabelledLeases() throws ApiException {
+        // Given
+        first.refresh(FIRST_IDENTITY);
+
+        // When
+        Set<String> secondMembers = second.refresh(SECOND_IDENTITY);
+        Set<String> firstMembers = first.refresh(FIRST_IDENTITY);
+
+        // Then
+        Assertions.assertThat(firstMembers).containsExactly(FIRST_IDENTITY, SECOND_IDENTITY);
+        Assertions.assertThat(secondMembers).containsExactly(FIRST_IDENTITY, SECOND_IDENTITY);
+        V1Lease lease = apiServer.getLease(first.leaseNameOf(FIRST_IDENTITY));
+        Assertions.assertThat(lease.getSpec().getHolderIdentity()).isEqualTo(FIRST_IDENTITY);
+        Assertions.assertThat(lease.getMetadata().getLabels())
+                .containsEntry(LeaseShardMembership.GROUP_LABEL, settings.getLeasePrefix());
+    }
+
+    @Test
+    void givenMemberStoppedRenewing_whenLeaseDurationPassed_thenMemberIsDroppedAndItsLeaseDeleted()
+            throws ApiException {
+        // Given
+        first.refresh(FIRST_IDENTITY);
+        second.refresh(SECOND_IDENTITY);
+        first.refresh(FIRST_IDENTITY);
+        nanoTime.addAndGet(Duration.ofSeconds(10).toNanos());
+        Assertions.assertThat(first.refresh(FIRST_IDENTITY)).containsExactly(FIRST_IDENTITY, SECOND_IDENTITY);
+
+        // When
+        nanoTime.addAndGet(Duration.ofSeconds(5).toNanos());
+        Set<String> members = first.refresh(FIRST_IDENTITY);
+
+        // Then
+        Assertions.assertThat(members).containsExactly(FIRST_IDENTITY);
+        Assertions.assertThat(apiServer.getLeaseNames()).containsExactly(first.leaseNameOf(FIRST_IDENTITY));
+    }
+
+    @Test
+    void givenMemberLeft_whenRefresh_thenMemberIsDroppedAtOnce() throws ApiException {
+        // Given
+        first.refresh(FIRST_IDENTITY);
+        second.refresh(SECOND_IDENTITY);
+        first.refresh(FIRST_IDENTITY);
+        second.leave(SECOND_IDENTITY);
+
+        // When
+        Set<String> members = first.refresh(FIRST_IDENTITY);
+
+        // Then
+        Assertions.assertThat(members).containsExactly(FIRST_IDENTITY);
+    }
+
+    @Test
+    void givenOwnLeaseDeletedAsExpired_whenRefresh_thenLeaseIsCreatedAgain() throws ApiException {
+        // Given
+        first.refresh(FIRST_IDENTITY);
+        second.refresh(SECOND_IDENTITY);
+        nanoTime.addAndGet(Duration.ofSeconds(15).toNanos());
+        second.refresh(SECOND_IDENTITY);
+        Assertions.assertThatThrownBy(() -> first.refresh(FIRST_IDENTITY)).isInstanceOf(ApiException.class);
+
+        // When
+        Set<String> members = first.refresh(FIRST_IDENTITY);
+
+        // Then
+        Assertions.assertThat(members).containsExactly(FIRST_IDENTITY, SECOND_IDENTITY);
+        Assertions.assertThat(apiServer.getLease(first.leaseNameOf(FIRST_IDENTITY))).isNotNull();
+    }
+
+    @Test
+    void givenIdentityWithInvalidCharacters_whenLeaseNameOf_thenReturnsValidName() {
+        // When
+        String leaseName = first.leaseNameOf("Host_Name_");
+
+        // Then
+        Assertions.assertThat(leaseName).isEqualTo(settings.getLeasePrefix() + "-host-name");
+    }
+
+    private LeaseShardMembership member() {
+        return new LeaseShardMembership(new CoordinationV1Api(apiServer.apiClient()), settings, nanoTime::get);
+    }
+}
@@ -0,0 +1,180 @@
+package com.k8s.challenge.service;
+
+import io.kubernetes.client.openapi.ApiException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class NamespaceShardServiceTest {
+
+    private static final String IDENTITY = "first";
+    private static final List<String> MEMBERS = Arrays.asList(IDENTITY, "second");
+
+    @Mock
+    private LeaderElectionService leaderElectionService;
+
+    @Mock
+    private ShardMembership shardMembership;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ScheduledExecutorService scheduler;
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private NamespaceShardService.Settings settings;
+    private NamespaceShardService namespaceShardService;
+
+    @BeforeEach
+    void init() {
+        MockitoAnnotations.openMocks(this);
+        Mockito.when(leaderElectionService.getIdentity()).thenReturn(IDENTITY);
+        settings = new NamespaceShardService.Settings();
+        namespaceShardService = new NamespaceShardService(leaderElectionService, shardMembership, eventPublisher,
+                settings, nanoTime::get, scheduler);
+    }
+
+    @Nested
+    class ShardingDisabled {
+
+        @Test
+        void givenLeadershipGranted_whenOnLeadershipChanged_thenAllNamespacesAreOwned() {
+            // When
+            namespaceShardService.onLeadershipChanged(new LeadershipChangedEvent(IDENTITY, true));
+
+            // Then
+            Assertions.assertThat(namespaceShardService.getShard()).isSameAs(NamespaceShard.ALL);
+            Assertions.assertThat(publishedShard()).isSameAs(NamespaceShard.ALL);
+        }
+
+        @Test
+        void givenLeadershipRevoked_whenOnLeadershipChanged_thenNoNamespaceIsOwned() {
+            // Given
+            namespaceShardService.onLeadershipChanged(new LeadershipChangedEvent(IDENTITY, true));
+
+            // When
+            namespaceShardService.onLeadershipChanged(new LeadershipChangedEvent(IDENTITY, false));
+
+            // Then
+            Assertions.assertThat(namespaceShardService.getShard()).isSameAs(NamespaceShard.NONE);
+        }
+
+        @Test
+        void givenShardingDisabled_whenStart_thenMembershipIsNotRefreshed() {
+            // When
+            namespaceShardService.start();
+
+            // Then
+            Mockito.verifyNoInteractions(scheduler, shardMembership);
+        }
+    }
+
+    @Nested
+    class ShardingEnabled {
+
+        @BeforeEach
+        void init() {
+            settings.setEnabled(true);
+        }
+
+        @Test
+        void givenMembers_whenRefresh_thenShardOfMembersIsPublishedOnce() throws ApiException {
+            // Given
+            Mockito.when(shardMembership.refresh(IDENTITY)).thenReturn(new TreeSet<>(MEMBERS));
+
+            // When
+            namespaceShardService.refresh();
+            namespaceShardService.refresh();
+
+            // Then
+            Assertions.assertThat(namespaceShardService.getShard())
+                    .isEqualTo(NamespaceShard.of(IDENTITY, MEMBERS, settings.getVirtualNodes()));
+            Assertions.assertThat(publishedShard().getMembers()).containsExactlyElementsOf(MEMBERS);
+        }
+
+        @Test
+        void givenLeadershipGranted_whenOnLeadershipChanged_thenShardIsKept() throws ApiException {
+            // Given
+            Mockito.when(shardMembership.refresh(IDENTITY)).thenReturn(new TreeSet<>(MEMBERS));
+            namespaceShardService.refresh();
+
+            // When
+            namespaceShardService.onLeadershipChanged(new LeadershipChangedEvent(IDENTITY, true));
+
+            // Then
+            Assertions.assertThat(namespaceShardService.getShard().getMembers()).containsExactlyElementsOf(MEMBERS);
+        }
+
+        @Test
+        void givenRefreshFails_whenRenewDeadlinePassed_thenNamespacesAreGivenUp() throws ApiException {
+            // Given
+            Mockito.when(shardMembership.refresh(IDENTITY)).thenReturn(new TreeSet<>(MEMBERS))
+                    .thenThrow(new ApiException(503, "Service Unavailable"));
+            namespaceShardService.refresh();
+            nanoTime.addAndGet(Duration.ofSeconds(5).toNanos());
+            namespaceShardService.refresh();
+            Assertions.assertThat(namespaceShardService.getShard().isEmpty()).isFalse();
+
+            // When
+            nanoTime.addAndGet(Duration.ofSeconds(5).toNanos());
+            namespaceShardService.refresh();
+
+            // Then
+            Assertions.assertThat(namespaceShardService.getShard()).isSameAs(NamespaceShard.NONE);
+        }
+
+        @Test
+        void givenRefreshLongerThanRenewDeadline_whenRefresh_thenNamespacesAreGivenUp() throws ApiException {
+            // Given
+            Mockito.when(shardMembership.refresh(IDENTITY)).thenReturn(new TreeSet<>(MEMBERS))
+                    .thenAnswer(invocation -> {
+                        nanoTime.addAndGet(Duration.ofSeconds(10).toNanos());
+                        return new TreeSet<>(MEMBERS);
+                    });
+            namespaceShardService.refresh();
+            Assertions.assertThat(namespaceShardService.getShard().isEmpty()).isFalse();
+
+            // When
+            namespaceShardService.refresh();
+
+            // Then
+            Assertions.assertThat(namespaceShardService.getShard()).isSameAs(NamespaceShard.NONE);
+        }
+
+        @Test
+        void givenShard_whenStop_thenNamespacesAreGivenUpAndMemberLeaves() throws ApiException {
+            // Given
+            Mockito.when(shardMembership.refresh(IDENTITY)).thenReturn(new TreeSet<>(MEMBERS));
+            namespaceShardService.refresh();
+
+            // When
+            namespaceShardService.stop();
+
+            // Then
+            Assertions.assertThat(namespaceShardService.getShard()).isSameAs(NamespaceShard.NONE);
+            Mockito.verify(scheduler).shutdownNow();
+            Mockito.verify(shardMembership).leave(IDENTITY);
+        }
+    }
+
+    private NamespaceShard publishedShard() {
+        ArgumentCaptor<NamespaceShardChangedEvent> eventCaptor =
+                ArgumentCaptor.forClass(NamespaceShardChangedEvent.class);
+        Mockito.verify(eventPublisher).publishEvent(eventCaptor.capture());
+        return eventCaptor.getValue().getShard();
+    }
+}
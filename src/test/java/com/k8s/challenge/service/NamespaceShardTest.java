@@ -0,0 +1,86 @@
+package com.k8s.challenge.service;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class NamespaceShardTest {
+
+    private static final int NAMESPACE_COUNT = 3000;
+    private static final int VIRTUAL_NODES = 100;
+    private static final List<String> MEMBERS = Arrays.asList("first", "second", "third");
+
+    @Test
+    void givenMembers_whenOwns_thenEveryNamespaceIsOwnedByExactlyOneMemberAndSpreadEvenly() {
+        // Given
+        List<NamespaceShard> shards = Arrays.asList(shardOf("first", MEMBERS), shardOf("second", MEMBERS),
+                shardOf("third", MEMBERS));
+        Map<NamespaceShard, Integer> ownedCounts = new HashMap<>();
+
+        // When
+        for (int index = 0; index < NAMESPACE_COUNT; index++) {
+            String namespace = "namespace-" + index;
+            long owners = shards.stream().filter(shard -> shard.owns(namespace)).count();
+            Assertions.assertThat(owners).isEqualTo(1);
+            shards.stream().filter(shard -> shard.owns(namespace))
+                    .forEach(shard -> ownedCounts.merge(shard, 1, Integer::sum));
+        }
+
+        // Then
+        Assertions.assertThat(ownedCounts.values()).allSatisfy(count ->
+                Assertions.assertThat(count).isBetween(NAMESPACE_COUNT / 5, NAMESPACE_COUNT / 2));
+    }
+
+    @Test
+    void givenMemberJoins_whenOwnerOf_thenOnlyNamespacesOfNewMemberMove() {
+        // Given
+        NamespaceShard before = shardOf("first", MEMBERS);
+        NamespaceShard after = shardOf("first", Arrays.asList("first", "second", "third", "fourth"));
+        int moved = 0;
+
+        // When
+        for (int index = 0; index < NAMESPACE_COUNT; index++) {
+            String namespace = "namespace-" + index;
+            if (!before.ownerOf(namespace).equals(after.ownerOf(namespace))) {
+                Assertions.assertThat(after.ownerOf(namespace)).isEqualTo("fourth");
+                moved++;
+            }
+        }
+
+        // Then
+        Assertions.assertThat(moved).isBetween(NAMESPACE_COUNT / 8, NAMESPACE_COUNT * 3 / 8);
+    }
+
+    @Test
+    void givenIdentityNotAmongMembers_whenOf_thenReturnsNone() {
+        // When
+        NamespaceShard shard = shardOf("fourth", MEMBERS);
+
+        // Then
+        Assertions.assertThat(shard).isSameAs(NamespaceShard.NONE);
+        Assertions.assertThat(shard.owns("anyNamespace")).isFalse();
+        Assertions.assertThat(NamespaceShard.ALL.owns("anyNamespace")).isTrue();
+    }
+
+    @Test
+    void givenSameMembers_whenEquals_thenShardsAreEqualButDifferFromAllAndNone() {
+        // Given
+        NamespaceShard shard = shardOf("first", MEMBERS);
+
+        // Then
+        Assertions.assertThat(shard).isEqualTo(shardOf("first", Arrays.asList("third", "second", "first")));
+        Assertions.assertThat(shard).isNotEqualTo(shardOf("second", MEMBERS));
+        Assertions.assertThat(shardOf("first", Collections.singletonList("first")))
+                .isNotEqualTo(NamespaceShard.ALL);
+        Assertions.assertThat(NamespaceShard.ALL).isNotEqualTo(NamespaceShard.NONE);
+    }
+
+    private static NamespaceShard shardOf(String identity, List<String> members) {
+        return NamespaceShard.of(identity, members, VIRTUAL_NODES);
+    }
+}
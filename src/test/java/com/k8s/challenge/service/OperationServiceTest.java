@@ -0,0 +1,213 @@
+package com.k8s.challenge.service;
+
+import com.k8s.challenge.constant.OperationStatus;
+import com.k8s.challenge.constant.OperationType;
+import com.k8s.challenge.entity.OperationEntity;
+import com.k8s.challenge.exception.NotFoundException;
+import com.k8s.challenge.repository.OperationRepository;
+import com.k8s.challenge.resource.OperationResource;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.ThrowableAssert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+public class OperationServiceTest {
+
+    private static final String ANY_USER_NAME = "anyUserName";
+    private static final UUID ANY_OPERATION_ID = UUID.fromString("0186b8e0-2f4c-7a3d-9b1e-5c6d7e8f9a0b");
+
+    private OperationService operationService;
+    private OperationEntity operationEntity;
+
+    @Mock
+    private OperationRepository operationRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private ConversionService conversionService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ScheduledExecutorService streamPollScheduler;
+
+    @Mock
+    private ScheduledFuture<Object> streamPoll;
+
+    @BeforeEach
+    void init() {
+        MockitoAnnotations.openMocks(this);
+        operationService = new OperationService(operationRepository, userService, conversionService,
+                transactionTemplate, streamPollScheduler);
+        Mockito.<ScheduledFuture<?>>when(streamPollScheduler.scheduleWithFixedDelay(Mockito.any(), Mockito.anyLong(),
+                Mockito.anyLong(), Mockito.any())).thenReturn(streamPoll);
+        Mockito.when(transactionTemplate.execute(Mockito.any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        operationEntity = OperationEntity.builder()
+                .type(OperationType.DELETE_DEPLOYMENTS)
+                .status(OperationStatus.RUNNING)
+                .build();
+        Mockito.when(operationRepository.findById(ANY_OPERATION_ID)).thenReturn(Optional.of(operationEntity));
+    }
+
+    @Nested
+    class CompleteOperation {
+
+        @Test
+        void givenNoFailedItem_whenCompleteOperation_thenOperationSucceeds() {
+            // When
+            operationService.completeOperation(ANY_OPERATION_ID, 3, 0, null);
+
+            // Then
+            Assertions.assertThat(operationEntity.getStatus()).isEqualTo(OperationStatus.SUCCEEDED);
+            Assertions.assertThat(operationEntity.getTotal()).isEqualTo(3);
+            Mockito.verify(operationRepository).save(operationEntity);
+        }
+
+        @Test
+        void givenFailedItemWithLongMessage_whenCompleteOperation_thenOperationFailsWithAbbreviatedMessage() {
+            // Given
+            String message = new String(new char[OperationEntity.MESSAGE_LENGTH + 1]).replace('\0', 'x');
+
+            // When
+            operationService.completeOperation(ANY_OPERATION_ID, 2, 1, message);
+
+            // Then
+            Assertions.assertThat(operationEntity.getStatus()).isEqualTo(OperationStatus.FAILED);
+            Assertions.assertThat(operationEntity.getSucceeded()).isEqualTo(2);
+            Assertions.assertThat(operationEntity.getFailed()).isEqualTo(1);
+            Assertions.assertThat(operationEntity.getMessage()).hasSize(OperationEntity.MESSAGE_LENGTH);
+        }
+    }
+
+    @Nested
+    class RetryOperation {
+
+        @Test
+        void givenRunningOperation_whenRetryOperation_thenOperationIsPendingUntilNextAttempt() {
+            // Given
+            LocalDateTime nextAttemptAt = LocalDateTime.of(2020, 12, 1, 10, 0);
+            operationEntity.setLeaseExpiresAt(nextAttemptAt.minusMinutes(1));
+
+            // When
+            operationService.retryOperation(ANY_OPERATION_ID, nextAttemptAt, "k8s-1004 unavailable");
+
+            // Then
+            Assertions.assertThat(operationEntity.getStatus()).isEqualTo(OperationStatus.PENDING);
+            Assertions.assertThat(operationEntity.getNextAttemptAt()).isEqualTo(nextAttemptAt);
+            Assertions.assertThat(operationEntity.getLeaseExpiresAt()).isNull();
+            Assertions.assertThat(operationEntity.getMessage()).isEqualTo("k8s-1004 unavailable");
+        }
+    }
+
+    @Nested
+    class StreamOperation {
+
+        @Test
+        void givenRunningOperation_whenOperationCompletes_thenStreamIsNotified() {
+            // Given
+            Mockito.when(operationRepository.findByIdAndUserUserName(ANY_OPERATION_ID, ANY_USER_NAME))
+                    .thenReturn(Optional.of(operationEntity));
+            Mockito.when(operationRepository.save(operationEntity)).thenReturn(operationEntity);
+            Mockito.when(conversionService.convert(operationEntity, OperationResource.class))
+                    .thenAnswer(invocation -> OperationResource.builder()
+                            .id(ANY_OPERATION_ID)
+                            .status(operationEntity.getStatus())
+                            .build());
+            operationService.streamOperation(ANY_USER_NAME, ANY_OPERATION_ID.toString());
+
+            // When
+            operationService.completeOperation(ANY_OPERATION_ID, 1, 0, null);
+            operationService.completeOperation(ANY_OPERATION_ID, 1, 0, null);
+
+            // Then
+            // Two reads on subscribe, and one notification for the first completion only
+            Mockito.verify(conversionService, Mockito.times(3)).convert(operationEntity, OperationResource.class);
+        }
+
+        @Test
+        void givenOperationCompletedOnOtherInstance_whenStreamPolls_thenStreamIsNotifiedAndStopsPolling() {
+            // Given
+            Mockito.when(operationRepository.findByIdAndUserUserName(ANY_OPERATION_ID, ANY_USER_NAME))
+                    .thenReturn(Optional.of(operationEntity));
+            Mockito.when(conversionService.convert(operationEntity, OperationResource.class))
+                    .thenAnswer(invocation -> OperationResource.builder()
+                            .id(ANY_OPERATION_ID)
+                            .status(operationEntity.getStatus())
+                            .build());
+            operationService.streamOperation(ANY_USER_NAME, ANY_OPERATION_ID.toString());
+            ArgumentCaptor<Runnable> poll = ArgumentCaptor.forClass(Runnable.class);
+            Mockito.verify(streamPollScheduler).scheduleWithFixedDelay(poll.capture(),
+                    Mockito.eq(OperationService.STREAM_POLL_INTERVAL.toMillis()),
+                    Mockito.eq(OperationService.STREAM_POLL_INTERVAL.toMillis()), Mockito.eq(TimeUnit.MILLISECONDS));
+            poll.getValue().run();
+            operationEntity.setStatus(OperationStatus.SUCCEEDED);
+
+            // When
+            poll.getValue().run();
+            poll.getValue().run();
+
+            // Then
+            Mockito.verify(streamPoll).cancel(false);
+            // Completions on this instance are no longer listened to
+            operationService.completeOperation(ANY_OPERATION_ID, 1, 0, null);
+            // Two reads on subscribe and three polls
+            Mockito.verify(conversionService, Mockito.times(5)).convert(operationEntity, OperationResource.class);
+        }
+
+        @Test
+        void givenCompletedOperation_whenStreamOperation_thenListensToNothing() {
+            // Given
+            operationEntity.setStatus(OperationStatus.SUCCEEDED);
+            Mockito.when(operationRepository.findByIdAndUserUserName(ANY_OPERATION_ID, ANY_USER_NAME))
+                    .thenReturn(Optional.of(operationEntity));
+            Mockito.when(operationRepository.save(operationEntity)).thenReturn(operationEntity);
+            Mockito.when(conversionService.convert(operationEntity, OperationResource.class))
+                    .thenReturn(OperationResource.builder().status(OperationStatus.SUCCEEDED).build());
+
+            // When
+            operationService.streamOperation(ANY_USER_NAME, ANY_OPERATION_ID.toString());
+            operationService.completeOperation(ANY_OPERATION_ID, 1, 0, null);
+
+            // Then
+            Mockito.verify(conversionService, Mockito.times(1)).convert(operationEntity, OperationResource.class);
+            Mockito.verifyNoInteractions(streamPollScheduler);
+        }
+    }
+
+    @Nested
+    class FindOperation {
+
+        @Test
+        void givenOperationOfOtherUser_whenFindOperation_thenThrowsNotFoundException() {
+            // Given
+            Mockito.when(operationRepository.findByIdAndUserUserName(ANY_OPERATION_ID, ANY_USER_NAME))
+                    .thenReturn(Optional.empty());
+
+            // When
+            ThrowableAssert.ThrowingCallable throwingCallable = () ->
+                    operationService.findOperation(ANY_USER_NAME, ANY_OPERATION_ID.toString());
+
+            // Then
+            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(NotFoundException.class);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.k8s.challenge.service;
+
+import com.k8s.challenge.constant.ChallengeConstant;
+import com.k8s.challenge.objectfactory.V1DeploymentFactory;
+import io.kubernetes.client.informer.ListerWatcher;
+import io.kubernetes.client.informer.cache.Cache;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.AppsV1Api;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.openapi.models.V1DeploymentList;
+import io.kubernetes.client.openapi.models.V1ListMeta;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.openapi.models.V1Status;
+import io.kubernetes.client.util.CallGeneratorParams;
+import io.kubernetes.client.util.Watch;
+import io.kubernetes.client.util.Watchable;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+public class ResumableDeploymentListerWatcherTest {
+
+    private static final String ANY_NAMESPACE = "anyNamespace";
+    private static final String ANY_CLUSTER = "https://anyCluster:6443";
+    private static final String SNAPSHOT_RESOURCE_VERSION = "100";
+    private static final String LISTED_RESOURCE_VERSION = "200";
+    private static final CallGeneratorParams LIST_PARAMS = new CallGeneratorParams(Boolean.FALSE, null, null);
+
+    @Mock
+    private ListerWatcher<V1Deployment, V1DeploymentList> apiListerWatcher;
+
+    private V1Deployment snapshotDeployment;
+    private Cache<V1Deployment> indexer;
+    private ResumableDeploymentListerWatcher listerWatcher;
+
+    @BeforeEach
+    void init() {
+        MockitoAnnotations.openMocks(this);
+        snapshotDeployment = deployment("snapshotDeployment", SNAPSHOT_RESOURCE_VERSION);
+        indexer = new Cache<>();
+        listerWatcher = new ResumableDeploymentListerWatcher(apiListerWatcher, ANY_CLUSTER, new DeploymentSnapshot(
+                ANY_CLUSTER, SNAPSHOT_RESOURCE_VERSION, Collections.singletonList(snapshotDeployment)));
+        listerWatcher.setIndexer(indexer);
+    }
+
+    @Test
+    void givenSnapshot_whenList_thenReturnsSnapshotWithoutListingApiServer() throws ApiException {
+        // When
+        V1DeploymentList v1DeploymentList = listerWatcher.list(LIST_PARAMS);
+
+        // Then
+        Assertions.assertThat(v1DeploymentList.getMetadata().getResourceVersion()).isEqualTo(SNAPSHOT_RESOURCE_VERSION);
+        Assertions.assertThat(v1DeploymentList.getItems()).containsExactly(snapshotDeployment);
+        Mockito.verifyNoInteractions(apiListerWatcher);
+    }
+
+    @Test
+    void givenIndexerAppliedWatchedChanges_whenList_thenResumesWithIndexedDeployments() throws Exception {
+        // Given
+        informerTakes(listerWatcher.list(LIST_PARAMS));
+        V1Deployment addedDeployment = deployment("addedDeployment", "101");
+        V1Deployment deletedDeployment = deployment(snapshotDeployment.getMetadata().getName(), "102");
+        Mockito.when(apiListerWatcher.watch(Mockito.any())).thenReturn(watch(
+                new Watch.Response<>("ADDED", addedDeployment),
+                new Watch.Response<>("DELETED", deletedDeployment)));
+        consume(listerWatcher.watch(new CallGeneratorParams(Boolean.TRUE, SNAPSHOT_RESOURCE_VERSION, 300)));
+        indexer.add(addedDeployment);
+        indexer.delete(deletedDeployment);
+
+        // When
+        V1DeploymentList v1DeploymentList = listerWatcher.list(LIST_PARAMS);
+
+        // Then
+        Assertions.assertThat(v1DeploymentList.getMetadata().getResourceVersion()).isEqualTo("102");
+        Assertions.assertThat(v1DeploymentList.getItems()).containsExactly(addedDeployment);
+        DeploymentSnapshot snapshot = listerWatcher.snapshot();
+        Assertions.assertThat(snapshot.getCluster()).isEqualTo(ANY_CLUSTER);
+        Assertions.assertThat(snapshot.getResourceVersion()).isEqualTo("102");
+        Assertions.assertThat(snapshot.getDeployments()).containsExactly(addedDeployment);
+        Mockito.verify(apiListerWatcher, Mockito.never()).list(Mockito.any());
+    }
+
+    @Test
+    void givenIndexerBehindWatch_whenSnapshotAndList_thenSnapshotIsNotTakenAndListsFromApiServer() throws Exception {
+        // Given
+        informerTakes(listerWatcher.list(LIST_PARAMS));
+        Mockito.when(apiListerWatcher.watch(Mockito.any())).thenReturn(watch(
+                new Watch.Response<>("MODIFIED", deployment(snapshotDeployment.getMetadata().getName(), "101"))));
+        consume(listerWatcher.watch(new CallGeneratorParams(Boolean.TRUE, SNAPSHOT_RESOURCE_VERSION, 300)));
+        V1DeploymentList listed = new V1DeploymentList()
+                .metadata(new V1ListMeta().resourceVersion(LISTED_RESOURCE_VERSION))
+                .items(Collections.emptyList());
+        Mockito.when(apiListerWatcher.list(LIST_PARAMS)).thenReturn(listed);
+
+        // When
+        DeploymentSnapshot snapshot = listerWatcher.snapshot();
+        V1DeploymentList v1DeploymentList = listerWatcher.list(LIST_PARAMS);
+
+        // Then
+        Assertions.assertThat(snapshot).isNull();
+        Assertions.assertThat(v1DeploymentList).isSameAs(listed);
+    }
+
+    @Test
+    void givenWatchExpired_whenList_thenRelistsFromApiServer() throws Exception {
+        // Given
+        informerTakes(listerWatcher.list(LIST_PARAMS));
+        Mockito.when(apiListerWatcher.watch(Mockito.any())).thenReturn(watch(
+                new Watch.Response<>("ERROR", new V1Status().code(HttpStatus.GONE.value()))));
+        consume(listerWatcher.watch(new CallGeneratorParams(Boolean.TRUE, SNAPSHOT_RESOURCE_VERSION, 300)));
+        V1Deployment listedDeployment = deployment("listedDeployment", "150");
+        V1DeploymentList listed = new V1DeploymentList()
+                .metadata(new V1ListMeta().resourceVersion(LISTED_RESOURCE_VERSION))
+                .items(Collections.singletonList(listedDeployment));
+        Mockito.when(apiListerWatcher.list(LIST_PARAMS)).thenReturn(listed);
+
+        // When
+        V1DeploymentList v1DeploymentList = listerWatcher.list(LIST_PARAMS);
+        informerTakes(v1DeploymentList);
+
+        // Then
+        Assertions.assertThat(v1DeploymentList).isSameAs(listed);
+        Assertions.assertThat(listerWatcher.snapshot().getResourceVersion()).isEqualTo(LISTED_RESOURCE_VERSION);
+        Assertions.assertThat(listerWatcher.snapshot().getDeployments()).containsExactly(listedDeployment);
+    }
+
+    @Test
+    void givenNoSnapshot_whenList_thenListsFromApiServer() throws ApiException {
+        // Given
+        listerWatcher = new ResumableDeploymentListerWatcher(apiListerWatcher, ANY_CLUSTER, null);
+        listerWatcher.setIndexer(indexer);
+        Assertions.assertThat(listerWatcher.snapshot()).isNull();
+        V1DeploymentList listed = new V1DeploymentList()
+                .metadata(new V1ListMeta().resourceVersion(LISTED_RESOURCE_VERSION))
+                .items(Collections.emptyList());
+        Mockito.when(apiListerWatcher.list(LIST_PARAMS)).thenReturn(listed);
+
+        // When
+        V1DeploymentList v1DeploymentList = listerWatcher.list(LIST_PARAMS);
+
+        // Then
+        Assertions.assertThat(v1DeploymentList).isSameAs(listed);
+        Assertions.assertThat(listerWatcher.snapshot().getResourceVersion()).isEqualTo(LISTED_RESOURCE_VERSION);
+    }
+
+    @Test
+    void givenMoreDeploymentsThanPageSize_whenList_thenListsPagesThroughReadClient() throws ApiException {
+        // Given
+        AppsV1Api deploymentApi = Mockito.mock(AppsV1Api.class);
+        AppsV1Api watchDeploymentApi = Mockito.mock(AppsV1Api.class);
+        Mockito.when(deploymentApi.getApiClient()).thenReturn(new ApiClient().setBasePath(ANY_CLUSTER));
+        V1Deployment firstDeployment = deployment("firstDeployment", "150");
+        V1Deployment secondDeployment = deployment("secondDeployment", "160");
+        Mockito.when(deploymentApi.listDeploymentForAllNamespaces(null, null, null, ChallengeConstant.USER_NAME_LABEL,
+                KubernetesClientService.LIST_PAGE_SIZE, null, null, null, Boolean.FALSE))
+                .thenReturn(new V1DeploymentList()
+                        .metadata(new V1ListMeta().resourceVersion(LISTED_RESOURCE_VERSION)._continue("next"))
+                        .items(Collections.singletonList(firstDeployment)));
+        Mockito.when(deploymentApi.listDeploymentForAllNamespaces(null, "next", null, ChallengeConstant.USER_NAME_LABEL,
+                KubernetesClientService.LIST_PAGE_SIZE, null, null, null, Boolean.FALSE))
+                .thenReturn(new V1DeploymentList()
+                        .metadata(new V1ListMeta().resourceVersion(LISTED_RESOURCE_VERSION))
+                        .items(Collections.singletonList(secondDeployment)));
+        listerWatcher = new ResumableDeploymentListerWatcher(deploymentApi, watchDeploymentApi, null);
+
+        // When
+        V1DeploymentList v1DeploymentList = listerWatcher.list(LIST_PARAMS);
+
+        // Then
+        Assertions.assertThat(v1DeploymentList.getMetadata().getResourceVersion()).isEqualTo(LISTED_RESOURCE_VERSION);
+        Assertions.assertThat(v1DeploymentList.getItems()).containsExactly(firstDeployment, secondDeployment);
+        Assertions.assertThat(listerWatcher.getCluster()).isEqualTo(ANY_CLUSTER);
+        Mockito.verifyNoInteractions(watchDeploymentApi);
+    }
+
+    /**
+     * Applies a listing to the indexer as the informer does.
+     */
+    private void informerTakes(V1DeploymentList v1DeploymentList) {
+        indexer.replace(new ArrayList<>(v1DeploymentList.getItems()),
+                v1DeploymentList.getMetadata().getResourceVersion());
+    }
+
+    private static V1Deployment deployment(String name, String resourceVersion) {
+        V1Deployment v1Deployment = V1DeploymentFactory.createV1Deployment();
+        v1Deployment.setMetadata(new V1ObjectMeta().name(name).namespace(ANY_NAMESPACE).resourceVersion(resourceVersion));
+        return v1Deployment;
+    }
+
+    @SafeVarargs
+    private static Watchable<V1Deployment> watch(Watch.Response<V1Deployment>... events) {
+        List<Watch.Response<V1Deployment>> responses = Arrays.asList(events);
+        Iterator<Watch.Response<V1Deployment>> iterator = responses.iterator();
+        return new Watchable<V1Deployment>() {
+            @Override
+            public Iterator<Watch.Response<V1Deployment>> iterator() {
+                return this;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Watch.Response<V1Deployment> next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static void consume(Watchable<V1Deployment> watchable) throws IOException {
+        try (Watchable<V1Deployment> watch = watchable) {
+            watch.forEach(event -> {
+            });
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.k8s.challenge.entity.AuthorizationEntity;
 import com.k8s.challenge.entity.UserEntity;
 import com.k8s.challenge.exception.BadRequestException;
 import com.k8s.challenge.exception.NotFoundException;
+import com.k8s.challenge.repository.AuthorizationRepository;
 import com.k8s.challenge.repository.UserRepository;
 import org.assertj.core.api.Assertions;
 import org.assertj.core.api.ThrowableAssert;
@@ -13,10 +14,13 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.Collections;
 import java.util.Optional;
+import java.util.UUID;
 
 import static com.k8s.challenge.constant.ChallengeConstant.ROLE_USER;
 
@@ -26,6 +30,7 @@ public class UserServiceTest {
     private static final String ANY_NAME = "anyName";
     private static final String ANY_PASSWORD = "anyPassword";
     private static final String ANY_ENCODED_PASSWORD = "anyEncodedPassword";
+    private static final UUID ANY_USER_ID = UUID.fromString("0186b8e0-2f4a-7c1d-8e2f-3a4b5c6d7e8f");
     private static final String INVALID_USER_NAME = "anyInvalidUserName";
 
     private UserService userService;
@@ -33,21 +38,32 @@ public class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private AuthorizationRepository authorizationRepository;
+
     @Mock
     private BCryptPasswordEncoder passwordEncoder;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     private UserEntity userEntity;
+    private AuthorizationEntity roleUser;
 
     @BeforeEach
     void init() {
         MockitoAnnotations.openMocks(this);
-        userService = new UserService(userRepository, passwordEncoder);
+        userService = new UserService(userRepository, authorizationRepository, passwordEncoder,
+                transactionManager);
 
         userEntity = UserEntity.builder()
                 .name(ANY_NAME)
                 .password(ANY_PASSWORD)
                 .userName(ANY_USER_NAME)
                 .build();
+        roleUser = AuthorizationEntity.builder()
+                .auth(ROLE_USER)
+                .build();
     }
 
     @Nested
@@ -56,6 +72,7 @@ public class UserServiceTest {
         @Test
         void givenUserEntity_whenCreateUser_thenReturnCreatedUserWithHashedPassword() {
             // Given
+            Mockito.when(authorizationRepository.findFirstByAuth(ROLE_USER)).thenReturn(Optional.of(roleUser));
             Mockito.when(passwordEncoder.encode(ANY_PASSWORD)).thenReturn(ANY_ENCODED_PASSWORD);
             Mockito.when(userRepository.save(userEntity)).thenReturn(UserEntity.builder()
                     .name(ANY_NAME)
@@ -73,6 +90,44 @@ public class UserServiceTest {
             Assertions.assertThat(result.getAuthorizations()).isNotEmpty();
         }
 
+        @Test
+        void givenExistingRole_whenCreateUser_thenRoleIsSharedInsteadOfCreated() {
+            // Given
+            Mockito.when(authorizationRepository.findFirstByAuth(ROLE_USER)).thenReturn(Optional.of(roleUser));
+            // When
+            userService.createUserEntity(userEntity);
+            // Then
+            Assertions.assertThat(userEntity.getAuthorizations()).containsExactly(roleUser);
+            Mockito.verify(authorizationRepository, Mockito.never()).save(Mockito.any());
+        }
+
+        @Test
+        void givenNoRole_whenCreateUser_thenRoleIsCreated() {
+            // Given
+            Mockito.when(authorizationRepository.findFirstByAuth(ROLE_USER)).thenReturn(Optional.empty());
+            Mockito.when(authorizationRepository.save(Mockito.any())).thenReturn(roleUser);
+            // When
+            userService.createUserEntity(userEntity);
+            // Then
+            Assertions.assertThat(userEntity.getAuthorizations()).containsExactly(roleUser);
+            Mockito.verify(transactionManager).commit(Mockito.any());
+        }
+
+        @Test
+        void givenRoleCreatedConcurrently_whenCreateUser_thenRoleIsReadAgain() {
+            // Given
+            Mockito.when(authorizationRepository.findFirstByAuth(ROLE_USER)).thenReturn(Optional.empty())
+                    .thenReturn(Optional.of(roleUser));
+            Mockito.when(authorizationRepository.save(Mockito.any()))
+                    .thenThrow(new DataIntegrityViolationException("idx_authorization_auth"));
+            // When
+            userService.createUserEntity(userEntity);
+            // Then
+            Assertions.assertThat(userEntity.getAuthorizations()).containsExactly(roleUser);
+            Mockito.verify(transactionManager).rollback(Mockito.any());
+            Mockito.verify(userRepository).save(userEntity);
+        }
+
         @Test
         void givenUserNameThatExists_whenCreateUser_thenThrowsBadRequestException() {
             // Given
@@ -141,5 +196,35 @@ public class UserServiceTest {
             // Then
             Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(NotFoundException.class);
         }
+
+        @Test
+        void givenUserName_whenFindUserWithAuthorizationsByName_thenUserEntityReturned() {
+            // Given
+            Mockito.when(userRepository.findWithAuthorizationsByUserName(ANY_USER_NAME))
+                    .thenReturn(Optional.of(userEntity));
+            // When
+            UserEntity result = userService.findUserWithAuthorizationsByName(ANY_USER_NAME);
+            // Then
+            Assertions.assertThat(result).isSameAs(userEntity);
+        }
+
+        @Test
+        void givenUserName_whenFindUserIdByName_thenOnlyIdIsQueried() {
+            // Given
+            Mockito.when(userRepository.findIdByUserName(ANY_USER_NAME)).thenReturn(Optional.of(ANY_USER_ID));
+            // When
+            UUID result = userService.findUserIdByName(ANY_USER_NAME);
+            // Then
+            Assertions.assertThat(result).isEqualTo(ANY_USER_ID);
+            Mockito.verify(userRepository, Mockito.never()).findByUserName(ANY_USER_NAME);
+        }
+
+        @Test
+        void givenInvalidUserName_whenFindUserIdByName_thenThrowsNotFoundException() {
+            // When
+            ThrowableAssert.ThrowingCallable throwingCallable = () -> userService.findUserIdByName(INVALID_USER_NAME);
+            // Then
+            Assertions.assertThatThrownBy(throwingCallable).isInstanceOf(NotFoundException.class);
+        }
     }
 }
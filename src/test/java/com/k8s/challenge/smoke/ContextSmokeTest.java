@@ -0,0 +1,21 @@
+package com.k8s.challenge.smoke;
+
+import com.k8s.challenge.Application;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.beans.factory.annotation.Autowired;
+
+@SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.MOCK, properties = {
+        "k8s.path=https://127.0.0.1:1", "k8s.clientCrt=/tmp/smoke/client.crt", "k8s.clientKey=/tmp/smoke/client.key",
+        "spring.datasource.url=jdbc:h2:mem:smoke", "k8s.sync.enabled=true"})
+public class ContextSmokeTest {
+    @Autowired
+    ApplicationContext ctx;
+
+    @Test
+    void contextLoads() throws Exception {
+        System.out.println("SMOKE BEANS " + ctx.getBeanDefinitionCount());
+        Thread.sleep(3000);
+    }
+}